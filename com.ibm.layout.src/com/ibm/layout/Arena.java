@@ -0,0 +1,308 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import sun.misc.Unsafe;
+
+/**
+ * Off-heap bump-pointer allocator for layouts.
+ *
+ * <p>
+ * Memory is carved out of large native regions by advancing a pointer; individual
+ * allocations are never freed. All regions are released together by {@link #close()},
+ * or rewound for reuse by {@link #reset()}. Allocated memory is zeroed.
+ * </p>
+ *
+ * <p>
+ * An arena is not thread-safe. Layouts allocated from an arena must not be accessed
+ * after the arena is closed or reset.
+ * </p>
+ *
+ *	<h2>Example Usage</h2>
+ *	<pre>
+ *	try (Arena arena = new Arena()) {
+ *		Point p = arena.allocateLayout(Point.class);
+ *		Array1D&lt;Point&gt; points = arena.allocateArray1D(Point.class, 100);
+ *		p.x(10);
+ *		points.put(0, p);
+ *	}
+ *	</pre>
+ */
+public final class Arena implements AutoCloseable {
+	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
+
+	/**
+	 * Default size of a region, in bytes
+	 */
+	public static final long DEFAULT_REGION_SIZE = 1L << 20;
+
+	/**
+	 * Default alignment of an allocation, in bytes
+	 */
+	public static final long DEFAULT_ALIGNMENT = 8;
+
+	private final long regionSize;
+	private long[] regions = new long[4];
+	private int regionCount = 0;
+	private long top = 0;
+	private long limit = 0;
+	private long allocatedSize = 0;
+	private boolean closed = false;
+
+	/**
+	 * Create an arena with the default region size
+	 */
+	public Arena() {
+		this(DEFAULT_REGION_SIZE);
+	}
+
+	/**
+	 * Create an arena
+	 *
+	 * @param regionSize size of each native region, in bytes. Allocations larger than
+	 *            this get a dedicated region.
+	 */
+	public Arena(long regionSize) {
+		if (regionSize <= 0) {
+			throw new IllegalArgumentException("regionSize must be positive: " + regionSize);
+		}
+		this.regionSize = regionSize;
+	}
+
+	/**
+	 * Allocate zeroed off-heap memory with the default alignment.
+	 *
+	 * @param size number of bytes
+	 * @return a location targeting the allocated memory
+	 */
+	public Location allocate(long size) {
+		return allocate(size, DEFAULT_ALIGNMENT);
+	}
+
+	/**
+	 * Allocate zeroed off-heap memory.
+	 *
+	 * @param size number of bytes
+	 * @param alignment alignment of the returned address, must be a power of 2
+	 * @return a location targeting the allocated memory
+	 */
+	public Location allocate(long size, long alignment) {
+		if (closed) {
+			throw new IllegalStateException("arena is closed");
+		}
+		if (size < 0) {
+			throw new IllegalArgumentException("negative size: " + size);
+		}
+		if ((alignment <= 0) || ((alignment & (alignment - 1)) != 0)) {
+			throw new IllegalArgumentException("alignment must be a power of 2: " + alignment);
+		}
+
+		long addr = (top + alignment - 1) & -alignment;
+		if ((limit == 0) || (addr + size > limit)) {
+			if (size + alignment - 1 > regionSize) {
+				/* Oversized requests get their own region, so the current region stays usable */
+				addr = (newRegion(size + alignment - 1) + alignment - 1) & -alignment;
+				unsafe.setMemory(addr, size, (byte)0);
+				allocatedSize += size;
+				return new Location(addr);
+			}
+			top = newRegion(regionSize);
+			limit = top + regionSize;
+			addr = (top + alignment - 1) & -alignment;
+		}
+		top = addr + size;
+		unsafe.setMemory(addr, size, (byte)0);
+		allocatedSize += size;
+		return new Location(addr);
+	}
+
+	private long newRegion(long size) {
+		if (regionCount == regions.length) {
+			long[] newRegions = new long[regions.length * 2];
+			System.arraycopy(regions, 0, newRegions, 0, regionCount);
+			regions = newRegions;
+		}
+		long region = unsafe.allocateMemory(size);
+		regions[regionCount++] = region;
+		return region;
+	}
+
+	/**
+	 * Allocate a singleton layout
+	 *
+	 * @param <T> subclass of Layout
+	 * @param cls The layout class.
+	 * @return a layout instance bound to zeroed memory in this arena
+	 */
+	public <T extends Layout> T allocateLayout(Class<T> cls) {
+		T layout = Layout.getLayout(cls);
+		layout.bindLocation(allocate(layout.sizeof()));
+		return layout;
+	}
+
+	/**
+	 * Allocate a 1D array layout
+	 *
+	 * @param <T> subclass of Layout
+	 * @param cls The layout class for each array element.
+	 * @param length The number of array elements.
+	 * @return a 1D array layout bound to zeroed memory in this arena
+	 */
+	public <T extends Layout> Array1D<T> allocateArray1D(Class<T> cls, long length) {
+		Array1D<T> array = Array1D.getArray1D(cls, length);
+		array.bindLocation(allocate(array.sizeof()));
+		return array;
+	}
+
+	/**
+	 * Allocate a columnar 1D array layout
+	 *
+	 * @param <T> subclass of Layout
+	 * @param cls The layout class for each array element.
+	 * @param length The number of array elements.
+	 * @return a columnar 1D array layout bound to zeroed memory in this arena
+	 */
+	public <T extends Layout> ColumnArray1D<T> allocateColumnArray1D(Class<T> cls, long length) {
+		ColumnArray1D<T> array = ColumnArray1D.getColumnArray1D(cls, length);
+		array.bindLocation(allocate(array.sizeof()));
+		return array;
+	}
+
+	/**
+	 * Allocate a user extension of a 1D array layout
+	 *
+	 * @param <E> subclass of Layout
+	 * @param <AE> subclass of Array1D
+	 * @param userArrayCls A user-extension of an Array1D interface.
+	 * @param elementLayout The element type of the array.
+	 * @param length The number of array elements.
+	 * @return a 1D array layout bound to zeroed memory in this arena
+	 */
+	public <E extends Layout, AE extends Array1D<E>> AE allocateUserArray1D(Class<AE> userArrayCls,
+		Class<E> elementLayout, long length)
+	{
+		AE array = Array1D.getUserArray1D(userArrayCls, elementLayout, length);
+		array.bindLocation(allocate(array.sizeof()));
+		return array;
+	}
+
+	/**
+	 * Allocate a 2D array layout
+	 *
+	 * @param <T> subclass of Layout
+	 * @param cls The layout class for each array element.
+	 * @param dim1 The number of elements in the 1st dimension.
+	 * @param dim2 The number of elements in the 2nd dimension
+	 * @return a 2D array layout bound to zeroed memory in this arena
+	 */
+	public <T extends Layout> Array2D<T> allocateArray2D(Class<T> cls, long dim1, long dim2) {
+		Array2D<T> array = Array2D.getArray2D(cls, dim1, dim2);
+		array.bindLocation(allocate(array.sizeof()));
+		return array;
+	}
+
+	/**
+	 * Allocate a 1D array of java primitive type
+	 *
+	 * @param <T> subclass of LayoutType
+	 * @param primCls The primitive class for each array element, e.g. int.class
+	 * @param length The number of array elements.
+	 * @return a 1D primitive array bound to zeroed memory in this arena
+	 */
+	public <T extends LayoutType> T allocatePrimArray1D(Class<?> primCls, long length) {
+		T array = LayoutType.getPrimArray1D(primCls, length);
+		array.bindLocation(allocate(array.sizeof()));
+		return array;
+	}
+
+	/**
+	 * Allocate a 2D array of java primitive type
+	 *
+	 * @param <T> subclass of LayoutType
+	 * @param primCls The primitive class for each array element, e.g. int.class
+	 * @param dim1 The number of elements in the 1st dimension.
+	 * @param dim2 The number of elements in the 2nd dimension
+	 * @return a 2D primitive array bound to zeroed memory in this arena
+	 */
+	public <T extends LayoutType> T allocatePrimArray2D(Class<?> primCls, long dim1, long dim2) {
+		T array = LayoutType.getPrimArray2D(primCls, dim1, dim2);
+		array.bindLocation(allocate(array.sizeof()));
+		return array;
+	}
+
+	/**
+	 * Allocate a 1D bit array
+	 *
+	 * @param length The number of bits.
+	 * @return a bit array bound to zeroed memory in this arena
+	 */
+	public BitArray1D allocateBitArray1D(long length) {
+		BitArray1D array = BitArray1D.getBitArray1D(length);
+		array.bindLocation(allocate(array.sizeof()));
+		return array;
+	}
+
+	/**
+	 * Allocate a 2D bit array
+	 *
+	 * @param dim1 The number of elements in the 1st dimension.
+	 * @param dim2 The number of elements in the 2nd dimension
+	 * @return a 2D bit array bound to zeroed memory in this arena
+	 */
+	public BitArray2D allocateBitArray2D(long dim1, long dim2) {
+		BitArray2D array = BitArray2D.getBitArray2D(dim1, dim2);
+		array.bindLocation(allocate(array.sizeof()));
+		return array;
+	}
+
+	/**
+	 * Get the number of bytes handed out since the arena was created or last reset,
+	 * not counting alignment padding.
+	 * @return number of allocated bytes
+	 */
+	public long getAllocatedSize() {
+		return allocatedSize;
+	}
+
+	/**
+	 * Free all regions but the first, and rewind the arena so its memory can be reused.
+	 * Layouts allocated before the reset must not be used afterwards.
+	 */
+	public void reset() {
+		if (closed) {
+			throw new IllegalStateException("arena is closed");
+		}
+		if (regionCount > 0) {
+			for (int i = 1; i < regionCount; i++) {
+				unsafe.freeMemory(regions[i]);
+			}
+			regionCount = 1;
+			/* the first region is at least regionSize bytes, even if it was oversized */
+			top = regions[0];
+			limit = regions[0] + regionSize;
+		}
+		allocatedSize = 0;
+	}
+
+	/**
+	 * Free all regions. Layouts allocated from this arena must not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		for (int i = 0; i < regionCount; i++) {
+			unsafe.freeMemory(regions[i]);
+		}
+		regionCount = 0;
+		top = 0;
+		limit = 0;
+		closed = true;
+	}
+}
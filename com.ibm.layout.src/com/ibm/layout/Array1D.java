@@ -7,8 +7,9 @@
  *******************************************************************************/
 package com.ibm.layout;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A 1D array layout.
@@ -26,21 +27,9 @@ public interface Array1D<T extends Layout> extends LayoutType {
 	 * @return a 1D array layout
 	 */
 	static public <T extends Layout> Array1D<T> getArray1D(final Class<T> cls, final long length) {
-		Class<Array1D<T>> implCls;
-		Class<T> elementCls;
 		try {
-			LayoutHelper f = LayoutHelper.getFactory();
-			// load the element class first (maybe this should be done in the classloader)
-			elementCls = f.genLayoutImpl(cls);
-			Constructor<T> elementCtor = elementCls.getDeclaredConstructor(new Class<?>[] {});
-			elementCtor.setAccessible(true);
-			long size = elementCtor.newInstance().sizeof();
-			implCls = f.genArray1DImpl(cls);
-			Constructor<Array1D<T>> ctor = implCls.getDeclaredConstructor(new Class<?>[] { long.class, long.class });
-			ctor.setAccessible(true);
-			return ctor.newInstance(length, size);
-		} catch (InstantiationException | IllegalAccessException | IllegalArgumentException
-			| InvocationTargetException | NoSuchMethodException | SecurityException e) {
+			return LayoutHelper.getFactory().getArray1DFactory(cls).newInstance(length);
+		} catch (Exception e) {
 			e.printStackTrace();
 		}
 		return null;
@@ -60,21 +49,9 @@ public interface Array1D<T extends Layout> extends LayoutType {
 	static public <E extends Layout, AE extends Array1D<E>> AE getUserArray1D(final Class<AE> userArrayCls,
 		final Class<E> elementLayout, final long length)
 	{
-		Class<AE> implCls;
-		Class<E> elementCls;
 		try {
-			LayoutHelper f = LayoutHelper.getFactory();
-			// load the element class first (maybe this should be done in the classloader)
-			elementCls = f.genLayoutImpl(elementLayout);
-			Constructor<E> elementCtor = elementCls.getDeclaredConstructor(new Class<?>[] {});
-			elementCtor.setAccessible(true);
-			long size = elementCtor.newInstance().sizeof();
-			implCls = f.genArray1DImpl(elementLayout, userArrayCls);
-			Constructor<AE> ctor = implCls.getDeclaredConstructor(new Class<?>[] { long.class, long.class });
-			ctor.setAccessible(true);
-			return ctor.newInstance(length, size);
-		} catch (InstantiationException | IllegalAccessException | IllegalArgumentException
-			| InvocationTargetException | NoSuchMethodException | SecurityException e) {
+			return LayoutHelper.getFactory().getUserArray1DFactory(userArrayCls, elementLayout).newInstance(length);
+		} catch (Exception e) {
 			e.printStackTrace();
 		}
 		return null;
@@ -109,6 +86,40 @@ public interface Array1D<T extends Layout> extends LayoutType {
 	 */
 	public abstract Array1D<T> range(long startIdx, long length);
 
+	/**
+	 * Create a flyweight cursor over the array elements.
+	 * Moving the cursor does not allocate. The array must be bound to a location.
+	 * @return a cursor positioned before the first element
+	 */
+	public abstract Cursor<T> cursor();
+
+	/**
+	 * Create a spliterator over the array elements. It splits by index range.
+	 * The element passed to an action is a flyweight that targets the next element
+	 * once the action returns; copy it if its value must be kept.
+	 * The array must be bound to a location.
+	 * @return a spliterator
+	 */
+	public default Spliterator<T> spliterator() {
+		return new ArraySpliterators.LayoutSpliterator<T>(this, 0, getLength());
+	}
+
+	/**
+	 * Create a sequential stream of the array elements. See {@link #spliterator()}.
+	 * @return a stream of flyweight elements
+	 */
+	public default Stream<T> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Create a parallel stream of the array elements. See {@link #spliterator()}.
+	 * @return a stream of flyweight elements
+	 */
+	public default Stream<T> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
 	/**
 	 * Get the size of the array
 	 * @return the data size in bytes
@@ -7,9 +7,6 @@
  *******************************************************************************/
 package com.ibm.layout;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-
 /**
  * Instantiate a 2D array layout.
  * The JVM generates a runtime class that implements the layout's stub interface.
@@ -47,6 +44,28 @@ public interface Array2D<T extends Layout> extends LayoutType {
 	 */
 	public abstract void put(long i, long j, T value);
 
+	/**
+	 * Create a flyweight cursor over the array elements, in row-major order.
+	 * The cursor index of element (i, j) is i * dim2() + j.
+	 * Moving the cursor does not allocate. The array must be bound to a location.
+	 * @return a cursor positioned before the first element
+	 */
+	public abstract Cursor<T> cursor();
+
+	/**
+	 * Get a row of the array
+	 * @param i index in 1st dim
+	 * @return a layout targeting the dim2 elements of row i
+	 */
+	public abstract Array1D<T> row(long i);
+
+	/**
+	 * Create a cursor over the rows of the array. Moving the cursor re-points the same
+	 * row layout, so iterating over rows does not allocate. The array must be bound to a location.
+	 * @return a cursor positioned before the first row
+	 */
+	public abstract Cursor<Array1D<T>> rows();
+
 	/**
 	 * Get the total size of the array
 	 * @return the data size in bytes
@@ -64,22 +83,8 @@ public interface Array2D<T extends Layout> extends LayoutType {
 	 */
 	static public <T extends Layout> Array2D<T> getArray2D(Class<T> cls, long dim1, long dim2) {
 		try {
-			Class<Array2D<T>> implCls;
-			Class<T> elementCls;
-			
-			LayoutHelper f = LayoutHelper.getFactory();
-
-			elementCls = f.genLayoutImpl(cls);
-			Constructor<T> elementCtor = elementCls.getDeclaredConstructor(new Class<?>[] {});
-			elementCtor.setAccessible(true);
-			long size = elementCtor.newInstance().sizeof();
-			
-			implCls = f.genArray2DImpl(cls);
-			Constructor<Array2D<T>> ctor = implCls.getDeclaredConstructor(new Class<?>[] { long.class, long.class, long.class });
-			ctor.setAccessible(true);
-			return ctor.newInstance(dim1, dim2, size);
-		} catch (InvocationTargetException | NoSuchMethodException | SecurityException | InstantiationException
-			| IllegalAccessException | IllegalArgumentException e) {
+			return LayoutHelper.getFactory().getArray2DFactory(cls).newInstance(dim1, dim2);
+		} catch (Exception e) {
 			e.printStackTrace();
 		}
 		return null;
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Spliterators over array layouts, backing their stream() methods.
+ *
+ * <p>
+ * A spliterator covers the index range [index, fence) of an array. It splits in half by
+ * index: the prefix is handed off as a sub range of the array, created with range(), so
+ * each thread of a parallel stream works on its own array view. Layout elements are
+ * visited through a {@link Cursor}, so traversal does not allocate per element.
+ * </p>
+ */
+final class ArraySpliterators {
+	private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+			| Spliterator.NONNULL;
+
+	private ArraySpliterators() {
+	}
+
+	/**
+	 * Get the index that splits [index, fence) in half
+	 * @return the split index, or -1 if the range is too small to split
+	 */
+	private static long splitIndex(long index, long fence) {
+		long mid = (index + fence) >>> 1;
+		return (mid <= index) ? -1 : mid;
+	}
+
+	/**
+	 * Spliterator over an array of layouts. The element passed to an action is a flyweight,
+	 * re-pointed at the next element after the action returns.
+	 * @param <T> element type
+	 */
+	static final class LayoutSpliterator<T extends Layout> implements Spliterator<T> {
+		private final Array1D<T> array;
+		private long index;
+		private final long fence;
+		private Cursor<T> cursor;
+
+		LayoutSpliterator(Array1D<T> array, long index, long fence) {
+			this.array = array;
+			this.index = index;
+			this.fence = fence;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (index < fence) {
+				if (null == cursor) {
+					cursor = array.cursor();
+				}
+				action.accept(cursor.moveTo(index++));
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			if (index < fence) {
+				if (null == cursor) {
+					cursor = array.cursor();
+				}
+				for (long i = index; i < fence; i++) {
+					action.accept(cursor.moveTo(i));
+				}
+				index = fence;
+			}
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			long mid = splitIndex(index, fence);
+			if (mid < 0) {
+				return null;
+			}
+			Spliterator<T> prefix = new LayoutSpliterator<T>(array.range(index, mid - index), 0, mid - index);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return CHARACTERISTICS;
+		}
+	}
+
+	/**
+	 * Spliterator over an IntArray1D
+	 */
+	static final class IntSpliterator implements Spliterator.OfInt {
+		private final IntArray1D array;
+		private long index;
+		private final long fence;
+
+		IntSpliterator(IntArray1D array, long index, long fence) {
+			this.array = array;
+			this.index = index;
+			this.fence = fence;
+		}
+
+		@Override
+		public boolean tryAdvance(IntConsumer action) {
+			if (index < fence) {
+				action.accept(array.at(index++));
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public void forEachRemaining(IntConsumer action) {
+			for (long i = index; i < fence; i++) {
+				action.accept(array.at(i));
+			}
+			index = fence;
+		}
+
+		@Override
+		public Spliterator.OfInt trySplit() {
+			long mid = splitIndex(index, fence);
+			if (mid < 0) {
+				return null;
+			}
+			Spliterator.OfInt prefix = new IntSpliterator(array.range(index, mid - index), 0, mid - index);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return CHARACTERISTICS;
+		}
+	}
+
+	/**
+	 * Spliterator over a LongArray1D
+	 */
+	static final class LongSpliterator implements Spliterator.OfLong {
+		private final LongArray1D array;
+		private long index;
+		private final long fence;
+
+		LongSpliterator(LongArray1D array, long index, long fence) {
+			this.array = array;
+			this.index = index;
+			this.fence = fence;
+		}
+
+		@Override
+		public boolean tryAdvance(LongConsumer action) {
+			if (index < fence) {
+				action.accept(array.at(index++));
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public void forEachRemaining(LongConsumer action) {
+			for (long i = index; i < fence; i++) {
+				action.accept(array.at(i));
+			}
+			index = fence;
+		}
+
+		@Override
+		public Spliterator.OfLong trySplit() {
+			long mid = splitIndex(index, fence);
+			if (mid < 0) {
+				return null;
+			}
+			Spliterator.OfLong prefix = new LongSpliterator(array.range(index, mid - index), 0, mid - index);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return CHARACTERISTICS;
+		}
+	}
+
+	/**
+	 * Spliterator over a DoubleArray1D
+	 */
+	static final class DoubleSpliterator implements Spliterator.OfDouble {
+		private final DoubleArray1D array;
+		private long index;
+		private final long fence;
+
+		DoubleSpliterator(DoubleArray1D array, long index, long fence) {
+			this.array = array;
+			this.index = index;
+			this.fence = fence;
+		}
+
+		@Override
+		public boolean tryAdvance(DoubleConsumer action) {
+			if (index < fence) {
+				action.accept(array.at(index++));
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public void forEachRemaining(DoubleConsumer action) {
+			for (long i = index; i < fence; i++) {
+				action.accept(array.at(i));
+			}
+			index = fence;
+		}
+
+		@Override
+		public Spliterator.OfDouble trySplit() {
+			long mid = splitIndex(index, fence);
+			if (mid < 0) {
+				return null;
+			}
+			Spliterator.OfDouble prefix = new DoubleSpliterator(array.range(index, mid - index), 0, mid - index);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return CHARACTERISTICS;
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+/**
+ * 1D array of bits, packed into 64-bit words.
+ *
+ * <p>
+ * Bit i is bit (i % 64) of word (i / 64), and words are stored in native byte order.
+ * The array uses one bit per element, rounded up to a whole word, against one byte per
+ * element for a {@link BooleanArray1D}. Bulk operations work a word at a time.
+ * Bits of the last word beyond the length are kept clear by the operations of this interface.
+ * </p>
+ */
+public interface BitArray1D extends LayoutType {
+
+	/**
+	 * Instantiate a bit array
+	 * @param length The number of bits.
+	 * @return a bit array layout
+	 */
+	static public BitArray1D getBitArray1D(final long length) {
+		try {
+			return LayoutHelper.getFactory().getBitArray1DFactory().newInstance(length);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Get the number of bits.
+	 * @return the number of bits
+	 */
+	public long getLength();
+
+	/**
+	 * Get the number of 64-bit words that store the bits.
+	 * @return the number of words
+	 */
+	public long getWordCount();
+
+	/**
+	 * Get a bit
+	 * @param index the bit index
+	 * @return the bit value
+	 */
+	public abstract boolean at(long index);
+
+	/**
+	 * Set a bit
+	 * @param index the bit index
+	 * @param value new value of the bit
+	 * @throws IndexOutOfBoundsException if index is not less than the length
+	 */
+	public abstract void put(long index, boolean value);
+
+	/**
+	 * Atomically set a bit. Other bits of the same word can be updated concurrently.
+	 * @param index the bit index
+	 * @return true if the bit was clear, i.e. this call set it
+	 * @throws IndexOutOfBoundsException if index is not less than the length
+	 */
+	public abstract boolean setBitConcurrent(long index);
+
+	/**
+	 * Atomically clear a bit. Other bits of the same word can be updated concurrently.
+	 * @param index the bit index
+	 * @return true if the bit was set, i.e. this call cleared it
+	 * @throws IndexOutOfBoundsException if index is not less than the length
+	 */
+	public abstract boolean clearBitConcurrent(long index);
+
+	/**
+	 * Get a word of bits
+	 * @param wordIndex the word index
+	 * @return bits [64 * wordIndex, 64 * wordIndex + 64), bit 0 first
+	 */
+	public abstract long getWord(long wordIndex);
+
+	/**
+	 * Set a word of bits. Bits beyond the length are ignored.
+	 * @param wordIndex the word index
+	 * @param word new value of bits [64 * wordIndex, 64 * wordIndex + 64), bit 0 first
+	 * @throws IndexOutOfBoundsException if wordIndex is not less than the word count
+	 */
+	public abstract void putWord(long wordIndex, long word);
+
+	/**
+	 * Set all bits to a value
+	 * @param value new value of the bits
+	 */
+	public abstract void fill(boolean value);
+
+	/**
+	 * Set the receiver to the bitwise and of itself and another array of the same length
+	 * @param other the other array
+	 */
+	public abstract void and(BitArray1D other);
+
+	/**
+	 * Set the receiver to the bitwise or of itself and another array of the same length
+	 * @param other the other array
+	 */
+	public abstract void or(BitArray1D other);
+
+	/**
+	 * Set the receiver to the bitwise xor of itself and another array of the same length
+	 * @param other the other array
+	 */
+	public abstract void xor(BitArray1D other);
+
+	/**
+	 * Clear the bits of the receiver that are set in another array of the same length
+	 * @param other the other array
+	 */
+	public abstract void andNot(BitArray1D other);
+
+	/**
+	 * Count the set bits
+	 * @return the number of set bits
+	 */
+	public abstract long cardinality();
+
+	/**
+	 * Find the first set bit at or after an index
+	 * @param fromIndex the index to start from
+	 * @return the index of the set bit, or -1 if there is none
+	 */
+	public abstract long nextSetBit(long fromIndex);
+
+	/**
+	 * Find the first clear bit at or after an index
+	 * @param fromIndex the index to start from
+	 * @return the index of the clear bit, or -1 if there is none
+	 */
+	public abstract long nextClearBit(long fromIndex);
+
+	/**
+	 * Get the size of the array
+	 * @return the data size in bytes, a multiple of 8
+	 */
+	public long sizeof();
+
+	@Override
+	public String toString();
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+/**
+ * 2D array of bits, packed into 64-bit words in row-major order.
+ * Bit (i, j) is bit (i * dim2 + j) of {@link #bits()}.
+ */
+public interface BitArray2D extends LayoutType {
+
+	/**
+	 * Instantiate a 2D bit array
+	 * @param dim1 The number of elements in the 1st dimension.
+	 * @param dim2 The number of elements in the 2nd dimension
+	 * @return a 2D bit array layout
+	 */
+	static public BitArray2D getBitArray2D(final long dim1, final long dim2) {
+		try {
+			return LayoutHelper.getFactory().getBitArray2DFactory().newInstance(dim1, dim2);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Get the number of elements in the 1st dimension.
+	 * @return the number of elements in the 1st dimension
+	 */
+	public long dim1();
+
+	/**
+	 * Get the number of elements in the 2nd dimension.
+	 * @return the number of elements in the 2nd dimension
+	 */
+	public long dim2();
+
+	/**
+	 * Get a bit
+	 * @param i index in the 1st dimension
+	 * @param j index in the 2nd dimension
+	 * @return the bit value
+	 */
+	public abstract boolean at(long i, long j);
+
+	/**
+	 * Set a bit
+	 * @param i index in the 1st dimension
+	 * @param j index in the 2nd dimension
+	 * @param value new value of the bit
+	 */
+	public abstract void put(long i, long j, boolean value);
+
+	/**
+	 * Atomically set a bit. Other bits of the same word can be updated concurrently.
+	 * @param i index in the 1st dimension
+	 * @param j index in the 2nd dimension
+	 * @return true if the bit was clear, i.e. this call set it
+	 */
+	public abstract boolean setBitConcurrent(long i, long j);
+
+	/**
+	 * Get all bits as a 1D bit array in row-major order, for scans and word access.
+	 * The array must be bound to a location.
+	 * @return a layout targeting the same bits
+	 */
+	public abstract BitArray1D bits();
+
+	/**
+	 * Set all bits to a value
+	 * @param value new value of the bits
+	 */
+	public abstract void fill(boolean value);
+
+	/**
+	 * Set the receiver to the bitwise and of itself and another array of the same dimensions
+	 * @param other the other array
+	 */
+	public abstract void and(BitArray2D other);
+
+	/**
+	 * Set the receiver to the bitwise or of itself and another array of the same dimensions
+	 * @param other the other array
+	 */
+	public abstract void or(BitArray2D other);
+
+	/**
+	 * Set the receiver to the bitwise xor of itself and another array of the same dimensions
+	 * @param other the other array
+	 */
+	public abstract void xor(BitArray2D other);
+
+	/**
+	 * Count the set bits
+	 * @return the number of set bits
+	 */
+	public abstract long cardinality();
+
+	/**
+	 * Get the size of the array
+	 * @return the data size in bytes, a multiple of 8
+	 */
+	public long sizeof();
+
+	@Override
+	public String toString();
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Channel I/O of the memory at a location, backing LayoutType.writeTo(), readFrom() and transferTo(),
+ * and the record streams.
+ *
+ * <p>
+ * The memory is passed to the channel as byte buffers over the location, so it is not copied
+ * through an intermediate array. Off-heap memory is passed in chunks of up to
+ * {@link #DIRECT_CHUNK_SIZE} bytes. Memory in a byte array is passed in chunks of up to
+ * {@link #HEAP_CHUNK_SIZE} bytes, because the JDK copies a heap buffer into a temporary direct
+ * buffer of the same size before the I/O.
+ * </p>
+ */
+public final class ChannelHelper {
+	/** Largest chunk of off-heap memory passed to the channel at once */
+	public static final int DIRECT_CHUNK_SIZE = 1 << 30;
+
+	/** Largest chunk of a byte array passed to the channel at once */
+	public static final int HEAP_CHUNK_SIZE = 1 << 20;
+
+	private ChannelHelper() {
+	}
+
+	/**
+	 * Get a buffer over a chunk of the memory at a location
+	 * @param loc the location
+	 * @param offset offset of the chunk from the location
+	 * @param size size of the memory at the location
+	 * @return a buffer over the chunk, positioned at its start
+	 */
+	private static ByteBuffer chunk(Location loc, long offset, long size) {
+		long remaining = size - offset;
+		if (null == loc.getData()) {
+			return UnsafeHelper.bufferFromAddress(loc.getOffset() + offset, Math.min(remaining, DIRECT_CHUNK_SIZE));
+		}
+		int index = (int)(loc.getOffset() - UnsafeHelper.getUnsafe().arrayBaseOffset(byte[].class) + offset);
+		return ByteBuffer.wrap(loc.getData(), index, (int)Math.min(remaining, HEAP_CHUNK_SIZE));
+	}
+
+	/**
+	 * Write the memory at a location to a channel, at the channel's position.
+	 * The channel must be in blocking mode.
+	 * @param loc the location
+	 * @param size number of bytes to write
+	 * @param channel the destination channel
+	 * @return the number of bytes written, size
+	 * @throws IOException if the channel fails
+	 */
+	public static long writeTo(Location loc, long size, WritableByteChannel channel) throws IOException {
+		long done = 0;
+		while (done < size) {
+			ByteBuffer chunk = chunk(loc, done, size);
+			while (chunk.hasRemaining()) {
+				done += channel.write(chunk);
+			}
+		}
+		return done;
+	}
+
+	/**
+	 * Fill the memory at a location from a channel, from the channel's position.
+	 * The channel must be in blocking mode.
+	 * @param loc the location
+	 * @param size number of bytes to read
+	 * @param channel the source channel
+	 * @return the number of bytes read, size
+	 * @throws EOFException if the channel ends before size bytes are read
+	 * @throws IOException if the channel fails
+	 */
+	public static long readFrom(Location loc, long size, ReadableByteChannel channel) throws IOException {
+		long done = readUpTo(loc, size, channel);
+		if (done < size) {
+			throw new EOFException("end of channel after " + done + " of " + size + " bytes");
+		}
+		return done;
+	}
+
+	/**
+	 * Read from a channel into the memory at a location, until it is full or the channel ends.
+	 * The channel must be in blocking mode.
+	 * @param loc the location
+	 * @param size number of bytes to read
+	 * @param channel the source channel
+	 * @return the number of bytes read, less than size only if the channel ended
+	 * @throws IOException if the channel fails
+	 */
+	static long readUpTo(Location loc, long size, ReadableByteChannel channel) throws IOException {
+		long done = 0;
+		while (done < size) {
+			ByteBuffer chunk = chunk(loc, done, size);
+			while (chunk.hasRemaining()) {
+				if (channel.read(chunk) < 0) {
+					return done + chunk.position();
+				}
+			}
+			done += chunk.position();
+		}
+		return done;
+	}
+
+	/**
+	 * Write the memory at a location to a file, at a file position.
+	 * The position of the file channel is not changed.
+	 * @param loc the location
+	 * @param size number of bytes to write
+	 * @param channel the destination file
+	 * @param position file position of the first byte
+	 * @return the number of bytes written, size
+	 * @throws IOException if the channel fails
+	 */
+	public static long transferTo(Location loc, long size, FileChannel channel, long position) throws IOException {
+		long done = 0;
+		while (done < size) {
+			ByteBuffer chunk = chunk(loc, done, size);
+			while (chunk.hasRemaining()) {
+				done += channel.write(chunk, position + done);
+			}
+		}
+		return done;
+	}
+}
@@ -40,6 +40,53 @@ public interface CharArray1D extends LayoutType {
 	 */
 	public abstract CharArray1D range(long startIdx, long length);
 
+	/**
+	 * Copy array elements into a java array
+	 * @param srcIdx index of the first element to copy
+	 * @param dst the destination array
+	 * @param off index in dst of the first copied element
+	 * @param len the number of elements to copy
+	 */
+	public abstract void get(long srcIdx, char[] dst, int off, int len);
+
+	/**
+	 * Copy elements of a java array into the array
+	 * @param dstIdx index of the first element to overwrite
+	 * @param src the source array
+	 * @param off index in src of the first element to copy
+	 * @param len the number of elements to copy
+	 */
+	public abstract void put(long dstIdx, char[] src, int off, int len);
+
+	/**
+	 * Set all array elements to a value
+	 * @param value new value of the array elements
+	 */
+	public abstract void fill(char value);
+
+	/**
+	 * Copy array elements into another array
+	 * @param srcIdx index of the first element to copy
+	 * @param dst the destination array
+	 * @param dstIdx index in dst of the first element to overwrite
+	 * @param len the number of elements to copy
+	 */
+	public abstract void copyTo(long srcIdx, CharArray1D dst, long dstIdx, long len);
+
+	/**
+	 * Copy array elements within the array. The source and destination may overlap.
+	 * @param srcIdx index of the first element to copy
+	 * @param dstIdx index of the first element to overwrite
+	 * @param len the number of elements to copy
+	 */
+	public abstract void move(long srcIdx, long dstIdx, long len);
+
+	/**
+	 * Reverse the byte order of each array element, converting the array between
+	 * native byte order and the other byte order, e.g. to or from network byte order
+	 */
+	public abstract void reverseBytes();
+
 	/**
 	 * Get the size of the array
 	 * @return the data size in bytes
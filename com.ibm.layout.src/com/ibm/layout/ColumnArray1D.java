@@ -0,0 +1,77 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+/**
+ * A 1D array layout stored as a structure of arrays.
+ *
+ * <p>
+ * Each field of the element layout is stored in its own contiguous column, in field order:
+ * the column of a field starts at (field offset * array length), and holds the field of
+ * element i at (i * field size). A scan of one field then reads only that field's bytes.
+ * The array has the same size as an {@link Array1D} of the same length.
+ * </p>
+ * <p>
+ * Elements are accessed with the usual {@link Array1D} methods. The element layout must
+ * only have primitive fields. The byte array and channel methods of an element copy its fields
+ * in row order, as a layout of the element class holds them. An element has no contiguous
+ * data, so its asByteBuffer() throws UnsupportedOperationException.
+ * </p>
+ *
+ *	<h2>Example Usage</h2>
+ *	<pre>
+ *	ColumnArray1D&lt;Point&gt; points = ColumnArray1D.getColumnArray1D(Point.class, n);
+ *	points.bindLocation(loc);
+ *	points.at(3).x(10);
+ *	IntArray1D xs = points.column("x");
+ *	</pre>
+ *
+ * @param <T> a layout class.
+ */
+public interface ColumnArray1D<T extends Layout> extends Array1D<T> {
+
+	/**
+	 * Instantiate a columnar 1D array layout of type T
+	 * The JVM generates a runtime class that implements the layout's stub interface.
+	 * @param <T> subclass of Layout, type for array
+	 * @param cls The layout class for each array element.
+	 * @param length The number of array elements.
+	 * @return a columnar 1D array layout
+	 */
+	static public <T extends Layout> ColumnArray1D<T> getColumnArray1D(final Class<T> cls, final long length) {
+		try {
+			return LayoutHelper.getFactory().getColumnArray1DFactory(cls).newInstance(length);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Get the column of a field, as a primitive array of the field's type, e.g. an
+	 * IntArray1D for a jint field. Element i of the column is the field of element i of the array.
+	 * The array must be bound to a location. The column of a field in the non-native byte order
+	 * holds its elements in that byte order, see reverseBytes() of the primitive array.
+	 * @param <A> primitive array type
+	 * @param fieldName name of the field
+	 * @return a layout targeting the column
+	 * @throws IllegalArgumentException if the element layout has no such field
+	 */
+	public abstract <A extends LayoutType> A column(String fieldName);
+
+	/**
+	 * Extract a sub range of the array. The range shares the columns of the array, so its data
+	 * is not contiguous: its byte array, channel and byte buffer methods throw
+	 * UnsupportedOperationException. sizeof() is the size of the range's elements.
+	 * @param startIdx the starting array index
+	 * @param length the number of array elements to extract
+	 * @return a layout targeting a sub range of the array
+	 */
+	@Override
+	public abstract ColumnArray1D<T> range(long startIdx, long length);
+}
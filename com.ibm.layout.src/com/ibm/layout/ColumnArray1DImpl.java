@@ -0,0 +1,241 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Implements ColumnArray1D. The generated subclass creates the element and array instances.
+ *
+ * <p>
+ * The array's location is the start of the columns. A range of the array shares the columns,
+ * and starts at a later index in each of them. Its data is a slice of each column, so the
+ * methods that pass the data as sizeof() contiguous bytes throw for a range. Binding an array,
+ * or a range, to a location makes it a whole array of its length at that location.
+ * </p>
+ * @param <T> element type
+ */
+public abstract class ColumnArray1DImpl<T extends Layout> extends LayoutTypeImpl implements ColumnArray1D<T> {
+	private final long elementSize;
+	private final Class<T> elementClass;
+	protected final long length;
+	/* number of elements in each column, and index of element 0 in the columns */
+	private long columnLength;
+	private long start;
+	private ImplHelper.FieldDesc[] fieldDesc;
+
+	protected ColumnArray1DImpl(long length, long elementSize, Class<T> elementClass) {
+		this.length = length;
+		this.elementSize = elementSize;
+		this.elementClass = elementClass;
+		this.columnLength = length;
+		this.start = 0;
+	}
+
+	/**
+	 * Create an unbound element
+	 * @param columns location of the columns
+	 * @param columnLength number of elements in each column
+	 * @return an element; bind it to the columns advanced by the element index
+	 */
+	protected abstract T newElement(Location columns, long columnLength);
+
+	/**
+	 * Create an unbound array of the generated class
+	 * @param length number of elements
+	 * @param elementSize sizeof an element
+	 * @return an array
+	 */
+	protected abstract ColumnArray1DImpl<T> newArray(long length, long elementSize);
+
+	@Override
+	public long getLength() {
+		return length;
+	}
+
+	@Override
+	public long sizeof() {
+		return length * elementSize;
+	}
+
+	@Override
+	public void bindLocation(Location loc) {
+		super.bindLocation(loc);
+		columnLength = length;
+		start = 0;
+	}
+
+	/**
+	 * Check that the data is contiguous, i.e. the array is not a range of a longer array
+	 */
+	private void checkContiguous(String method) {
+		if ((0 != start) || (columnLength != length)) {
+			throw new UnsupportedOperationException(method + "() needs contiguous data, not a range of a columnar array");
+		}
+	}
+
+	@Override
+	public int writeToByteArray(long srcOffset, byte[] buf, int offset, int length) {
+		checkContiguous("writeToByteArray");
+		return super.writeToByteArray(srcOffset, buf, offset, length);
+	}
+
+	@Override
+	public int readFromByteArray(long dstOffset, byte[] buf, int offset, int length) {
+		checkContiguous("readFromByteArray");
+		return super.readFromByteArray(dstOffset, buf, offset, length);
+	}
+
+	@Override
+	public long writeTo(WritableByteChannel channel) throws IOException {
+		checkContiguous("writeTo");
+		return super.writeTo(channel);
+	}
+
+	@Override
+	public long readFrom(ReadableByteChannel channel) throws IOException {
+		checkContiguous("readFrom");
+		return super.readFrom(channel);
+	}
+
+	@Override
+	public long transferTo(FileChannel channel, long position) throws IOException {
+		checkContiguous("transferTo");
+		return super.transferTo(channel, position);
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer() {
+		checkContiguous("asByteBuffer");
+		return super.asByteBuffer();
+	}
+
+	@Override
+	public T at(long index) {
+		T element = newElement(location, columnLength);
+		element.bindLocation(new Location(location, start + index));
+		return element;
+	}
+
+	@Override
+	public void put(long index, T value) {
+		at(index).copyFrom(value);
+	}
+
+	@Override
+	public ColumnArray1D<T> range(long startIdx, long length) {
+		checkRange(startIdx, length, this.length);
+		ColumnArray1DImpl<T> array = newArray(length, elementSize);
+		array.bindLocation(location);
+		array.columnLength = columnLength;
+		array.start = start + startIdx;
+		return array;
+	}
+
+	@Override
+	public Cursor<T> cursor() {
+		return new Cursor<T>(newElement(location, columnLength), new Location(location, start), 1, length);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <A extends LayoutType> A column(String fieldName) {
+		if (null == fieldDesc) {
+			fieldDesc = ImplHelper.getFieldDesc(elementClass);
+		}
+		for (ImplHelper.FieldDesc f : fieldDesc) {
+			if (f.name.equals(fieldName)) {
+				LayoutType column = LayoutType.getPrimArray1D(ImplHelper.fieldSig2PrimitiveClass(f.sig), length);
+				column.bindLocation(new Location(location, (f.offset * columnLength) + (start * f.size)));
+				return (A) column;
+			}
+		}
+		throw new IllegalArgumentException("no field " + fieldName + " in " + elementClass.getName());
+	}
+
+	/**
+	 * Copy a columnar element into a new layout of the element class, so its fields are in row order
+	 */
+	private static Layout toRow(Class<? extends Layout> cls, Layout element) {
+		Layout row = LayoutHelper.getFactory().getLayoutFactory(cls).newInstance();
+		row.bindLocation(new Location(new byte[(int)row.sizeof()]));
+		row.copyFrom(element);
+		return row;
+	}
+
+	/**
+	 * Copy a columnar element into a byte array, in row order. Used by the generated element classes.
+	 * @see LayoutType#writeToByteArray(long, byte[], int, int)
+	 */
+	public static int writeElementToByteArray(Class<? extends Layout> cls, Layout element, long srcOffset,
+			byte[] buf, int offset, int length)
+	{
+		return toRow(cls, element).writeToByteArray(srcOffset, buf, offset, length);
+	}
+
+	/**
+	 * Copy from a byte array into a columnar element, in row order. Used by the generated element classes.
+	 * @see LayoutType#readFromByteArray(long, byte[], int, int)
+	 */
+	public static int readElementFromByteArray(Class<? extends Layout> cls, Layout element, long dstOffset,
+			byte[] buf, int offset, int length)
+	{
+		Layout row = toRow(cls, element);
+		int read = row.readFromByteArray(dstOffset, buf, offset, length);
+		element.copyFrom(row);
+		return read;
+	}
+
+	/**
+	 * Write a columnar element to a channel, in row order. Used by the generated element classes.
+	 * @see LayoutType#writeTo(WritableByteChannel)
+	 */
+	public static long writeElementTo(Class<? extends Layout> cls, Layout element, WritableByteChannel channel)
+			throws IOException
+	{
+		return toRow(cls, element).writeTo(channel);
+	}
+
+	/**
+	 * Fill a columnar element from a channel, in row order. Used by the generated element classes.
+	 * @see LayoutType#readFrom(ReadableByteChannel)
+	 */
+	public static long readElementFrom(Class<? extends Layout> cls, Layout element, ReadableByteChannel channel)
+			throws IOException
+	{
+		Layout row = LayoutHelper.getFactory().getLayoutFactory(cls).newInstance();
+		row.bindLocation(new Location(new byte[(int)row.sizeof()]));
+		long read = row.readFrom(channel);
+		element.copyFrom(row);
+		return read;
+	}
+
+	/**
+	 * Write a columnar element to a file, in row order. Used by the generated element classes.
+	 * @see LayoutType#transferTo(FileChannel, long)
+	 */
+	public static long transferElementTo(Class<? extends Layout> cls, Layout element, FileChannel channel,
+			long position) throws IOException
+	{
+		return toRow(cls, element).transferTo(channel, position);
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer buf = new StringBuffer("[");
+		for (long i = 0; i < length; i++) {
+			buf.append(" " + at(i).toString());
+		}
+		buf.append(" ]");
+		return buf.toString();
+	}
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+/**
+ * A flyweight cursor over the elements of an array layout.
+ *
+ * <p>
+ * The cursor owns a single element instance. Moving the cursor re-points that instance
+ * at another array element by offset arithmetic, so iterating does not allocate.
+ * The element returned by {@link #get()}, {@link #moveTo(long)} and {@link #next()} is the
+ * same object every time; copy it if its value must outlive the next move. So are the views
+ * returned by the element's nested and array field getters, which move with the element.
+ * The element must not be bound to another location.
+ * </p>
+ *
+ *	<h2>Example Usage</h2>
+ *	<pre>
+ *	Cursor&lt;Point&gt; c = points.cursor();
+ *	while (c.hasNext()) {
+ *		Point p = c.next();
+ *		p.x(p.x() + 1);
+ *	}
+ *	</pre>
+ *
+ * @param <T> element type
+ */
+public final class Cursor<T extends LayoutType> {
+	private final T element;
+	private final Rebindable rebindable;
+	private final Location location;
+	/* offset the element is bound to */
+	private long offset;
+	private long base;
+	private final long stride;
+	private long length;
+	private long index;
+
+	/**
+	 * Create a cursor. Used by generated array classes; see {@link Array1D#cursor()}.
+	 *
+	 * @param element an unbound element instance of a generated class, owned by the cursor from now on
+	 * @param loc location of the first array element
+	 * @param stride distance between consecutive elements, in bytes
+	 * @param length number of elements
+	 */
+	public Cursor(T element, Location loc, long stride, long length) {
+		this.element = element;
+		this.rebindable = (Rebindable) element;
+		this.location = Location.forView(loc, 0);
+		this.offset = this.location.getOffset();
+		this.base = this.offset;
+		this.stride = stride;
+		this.length = length;
+		this.index = -1;
+		element.bindLocation(this.location);
+	}
+
+	/**
+	 * Get the element instance. It targets the current position of the cursor.
+	 * @return the flyweight element
+	 */
+	public T get() {
+		return element;
+	}
+
+	/**
+	 * Get the current position of the cursor
+	 * @return the current index, or -1 if the cursor has not been moved yet
+	 */
+	public long index() {
+		return index;
+	}
+
+	/**
+	 * Get the number of elements the cursor can visit.
+	 * @return the number of elements
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	/**
+	 * Move the cursor to an element
+	 * @param index the element index
+	 * @return the flyweight element, targeting the element at index
+	 */
+	public T moveTo(long index) {
+		if ((index < 0) || (index >= length)) {
+			throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+		}
+		this.index = index;
+		long target = base + (index * stride);
+		/* move the element, and any views of its fields, without binding it again */
+		rebindable.rebindOffset(target - offset);
+		offset = target;
+		return element;
+	}
+
+	/**
+	 * Return whether there is an element after the current position
+	 * @return true if {@link #next()} can be called
+	 */
+	public boolean hasNext() {
+		return (index + 1) < length;
+	}
+
+	/**
+	 * Move the cursor to the next element
+	 * @return the flyweight element, targeting the next element
+	 */
+	public T next() {
+		return moveTo(index + 1);
+	}
+
+	/**
+	 * Move the cursor back before the first element, so {@link #next()} returns element 0.
+	 */
+	public void reset() {
+		index = -1;
+	}
+
+	/**
+	 * Re-point the cursor at another array with the same element type and stride, in the
+	 * same kind of memory, and move it back before the first element. Used by RecordReader
+	 * to walk its batches with one cursor.
+	 * @param loc location of the first array element
+	 * @param length number of elements
+	 */
+	void rebase(Location loc, long length) {
+		if (loc.getData() != location.getData()) {
+			throw new IllegalArgumentException("cursor cannot move to another byte array");
+		}
+		this.base = loc.getOffset();
+		this.length = length;
+		this.index = -1;
+	}
+}
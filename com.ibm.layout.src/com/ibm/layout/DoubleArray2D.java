@@ -40,6 +40,61 @@ public interface DoubleArray2D extends LayoutType {
 	 */
 	public abstract void put(long i, long j, double value);
 
+	/**
+	 * Copy array elements into a java array. Elements are copied in row-major order
+	 * starting at (i, j), continuing into the following rows.
+	 * @param i index in 1st dim of the first element to copy
+	 * @param j index in 2nd dim of the first element to copy
+	 * @param dst the destination array
+	 * @param off index in dst of the first copied element
+	 * @param len the number of elements to copy
+	 */
+	public abstract void get(long i, long j, double[] dst, int off, int len);
+
+	/**
+	 * Copy elements of a java array into the array. Elements are copied in row-major order
+	 * starting at (i, j), continuing into the following rows.
+	 * @param i index in 1st dim of the first element to overwrite
+	 * @param j index in 2nd dim of the first element to overwrite
+	 * @param src the source array
+	 * @param off index in src of the first element to copy
+	 * @param len the number of elements to copy
+	 */
+	public abstract void put(long i, long j, double[] src, int off, int len);
+
+	/**
+	 * Set all array elements to a value
+	 * @param value new value of the array elements
+	 */
+	public abstract void fill(double value);
+
+	/**
+	 * Copy all array elements into another array with the same dimensions
+	 * @param dst the destination array
+	 */
+	public abstract void copyTo(DoubleArray2D dst);
+
+	/**
+	 * Get a row of the array
+	 * @param i index in 1st dim
+	 * @return a layout targeting the dim2 elements of row i
+	 */
+	public abstract DoubleArray1D row(long i);
+
+	/**
+	 * Create a cursor over the rows of the array. Moving the cursor re-points the same
+	 * row layout, so iterating over rows does not allocate. The array must be bound to a location.
+	 * @return a cursor positioned before the first row
+	 */
+	public abstract Cursor<DoubleArray1D> rows();
+
+	/**
+	 * Copy the transpose of the array into another array, so that dst(j, i) is this(i, j).
+	 * A row-major array transposed this way holds the column-major order of the receiver.
+	 * @param dst the destination array, with dimensions dim2 x dim1. It must not overlap the receiver.
+	 */
+	public abstract void transpose(DoubleArray2D dst);
+
 	/**
 	 * Get the total size of the array
 	 * @return the data size in bytes
@@ -80,7 +80,7 @@ class GenArray1D implements Opcodes {
 		final boolean itf = false;
 
 		/* If user-defined array class is supplied, use it as superclass, and use its name instead of generating it */
-		cw.visit(V1_8, ACC_FINAL + ACC_SUPER, arrayImplClassName, arrayInterfaceClassSig, "java/lang/Object", new String[] {arrayInterfaceClassName});
+		cw.visit(V1_8, ACC_FINAL + ACC_SUPER, arrayImplClassName, arrayInterfaceClassSig, "java/lang/Object", new String[] {arrayInterfaceClassName, "com/ibm/layout/Rebindable"});
 		{
 			fv = cw.visitField(ACC_PROTECTED + ACC_FINAL, "elementSize", "J", null, null);
 			fv.visitEnd();
@@ -242,6 +242,26 @@ class GenArray1D implements Opcodes {
 			mv.visitMaxs(7, 7);
 			mv.visitEnd();
 		}
+		{
+			mv = cw.visitMethod(ACC_PUBLIC, "cursor", "()Lcom/ibm/layout/Cursor;", "()Lcom/ibm/layout/Cursor<L"
+					+ elementInterfaceClassName + ";>;", null);
+			mv.visitCode();
+			mv.visitTypeInsn(NEW, "com/ibm/layout/Cursor");
+			mv.visitInsn(DUP);
+			mv.visitTypeInsn(NEW, elementImplClassName);
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, elementImplClassName, "<init>", "()V", itf);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "location", "Lcom/ibm/layout/Location;");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "elementSize", "J");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "length", "J");
+			mv.visitMethodInsn(INVOKESPECIAL, "com/ibm/layout/Cursor", "<init>", "(Lcom/ibm/layout/LayoutType;Lcom/ibm/layout/Location;JJ)V", itf);
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(8, 1);
+			mv.visitEnd();
+		}
 		{
 			mv = cw.visitMethod(ACC_PUBLIC, "put", "(JL" + elementInterfaceClassName + ";)V", null, null);
 			mv.visitCode();
@@ -20,6 +20,7 @@ class GenArray2D implements Opcodes {
 	 */
 	final private String elementInterfaceClassName;
 	final private String elementImplClassName;
+	final private String rowImplClassName; /* the 1D array of the element type, for row views */
 	final private String arrayImplClassName;
 	final private String arrayInterfaceClassName;
 	final private String arrayInterfaceClassSig; /* Signature of the array interface class, if it is generic */
@@ -43,6 +44,7 @@ class GenArray2D implements Opcodes {
 	GenArray2D(Class<E> elementInterfaceClass, Class<AE> userDefinedArrayClass) {
 		elementInterfaceClassName = ImplHelper.getInterfaceClassName(elementInterfaceClass);
 		elementImplClassName = ImplHelper.getImplClassName(elementInterfaceClass);
+		rowImplClassName = ImplHelper.getArray1DClassImplName(elementInterfaceClass);
 
 		if (null == userDefinedArrayClass) {
 			arrayImplClassName = ImplHelper.getArray2DClassImplName(elementInterfaceClass);
@@ -79,7 +81,7 @@ class GenArray2D implements Opcodes {
 		FieldVisitor fv = null;
 		final boolean itf = false;
 
-		cw.visit(V1_8, ACC_FINAL + ACC_SUPER, arrayImplClassName, arrayInterfaceClassSig, "java/lang/Object", new String[] {arrayInterfaceClassName});
+		cw.visit(V1_8, ACC_FINAL + ACC_SUPER, arrayImplClassName, arrayInterfaceClassSig, "java/lang/Object", new String[] {arrayInterfaceClassName, "com/ibm/layout/Rebindable"});
 		{
 			fv = cw.visitField(ACC_PROTECTED + ACC_FINAL, "dim1", "J", null, null);
 			fv.visitEnd();
@@ -152,6 +154,94 @@ class GenArray2D implements Opcodes {
 			mv.visitMaxs(7, 7);
 			mv.visitEnd();
 		}
+		{
+			mv = cw.visitMethod(ACC_PUBLIC, "cursor", "()Lcom/ibm/layout/Cursor;", "()Lcom/ibm/layout/Cursor<L"
+					+ elementInterfaceClassName + ";>;", null);
+			mv.visitCode();
+			mv.visitTypeInsn(NEW, "com/ibm/layout/Cursor");
+			mv.visitInsn(DUP);
+			mv.visitTypeInsn(NEW, elementImplClassName);
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, elementImplClassName, "<init>", "()V", itf);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "location", "Lcom/ibm/layout/Location;");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "elementSize", "J");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "dim1", "J");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "dim2", "J");
+			mv.visitInsn(LMUL);
+			mv.visitMethodInsn(INVOKESPECIAL, "com/ibm/layout/Cursor", "<init>", "(Lcom/ibm/layout/LayoutType;Lcom/ibm/layout/Location;JJ)V", itf);
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(10, 1);
+			mv.visitEnd();
+		}
+		{
+			mv = cw.visitMethod(ACC_PUBLIC, "row", "(J)Lcom/ibm/layout/Array1D;", "(J)Lcom/ibm/layout/Array1D<L"
+					+ elementInterfaceClassName + ";>;", null);
+			mv.visitCode();
+			mv.visitVarInsn(LLOAD, 1);
+			mv.visitInsn(LCONST_1);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "dim1", "J");
+			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/LayoutTypeImpl", "checkRange", "(JJJ)V", itf);
+			mv.visitTypeInsn(NEW, rowImplClassName);
+			mv.visitInsn(DUP);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "dim2", "J");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "elementSize", "J");
+			mv.visitMethodInsn(INVOKESPECIAL, rowImplClassName, "<init>", "(JJ)V", itf);
+			mv.visitVarInsn(ASTORE, 3);
+			mv.visitTypeInsn(NEW, "com/ibm/layout/Location");
+			mv.visitInsn(DUP);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "location", "Lcom/ibm/layout/Location;");
+			mv.visitVarInsn(LLOAD, 1);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "dim2", "J");
+			mv.visitInsn(LMUL);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "elementSize", "J");
+			mv.visitInsn(LMUL);
+			mv.visitMethodInsn(INVOKESPECIAL, "com/ibm/layout/Location", "<init>", "(Lcom/ibm/layout/Location;J)V", itf);
+			mv.visitVarInsn(ASTORE, 4);
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitVarInsn(ALOAD, 4);
+			mv.visitMethodInsn(INVOKEVIRTUAL, rowImplClassName, "bindLocation", "(Lcom/ibm/layout/Location;)V", itf);
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(7, 5);
+			mv.visitEnd();
+		}
+		{
+			mv = cw.visitMethod(ACC_PUBLIC, "rows", "()Lcom/ibm/layout/Cursor;", "()Lcom/ibm/layout/Cursor<Lcom/ibm/layout/Array1D<L"
+					+ elementInterfaceClassName + ";>;>;", null);
+			mv.visitCode();
+			mv.visitTypeInsn(NEW, "com/ibm/layout/Cursor");
+			mv.visitInsn(DUP);
+			mv.visitTypeInsn(NEW, rowImplClassName);
+			mv.visitInsn(DUP);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "dim2", "J");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "elementSize", "J");
+			mv.visitMethodInsn(INVOKESPECIAL, rowImplClassName, "<init>", "(JJ)V", itf);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "location", "Lcom/ibm/layout/Location;");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "dim2", "J");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "elementSize", "J");
+			mv.visitInsn(LMUL);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, arrayImplClassName, "dim1", "J");
+			mv.visitMethodInsn(INVOKESPECIAL, "com/ibm/layout/Cursor", "<init>", "(Lcom/ibm/layout/LayoutType;Lcom/ibm/layout/Location;JJ)V", itf);
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(10, 1);
+			mv.visitEnd();
+		}
 		{
 			mv = cw.visitMethod(ACC_PUBLIC, "put", "(JJL" + elementInterfaceClassName + ";)V", null, null);
 			mv.visitCode();
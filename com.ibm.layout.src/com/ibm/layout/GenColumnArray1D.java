@@ -0,0 +1,91 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates a columnar 1D array class. It extends ColumnArray1DImpl, and creates
+ * the columnar element class generated by GenLayout.
+ */
+class GenColumnArray1D implements Opcodes {
+	/* Names are in class file format: delimiter is /, no L; decoration */
+	final private String elementInterfaceClassName;
+	final private String elementImplClassName;
+	final private String arrayImplClassName;
+
+	/**
+	 * Instantiate GenColumnArray1D
+	 *
+	 * @param elementInterfaceClass, element type for Array
+	 */
+	public GenColumnArray1D(Class<? extends Layout> elementInterfaceClass) {
+		elementInterfaceClassName = ImplHelper.getInterfaceClassName(elementInterfaceClass);
+		elementImplClassName = ImplHelper.getColumnImplClassName(elementInterfaceClass);
+		arrayImplClassName = ImplHelper.getColumnArray1DClassImplName(elementInterfaceClass);
+	}
+
+	/**
+	 * Generate bytecodes for runtime class
+	 *
+	 * @return byte array containing bytecodes for runtime class
+	 * @throws Exception
+	 */
+	public byte[] genBytecode() throws Exception {
+		ClassWriter cw = new ClassWriter(0);
+		MethodVisitor mv;
+		final String superClassName = "com/ibm/layout/ColumnArray1DImpl";
+
+		cw.visit(V1_8, ACC_FINAL + ACC_SUPER, arrayImplClassName,
+				"L" + superClassName + "<L" + elementInterfaceClassName + ";>;", superClassName, null);
+		{
+			mv = cw.visitMethod(ACC_PROTECTED, "<init>", "(JJ)V", null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(LLOAD, 1);
+			mv.visitVarInsn(LLOAD, 3);
+			mv.visitLdcInsn(Type.getType("L" + elementInterfaceClassName + ";"));
+			mv.visitMethodInsn(INVOKESPECIAL, superClassName, "<init>", "(JJLjava/lang/Class;)V", false);
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(6, 5);
+			mv.visitEnd();
+		}
+		{
+			mv = cw.visitMethod(ACC_PROTECTED, "newElement", "(Lcom/ibm/layout/Location;J)Lcom/ibm/layout/Layout;",
+					null, null);
+			mv.visitCode();
+			mv.visitTypeInsn(NEW, elementImplClassName);
+			mv.visitInsn(DUP);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitVarInsn(LLOAD, 2);
+			mv.visitMethodInsn(INVOKESPECIAL, elementImplClassName, "<init>", "(Lcom/ibm/layout/Location;J)V", false);
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(5, 4);
+			mv.visitEnd();
+		}
+		{
+			mv = cw.visitMethod(ACC_PROTECTED, "newArray", "(JJ)L" + superClassName + ";", null, null);
+			mv.visitCode();
+			mv.visitTypeInsn(NEW, arrayImplClassName);
+			mv.visitInsn(DUP);
+			mv.visitVarInsn(LLOAD, 1);
+			mv.visitVarInsn(LLOAD, 3);
+			mv.visitMethodInsn(INVOKESPECIAL, arrayImplClassName, "<init>", "(JJ)V", false);
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(6, 5);
+			mv.visitEnd();
+		}
+
+		cw.visitEnd();
+
+		return cw.toByteArray();
+	}
+}
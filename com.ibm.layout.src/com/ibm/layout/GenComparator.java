@@ -0,0 +1,146 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Generates a Comparator that orders layouts lexicographically by a list of primitive fields.
+ * Each field is compared with the compare() method of its wrapper class, e.g. Integer.compare().
+ */
+class GenComparator implements Opcodes {
+	/* Names are in class file format: delimiter is /, no L; decoration */
+	final private String interfaceClassName;
+	final private String comparatorClassName;
+	final private ImplHelper.FieldDesc[] fields;
+
+	/**
+	 * Instantiate GenComparator
+	 *
+	 * @param interfaceClass, the layout type
+	 * @param fieldNames, names of the compared fields, most significant first
+	 */
+	public GenComparator(Class<? extends Layout> interfaceClass, String[] fieldNames) {
+		if (0 == fieldNames.length) {
+			throw new IllegalArgumentException("no fields to compare");
+		}
+		ImplHelper.FieldDesc[] fieldDesc = ImplHelper.getFieldDesc(interfaceClass);
+		fields = new ImplHelper.FieldDesc[fieldNames.length];
+		for (int i = 0; i < fieldNames.length; i++) {
+			for (ImplHelper.FieldDesc f : fieldDesc) {
+				if (f.name.equals(fieldNames[i])) {
+					fields[i] = f;
+					break;
+				}
+			}
+			if (null == fields[i]) {
+				throw new IllegalArgumentException("no field " + fieldNames[i] + " in " + interfaceClass.getName());
+			}
+			if (!ImplHelper.isTypePrimitive(fields[i].sig) || ImplHelper.isPointerType(fields[i].rawType)) {
+				throw new IllegalArgumentException("cannot compare non-primitive field: "
+						+ interfaceClass.getName() + "." + fieldNames[i]);
+			}
+		}
+		interfaceClassName = ImplHelper.getInterfaceClassName(interfaceClass);
+		comparatorClassName = getComparatorClassName(interfaceClass, fieldNames).replace('.', '/');
+	}
+
+	/**
+	 * Get the name of the comparator class for a list of fields
+	 * @param interfaceClass the layout type
+	 * @param fieldNames names of the compared fields
+	 * @return binary name of the comparator class
+	 */
+	static String getComparatorClassName(Class<? extends Layout> interfaceClass, String[] fieldNames) {
+		StringBuilder sb = new StringBuilder("com.ibm.layout.gen.");
+		sb.append(interfaceClass.getSimpleName()).append("Comparator");
+		for (String name : fieldNames) {
+			sb.append('$').append(name);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Get the wrapper class whose static compare() method orders values of a primitive type
+	 */
+	private static String getWrapperClassName(String sig) {
+		switch (sig) {
+		case "Z":
+			return "java/lang/Boolean";
+		case "B":
+			return "java/lang/Byte";
+		case "C":
+			return "java/lang/Character";
+		case "S":
+			return "java/lang/Short";
+		case "I":
+			return "java/lang/Integer";
+		case "J":
+			return "java/lang/Long";
+		case "F":
+			return "java/lang/Float";
+		default:
+			return "java/lang/Double";
+		}
+	}
+
+	/**
+	 * Generate bytecodes for runtime class
+	 *
+	 * @return byte array containing bytecodes for runtime class
+	 * @throws Exception
+	 */
+	public byte[] genBytecode() throws Exception {
+		ClassWriter cw = new ClassWriter(0);
+		MethodVisitor mv;
+
+		cw.visit(V1_8, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, comparatorClassName,
+				"Ljava/lang/Object;Ljava/util/Comparator<L" + interfaceClassName + ";>;", "java/lang/Object",
+				new String[] { "java/util/Comparator" });
+		{
+			mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(1, 1);
+			mv.visitEnd();
+		}
+		{
+			mv = cw.visitMethod(ACC_PUBLIC, "compare", "(Ljava/lang/Object;Ljava/lang/Object;)I", null, null);
+			mv.visitCode();
+			for (ImplHelper.FieldDesc f : fields) {
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, interfaceClassName);
+				mv.visitMethodInsn(INVOKEINTERFACE, interfaceClassName, f.name, "()" + f.sig, true);
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitTypeInsn(CHECKCAST, interfaceClassName);
+				mv.visitMethodInsn(INVOKEINTERFACE, interfaceClassName, f.name, "()" + f.sig, true);
+				mv.visitMethodInsn(INVOKESTATIC, getWrapperClassName(f.sig), "compare", "(" + f.sig + f.sig + ")I", false);
+				/* return the result if the field differs, else compare the next field */
+				mv.visitInsn(DUP);
+				Label next = new Label();
+				mv.visitJumpInsn(IFEQ, next);
+				mv.visitInsn(IRETURN);
+				mv.visitLabel(next);
+				mv.visitFrame(Opcodes.F_SAME1, 0, null, 1, new Object[] { Opcodes.INTEGER });
+				mv.visitInsn(POP);
+			}
+			mv.visitInsn(ICONST_0);
+			mv.visitInsn(IRETURN);
+			mv.visitMaxs(4, 3);
+			mv.visitEnd();
+		}
+		cw.visitEnd();
+
+		return cw.toByteArray();
+	}
+}
@@ -7,15 +7,20 @@
  *******************************************************************************/
 package com.ibm.layout;
 
+import java.lang.reflect.ParameterizedType;
+
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
 
 class GenLayout implements Opcodes {
 	private final Class<? extends Layout> clazz;
 	private final String interfaceClassName;
 	private final String implClassName;
+	private final boolean columnar;
 
 	/**
 	 * Instantiate GenLayout
@@ -23,21 +28,287 @@ class GenLayout implements Opcodes {
 	 * @param elementInterfaceClass, element type for Array
 	 */
 	public GenLayout(Class<? extends Layout> clazz) {
+		this(clazz, false);
+	}
+
+	/**
+	 * Instantiate GenLayout for a singleton layout, or for the element of a columnar array.
+	 * 
+	 * <p>
+	 * A columnar element reads field f of element i at columns + f.offset * columnLength + i * f.size,
+	 * where columns is the location of the array and columnLength its number of elements.
+	 * Its own location is the array location advanced by i bytes, so it can be moved by a cursor
+	 * with a stride of 1.
+	 * </p>
+	 * 
+	 * @param clazz, layout interface
+	 * @param columnar, whether to generate the element of a columnar array
+	 */
+	public GenLayout(Class<? extends Layout> clazz, boolean columnar) {
 		this.clazz = clazz;
 		this.interfaceClassName = ImplHelper.getInterfaceClassName(clazz);
-		this.implClassName = ImplHelper.getImplClassName(clazz);
+		this.implClassName = columnar ? ImplHelper.getColumnImplClassName(clazz) : ImplHelper.getImplClassName(clazz);
+		this.columnar = columnar;
 	}
 
-	private long getClassSize(ImplHelper.FieldDesc[] fields) {
-		long classSize = 0;
-		
-		for (ImplHelper.FieldDesc f : fields) {
-			classSize += f.size;
+	/**
+	 * Generate the loads of the data object and address of a primitive field,
+	 * the first two arguments of an Unsafe accessor
+	 */
+	private void genFieldAddress(MethodVisitor mv, ImplHelper.FieldDesc fieldDesc) {
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, implClassName, "data", "()[B", false);
+		if (columnar) {
+			/* columns + offset * columnLength + (location - columns) * size */
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, implClassName, "columns", "Lcom/ibm/layout/Location;");
+			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location", "getOffset", "()J", false);
+			mv.visitLdcInsn(fieldDesc.offset);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, implClassName, "columnLength", "J");
+			mv.visitInsn(LMUL);
+			mv.visitInsn(LADD);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, implClassName, "locationOffset", "J");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, implClassName, "columns", "Lcom/ibm/layout/Location;");
+			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location", "getOffset", "()J", false);
+			mv.visitInsn(LSUB);
+			mv.visitLdcInsn(fieldDesc.size);
+			mv.visitInsn(LMUL);
+			mv.visitInsn(LADD);
+		} else {
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, implClassName, "locationOffset", "J");
+			mv.visitLdcInsn(fieldDesc.offset);
+			mv.visitInsn(LADD);
 		}
-		
-		return classSize;
 	}
-	
+
+	/**
+	 * Generate the LayoutType methods that copy the data of a columnar element. The fields are
+	 * not contiguous, so they are copied in row order, through a layout of the element class;
+	 * see ColumnArray1DImpl. asByteBuffer() cannot return a view of the fields, so it throws
+	 * UnsupportedOperationException.
+	 */
+	private void genColumnarDataMethods(ClassWriter cw) {
+		final String[][] methods = {
+			{ "writeToByteArray", "(J[BII)I", null, "writeElementToByteArray" },
+			{ "readFromByteArray", "(J[BII)I", null, "readElementFromByteArray" },
+			{ "writeTo", "(Ljava/nio/channels/WritableByteChannel;)J", "java/io/IOException", "writeElementTo" },
+			{ "readFrom", "(Ljava/nio/channels/ReadableByteChannel;)J", "java/io/IOException", "readElementFrom" },
+			{ "transferTo", "(Ljava/nio/channels/FileChannel;J)J", "java/io/IOException", "transferElementTo" },
+		};
+		MethodVisitor mv;
+		for (String[] m : methods) {
+			mv = cw.visitMethod(ACC_PUBLIC + ACC_FINAL, m[0], m[1], null,
+					(null == m[2]) ? null : new String[] { m[2] });
+			mv.visitCode();
+			mv.visitLdcInsn(Type.getType("L" + interfaceClassName + ";"));
+			mv.visitVarInsn(ALOAD, 0);
+			int slot = 1;
+			for (Type arg : Type.getArgumentTypes(m[1])) {
+				mv.visitVarInsn(arg.getOpcode(ILOAD), slot);
+				slot += arg.getSize();
+			}
+			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/ColumnArray1DImpl", m[3],
+					"(Ljava/lang/Class;Lcom/ibm/layout/Layout;" + m[1].substring(1), false);
+			mv.visitInsn(Type.getReturnType(m[1]).getOpcode(IRETURN));
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+		mv = cw.visitMethod(ACC_PUBLIC + ACC_FINAL, "asByteBuffer", "()Ljava/nio/ByteBuffer;", null, null);
+		mv.visitCode();
+		mv.visitTypeInsn(NEW, "java/lang/UnsupportedOperationException");
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("asByteBuffer() needs contiguous data, not an element of a columnar array");
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/UnsupportedOperationException", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitInsn(ATHROW);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	/**
+	 * Get the signature of the Unsafe accessor of a primitive field. A floating point field
+	 * in the non-native byte order is accessed as an integer, to swap the bytes of its bits.
+	 */
+	private static String getStorageSig(ImplHelper.FieldDesc fieldDesc) {
+		if (fieldDesc.swapBytes) {
+			if ("F" == fieldDesc.sig) {
+				return "I";
+			} else if ("D" == fieldDesc.sig) {
+				return "J";
+			}
+		}
+		return fieldDesc.sig;
+	}
+
+	/**
+	 * Generate the conversion of a value read from a field in the non-native byte order.
+	 * The stack holds the value read by the Unsafe accessor of getStorageSig().
+	 */
+	private static void genSwapAfterGet(MethodVisitor mv, ImplHelper.FieldDesc fieldDesc) {
+		switch (fieldDesc.sig) {
+		case "S":
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Short", "reverseBytes", "(S)S", false);
+			break;
+		case "C":
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Character", "reverseBytes", "(C)C", false);
+			break;
+		case "I":
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "reverseBytes", "(I)I", false);
+			break;
+		case "J":
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Long", "reverseBytes", "(J)J", false);
+			break;
+		case "F":
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "reverseBytes", "(I)I", false);
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "intBitsToFloat", "(I)F", false);
+			break;
+		case "D":
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Long", "reverseBytes", "(J)J", false);
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "longBitsToDouble", "(J)D", false);
+			break;
+		}
+	}
+
+	/**
+	 * Generate the conversion of a value written to a field in the non-native byte order.
+	 * The stack holds the value, which is converted for the Unsafe accessor of getStorageSig().
+	 */
+	private static void genSwapBeforePut(MethodVisitor mv, ImplHelper.FieldDesc fieldDesc) {
+		switch (fieldDesc.sig) {
+		case "F":
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "floatToRawIntBits", "(F)I", false);
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "reverseBytes", "(I)I", false);
+			break;
+		case "D":
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "doubleToRawLongBits", "(D)J", false);
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Long", "reverseBytes", "(J)J", false);
+			break;
+		default:
+			genSwapAfterGet(mv, fieldDesc);
+			break;
+		}
+	}
+
+	/**
+	 * Get the element size of a layout array field. The element class has already been
+	 * generated, as one of the classes required by this layout.
+	 * 
+	 * @return sizeof an array element
+	 */
+	@SuppressWarnings("unchecked")
+	private long getElementSize(ImplHelper.FieldDesc fieldDesc) throws Exception {
+		ParameterizedType arrayType = (ParameterizedType) clazz.getMethod(fieldDesc.name).getGenericReturnType();
+		Class<? extends Layout> elementCls = (Class<? extends Layout>) arrayType.getActualTypeArguments()[0];
+		return LayoutHelper.getFactory().getLayoutFactory(elementCls).newInstance().sizeof();
+	}
+
+	/**
+	 * Generate the start of a getter for a nested or array field.
+	 * If the view has already been created, return it. It follows the layout to each new location.
+	 * Otherwise fall through with an empty stack, to create the view.
+	 * 
+	 * @return label of the code that returns the cached view
+	 */
+	private Label genCachedViewCheck(MethodVisitor mv, ImplHelper.FieldDesc fieldDesc) {
+		Label cached = new Label();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, implClassName, ImplHelper.getViewFieldName(fieldDesc), fieldDesc.sig);
+		mv.visitInsn(DUP);
+		mv.visitJumpInsn(IFNONNULL, cached);
+		mv.visitInsn(POP);
+		return cached;
+	}
+
+	/**
+	 * Generate the end of a getter for a nested or array field.
+	 * Cache the newly created view in local variable viewVar, and return it.
+	 */
+	private void genCachedViewStore(MethodVisitor mv, ImplHelper.FieldDesc fieldDesc, int viewVar, Label cached) {
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, viewVar);
+		mv.visitFieldInsn(PUTFIELD, implClassName, ImplHelper.getViewFieldName(fieldDesc), fieldDesc.sig);
+		mv.visitVarInsn(ALOAD, viewVar);
+		mv.visitInsn(ARETURN);
+		mv.visitLabel(cached);
+		mv.visitFrame(F_SAME1, 0, null, 1, new Object[] { fieldDesc.sig.substring(1, fieldDesc.sig.length() - 1) });
+		mv.visitInsn(ARETURN);
+	}
+
+	/**
+	 * Generate one atomic accessor of a jint or jlong field, if the interface declares it.
+	 * The accessor calls an Unsafe method with the field address, followed by the accessor arguments.
+	 * 
+	 * @param name accessor name
+	 * @param argCount number of accessor arguments, all of the field type
+	 * @param retSig return type of the accessor
+	 * @param unsafeName Unsafe method to call
+	 */
+	private void genAtomicAccessor(ClassWriter cw, ImplHelper.FieldDesc fieldDesc, String name, int argCount,
+			String retSig, String unsafeName) {
+		final Class<?> fieldCls = ("J" == fieldDesc.sig) ? long.class : int.class;
+		Class<?>[] params = new Class<?>[argCount];
+		String args = "";
+		for (int i = 0; i < argCount; i++) {
+			params[i] = fieldCls;
+			args += fieldDesc.sig;
+		}
+		try {
+			clazz.getMethod(name, params);
+		} catch (NoSuchMethodException e) {
+			/* not declared, opted out */
+			return;
+		}
+		if (fieldDesc.swapBytes) {
+			throw new IllegalArgumentException("no atomic accessors for a field in the non-native byte order: "
+					+ clazz.getName() + "." + fieldDesc.name);
+		}
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, name, "(" + args + ")" + retSig, null, null);
+		mv.visitCode();
+		mv.visitFieldInsn(GETSTATIC, implClassName, "unsafe", "Lsun/misc/Unsafe;");
+		genFieldAddress(mv, fieldDesc);
+		int slot = 1;
+		for (int i = 0; i < argCount; i++) {
+			if (long.class == fieldCls) {
+				mv.visitVarInsn(LLOAD, slot);
+				slot += 2;
+			} else {
+				mv.visitVarInsn(ILOAD, slot);
+				slot += 1;
+			}
+		}
+		mv.visitMethodInsn(INVOKEVIRTUAL, "sun/misc/Unsafe", unsafeName, "(Ljava/lang/Object;J" + args + ")" + retSig, false);
+		if ("V" == retSig) {
+			mv.visitInsn(RETURN);
+		} else if ("J" == retSig) {
+			mv.visitInsn(LRETURN);
+		} else {
+			mv.visitInsn(IRETURN);
+		}
+		mv.visitMaxs(3 + slot, slot);
+		mv.visitEnd();
+	}
+
+	/**
+	 * Generate the atomic accessors of a jint or jlong field that the interface declares
+	 */
+	private void genAtomicAccessors(ClassWriter cw, ImplHelper.FieldDesc fieldDesc) {
+		final String name = fieldDesc.name;
+		final String capName = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		final String type = ImplHelper.fieldSig2MethodType(fieldDesc.sig);
+		final String sig = fieldDesc.sig;
+
+		genAtomicAccessor(cw, fieldDesc, name + "Volatile", 0, sig, "get" + type + "Volatile");
+		genAtomicAccessor(cw, fieldDesc, name + "Volatile", 1, "V", "put" + type + "Volatile");
+		genAtomicAccessor(cw, fieldDesc, name + "Ordered", 1, "V", "putOrdered" + type);
+		genAtomicAccessor(cw, fieldDesc, "compareAndSet" + capName, 2, "Z", "compareAndSwap" + type);
+		genAtomicAccessor(cw, fieldDesc, "getAndAdd" + capName, 1, sig, "getAndAdd" + type);
+		genAtomicAccessor(cw, fieldDesc, "getAndSet" + capName, 1, sig, "getAndSet" + type);
+	}
+
 	/**
 	 * Generate bytecodes for runtime class
 	 * 
@@ -55,16 +326,41 @@ class GenLayout implements Opcodes {
 		{
 			mv = cw.visitMethod(ACC_PUBLIC, "sizeof", "()J", null, null);
 			mv.visitCode();
-			mv.visitLdcInsn(new Long(getClassSize(fieldDesc)));
+			mv.visitLdcInsn(new Long(ImplHelper.getLayoutSize(clazz)));
 			mv.visitInsn(LRETURN);
 			mv.visitMaxs(2, 1);
 			mv.visitEnd();
 		}
 		
 		
-		cw.visit(V1_8, ACC_FINAL + ACC_SUPER, implClassName, null, "java/lang/Object", new String[] {interfaceClassName});
+		cw.visit(V1_8, ACC_FINAL + ACC_SUPER, implClassName, null, "java/lang/Object", new String[] {interfaceClassName, "com/ibm/layout/Rebindable"});
 
-		{
+		if (columnar) {
+			for (int i = 0; i < fieldDesc.length; i++) {
+				if (!ImplHelper.isTypePrimitive(fieldDesc[i].sig) || ImplHelper.isPointerType(fieldDesc[i].rawType)) {
+					throw new IllegalArgumentException("columnar layout requires primitive fields: "
+							+ clazz.getName() + "." + fieldDesc[i].name);
+				}
+			}
+			fv = cw.visitField(ACC_PRIVATE + ACC_FINAL, "columns", "Lcom/ibm/layout/Location;", null, null);
+			fv.visitEnd();
+			fv = cw.visitField(ACC_PRIVATE + ACC_FINAL, "columnLength", "J", null, null);
+			fv.visitEnd();
+
+			mv = cw.visitMethod(0, "<init>", "(Lcom/ibm/layout/Location;J)V", null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitFieldInsn(PUTFIELD, implClassName, "columns", "Lcom/ibm/layout/Location;");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(LLOAD, 2);
+			mv.visitFieldInsn(PUTFIELD, implClassName, "columnLength", "J");
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(3, 4);
+			mv.visitEnd();
+		} else {
 			mv = cw.visitMethod(0, "<init>", "()V", null, null);
 			mv.visitCode();
 			mv.visitVarInsn(ALOAD, 0);
@@ -73,6 +369,13 @@ class GenLayout implements Opcodes {
 			mv.visitMaxs(1, 1);
 			mv.visitEnd();
 		}
+		// cached views of nested and array fields, moved with the layout by bindLocation() and rebindOffset()
+		for (int i = 0; i < fieldDesc.length; i++) {
+			if (ImplHelper.hasCachedView(fieldDesc[i])) {
+				fv = cw.visitField(ACC_PRIVATE, ImplHelper.getViewFieldName(fieldDesc[i]), fieldDesc[i].sig, null, null);
+				fv.visitEnd();
+			}
+		}
 		// getters
 		for (int i = 0; i < fieldDesc.length; i++) {
 			if (!ImplHelper.isPointerType(fieldDesc[i].rawType)) {
@@ -80,18 +383,15 @@ class GenLayout implements Opcodes {
 					mv = cw.visitMethod(ACC_PUBLIC, fieldDesc[i].name, "()" + fieldDesc[i].sig, null, null);
 					mv.visitCode();
 					mv.visitFieldInsn(GETSTATIC, implClassName, "unsafe", "Lsun/misc/Unsafe;");
-					mv.visitVarInsn(ALOAD, 0);
-					mv.visitFieldInsn(GETFIELD, implClassName, "location", "Lcom/ibm/layout/Location;");
-					mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location", "getData", "()[B", itf);
-					mv.visitVarInsn(ALOAD, 0);
-					mv.visitFieldInsn(GETFIELD, implClassName, "location", "Lcom/ibm/layout/Location;");
-					mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location", "getOffset", "()J", itf);
-					mv.visitLdcInsn(fieldDesc[i].offset);
-					mv.visitInsn(LADD);
+					genFieldAddress(mv, fieldDesc[i]);
 					
+					String storageSig = getStorageSig(fieldDesc[i]);
 					mv.visitMethodInsn(INVOKEVIRTUAL, "sun/misc/Unsafe",
-							"get" + ImplHelper.fieldSig2MethodType(fieldDesc[i].sig), "(Ljava/lang/Object;J)"
-									+ fieldDesc[i].sig, itf);
+							"get" + ImplHelper.fieldSig2MethodType(storageSig), "(Ljava/lang/Object;J)"
+									+ storageSig, itf);
+					if (fieldDesc[i].swapBytes) {
+						genSwapAfterGet(mv, fieldDesc[i]);
+					}
 					if (fieldDesc[i].sig == "D") {
 						mv.visitInsn(DRETURN);
 					} else if (fieldDesc[i].sig == "J") {
@@ -107,53 +407,44 @@ class GenLayout implements Opcodes {
 					/* nested field */
 					mv = cw.visitMethod(ACC_PUBLIC, fieldDesc[i].name, "()" + fieldDesc[i].sig, null, null);
 					mv.visitCode();
+					Label cached = genCachedViewCheck(mv, fieldDesc[i]);
 					mv.visitTypeInsn(NEW, ImplHelper.getImplClassName(fieldDesc[i].rawType));
 					mv.visitInsn(DUP);
 					mv.visitMethodInsn(INVOKESPECIAL, ImplHelper.getImplClassName(fieldDesc[i].rawType), "<init>", "()V", itf);
 					mv.visitVarInsn(ASTORE, 1);
-					mv.visitTypeInsn(NEW, "com/ibm/layout/Location");
-					mv.visitInsn(DUP);
 					mv.visitVarInsn(ALOAD, 0);
 					mv.visitFieldInsn(GETFIELD, this.implClassName, "location", "Lcom/ibm/layout/Location;");
 					mv.visitLdcInsn(fieldDesc[i].offset);
-					mv.visitMethodInsn(INVOKESPECIAL, "com/ibm/layout/Location", "<init>", "(Lcom/ibm/layout/Location;J)V", itf);
+					mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/Location", "forView", "(Lcom/ibm/layout/Location;J)Lcom/ibm/layout/Location;", itf);
 					mv.visitVarInsn(ASTORE, 2);
 					mv.visitVarInsn(ALOAD, 1);
 					mv.visitVarInsn(ALOAD, 2);
 					mv.visitMethodInsn(INVOKEVIRTUAL, ImplHelper.getImplClassName(fieldDesc[i].rawType), "bindLocation", "(Lcom/ibm/layout/Location;)V", itf);
-					mv.visitVarInsn(ALOAD, 1);
-					mv.visitInsn(ARETURN);
+					genCachedViewStore(mv, fieldDesc[i], 1, cached);
 					mv.visitMaxs(5, 3);
 					mv.visitEnd();
 				} else if (fieldDesc[i].dims.length == 1) {
 					mv = cw.visitMethod(ACC_PUBLIC, fieldDesc[i].name, "()" + fieldDesc[i].sig, "()"
 							+ fieldDesc[i].sigGeneric, null);
 					mv.visitCode();
+					Label cached = genCachedViewCheck(mv, fieldDesc[i]);
 					if ("" != fieldDesc[i].elementImpl) {
-						mv.visitTypeInsn(NEW, fieldDesc[i].elementImpl);
-						mv.visitInsn(DUP);
-						mv.visitMethodInsn(INVOKESPECIAL, fieldDesc[i].elementImpl, "<init>", "()V", itf);
-						mv.visitVarInsn(ASTORE, 1);
 						mv.visitTypeInsn(NEW, fieldDesc[i].impl);
 						mv.visitInsn(DUP);
 						mv.visitLdcInsn(fieldDesc[i].dims[0]);
-						mv.visitVarInsn(ALOAD, 1);
-						mv.visitMethodInsn(INVOKEVIRTUAL, fieldDesc[i].elementImpl, "sizeof", "()J", itf);
+						mv.visitLdcInsn(getElementSize(fieldDesc[i]));
 						mv.visitMethodInsn(INVOKESPECIAL, fieldDesc[i].impl, "<init>", "(JJ)V", itf);
-						mv.visitVarInsn(ASTORE, 2);
-						mv.visitTypeInsn(NEW, "com/ibm/layout/Location");
-						mv.visitInsn(DUP);
+						mv.visitVarInsn(ASTORE, 1);
 						mv.visitVarInsn(ALOAD, 0);
 						mv.visitFieldInsn(GETFIELD, this.implClassName, "location", "Lcom/ibm/layout/Location;");
 						mv.visitLdcInsn(fieldDesc[i].offset);
-						mv.visitMethodInsn(INVOKESPECIAL, "com/ibm/layout/Location", "<init>", "(Lcom/ibm/layout/Location;J)V", itf);
-						mv.visitVarInsn(ASTORE, 3);
+						mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/Location", "forView", "(Lcom/ibm/layout/Location;J)Lcom/ibm/layout/Location;", itf);
+						mv.visitVarInsn(ASTORE, 2);
+						mv.visitVarInsn(ALOAD, 1);
 						mv.visitVarInsn(ALOAD, 2);
-						mv.visitVarInsn(ALOAD, 3);
 						mv.visitMethodInsn(INVOKEVIRTUAL, fieldDesc[i].impl, "bindLocation", "(Lcom/ibm/layout/Location;)V", itf);
-						mv.visitVarInsn(ALOAD, 2);
-						mv.visitInsn(ARETURN);
-						mv.visitMaxs(6, 4);
+						genCachedViewStore(mv, fieldDesc[i], 1, cached);
+						mv.visitMaxs(6, 3);
 						mv.visitEnd();
 					} else {
 						mv.visitTypeInsn(NEW, fieldDesc[i].impl);
@@ -161,18 +452,15 @@ class GenLayout implements Opcodes {
 						mv.visitLdcInsn(fieldDesc[i].dims[0]);
 						mv.visitMethodInsn(INVOKESPECIAL, fieldDesc[i].impl, "<init>", "(J)V", itf);
 						mv.visitVarInsn(ASTORE, 1);
-						mv.visitTypeInsn(NEW, "com/ibm/layout/Location");
-						mv.visitInsn(DUP);
 						mv.visitVarInsn(ALOAD, 0);
 						mv.visitFieldInsn(GETFIELD, this.implClassName, "location", "Lcom/ibm/layout/Location;");
 						mv.visitLdcInsn(fieldDesc[i].offset);
-						mv.visitMethodInsn(INVOKESPECIAL, "com/ibm/layout/Location", "<init>", "(Lcom/ibm/layout/Location;J)V", itf);
+						mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/Location", "forView", "(Lcom/ibm/layout/Location;J)Lcom/ibm/layout/Location;", itf);
 						mv.visitVarInsn(ASTORE, 2);
 						mv.visitVarInsn(ALOAD, 1);
 						mv.visitVarInsn(ALOAD, 2);
 						mv.visitMethodInsn(INVOKEVIRTUAL, fieldDesc[i].impl, "bindLocation", "(Lcom/ibm/layout/Location;)V", itf);
-						mv.visitVarInsn(ALOAD, 1);
-						mv.visitInsn(ARETURN);
+						genCachedViewStore(mv, fieldDesc[i], 1, cached);
 						mv.visitMaxs(5, 3);
 						mv.visitEnd();
 					}
@@ -181,37 +469,31 @@ class GenLayout implements Opcodes {
 						mv = cw.visitMethod(ACC_PUBLIC, fieldDesc[i].name, "()" + fieldDesc[i].sig, "()"
 								+ fieldDesc[i].sigGeneric, null);
 						mv.visitCode();
-						mv.visitTypeInsn(NEW, fieldDesc[i].elementImpl);
-						mv.visitInsn(DUP);
-						mv.visitMethodInsn(INVOKESPECIAL, fieldDesc[i].elementImpl, "<init>", "()V", itf);
-						mv.visitVarInsn(ASTORE, 1);
+						Label cached = genCachedViewCheck(mv, fieldDesc[i]);
 						mv.visitTypeInsn(NEW, fieldDesc[i].impl);
 						mv.visitInsn(DUP);
 						mv.visitLdcInsn(fieldDesc[i].dims[0]);
 						mv.visitLdcInsn(fieldDesc[i].dims[1]);
-						mv.visitVarInsn(ALOAD, 1);
-						mv.visitMethodInsn(INVOKEVIRTUAL, fieldDesc[i].elementImpl, "sizeof", "()J", itf);
+						mv.visitLdcInsn(getElementSize(fieldDesc[i]));
 						mv.visitMethodInsn(INVOKESPECIAL, fieldDesc[i].impl, "<init>", "(JJJ)V", itf);
-						mv.visitVarInsn(ASTORE, 2);
-						mv.visitTypeInsn(NEW, "com/ibm/layout/Location");
-						mv.visitInsn(DUP);
+						mv.visitVarInsn(ASTORE, 1);
 						mv.visitVarInsn(ALOAD, 0);
 						mv.visitFieldInsn(GETFIELD, this.implClassName, "location", "Lcom/ibm/layout/Location;");
 						mv.visitLdcInsn(fieldDesc[i].offset);
-						mv.visitMethodInsn(INVOKESPECIAL, "com/ibm/layout/Location", "<init>", "(Lcom/ibm/layout/Location;J)V", itf);
-						mv.visitVarInsn(ASTORE, 3);
+						mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/Location", "forView", "(Lcom/ibm/layout/Location;J)Lcom/ibm/layout/Location;", itf);
+						mv.visitVarInsn(ASTORE, 2);
+						mv.visitVarInsn(ALOAD, 1);
 						mv.visitVarInsn(ALOAD, 2);
-						mv.visitVarInsn(ALOAD, 3);
 						mv.visitMethodInsn(INVOKEVIRTUAL, fieldDesc[i].impl, "bindLocation", "(Lcom/ibm/layout/Location;)V", itf);
-						mv.visitVarInsn(ALOAD, 2);
-						mv.visitInsn(ARETURN);
-						mv.visitMaxs(8, 4);
+						genCachedViewStore(mv, fieldDesc[i], 1, cached);
+						mv.visitMaxs(8, 3);
 						mv.visitEnd();
 					} else {
 						mv = cw.visitMethod(ACC_PUBLIC, fieldDesc[i].name, "()"
 								+ fieldDesc[i].sig, "()"
 								+ fieldDesc[i].sigGeneric, null);
 						mv.visitCode();
+						Label cached = genCachedViewCheck(mv, fieldDesc[i]);
 						mv.visitTypeInsn(NEW, fieldDesc[i].impl);
 						mv.visitInsn(DUP);
 						mv.visitLdcInsn(fieldDesc[i].dims[0]);
@@ -219,22 +501,17 @@ class GenLayout implements Opcodes {
 						mv.visitMethodInsn(INVOKESPECIAL, fieldDesc[i].impl,
 								"<init>", "(JJ)V", itf);
 						mv.visitVarInsn(ASTORE, 1);
-						mv.visitTypeInsn(NEW, "com/ibm/layout/Location");
-						mv.visitInsn(DUP);
 						mv.visitVarInsn(ALOAD, 0);
 						mv.visitFieldInsn(GETFIELD, this.implClassName,
 								"location", "Lcom/ibm/layout/Location;");
 						mv.visitLdcInsn(fieldDesc[i].offset);
-						mv.visitMethodInsn(INVOKESPECIAL,
-								"com/ibm/layout/Location", "<init>",
-								"(Lcom/ibm/layout/Location;J)V", itf);
+						mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/Location", "forView", "(Lcom/ibm/layout/Location;J)Lcom/ibm/layout/Location;", itf);
 						mv.visitVarInsn(ASTORE, 2);
 						mv.visitVarInsn(ALOAD, 1);
 						mv.visitVarInsn(ALOAD, 2);
 						mv.visitMethodInsn(INVOKEVIRTUAL, fieldDesc[i].impl,
 								"bindLocation", "(Lcom/ibm/layout/Location;)V", itf);
-						mv.visitVarInsn(ALOAD, 1);
-						mv.visitInsn(ARETURN);
+						genCachedViewStore(mv, fieldDesc[i], 1, cached);
 						mv.visitMaxs(6, 3);
 						mv.visitEnd();
 					}
@@ -248,14 +525,7 @@ class GenLayout implements Opcodes {
 				mv = cw.visitMethod(ACC_PUBLIC, fieldDesc[i].name, "(" + fieldDesc[i].sig + ")V", null, null);
 				mv.visitCode();
 				mv.visitFieldInsn(GETSTATIC, implClassName, "unsafe", "Lsun/misc/Unsafe;");
-				mv.visitVarInsn(ALOAD, 0);
-				mv.visitFieldInsn(GETFIELD, implClassName, "location", "Lcom/ibm/layout/Location;");
-				mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location", "getData", "()[B", itf);
-				mv.visitVarInsn(ALOAD, 0);
-				mv.visitFieldInsn(GETFIELD, implClassName, "location", "Lcom/ibm/layout/Location;");
-				mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location", "getOffset", "()J", itf);
-				mv.visitLdcInsn(fieldDesc[i].offset);
-				mv.visitInsn(LADD);
+				genFieldAddress(mv, fieldDesc[i]);
 				if (fieldDesc[i].sig == "D") {
 					mv.visitVarInsn(DLOAD, 1);
 				} else if (fieldDesc[i].sig == "J") {
@@ -265,15 +535,56 @@ class GenLayout implements Opcodes {
 				} else {
 					mv.visitVarInsn(ILOAD, 1);
 				}
+				String storageSig = getStorageSig(fieldDesc[i]);
+				if (fieldDesc[i].swapBytes) {
+					genSwapBeforePut(mv, fieldDesc[i]);
+				}
 				mv.visitMethodInsn(INVOKEVIRTUAL, "sun/misc/Unsafe",
-						"put" + ImplHelper.fieldSig2MethodType(fieldDesc[i].sig), "(Ljava/lang/Object;J"
-								+ fieldDesc[i].sig + ")V", itf);
+						"put" + ImplHelper.fieldSig2MethodType(storageSig), "(Ljava/lang/Object;J"
+								+ storageSig + ")V", itf);
 				mv.visitInsn(RETURN);
 				mv.visitMaxs(6, 2);
 				mv.visitEnd();
 			}
 		}
-		{
+		// atomic accessors, only generated if the interface declares them
+		for (int i = 0; i < fieldDesc.length; i++) {
+			if (("I" == fieldDesc[i].sig) || ("J" == fieldDesc[i].sig)) {
+				genAtomicAccessors(cw, fieldDesc[i]);
+			}
+		}
+		/* a layout of all primitive fields may also be copied from its columnar element, field by field */
+		boolean copyFields = true;
+		for (int i = 0; i < fieldDesc.length; i++) {
+			if (!ImplHelper.isTypePrimitive(fieldDesc[i].sig) || ImplHelper.isPointerType(fieldDesc[i].rawType)) {
+				copyFields = false;
+			}
+		}
+		if (copyFields) {
+			mv = cw.visitMethod(ACC_PRIVATE, "copyFields", "(Lcom/ibm/layout/Layout;)V", null, null);
+			mv.visitCode();
+			for (int i = 0; i < fieldDesc.length; i++) {
+				mv.visitVarInsn(ALOAD, 0);
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, interfaceClassName);
+				mv.visitMethodInsn(INVOKEINTERFACE, interfaceClassName, fieldDesc[i].name, "()" + fieldDesc[i].sig, true);
+				mv.visitMethodInsn(INVOKEVIRTUAL, implClassName, fieldDesc[i].name, "(" + fieldDesc[i].sig + ")V", itf);
+			}
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(4, 2);
+			mv.visitEnd();
+		}
+		if (columnar) {
+			/* the fields of a columnar element are not contiguous, so copy them one by one */
+			mv = cw.visitMethod(ACC_PUBLIC, "copyFrom", "(Lcom/ibm/layout/Layout;)V", null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitMethodInsn(INVOKESPECIAL, implClassName, "copyFields", "(Lcom/ibm/layout/Layout;)V", itf);
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(2, 2);
+			mv.visitEnd();
+		} else {
 			mv = cw.visitMethod(ACC_PUBLIC, "copyFrom", "(L" + implClassName + ";)V", null, null);
 			mv.visitCode();
 			mv.visitVarInsn(ALOAD, 0);
@@ -316,8 +627,13 @@ class GenLayout implements Opcodes {
 			mv.visitEnd();
 		}
 		
-		ImplHelper.genLayoutTypeImpl(cw, mv, fv, implClassName);
-		ImplHelper.getLayoutImpl(cw, mv, implClassName);
+		ImplHelper.genLayoutTypeImpl(cw, mv, fv, implClassName, fieldDesc, !columnar);
+		if (columnar) {
+			genColumnarDataMethods(cw);
+		} else {
+			ImplHelper.getLayoutImpl(cw, mv, implClassName, copyFields);
+			ImplHelper.genEqualsHashCode(cw, mv, implClassName);
+		}
 		
 		cw.visitEnd();
 
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Generates a LayoutFactory subclass for a layout impl class.
+ *
+ * <p>
+ * The factory overrides the newInstance() method that takes one argument per
+ * dimension of the impl class, and calls the impl constructor directly.
+ * Impl classes of layout arrays also take the element size, which is loaded
+ * as a constant.
+ * </p>
+ */
+class GenLayoutFactory implements Opcodes {
+	final private Class<?> implClass;
+	final private int dims;
+	final private boolean hasElementSize;
+	final private long elementSize;
+
+	/**
+	 * Instantiate GenLayoutFactory for a singleton layout or a primitive array
+	 *
+	 * @param implClass, the impl class created by the factory
+	 * @param dims, number of array dimensions, 0 for a singleton layout
+	 */
+	public GenLayoutFactory(Class<?> implClass, int dims) {
+		this(implClass, dims, false, 0);
+	}
+
+	/**
+	 * Instantiate GenLayoutFactory for a layout array
+	 *
+	 * @param implClass, the impl class created by the factory
+	 * @param dims, number of array dimensions
+	 * @param elementSize, sizeof an array element
+	 */
+	public GenLayoutFactory(Class<?> implClass, int dims, long elementSize) {
+		this(implClass, dims, true, elementSize);
+	}
+
+	private GenLayoutFactory(Class<?> implClass, int dims, boolean hasElementSize, long elementSize) {
+		this.implClass = implClass;
+		this.dims = dims;
+		this.hasElementSize = hasElementSize;
+		this.elementSize = elementSize;
+	}
+
+	/**
+	 * Get the name of the factory class for an impl class
+	 * @param implClassName impl class name, using either . or / as the delimiter
+	 * @return factory class name, using the same delimiter
+	 */
+	static String getFactoryClassName(String implClassName) {
+		return implClassName + "Factory";
+	}
+
+	/**
+	 * Get the factory superclass that declares newInstance() for the number of dimensions
+	 * @param dims 0 for a singleton layout, 1 or 2 for an array layout
+	 * @return superclass name, using / as the delimiter
+	 */
+	private static String getSuperClassName(int dims) {
+		switch (dims) {
+		case 0:
+			return "com/ibm/layout/LayoutFactory$OfLayout";
+		case 1:
+			return "com/ibm/layout/LayoutFactory$OfArray1D";
+		case 2:
+			return "com/ibm/layout/LayoutFactory$OfArray2D";
+		default:
+			throw new IllegalArgumentException("unsupported number of dimensions: " + dims);
+		}
+	}
+
+	/**
+	 * Generate bytecodes for runtime class
+	 *
+	 * @return byte array containing bytecodes for runtime class
+	 * @throws Exception
+	 */
+	public byte[] genBytecode() throws Exception {
+		ClassWriter cw = new ClassWriter(0);
+		MethodVisitor mv;
+		/* Names are in class file format: delimiter is /, no L; decoration */
+		final String implClassName = implClass.getName().replace('.', '/');
+		final String factoryClassName = getFactoryClassName(implClassName);
+		final String superClassName = getSuperClassName(dims);
+
+		cw.visit(V1_8, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, factoryClassName,
+				"L" + superClassName + "<Lcom/ibm/layout/LayoutType;>;", superClassName, null);
+
+		{
+			mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKESPECIAL, superClassName, "<init>", "()V", false);
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(1, 1);
+			mv.visitEnd();
+		}
+		{
+			String args = "";
+			for (int i = 0; i < dims; i++) {
+				args += "J";
+			}
+			mv = cw.visitMethod(ACC_PUBLIC, "newInstance", "(" + args + ")Lcom/ibm/layout/LayoutType;", null, null);
+			mv.visitCode();
+			mv.visitTypeInsn(NEW, implClassName);
+			mv.visitInsn(DUP);
+			for (int i = 0; i < dims; i++) {
+				mv.visitVarInsn(LLOAD, 1 + (2 * i));
+			}
+			String ctorArgs = args;
+			if (hasElementSize) {
+				mv.visitLdcInsn(new Long(elementSize));
+				ctorArgs += "J";
+			}
+			mv.visitMethodInsn(INVOKESPECIAL, implClassName, "<init>", "(" + ctorArgs + ")V", false);
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(2 + (2 * ctorArgs.length()), 1 + (2 * dims));
+			mv.visitEnd();
+		}
+
+		cw.visitEnd();
+
+		return cw.toByteArray();
+	}
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import java.io.File;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+
+/**
+ * Ahead-of-time generator for layout impl classes.
+ *
+ * <p>
+ * Scans a directory of compiled classes for layout interfaces, and writes the
+ * com.ibm.layout.gen.*Impl classes that would otherwise be generated at runtime,
+ * including their array and factory classes. For each layout interface, the
+ * singleton, 1D array and 2D array impl classes are written. User-defined array
+ * interfaces get their impl class as well.
+ * </p>
+ *
+ * <p>
+ * The scanned directory must be on the class path. To load the pre-generated
+ * classes, put the output directory on the class path and run with
+ * -D{@value LayoutHelper#PREGENERATED_PROPERTY}=true. The classes must be
+ * re-generated whenever a layout interface changes.
+ * </p>
+ *
+ *	<h2>Example Usage</h2>
+ *	<pre>
+ *	java -cp asm-all-5.0.jar:com.ibm.layout.bin:com.user.bin com.ibm.layout.ImplGenerator com.user.bin com.user.bin
+ *	</pre>
+ */
+public final class ImplGenerator {
+
+	private ImplGenerator() {
+	}
+
+	/**
+	 * Find the binary names of all classes below a directory
+	 * @param root the root of the class directory
+	 * @param dir the directory to scan
+	 * @param classNames list to add class names to
+	 */
+	static private void findClassNames(File root, File dir, ArrayList<String> classNames) {
+		File[] files = dir.listFiles();
+		if (null == files) {
+			return;
+		}
+		for (File f : files) {
+			if (f.isDirectory()) {
+				findClassNames(root, f, classNames);
+			} else if (f.getName().endsWith(".class")) {
+				String path = f.getPath().substring(root.getPath().length() + 1);
+				classNames.add(path.substring(0, path.length() - ".class".length()).replace(File.separatorChar, '.'));
+			}
+		}
+	}
+
+	/**
+	 * Return whether an interface or one of its superinterfaces has a @LayoutDesc
+	 * @param cls an interface
+	 * @return whether the interface describes a layout
+	 */
+	static private boolean hasLayoutDesc(Class<?> cls) {
+		if (null != cls.getAnnotation(LayoutDesc.class)) {
+			return true;
+		}
+		for (Class<?> superInterface : cls.getInterfaces()) {
+			if (hasLayoutDesc(superInterface)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the element type of a user-defined layout array interface
+	 * @param cls an interface that extends Array1D
+	 * @return the element layout class, or null if it is not declared by a superinterface
+	 */
+	@SuppressWarnings("unchecked")
+	static private Class<? extends Layout> getElementClass(Class<?> cls) {
+		for (Type t : cls.getGenericInterfaces()) {
+			if (t instanceof ParameterizedType) {
+				ParameterizedType pt = (ParameterizedType)t;
+				if ((Array1D.class == pt.getRawType()) && (pt.getActualTypeArguments()[0] instanceof Class)) {
+					return (Class<? extends Layout>)pt.getActualTypeArguments()[0];
+				}
+			} else if (t instanceof Class) {
+				Class<? extends Layout> elementCls = getElementClass((Class<?>)t);
+				if (null != elementCls) {
+					return elementCls;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the primitive element type of a user-defined primitive array interface
+	 * @param cls an interface
+	 * @return the primitive class, or null if cls is not a 1D primitive array
+	 */
+	static private Class<?> getPrimElementClass(Class<?> cls) {
+		if (ByteArray1D.class.isAssignableFrom(cls)) {
+			return byte.class;
+		} else if (BooleanArray1D.class.isAssignableFrom(cls)) {
+			return boolean.class;
+		} else if (ShortArray1D.class.isAssignableFrom(cls)) {
+			return short.class;
+		} else if (CharArray1D.class.isAssignableFrom(cls)) {
+			return char.class;
+		} else if (IntArray1D.class.isAssignableFrom(cls)) {
+			return int.class;
+		} else if (LongArray1D.class.isAssignableFrom(cls)) {
+			return long.class;
+		} else if (FloatArray1D.class.isAssignableFrom(cls)) {
+			return float.class;
+		} else if (DoubleArray1D.class.isAssignableFrom(cls)) {
+			return double.class;
+		}
+		return null;
+	}
+
+	/**
+	 * Generate the impl classes for a class, if it is a layout interface
+	 * @param cls the class
+	 * @return true if impl classes were generated
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static private boolean generate(Class<?> cls) {
+		LayoutHelper f = LayoutHelper.getFactory();
+
+		if (!cls.isInterface() || cls.getName().startsWith("com.ibm.layout.")) {
+			return false;
+		}
+		if (Layout.class.isAssignableFrom(cls)) {
+			if (!hasLayoutDesc(cls)) {
+				return false;
+			}
+			Class<? extends Layout> layoutCls = (Class<? extends Layout>)cls;
+			f.getLayoutFactory(layoutCls);
+			f.getArray1DFactory(layoutCls);
+			f.getArray2DFactory(layoutCls);
+			return true;
+		} else if (Array1D.class.isAssignableFrom(cls)) {
+			Class<? extends Layout> elementCls = getElementClass(cls);
+			if (null == elementCls) {
+				return false;
+			}
+			f.getUserArray1DFactory((Class)cls, elementCls);
+			return true;
+		} else if (LayoutType.class.isAssignableFrom(cls)) {
+			Class<?> primCls = getPrimElementClass(cls);
+			if (null == primCls) {
+				return false;
+			}
+			f.getPrimUserArray1DFactory((Class<? extends LayoutType>)cls, primCls);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Generate impl classes
+	 * @param args class directory to scan, output directory
+	 */
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.out.println("usage: ImplGenerator <class directory> <output directory>");
+			return;
+		}
+		File classDir = new File(args[0]);
+		File outputDir = new File(args[1]);
+		if (!classDir.isDirectory()) {
+			System.out.println(args[0] + " is not a directory");
+			return;
+		}
+
+		ArrayList<String> classNames = new ArrayList<String>();
+		findClassNames(classDir, classDir, classNames);
+
+		LayoutHelper.setClassDumpDir(outputDir);
+		int count = 0;
+		try {
+			/* factories of the builtin primitive arrays */
+			for (Class<?> primCls : new Class<?>[] { boolean.class, byte.class, short.class, char.class, int.class,
+					long.class, float.class, double.class }) {
+				try {
+					LayoutHelper.getFactory().getPrimArray1DFactory(primCls);
+					LayoutHelper.getFactory().getPrimArray2DFactory(primCls);
+				} catch (RuntimeException e) {
+					System.out.println("failed " + primCls + "[]: " + e);
+				}
+			}
+			for (String className : classNames) {
+				Class<?> cls;
+				try {
+					cls = Class.forName(className, false, ClassLoader.getSystemClassLoader());
+				} catch (ClassNotFoundException | LinkageError e) {
+					System.out.println("skipping " + className + ": " + e);
+					continue;
+				}
+				try {
+					if (generate(cls)) {
+						System.out.println("generated " + className);
+						count++;
+					}
+				} catch (RuntimeException e) {
+					System.out.println("failed " + className + ": " + e);
+				}
+			}
+		} finally {
+			LayoutHelper.setClassDumpDir(null);
+		}
+		System.out.println("Generated impl classes for " + count + " layouts in " + outputDir.getPath());
+	}
+}
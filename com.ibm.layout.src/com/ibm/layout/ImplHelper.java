@@ -9,7 +9,9 @@ package com.ibm.layout;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -36,7 +38,7 @@ final class ImplHelper implements Opcodes {
 		public String toString() {
 			return "FieldDesc [name=" + name + ", offset=" + offset + ", size=" + size + ", rawType=" + rawType
 					+ ", sig=" + sig + ", sigGeneric=" + sigGeneric + ", impl=" + impl + ", dims="
-					+ Arrays.toString(dims) + "]";
+					+ Arrays.toString(dims) + ", swapBytes=" + swapBytes + "]";
 		}
 
 		public String name;
@@ -48,6 +50,7 @@ final class ImplHelper implements Opcodes {
 		public String impl; // impl class for non-primitives
 		public long[] dims; // array dim
 		public String elementImpl; // element impl class for non-primitives
+		public boolean swapBytes; // primitive stored in the non-native byte order
 	}
 
 	/**
@@ -116,6 +119,7 @@ final class ImplHelper implements Opcodes {
 		desc = removePointerFromDesc(desc);
 		FieldDesc[] fldDesc = new FieldDesc[desc.length];
 		HashMap<String, String> fieldClasses = getFieldClasses(interfaceCls);
+		LayoutDesc layoutDesc = getLayoutDesc(interfaceCls);
 
 		for (int i = 0; i < desc.length; i++) {
 			String[] split = desc[i].split(":");
@@ -124,23 +128,191 @@ final class ImplHelper implements Opcodes {
 			fldDesc[i].rawType = split[1];
 			fldDesc[i].size = Long.parseLong(split[2]);
 
+			parseByteOrder(fldDesc[i], layoutDesc);
+			parseFieldDescDims(fldDesc[i]);
+			if (fldDesc[i].dims == null) {
+				parseNonArraySig(fldDesc[i], fieldClasses);
+			} else {
+				parseArraySig(fldDesc[i]);
+			}
+
 			if (i == 0) {
 				fldDesc[i].offset = 0;
 			} else {
 				fldDesc[i].offset = fldDesc[i - 1].offset + fldDesc[i - 1].size;
 			}
 
-			parseFieldDescDims(fldDesc[i]);
-			if (fldDesc[i].dims == null) {
-				parseNonArraySig(fldDesc[i], fieldClasses);
-			} else {
-				parseArraySig(fldDesc[i]);
+			if (layoutDesc.aligned()) {
+				Class<? extends Layout> nestedCls = getNestedLayoutClass(interfaceCls, fldDesc[i]);
+				long align;
+				if (null == nestedCls) {
+					align = getPrimitiveSize(getElementType(fldDesc[i].rawType));
+				} else {
+					align = getLayoutAlignment(nestedCls);
+					/* the nested layout may have padding that the descriptor does not count */
+					fldDesc[i].size = getLayoutSize(nestedCls) * getElementCount(fldDesc[i]);
+				}
+				align = Math.min(align, getPack(layoutDesc));
+				fldDesc[i].offset = alignUp(fldDesc[i].offset, align);
 			}
 		}
 
 		return fldDesc;
 	}
 
+	/**
+	 * Get the @LayoutDesc annotation that applies to an interface class:
+	 * its own, or that of the nearest superinterface that has one
+	 * @param interfaceCls A layout interface class
+	 * @return the annotation
+	 */
+	static LayoutDesc getLayoutDesc(Class<?> interfaceCls) {
+		Class<?> cls = interfaceCls;
+		while (null == cls.getAnnotation(LayoutDesc.class)) {
+			cls = getSuperInterface(cls);
+		}
+		return cls.getAnnotation(LayoutDesc.class);
+	}
+
+	static private long getPack(LayoutDesc layoutDesc) {
+		int pack = layoutDesc.pack();
+		if ((pack != 1) && (pack != 2) && (pack != 4) && (pack != 8)) {
+			throw new IllegalArgumentException("pack must be 1, 2, 4 or 8: " + pack);
+		}
+		return pack;
+	}
+
+	static private long alignUp(long offset, long align) {
+		return (offset + align - 1) & -align;
+	}
+
+	/**
+	 * Get the alignment of a layout: the largest alignment of its fields,
+	 * or 1 if the layout is not aligned.
+	 * @param interfaceCls A layout interface class
+	 * @return alignment, in bytes
+	 */
+	static public long getLayoutAlignment(Class<? extends Layout> interfaceCls) {
+		LayoutDesc layoutDesc = getLayoutDesc(interfaceCls);
+		if (!layoutDesc.aligned()) {
+			return 1;
+		}
+		long align = 1;
+		for (FieldDesc f : getFieldDesc(interfaceCls)) {
+			Class<? extends Layout> nestedCls = getNestedLayoutClass(interfaceCls, f);
+			if (null == nestedCls) {
+				align = Math.max(align, getPrimitiveSize(getElementType(f.rawType)));
+			} else {
+				align = Math.max(align, getLayoutAlignment(nestedCls));
+			}
+		}
+		return Math.min(align, getPack(layoutDesc));
+	}
+
+	/**
+	 * Get the size of a layout, including the tail padding of an aligned layout
+	 * @param interfaceCls A layout interface class
+	 * @return sizeof the layout, in bytes
+	 */
+	static public long getLayoutSize(Class<? extends Layout> interfaceCls) {
+		long size = getByteSize(getFieldDesc(interfaceCls));
+		if (getLayoutDesc(interfaceCls).aligned()) {
+			size = alignUp(size, getLayoutAlignment(interfaceCls));
+		}
+		return size;
+	}
+
+	/**
+	 * Get the layout class of a nested field, or of the elements of a layout array field
+	 * @param interfaceCls The layout class that declares the field
+	 * @param fldDesc a field descriptor
+	 * @return the nested layout class, or null if the field is primitive or a primitive array
+	 */
+	@SuppressWarnings("unchecked")
+	static private Class<? extends Layout> getNestedLayoutClass(Class<? extends Layout> interfaceCls, FieldDesc fldDesc) {
+		if (0 != getPrimitiveSize(getElementType(fldDesc.rawType))) {
+			return null;
+		}
+		try {
+			Method getter = interfaceCls.getMethod(fldDesc.name);
+			if (null == fldDesc.dims) {
+				return (Class<? extends Layout>)getter.getReturnType();
+			}
+			return (Class<? extends Layout>)((ParameterizedType)getter.getGenericReturnType()).getActualTypeArguments()[0];
+		} catch (NoSuchMethodException e) {
+			throw new IllegalArgumentException("no getter for field " + fldDesc.name + " in " + interfaceCls.getName(), e);
+		}
+	}
+
+	static private String getElementType(String rawType) {
+		return (-1 == rawType.indexOf('[')) ? rawType : getNonArrayType(rawType);
+	}
+
+	static private long getElementCount(FieldDesc fldDesc) {
+		long count = 1;
+		if (null != fldDesc.dims) {
+			for (long dim : fldDesc.dims) {
+				count *= dim;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Get the size of a primitive type from the descriptor
+	 * @param type descriptor type, e.g. jint
+	 * @return size in bytes, or 0 if the type is not primitive
+	 */
+	static private long getPrimitiveSize(String type) {
+		switch (type) {
+		case "jboolean":
+		case "jbyte":
+			return 1;
+		case "jchar":
+		case "jshort":
+			return 2;
+		case "jint":
+		case "jfloat":
+			return 4;
+		case "jlong":
+		case "jdouble":
+			return 8;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Remove the byte order suffix, _be or _le, from the type of a primitive field,
+	 * and record whether the field is in the non-native byte order
+	 * @param fldDesc a field descriptor
+	 * @param layoutDesc the annotation of the layout, giving the default byte order
+	 */
+	static private void parseByteOrder(FieldDesc fldDesc, LayoutDesc layoutDesc) {
+		String type = fldDesc.rawType;
+		int end = (-1 == type.indexOf('[')) ? type.length() : type.indexOf('[');
+		String elementType = type.substring(0, end);
+		LayoutDesc.Endian endian = layoutDesc.byteOrder();
+		if (elementType.endsWith("_be") || elementType.endsWith("_le")) {
+			String unsuffixed = elementType.substring(0, elementType.length() - 3);
+			if (0 != getPrimitiveSize(unsuffixed)) {
+				endian = elementType.endsWith("_be") ? LayoutDesc.Endian.BIG : LayoutDesc.Endian.LITTLE;
+				elementType = unsuffixed;
+				fldDesc.rawType = unsuffixed + type.substring(end);
+				if ((end < type.length()) && (getPrimitiveSize(unsuffixed) > 1) && (getNativeEndian() != endian)) {
+					throw new IllegalArgumentException("array field must be in native byte order: " + fldDesc.name);
+				}
+			}
+		}
+		/* arrays are in native byte order, and nested layouts have their own */
+		fldDesc.swapBytes = (end == type.length()) && (getPrimitiveSize(elementType) > 1)
+				&& (LayoutDesc.Endian.NATIVE != endian) && (getNativeEndian() != endian);
+	}
+
+	static private LayoutDesc.Endian getNativeEndian() {
+		return (ByteOrder.BIG_ENDIAN == ByteOrder.nativeOrder()) ? LayoutDesc.Endian.BIG : LayoutDesc.Endian.LITTLE;
+	}
+
 	static private void parseFieldDescDims(FieldDesc fldDesc) {
 		// count the dimensions
 		int dims = getArrayDim(fldDesc.rawType);
@@ -354,6 +526,34 @@ final class ImplHelper implements Opcodes {
 		}
 	}
 
+	/**
+	 * Get the primitive class of a primitive field signature
+	 * @param fieldSig a field signature
+	 * @return the primitive class, e.g. int.class, or null if the field is not primitive
+	 */
+	static Class<?> fieldSig2PrimitiveClass(String fieldSig) {
+		switch (fieldSig.charAt(0)) {
+		case 'Z':
+			return boolean.class;
+		case 'B':
+			return byte.class;
+		case 'C':
+			return char.class;
+		case 'S':
+			return short.class;
+		case 'I':
+			return int.class;
+		case 'J':
+			return long.class;
+		case 'F':
+			return float.class;
+		case 'D':
+			return double.class;
+		default:
+			return null;
+		}
+	}
+
 	/**
 	 * Return whether a field type is nested
 	 * @param fieldSig a field signature
@@ -385,6 +585,26 @@ final class ImplHelper implements Opcodes {
 	}
 	
 	
+	/**
+	 * Get the binary Impl name for the element of a columnar array.
+	 * All Impl classes reside in the same package.
+	 * @param layoutClass A singleton layout class
+	 * @return Impl class name
+	 */
+	static public String getColumnImplClassName(Class<? extends Layout> layoutClass) {
+		return getImplClassName(layoutClass.getSimpleName() + "Column");
+	}
+
+	/**
+	 * Get the binary Impl name for a columnar 1D array layout.
+	 * All Impl classes reside in the same package.
+	 * @param elementInterfaceClass the element layout class
+	 * @return Impl class name
+	 */
+	static public String getColumnArray1DClassImplName(Class<? extends Layout> elementInterfaceClass) {
+		return getImplClassName(elementInterfaceClass.getSimpleName() + "Column1D");
+	}
+
 	/**
 	 * Get the binary Impl name for a 2D array layout.
 	 * All Impl classes reside in the same package.
@@ -452,25 +672,38 @@ final class ImplHelper implements Opcodes {
 	}
 	
 
-	static void getLayoutImpl(ClassVisitor cw, MethodVisitor mv, String typeName) {
+	/**
+	 * Generate copyFrom(Layout), copying sizeof() bytes from a layout of the same impl class.
+	 * If copyFields is set, a layout of another impl class, such as a columnar element, is
+	 * copied field by field by the private method copyFields(Layout).
+	 */
+	static void getLayoutImpl(ClassVisitor cw, MethodVisitor mv, String typeName, boolean copyFields) {
 		{
 			mv = cw.visitMethod(ACC_PUBLIC, "copyFrom", "(Lcom/ibm/layout/Layout;)V", null, null);
 			mv.visitCode();
+			if (copyFields) {
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(INSTANCEOF, typeName);
+				Label l0 = new Label();
+				mv.visitJumpInsn(IFNE, l0);
+				mv.visitVarInsn(ALOAD, 0);
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitMethodInsn(INVOKESPECIAL, typeName, "copyFields", "(Lcom/ibm/layout/Layout;)V", false);
+				mv.visitInsn(RETURN);
+				mv.visitLabel(l0);
+				mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+			}
 			mv.visitFieldInsn(GETSTATIC, typeName, "unsafe", "Lsun/misc/Unsafe;");
 			mv.visitVarInsn(ALOAD, 1);
 			mv.visitTypeInsn(CHECKCAST, typeName);
-			mv.visitFieldInsn(GETFIELD, typeName, "location", "Lcom/ibm/layout/Location;");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location", "getData", "()[B", false);
+			mv.visitMethodInsn(INVOKESPECIAL, typeName, "data", "()[B", false);
 			mv.visitVarInsn(ALOAD, 1);
 			mv.visitTypeInsn(CHECKCAST, typeName);
-			mv.visitFieldInsn(GETFIELD, typeName, "location", "Lcom/ibm/layout/Location;");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location", "getOffset", "()J", false);
+			mv.visitFieldInsn(GETFIELD, typeName, "locationOffset", "J");
 			mv.visitVarInsn(ALOAD, 0);
-			mv.visitFieldInsn(GETFIELD, typeName, "location", "Lcom/ibm/layout/Location;");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location", "getData", "()[B", false);
+			mv.visitMethodInsn(INVOKESPECIAL, typeName, "data", "()[B", false);
 			mv.visitVarInsn(ALOAD, 0);
-			mv.visitFieldInsn(GETFIELD, typeName, "location", "Lcom/ibm/layout/Location;");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location", "getOffset", "()J", false);
+			mv.visitFieldInsn(GETFIELD, typeName, "locationOffset", "J");
 			mv.visitVarInsn(ALOAD, 0);
 			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof", "()J", false);
 			mv.visitMethodInsn(INVOKEVIRTUAL, "sun/misc/Unsafe", "copyMemory", "(Ljava/lang/Object;JLjava/lang/Object;JJ)V", false);
@@ -480,192 +713,178 @@ final class ImplHelper implements Opcodes {
 			}
 	}
 	
-	static void genLayoutTypeImpl(ClassVisitor cw, MethodVisitor mv, FieldVisitor fv, String typeName) 
-	{
-		{
-			fv = cw.visitField(ACC_PRIVATE + ACC_FINAL + ACC_STATIC, "unsafe", "Lsun/misc/Unsafe;", null, null);
-			fv.visitEnd();
-		}
+	/**
+	 * Generate equals() and hashCode(). Two layouts are equal if they have the same impl
+	 * class and their bound data is equal byte for byte.
+	 */
+	static void genEqualsHashCode(ClassVisitor cw, MethodVisitor mv, String typeName) {
 		{
-			mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+			mv = cw.visitMethod(ACC_PUBLIC, "equals", "(Ljava/lang/Object;)Z", null, null);
 			mv.visitCode();
-			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/UnsafeHelper", "getUnsafe", "()Lsun/misc/Unsafe;", false);
-			mv.visitFieldInsn(PUTSTATIC, typeName, "unsafe", "Lsun/misc/Unsafe;");
-			mv.visitInsn(RETURN);
-			mv.visitMaxs(1, 0);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			Label l0 = new Label();
+			mv.visitJumpInsn(IF_ACMPNE, l0);
+			mv.visitInsn(ICONST_1);
+			mv.visitInsn(IRETURN);
+			mv.visitLabel(l0);
+			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(INSTANCEOF, typeName);
+			Label l1 = new Label();
+			mv.visitJumpInsn(IFNE, l1);
+			mv.visitInsn(ICONST_0);
+			mv.visitInsn(IRETURN);
+			mv.visitLabel(l1);
+			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKESPECIAL, typeName, "data", "()[B", false);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, typeName, "locationOffset", "J");
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, typeName);
+			mv.visitMethodInsn(INVOKESPECIAL, typeName, "data", "()[B", false);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, typeName);
+			mv.visitFieldInsn(GETFIELD, typeName, "locationOffset", "J");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof", "()J", false);
+			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/UnsafeHelper", "bytesEqual",
+					"(Ljava/lang/Object;JLjava/lang/Object;JJ)Z", false);
+			mv.visitInsn(IRETURN);
+			mv.visitMaxs(8, 2);
 			mv.visitEnd();
 		}
 		{
-			fv = cw.visitField(ACC_PROTECTED, "location", "Lcom/ibm/layout/Location;", null, null);
-			fv.visitEnd();
-		}
-		
-		{
-			mv = cw.visitMethod(ACC_PUBLIC, "bindLocation",
-					"(Lcom/ibm/layout/Location;)V", null, null);
+			mv = cw.visitMethod(ACC_PUBLIC, "hashCode", "()I", null, null);
 			mv.visitCode();
-			mv.visitVarInsn(ALOAD, 1);
 			mv.visitVarInsn(ALOAD, 0);
-			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof",
-					"()J", false);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
-					"checkDataFits", "(J)Z", false);
-			Label l0 = new Label();
-			mv.visitJumpInsn(IFEQ, l0);
+			mv.visitMethodInsn(INVOKESPECIAL, typeName, "data", "()[B", false);
 			mv.visitVarInsn(ALOAD, 0);
-			mv.visitVarInsn(ALOAD, 1);
-			mv.visitFieldInsn(PUTFIELD, typeName, "location",
-					"Lcom/ibm/layout/Location;");
-			mv.visitLabel(l0);
-			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
-			mv.visitInsn(RETURN);
-			mv.visitMaxs(3, 2);
+			mv.visitFieldInsn(GETFIELD, typeName, "locationOffset", "J");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof", "()J", false);
+			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/UnsafeHelper", "bytesHash",
+					"(Ljava/lang/Object;JJ)I", false);
+			mv.visitInsn(IRETURN);
+			mv.visitMaxs(5, 1);
 			mv.visitEnd();
 		}
+	}
+
+	/**
+	 * Return whether a generated layout caches the view returned by a field getter.
+	 * Nested and array fields are cached; primitive and pointer fields are not.
+	 * @param fldDesc a field descriptor
+	 * @return whether the field has a cached view
+	 */
+	static boolean hasCachedView(FieldDesc fldDesc) {
+		return !isPointerType(fldDesc.rawType) && !isTypePrimitive(fldDesc.sig);
+	}
+
+	/**
+	 * Get the name of the generated field that caches the view for a nested or array field
+	 * @param fldDesc a field descriptor
+	 * @return field name
+	 */
+	static String getViewFieldName(FieldDesc fldDesc) {
+		return fldDesc.name + "$view";
+	}
+
+	/**
+	 * Generate the LayoutType methods that pass the data as sizeof() contiguous bytes at the location
+	 */
+	private static void genContiguousDataMethods(ClassVisitor cw, MethodVisitor mv, String typeName) {
 		{
 			mv = cw.visitMethod(ACC_PUBLIC + ACC_FINAL, "writeToByteArray",
 					"(J[BII)I", null, null);
 			mv.visitCode();
-			mv.visitVarInsn(ILOAD, 5);
-			mv.visitInsn(I2L);
-			mv.visitVarInsn(ALOAD, 0);
-			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof",
-					"()J", false);
-			mv.visitInsn(LCMP);
-			Label l0 = new Label();
-			mv.visitJumpInsn(IFLE, l0);
-			mv.visitVarInsn(ALOAD, 0);
-			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof",
-					"()J", false);
-			mv.visitInsn(L2I);
-			mv.visitVarInsn(ISTORE, 5);
-			mv.visitLabel(l0);
-			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
 			mv.visitVarInsn(ALOAD, 0);
 			mv.visitFieldInsn(GETFIELD, typeName, "location",
 					"Lcom/ibm/layout/Location;");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
-					"getData", "()[B", false);
-			Label l1 = new Label();
-			mv.visitJumpInsn(IFNULL, l1);
 			mv.visitVarInsn(ALOAD, 0);
-			mv.visitFieldInsn(GETFIELD, typeName, "location",
-					"Lcom/ibm/layout/Location;");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
-					"getData", "()[B", false);
+			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof",
+					"()J", false);
 			mv.visitVarInsn(LLOAD, 1);
-			mv.visitInsn(L2I);
 			mv.visitVarInsn(ALOAD, 3);
 			mv.visitVarInsn(ILOAD, 4);
 			mv.visitVarInsn(ILOAD, 5);
-			mv.visitMethodInsn(INVOKESTATIC, "java/lang/System", "arraycopy",
-					"(Ljava/lang/Object;ILjava/lang/Object;II)V", false);
-			Label l2 = new Label();
-			mv.visitJumpInsn(GOTO, l2);
-			mv.visitLabel(l1);
-			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
-			mv.visitFieldInsn(GETSTATIC, typeName, "unsafe",
-					"Lsun/misc/Unsafe;");
-			mv.visitInsn(ACONST_NULL);
+			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/UnsafeHelper",
+					"writeToByteArray", "(Lcom/ibm/layout/Location;JJ[BII)I", false);
+			mv.visitInsn(IRETURN);
+			mv.visitMaxs(9, 6);
+			mv.visitEnd();
+		}
+		{
+			mv = cw.visitMethod(ACC_PUBLIC + ACC_FINAL, "readFromByteArray",
+					"(J[BII)I", null, null);
+			mv.visitCode();
 			mv.visitVarInsn(ALOAD, 0);
 			mv.visitFieldInsn(GETFIELD, typeName, "location",
 					"Lcom/ibm/layout/Location;");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
-					"getOffset", "()J", false);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof",
+					"()J", false);
 			mv.visitVarInsn(LLOAD, 1);
-			mv.visitInsn(LADD);
-			mv.visitVarInsn(ALOAD, 3);
-			mv.visitFieldInsn(GETSTATIC, typeName, "unsafe",
-					"Lsun/misc/Unsafe;");
 			mv.visitVarInsn(ALOAD, 3);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object", "getClass",
-					"()Ljava/lang/Class;", false);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "sun/misc/Unsafe",
-					"arrayBaseOffset", "(Ljava/lang/Class;)I", false);
-			mv.visitInsn(I2L);
-			mv.visitVarInsn(ILOAD, 5);
-			mv.visitInsn(I2L);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "sun/misc/Unsafe", "copyMemory",
-					"(Ljava/lang/Object;JLjava/lang/Object;JJ)V", false);
-			mv.visitLabel(l2);
-			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+			mv.visitVarInsn(ILOAD, 4);
 			mv.visitVarInsn(ILOAD, 5);
+			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/UnsafeHelper",
+					"readFromByteArray", "(Lcom/ibm/layout/Location;JJ[BII)I", false);
 			mv.visitInsn(IRETURN);
 			mv.visitMaxs(9, 6);
 			mv.visitEnd();
 		}
 		{
-			mv = cw.visitMethod(ACC_PUBLIC + ACC_FINAL, "readFromByteArray",
-					"(J[BII)I", null, null);
+			mv = cw.visitMethod(ACC_PUBLIC + ACC_FINAL, "writeTo",
+					"(Ljava/nio/channels/WritableByteChannel;)J", null, new String[] { "java/io/IOException" });
 			mv.visitCode();
-			mv.visitVarInsn(ILOAD, 5);
-			mv.visitInsn(I2L);
 			mv.visitVarInsn(ALOAD, 0);
-			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof",
-					"()J", false);
-			mv.visitInsn(LCMP);
-			Label l0 = new Label();
-			mv.visitJumpInsn(IFLE, l0);
+			mv.visitFieldInsn(GETFIELD, typeName, "location",
+					"Lcom/ibm/layout/Location;");
 			mv.visitVarInsn(ALOAD, 0);
 			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof",
 					"()J", false);
-			mv.visitInsn(L2I);
-			mv.visitVarInsn(ISTORE, 5);
-			mv.visitLabel(l0);
-			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/ChannelHelper",
+					"writeTo", "(Lcom/ibm/layout/Location;JLjava/nio/channels/WritableByteChannel;)J", false);
+			mv.visitInsn(LRETURN);
+			mv.visitMaxs(5, 2);
+			mv.visitEnd();
+		}
+		{
+			mv = cw.visitMethod(ACC_PUBLIC + ACC_FINAL, "readFrom",
+					"(Ljava/nio/channels/ReadableByteChannel;)J", null, new String[] { "java/io/IOException" });
+			mv.visitCode();
 			mv.visitVarInsn(ALOAD, 0);
 			mv.visitFieldInsn(GETFIELD, typeName, "location",
 					"Lcom/ibm/layout/Location;");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
-					"getData", "()[B", false);
-			Label l1 = new Label();
-			mv.visitJumpInsn(IFNULL, l1);
-			mv.visitVarInsn(ALOAD, 3);
-			mv.visitVarInsn(ILOAD, 4);
 			mv.visitVarInsn(ALOAD, 0);
-			mv.visitFieldInsn(GETFIELD, typeName, "location",
-					"Lcom/ibm/layout/Location;");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
-					"getData", "()[B", false);
-			mv.visitVarInsn(LLOAD, 1);
-			mv.visitInsn(L2I);
-			mv.visitVarInsn(ILOAD, 5);
-			mv.visitMethodInsn(INVOKESTATIC, "java/lang/System", "arraycopy",
-					"(Ljava/lang/Object;ILjava/lang/Object;II)V", false);
-			Label l2 = new Label();
-			mv.visitJumpInsn(GOTO, l2);
-			mv.visitLabel(l1);
-			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
-			mv.visitFieldInsn(GETSTATIC, typeName, "unsafe",
-					"Lsun/misc/Unsafe;");
-			mv.visitVarInsn(ALOAD, 3);
-			mv.visitFieldInsn(GETSTATIC, typeName, "unsafe",
-					"Lsun/misc/Unsafe;");
-			mv.visitVarInsn(ALOAD, 3);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object", "getClass",
-					"()Ljava/lang/Class;", false);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "sun/misc/Unsafe",
-					"arrayBaseOffset", "(Ljava/lang/Class;)I", false);
-			mv.visitVarInsn(ILOAD, 4);
-			mv.visitInsn(IADD);
-			mv.visitInsn(I2L);
-			mv.visitInsn(ACONST_NULL);
+			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof",
+					"()J", false);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/ChannelHelper",
+					"readFrom", "(Lcom/ibm/layout/Location;JLjava/nio/channels/ReadableByteChannel;)J", false);
+			mv.visitInsn(LRETURN);
+			mv.visitMaxs(5, 2);
+			mv.visitEnd();
+		}
+		{
+			mv = cw.visitMethod(ACC_PUBLIC + ACC_FINAL, "transferTo",
+					"(Ljava/nio/channels/FileChannel;J)J", null, new String[] { "java/io/IOException" });
+			mv.visitCode();
 			mv.visitVarInsn(ALOAD, 0);
 			mv.visitFieldInsn(GETFIELD, typeName, "location",
 					"Lcom/ibm/layout/Location;");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
-					"getOffset", "()J", false);
-			mv.visitVarInsn(LLOAD, 1);
-			mv.visitInsn(LADD);
-			mv.visitVarInsn(ILOAD, 5);
-			mv.visitInsn(I2L);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "sun/misc/Unsafe", "copyMemory",
-					"(Ljava/lang/Object;JLjava/lang/Object;JJ)V", false);
-			mv.visitLabel(l2);
-			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
-			mv.visitVarInsn(ILOAD, 5);
-			mv.visitInsn(IRETURN);
-			mv.visitMaxs(9, 6);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof",
+					"()J", false);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitVarInsn(LLOAD, 2);
+			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/ChannelHelper",
+					"transferTo", "(Lcom/ibm/layout/Location;JLjava/nio/channels/FileChannel;J)J", false);
+			mv.visitInsn(LRETURN);
+			mv.visitMaxs(6, 4);
 			mv.visitEnd();
 		}
 		{
@@ -675,77 +894,185 @@ final class ImplHelper implements Opcodes {
 			mv.visitVarInsn(ALOAD, 0);
 			mv.visitFieldInsn(GETFIELD, typeName, "location",
 					"Lcom/ibm/layout/Location;");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof",
+					"()J", false);
+			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/UnsafeHelper",
+					"asByteBuffer", "(Lcom/ibm/layout/Location;J)Ljava/nio/ByteBuffer;", false);
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(3, 1);
+			mv.visitEnd();
+		}
+	}
+
+	static void genLayoutTypeImpl(ClassVisitor cw, MethodVisitor mv, FieldVisitor fv, String typeName) {
+		genLayoutTypeImpl(cw, mv, fv, typeName, new FieldDesc[0], true);
+	}
+
+	/**
+	 * Generate the LayoutType and Rebindable methods. bindLocation() re-points the cached views
+	 * of the given fields at the new location, and rebindOffset() moves them with the layout.
+	 * If the data is contiguous, the byte copy, channel and byte buffer methods treat it as
+	 * sizeof() bytes at the location; otherwise the caller generates them.
+	 */
+	static void genLayoutTypeImpl(ClassVisitor cw, MethodVisitor mv, FieldVisitor fv, String typeName,
+			FieldDesc[] fldDesc, boolean contiguous) 
+	{
+		{
+			fv = cw.visitField(ACC_PRIVATE + ACC_FINAL + ACC_STATIC, "unsafe", "Lsun/misc/Unsafe;", null, null);
+			fv.visitEnd();
+		}
+		{
+			mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+			mv.visitCode();
+			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/UnsafeHelper", "getUnsafe", "()Lsun/misc/Unsafe;", false);
+			mv.visitFieldInsn(PUTSTATIC, typeName, "unsafe", "Lsun/misc/Unsafe;");
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(1, 0);
+			mv.visitEnd();
+		}
+		{
+			fv = cw.visitField(ACC_PROTECTED, "location", "Lcom/ibm/layout/Location;", null, null);
+			fv.visitEnd();
+		}
+		{
+			/* data and offset of the location, copied by bindLocation() so accessors do not go through the location */
+			fv = cw.visitField(ACC_PROTECTED, "locationData", "[B", null, null);
+			fv.visitEnd();
+			fv = cw.visitField(ACC_PROTECTED, "locationOffset", "J", null, null);
+			fv.visitEnd();
+		}
+		
+		{
+			mv = cw.visitMethod(ACC_PUBLIC, "bindLocation",
+					"(Lcom/ibm/layout/Location;)V", null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof",
+					"()J", false);
 			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
-					"getData", "()[B", false);
+					"checkDataFits", "(J)Z", false);
 			Label l0 = new Label();
-			mv.visitJumpInsn(IFNULL, l0);
-			mv.visitTypeInsn(NEW, "java/lang/UnsupportedOperationException");
-			mv.visitInsn(DUP);
-			mv.visitLdcInsn("not off-heap");
-			mv.visitMethodInsn(INVOKESPECIAL,
-					"java/lang/UnsupportedOperationException", "<init>",
-					"(Ljava/lang/String;)V", false);
-			mv.visitInsn(ATHROW);
-			mv.visitLabel(l0);
-			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+			mv.visitJumpInsn(IFEQ, l0);
 			mv.visitVarInsn(ALOAD, 0);
-			mv.visitFieldInsn(GETFIELD, typeName, "location",
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitFieldInsn(PUTFIELD, typeName, "location",
 					"Lcom/ibm/layout/Location;");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
-					"getOffset", "()J", false);
 			mv.visitVarInsn(ALOAD, 0);
-			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, "sizeof",
-					"()J", false);
-			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/UnsafeHelper",
-					"bufferFromAddress", "(JJ)Ljava/nio/ByteBuffer;", false);
-			mv.visitVarInsn(ASTORE, 1);
 			mv.visitVarInsn(ALOAD, 1);
-			mv.visitMethodInsn(INVOKESTATIC, "java/nio/ByteOrder",
-					"nativeOrder", "()Ljava/nio/ByteOrder;", false);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/nio/ByteBuffer", "order",
-					"(Ljava/nio/ByteOrder;)Ljava/nio/ByteBuffer;", false);
-			mv.visitInsn(POP);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
+					"getData", "()[B", false);
+			mv.visitFieldInsn(PUTFIELD, typeName, "locationData", "[B");
+			mv.visitVarInsn(ALOAD, 0);
 			mv.visitVarInsn(ALOAD, 1);
-			mv.visitInsn(ARETURN);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
+					"getOffset", "()J", false);
+			mv.visitFieldInsn(PUTFIELD, typeName, "locationOffset", "J");
+			for (FieldDesc f : fldDesc) {
+				if (hasCachedView(f)) {
+					/* re-point a view that has been created, so it stays valid */
+					Label next = new Label();
+					mv.visitVarInsn(ALOAD, 0);
+					mv.visitFieldInsn(GETFIELD, typeName, getViewFieldName(f), f.sig);
+					mv.visitJumpInsn(IFNULL, next);
+					mv.visitVarInsn(ALOAD, 0);
+					mv.visitFieldInsn(GETFIELD, typeName, getViewFieldName(f), f.sig);
+					mv.visitVarInsn(ALOAD, 1);
+					mv.visitLdcInsn(f.offset);
+					mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/Location", "forView",
+							"(Lcom/ibm/layout/Location;J)Lcom/ibm/layout/Location;", false);
+					mv.visitMethodInsn(INVOKEINTERFACE, f.sig.substring(1, f.sig.length() - 1), "bindLocation",
+							"(Lcom/ibm/layout/Location;)V", true);
+					mv.visitLabel(next);
+					mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+				}
+			}
+			mv.visitLabel(l0);
+			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+			mv.visitInsn(RETURN);
 			mv.visitMaxs(4, 2);
 			mv.visitEnd();
 		}
 		{
-			mv = cw.visitMethod(ACC_PUBLIC + ACC_FINAL + ACC_STATIC,
-					"asByteBuffer",
-					"(Lcom/ibm/layout/Location;J)Ljava/nio/ByteBuffer;", null,
-					null);
+			mv = cw.visitMethod(ACC_PUBLIC, "rebindOffset", "(J)V", null, null);
 			mv.visitCode();
 			mv.visitVarInsn(ALOAD, 0);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
-					"getData", "()[B", false);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, typeName, "location", "Lcom/ibm/layout/Location;");
+			mv.visitVarInsn(LLOAD, 1);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location", "moveView",
+					"(J)Lcom/ibm/layout/Location;", false);
+			mv.visitFieldInsn(PUTFIELD, typeName, "location", "Lcom/ibm/layout/Location;");
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitInsn(DUP);
+			mv.visitFieldInsn(GETFIELD, typeName, "locationOffset", "J");
+			mv.visitVarInsn(LLOAD, 1);
+			mv.visitInsn(LADD);
+			mv.visitFieldInsn(PUTFIELD, typeName, "locationOffset", "J");
+			for (FieldDesc f : fldDesc) {
+				if (hasCachedView(f)) {
+					/* the views move with the layout */
+					Label next = new Label();
+					mv.visitVarInsn(ALOAD, 0);
+					mv.visitFieldInsn(GETFIELD, typeName, getViewFieldName(f), f.sig);
+					mv.visitJumpInsn(IFNULL, next);
+					mv.visitVarInsn(ALOAD, 0);
+					mv.visitFieldInsn(GETFIELD, typeName, getViewFieldName(f), f.sig);
+					mv.visitTypeInsn(CHECKCAST, "com/ibm/layout/Rebindable");
+					mv.visitVarInsn(LLOAD, 1);
+					mv.visitMethodInsn(INVOKEINTERFACE, "com/ibm/layout/Rebindable", "rebindOffset", "(J)V", true);
+					mv.visitLabel(next);
+					mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+				}
+			}
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(5, 3);
+			mv.visitEnd();
+		}
+		{
+			/*
+			 * the data of the bound location. An unbound layout has no data and offset 0, which a bound
+			 * one never has, so it throws NullPointerException. The location itself is not loaded.
+			 */
+			mv = cw.visitMethod(ACC_PRIVATE + ACC_FINAL, "data", "()[B", null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, typeName, "locationData", "[B");
+			mv.visitInsn(DUP);
 			Label l0 = new Label();
-			mv.visitJumpInsn(IFNULL, l0);
-			mv.visitTypeInsn(NEW, "java/lang/UnsupportedOperationException");
+			mv.visitJumpInsn(IFNONNULL, l0);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, typeName, "locationOffset", "J");
+			mv.visitInsn(LCONST_0);
+			mv.visitInsn(LCMP);
+			mv.visitJumpInsn(IFNE, l0);
+			mv.visitTypeInsn(NEW, "java/lang/NullPointerException");
 			mv.visitInsn(DUP);
-			mv.visitLdcInsn("not off-heap");
-			mv.visitMethodInsn(INVOKESPECIAL,
-					"java/lang/UnsupportedOperationException", "<init>",
-					"(Ljava/lang/String;)V", false);
+			mv.visitLdcInsn("layout is not bound to a location");
+			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/NullPointerException", "<init>", "(Ljava/lang/String;)V", false);
 			mv.visitInsn(ATHROW);
 			mv.visitLabel(l0);
-			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+			mv.visitFrame(Opcodes.F_SAME1, 0, null, 1, new Object[] { "[B" });
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(5, 1);
+			mv.visitEnd();
+		}
+		if (contiguous) {
+			genContiguousDataMethods(cw, mv, typeName);
+		}
+		{
+			mv = cw.visitMethod(ACC_PUBLIC + ACC_FINAL + ACC_STATIC,
+					"asByteBuffer",
+					"(Lcom/ibm/layout/Location;J)Ljava/nio/ByteBuffer;", null,
+					null);
+			mv.visitCode();
 			mv.visitVarInsn(ALOAD, 0);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/Location",
-					"getOffset", "()J", false);
 			mv.visitVarInsn(LLOAD, 1);
 			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/UnsafeHelper",
-					"bufferFromAddress", "(JJ)Ljava/nio/ByteBuffer;", false);
-			mv.visitVarInsn(ASTORE, 3);
-			mv.visitVarInsn(ALOAD, 3);
-			mv.visitMethodInsn(INVOKESTATIC, "java/nio/ByteOrder",
-					"nativeOrder", "()Ljava/nio/ByteOrder;", false);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/nio/ByteBuffer", "order",
-					"(Ljava/nio/ByteOrder;)Ljava/nio/ByteBuffer;", false);
-			mv.visitInsn(POP);
-			mv.visitVarInsn(ALOAD, 3);
+					"asByteBuffer", "(Lcom/ibm/layout/Location;J)Ljava/nio/ByteBuffer;", false);
 			mv.visitInsn(ARETURN);
-			mv.visitMaxs(4, 4);
+			mv.visitMaxs(3, 3);
 			mv.visitEnd();
 		}
 		{
@@ -754,123 +1081,31 @@ final class ImplHelper implements Opcodes {
 					"<T::Lcom/ibm/layout/Layout;>(Ljava/lang/Class<TT;>;)TT;",
 					null);
 			mv.visitCode();
-			Label l0 = new Label();
-			Label l1 = new Label();
-			Label l2 = new Label();
-			mv.visitTryCatchBlock(l0, l1, l2, "java/lang/NoSuchMethodException");
-			Label l3 = new Label();
-			mv.visitTryCatchBlock(l0, l1, l3, "java/lang/SecurityException");
-			Label l4 = new Label();
-			mv.visitTryCatchBlock(l0, l1, l4,
-					"java/lang/InstantiationException");
-			Label l5 = new Label();
-			mv.visitTryCatchBlock(l0, l1, l5,
-					"java/lang/IllegalAccessException");
-			Label l6 = new Label();
-			mv.visitTryCatchBlock(l0, l1, l6,
-					"java/lang/IllegalArgumentException");
-			Label l7 = new Label();
-			mv.visitTryCatchBlock(l0, l1, l7,
-					"java/lang/reflect/InvocationTargetException");
-			mv.visitLabel(l0);
 			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/LayoutHelper",
 					"getFactory", "()Lcom/ibm/layout/LayoutHelper;", false);
 			mv.visitVarInsn(ALOAD, 1);
 			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/LayoutHelper",
-					"genLayoutImpl", "(Ljava/lang/Class;)Ljava/lang/Class;",
+					"getLayoutFactory", "(Ljava/lang/Class;)Lcom/ibm/layout/LayoutFactory$OfLayout;",
 					false);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/LayoutFactory$OfLayout",
+					"newInstance", "()Lcom/ibm/layout/LayoutType;", false);
+			mv.visitTypeInsn(CHECKCAST, "com/ibm/layout/Layout");
 			mv.visitVarInsn(ASTORE, 2);
 			mv.visitVarInsn(ALOAD, 2);
-			mv.visitInsn(ICONST_0);
-			mv.visitTypeInsn(ANEWARRAY, "java/lang/Class");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class",
-					"getDeclaredConstructor",
-					"([Ljava/lang/Class;)Ljava/lang/reflect/Constructor;",
-					false);
-			mv.visitVarInsn(ASTORE, 3);
-			mv.visitVarInsn(ALOAD, 3);
-			mv.visitInsn(ICONST_1);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Constructor",
-					"setAccessible", "(Z)V", false);
-			mv.visitVarInsn(ALOAD, 3);
-			mv.visitInsn(ICONST_0);
-			mv.visitTypeInsn(ANEWARRAY, "java/lang/Object");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Constructor",
-					"newInstance", "([Ljava/lang/Object;)Ljava/lang/Object;",
-					false);
-			mv.visitTypeInsn(CHECKCAST, "com/ibm/layout/Layout");
-			mv.visitVarInsn(ASTORE, 4);
-			mv.visitVarInsn(ALOAD, 4);
+			/* a copy of the location, so the cast layout stays put if the receiver is moved */
+			mv.visitTypeInsn(NEW, "com/ibm/layout/Location");
+			mv.visitInsn(DUP);
 			mv.visitVarInsn(ALOAD, 0);
 			mv.visitFieldInsn(GETFIELD, typeName, "location",
 					"Lcom/ibm/layout/Location;");
+			mv.visitInsn(LCONST_0);
+			mv.visitMethodInsn(INVOKESPECIAL, "com/ibm/layout/Location", "<init>",
+					"(Lcom/ibm/layout/Location;J)V", false);
 			mv.visitMethodInsn(INVOKEINTERFACE, "com/ibm/layout/Layout",
 					"bindLocation", "(Lcom/ibm/layout/Location;)V", true);
-			mv.visitVarInsn(ALOAD, 4);
-			mv.visitLabel(l1);
-			mv.visitInsn(ARETURN);
-			mv.visitLabel(l2);
-			mv.visitFrame(Opcodes.F_SAME1, 0, null, 1,
-					new Object[] { "java/lang/NoSuchMethodException" });
-			mv.visitVarInsn(ASTORE, 2);
-			mv.visitVarInsn(ALOAD, 2);
-			mv.visitMethodInsn(INVOKEVIRTUAL,
-					"java/lang/NoSuchMethodException", "printStackTrace",
-					"()V", false);
-			Label l8 = new Label();
-			mv.visitJumpInsn(GOTO, l8);
-			mv.visitLabel(l3);
-			mv.visitFrame(Opcodes.F_SAME1, 0, null, 1,
-					new Object[] { "java/lang/SecurityException" });
-			mv.visitVarInsn(ASTORE, 2);
-			mv.visitVarInsn(ALOAD, 2);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/SecurityException",
-					"printStackTrace", "()V", false);
-			mv.visitJumpInsn(GOTO, l8);
-			mv.visitLabel(l4);
-			mv.visitFrame(Opcodes.F_SAME1, 0, null, 1,
-					new Object[] { "java/lang/InstantiationException" });
-			mv.visitVarInsn(ASTORE, 2);
-			mv.visitVarInsn(ALOAD, 2);
-			mv.visitMethodInsn(INVOKEVIRTUAL,
-					"java/lang/InstantiationException", "printStackTrace",
-					"()V", false);
-			mv.visitJumpInsn(GOTO, l8);
-			mv.visitLabel(l5);
-			mv.visitFrame(Opcodes.F_SAME1, 0, null, 1,
-					new Object[] { "java/lang/IllegalAccessException" });
-			mv.visitVarInsn(ASTORE, 2);
 			mv.visitVarInsn(ALOAD, 2);
-			mv.visitMethodInsn(INVOKEVIRTUAL,
-					"java/lang/IllegalAccessException", "printStackTrace",
-					"()V", false);
-			mv.visitJumpInsn(GOTO, l8);
-			mv.visitLabel(l6);
-			mv.visitFrame(Opcodes.F_SAME1, 0, null, 1,
-					new Object[] { "java/lang/IllegalArgumentException" });
-			mv.visitVarInsn(ASTORE, 2);
-			mv.visitVarInsn(ALOAD, 2);
-			mv.visitMethodInsn(INVOKEVIRTUAL,
-					"java/lang/IllegalArgumentException", "printStackTrace",
-					"()V", false);
-			mv.visitJumpInsn(GOTO, l8);
-			mv.visitLabel(l7);
-			mv.visitFrame(
-					Opcodes.F_SAME1,
-					0,
-					null,
-					1,
-					new Object[] { "java/lang/reflect/InvocationTargetException" });
-			mv.visitVarInsn(ASTORE, 2);
-			mv.visitVarInsn(ALOAD, 2);
-			mv.visitMethodInsn(INVOKEVIRTUAL,
-					"java/lang/reflect/InvocationTargetException",
-					"printStackTrace", "()V", false);
-			mv.visitLabel(l8);
-			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
-			mv.visitInsn(ACONST_NULL);
 			mv.visitInsn(ARETURN);
-			mv.visitMaxs(2, 5);
+			mv.visitMaxs(6, 3);
 			mv.visitEnd();
 		}
 		{
@@ -881,175 +1116,32 @@ final class ImplHelper implements Opcodes {
 					"<T::Lcom/ibm/layout/Layout;>(Ljava/lang/Class<TT;>;J)Lcom/ibm/layout/Array1D<TT;>;",
 					null);
 			mv.visitCode();
-			Label l0 = new Label();
-			Label l1 = new Label();
-			Label l2 = new Label();
-			mv.visitTryCatchBlock(l0, l1, l2, "java/lang/NoSuchMethodException");
-			Label l3 = new Label();
-			mv.visitTryCatchBlock(l0, l1, l3, "java/lang/SecurityException");
-			Label l4 = new Label();
-			mv.visitTryCatchBlock(l0, l1, l4,
-					"java/lang/InstantiationException");
-			Label l5 = new Label();
-			mv.visitTryCatchBlock(l0, l1, l5,
-					"java/lang/IllegalAccessException");
-			Label l6 = new Label();
-			mv.visitTryCatchBlock(l0, l1, l6,
-					"java/lang/IllegalArgumentException");
-			Label l7 = new Label();
-			mv.visitTryCatchBlock(l0, l1, l7,
-					"java/lang/reflect/InvocationTargetException");
-			mv.visitLabel(l0);
 			mv.visitMethodInsn(INVOKESTATIC, "com/ibm/layout/LayoutHelper",
 					"getFactory", "()Lcom/ibm/layout/LayoutHelper;", false);
-			mv.visitVarInsn(ASTORE, 4);
-			mv.visitVarInsn(ALOAD, 4);
-			mv.visitVarInsn(ALOAD, 1);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/LayoutHelper",
-					"genLayoutImpl", "(Ljava/lang/Class;)Ljava/lang/Class;",
-					false);
-			mv.visitVarInsn(ASTORE, 5);
-			mv.visitVarInsn(ALOAD, 5);
-			mv.visitInsn(ICONST_0);
-			mv.visitTypeInsn(ANEWARRAY, "java/lang/Class");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class",
-					"getDeclaredConstructor",
-					"([Ljava/lang/Class;)Ljava/lang/reflect/Constructor;",
-					false);
-			mv.visitVarInsn(ASTORE, 6);
-			mv.visitVarInsn(ALOAD, 6);
-			mv.visitInsn(ICONST_1);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Constructor",
-					"setAccessible", "(Z)V", false);
-			mv.visitVarInsn(ALOAD, 6);
-			mv.visitInsn(ICONST_0);
-			mv.visitTypeInsn(ANEWARRAY, "java/lang/Object");
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Constructor",
-					"newInstance", "([Ljava/lang/Object;)Ljava/lang/Object;",
-					false);
-			mv.visitTypeInsn(CHECKCAST, "com/ibm/layout/Layout");
-			mv.visitMethodInsn(INVOKEINTERFACE, "com/ibm/layout/Layout",
-					"sizeof", "()J", true);
-			mv.visitVarInsn(LSTORE, 7);
-			mv.visitVarInsn(ALOAD, 4);
 			mv.visitVarInsn(ALOAD, 1);
 			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/LayoutHelper",
-					"genArray1DImpl", "(Ljava/lang/Class;)Ljava/lang/Class;",
+					"getArray1DFactory", "(Ljava/lang/Class;)Lcom/ibm/layout/LayoutFactory$OfArray1D;",
 					false);
-			mv.visitVarInsn(ASTORE, 9);
-			mv.visitVarInsn(ALOAD, 9);
-			mv.visitInsn(ICONST_2);
-			mv.visitTypeInsn(ANEWARRAY, "java/lang/Class");
-			mv.visitInsn(DUP);
-			mv.visitInsn(ICONST_0);
-			mv.visitFieldInsn(GETSTATIC, "java/lang/Long", "TYPE",
-					"Ljava/lang/Class;");
-			mv.visitInsn(AASTORE);
-			mv.visitInsn(DUP);
-			mv.visitInsn(ICONST_1);
-			mv.visitFieldInsn(GETSTATIC, "java/lang/Long", "TYPE",
-					"Ljava/lang/Class;");
-			mv.visitInsn(AASTORE);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class",
-					"getDeclaredConstructor",
-					"([Ljava/lang/Class;)Ljava/lang/reflect/Constructor;",
-					false);
-			mv.visitVarInsn(ASTORE, 10);
-			mv.visitVarInsn(ALOAD, 10);
-			mv.visitInsn(ICONST_1);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Constructor",
-					"setAccessible", "(Z)V", false);
-			mv.visitVarInsn(ALOAD, 10);
-			mv.visitInsn(ICONST_2);
-			mv.visitTypeInsn(ANEWARRAY, "java/lang/Object");
-			mv.visitInsn(DUP);
-			mv.visitInsn(ICONST_0);
 			mv.visitVarInsn(LLOAD, 2);
-			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Long", "valueOf",
-					"(J)Ljava/lang/Long;", false);
-			mv.visitInsn(AASTORE);
-			mv.visitInsn(DUP);
-			mv.visitInsn(ICONST_1);
-			mv.visitVarInsn(LLOAD, 7);
-			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Long", "valueOf",
-					"(J)Ljava/lang/Long;", false);
-			mv.visitInsn(AASTORE);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Constructor",
-					"newInstance", "([Ljava/lang/Object;)Ljava/lang/Object;",
-					false);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "com/ibm/layout/LayoutFactory$OfArray1D",
+					"newInstance", "(J)Lcom/ibm/layout/LayoutType;", false);
 			mv.visitTypeInsn(CHECKCAST, "com/ibm/layout/Array1D");
-			mv.visitVarInsn(ASTORE, 11);
-			mv.visitVarInsn(ALOAD, 11);
+			mv.visitVarInsn(ASTORE, 4);
+			mv.visitVarInsn(ALOAD, 4);
+			/* a copy of the location, so the cast layout stays put if the receiver is moved */
+			mv.visitTypeInsn(NEW, "com/ibm/layout/Location");
+			mv.visitInsn(DUP);
 			mv.visitVarInsn(ALOAD, 0);
 			mv.visitFieldInsn(GETFIELD, typeName, "location",
 					"Lcom/ibm/layout/Location;");
+			mv.visitInsn(LCONST_0);
+			mv.visitMethodInsn(INVOKESPECIAL, "com/ibm/layout/Location", "<init>",
+					"(Lcom/ibm/layout/Location;J)V", false);
 			mv.visitMethodInsn(INVOKEINTERFACE, "com/ibm/layout/Array1D",
 					"bindLocation", "(Lcom/ibm/layout/Location;)V", true);
-			mv.visitVarInsn(ALOAD, 11);
-			mv.visitLabel(l1);
-			mv.visitInsn(ARETURN);
-			mv.visitLabel(l2);
-			mv.visitFrame(Opcodes.F_SAME1, 0, null, 1,
-					new Object[] { "java/lang/NoSuchMethodException" });
-			mv.visitVarInsn(ASTORE, 4);
-			mv.visitVarInsn(ALOAD, 4);
-			mv.visitMethodInsn(INVOKEVIRTUAL,
-					"java/lang/NoSuchMethodException", "printStackTrace",
-					"()V", false);
-			Label l8 = new Label();
-			mv.visitJumpInsn(GOTO, l8);
-			mv.visitLabel(l3);
-			mv.visitFrame(Opcodes.F_SAME1, 0, null, 1,
-					new Object[] { "java/lang/SecurityException" });
-			mv.visitVarInsn(ASTORE, 4);
-			mv.visitVarInsn(ALOAD, 4);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/SecurityException",
-					"printStackTrace", "()V", false);
-			mv.visitJumpInsn(GOTO, l8);
-			mv.visitLabel(l4);
-			mv.visitFrame(Opcodes.F_SAME1, 0, null, 1,
-					new Object[] { "java/lang/InstantiationException" });
-			mv.visitVarInsn(ASTORE, 4);
 			mv.visitVarInsn(ALOAD, 4);
-			mv.visitMethodInsn(INVOKEVIRTUAL,
-					"java/lang/InstantiationException", "printStackTrace",
-					"()V", false);
-			mv.visitJumpInsn(GOTO, l8);
-			mv.visitLabel(l5);
-			mv.visitFrame(Opcodes.F_SAME1, 0, null, 1,
-					new Object[] { "java/lang/IllegalAccessException" });
-			mv.visitVarInsn(ASTORE, 4);
-			mv.visitVarInsn(ALOAD, 4);
-			mv.visitMethodInsn(INVOKEVIRTUAL,
-					"java/lang/IllegalAccessException", "printStackTrace",
-					"()V", false);
-			mv.visitJumpInsn(GOTO, l8);
-			mv.visitLabel(l6);
-			mv.visitFrame(Opcodes.F_SAME1, 0, null, 1,
-					new Object[] { "java/lang/IllegalArgumentException" });
-			mv.visitVarInsn(ASTORE, 4);
-			mv.visitVarInsn(ALOAD, 4);
-			mv.visitMethodInsn(INVOKEVIRTUAL,
-					"java/lang/IllegalArgumentException", "printStackTrace",
-					"()V", false);
-			mv.visitJumpInsn(GOTO, l8);
-			mv.visitLabel(l7);
-			mv.visitFrame(
-					Opcodes.F_SAME1,
-					0,
-					null,
-					1,
-					new Object[] { "java/lang/reflect/InvocationTargetException" });
-			mv.visitVarInsn(ASTORE, 4);
-			mv.visitVarInsn(ALOAD, 4);
-			mv.visitMethodInsn(INVOKEVIRTUAL,
-					"java/lang/reflect/InvocationTargetException",
-					"printStackTrace", "()V", false);
-			mv.visitLabel(l8);
-			mv.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
-			mv.visitInsn(ACONST_NULL);
 			mv.visitInsn(ARETURN);
-			mv.visitMaxs(6, 12);
+			mv.visitMaxs(6, 5);
 			mv.visitEnd();
 		}
 	}
@@ -7,6 +7,10 @@
  *******************************************************************************/
 package com.ibm.layout;
 
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /**
  * 1D array of primitive int.
  */
@@ -39,6 +43,273 @@ public interface IntArray1D extends LayoutType {
 	 */
 	public abstract IntArray1D range(long startIdx, long length);
 
+	/**
+	 * Get an array element with volatile semantics
+	 * @param index the element index
+	 * @return value of the array element
+	 */
+	public abstract int atVolatile(long index);
+
+	/**
+	 * Set an array element with volatile semantics
+	 * @param index the element index
+	 * @param value new value of the array element
+	 */
+	public abstract void putVolatile(long index, int value);
+
+	/**
+	 * Set an array element with release semantics, like AtomicIntegerArray.lazySet()
+	 * @param index the element index
+	 * @param value new value of the array element
+	 */
+	public abstract void putOrdered(long index, int value);
+
+	/**
+	 * Atomically set an array element, if it has the expected value
+	 * @param index the element index
+	 * @param expect the expected value
+	 * @param update new value of the array element
+	 * @return true if the element was set
+	 */
+	public abstract boolean compareAndSet(long index, int expect, int update);
+
+	/**
+	 * Atomically add to an array element
+	 * @param index the element index
+	 * @param delta the value to add
+	 * @return the previous value of the array element
+	 */
+	public abstract int getAndAdd(long index, int delta);
+
+	/**
+	 * Atomically set an array element
+	 * @param index the element index
+	 * @param value new value of the array element
+	 * @return the previous value of the array element
+	 */
+	public abstract int getAndSet(long index, int value);
+
+	/**
+	 * Copy array elements into a java array
+	 * @param srcIdx index of the first element to copy
+	 * @param dst the destination array
+	 * @param off index in dst of the first copied element
+	 * @param len the number of elements to copy
+	 */
+	public abstract void get(long srcIdx, int[] dst, int off, int len);
+
+	/**
+	 * Copy elements of a java array into the array
+	 * @param dstIdx index of the first element to overwrite
+	 * @param src the source array
+	 * @param off index in src of the first element to copy
+	 * @param len the number of elements to copy
+	 */
+	public abstract void put(long dstIdx, int[] src, int off, int len);
+
+	/**
+	 * Set all array elements to a value
+	 * @param value new value of the array elements
+	 */
+	public abstract void fill(int value);
+
+	/**
+	 * Copy array elements into another array
+	 * @param srcIdx index of the first element to copy
+	 * @param dst the destination array
+	 * @param dstIdx index in dst of the first element to overwrite
+	 * @param len the number of elements to copy
+	 */
+	public abstract void copyTo(long srcIdx, IntArray1D dst, long dstIdx, long len);
+
+	/**
+	 * Copy array elements within the array. The source and destination may overlap.
+	 * @param srcIdx index of the first element to copy
+	 * @param dstIdx index of the first element to overwrite
+	 * @param len the number of elements to copy
+	 */
+	public abstract void move(long srcIdx, long dstIdx, long len);
+
+	/**
+	 * Reverse the byte order of each array element, converting the array between
+	 * native byte order and the other byte order, e.g. to or from network byte order
+	 */
+	public abstract void reverseBytes();
+
+	/**
+	 * Sum the array elements
+	 * @return the sum, accumulated in long
+	 */
+	public abstract long sum();
+
+	/**
+	 * Get the smallest array element
+	 * @return the smallest element, or Integer.MAX_VALUE if the array is empty
+	 */
+	public abstract int min();
+
+	/**
+	 * Get the largest array element
+	 * @return the largest element, or Integer.MIN_VALUE if the array is empty
+	 */
+	public abstract int max();
+
+	/**
+	 * Compute the dot product with another array of the same length
+	 * @param other the other array
+	 * @return the sum of the products of the elements at the same index
+	 */
+	public abstract long dot(IntArray1D other);
+
+	/**
+	 * Add a multiple of another array of the same length to the array, this[i] += a * x[i]
+	 * @param a the multiplier
+	 * @param x the other array
+	 */
+	public abstract void axpy(int a, IntArray1D x);
+
+	/**
+	 * Multiply all array elements by a value
+	 * @param a the multiplier
+	 */
+	public abstract void scale(int a);
+
+	/**
+	 * Replace each array element by the sum of itself and all preceding elements. Overflow wraps around.
+	 */
+	public abstract void prefixSum();
+
+	/**
+	 * Count the array elements in equal width bins over [lo, hi). Bin i covers
+	 * [lo + i * w, lo + (i + 1) * w), where w = (hi - lo) / counts.length.
+	 * Elements outside [lo, hi) are not counted.
+	 * @param lo lower bound of the first bin, inclusive
+	 * @param hi upper bound of the last bin, exclusive
+	 * @param counts the bins, the count of each bin is added to its previous value
+	 */
+	public abstract void histogram(int lo, int hi, long[] counts);
+
+	/**
+	 * Sort the array elements in ascending order.
+	 */
+	public abstract void sort();
+
+	/**
+	 * Sort the array elements in ascending order, sorting partitions in the common fork/join pool
+	 */
+	public abstract void parallelSort();
+
+	/**
+	 * Search a sorted array for a value
+	 * @param key the value to search for
+	 * @return the index of an element equal to key, or (-(insertion point) - 1), where the
+	 * insertion point is the index of the first element greater than key
+	 */
+	public abstract long binarySearch(int key);
+
+	/**
+	 * Sum the array elements, splitting the work among the threads of the common fork/join pool
+	 * @return the sum, accumulated in long
+	 */
+	public default long parallelSum() {
+		return ParallelKernels.reduce(getLength(), (start, len) -> range(start, len).sum(), Long::sum);
+	}
+
+	/**
+	 * Get the smallest array element, splitting the work among the threads of the common fork/join pool
+	 * @return the smallest element, or Integer.MAX_VALUE if the array is empty
+	 */
+	public default int parallelMin() {
+		return ParallelKernels.reduce(getLength(), (start, len) -> range(start, len).min(), Math::min);
+	}
+
+	/**
+	 * Get the largest array element, splitting the work among the threads of the common fork/join pool
+	 * @return the largest element, or Integer.MIN_VALUE if the array is empty
+	 */
+	public default int parallelMax() {
+		return ParallelKernels.reduce(getLength(), (start, len) -> range(start, len).max(), Math::max);
+	}
+
+	/**
+	 * Compute the dot product with another array of the same length, splitting the work
+	 * among the threads of the common fork/join pool
+	 * @param other the other array
+	 * @return the sum of the products of the elements at the same index
+	 */
+	public default long parallelDot(IntArray1D other) {
+		LayoutTypeImpl.checkLength(getLength(), other.getLength());
+		return ParallelKernels.reduce(getLength(),
+				(start, len) -> range(start, len).dot(other.range(start, len)), Long::sum);
+	}
+
+	/**
+	 * Add a multiple of another array of the same length to the array, splitting the work
+	 * among the threads of the common fork/join pool
+	 * @param a the multiplier
+	 * @param x the other array
+	 */
+	public default void parallelAxpy(int a, IntArray1D x) {
+		LayoutTypeImpl.checkLength(getLength(), x.getLength());
+		ParallelKernels.forEach(getLength(), (start, len) -> range(start, len).axpy(a, x.range(start, len)));
+	}
+
+	/**
+	 * Multiply all array elements by a value, splitting the work among the threads of the
+	 * common fork/join pool
+	 * @param a the multiplier
+	 */
+	public default void parallelScale(int a) {
+		ParallelKernels.forEach(getLength(), (start, len) -> range(start, len).scale(a));
+	}
+
+	/**
+	 * Count the array elements in equal width bins over [lo, hi), splitting the work among
+	 * the threads of the common fork/join pool. See {@link #histogram(int, int, long[])}.
+	 * @param lo lower bound of the first bin, inclusive
+	 * @param hi upper bound of the last bin, exclusive
+	 * @param counts the bins, the count of each bin is added to its previous value
+	 */
+	public default void parallelHistogram(int lo, int hi, long[] counts) {
+		long[] total = ParallelKernels.reduce(getLength(), (start, len) -> {
+			long[] partial = new long[counts.length];
+			range(start, len).histogram(lo, hi, partial);
+			return partial;
+		}, (x, y) -> {
+			for (int i = 0; i < x.length; i++) {
+				x[i] += y[i];
+			}
+			return x;
+		});
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += total[i];
+		}
+	}
+
+	/**
+	 * Create a spliterator over the array elements. It splits by index range.
+	 * @return a spliterator
+	 */
+	public default Spliterator.OfInt spliterator() {
+		return new ArraySpliterators.IntSpliterator(this, 0, getLength());
+	}
+
+	/**
+	 * Create a sequential stream of the array elements
+	 * @return a stream
+	 */
+	public default IntStream stream() {
+		return StreamSupport.intStream(spliterator(), false);
+	}
+
+	/**
+	 * Create a parallel stream of the array elements
+	 * @return a stream
+	 */
+	public default IntStream parallelStream() {
+		return StreamSupport.intStream(spliterator(), true);
+	}
+
 	/**
 	 * Get the size of the array
 	 * @return the data size in bytes
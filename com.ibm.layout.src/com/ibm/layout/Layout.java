@@ -7,7 +7,7 @@
  *******************************************************************************/
 package com.ibm.layout;
 
-import java.lang.reflect.Constructor;
+import java.util.Comparator;
 
 /**
  * A singleton layout.
@@ -33,15 +33,23 @@ public interface Layout extends LayoutType {
 	 */
 	public static <T extends Layout> T getLayout(final Class<T> cls) {
 		try {
-			LayoutHelper f = LayoutHelper.getFactory();
-			Class<T> implCls = f.genLayoutImpl(cls);
-			Constructor<T> ctor = implCls.getDeclaredConstructor();
-			ctor.setAccessible(true);
-			T newInst = ctor.newInstance();
-			return newInst;
+			return LayoutHelper.getFactory().getLayoutFactory(cls).newInstance();
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 		return null;
 	}
+
+	/**
+	 * Get a comparator that orders layouts lexicographically by primitive fields.
+	 * The comparator is generated, and calls the field getters directly.
+	 * @param cls The layout class.
+	 * @param fieldNames names of the compared fields, most significant first
+	 * @param <T> subclass of Layout
+	 * @return a comparator
+	 * @throws IllegalArgumentException if a field does not exist or is not primitive
+	 */
+	public static <T extends Layout> Comparator<T> getComparator(final Class<T> cls, final String... fieldNames) {
+		return LayoutHelper.getFactory().getComparator(cls, fieldNames);
+	}
 }
@@ -0,0 +1,369 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sorting and searching of 1D layout arrays, in place.
+ *
+ * <p>
+ * The sorts move element data between the array and a scratch copy allocated off-heap in
+ * a temporary {@link Arena}, so elements are never copied to java objects. Elements are
+ * accessed through {@link Cursor} flyweights and copied with {@link Layout#copyFrom(Layout)}.
+ * All sorts are stable.
+ * </p>
+ *
+ * <p>
+ * {@link #sort(Array1D, Comparator)} is a merge sort. {@link #sortByKey(Array1D, ToLongFunction)}
+ * is a radix sort of the elements' integer keys, followed by one permutation of the elements,
+ * so each element is read by the key function once and moved twice. The parallel variants
+ * run in the common fork/join pool.
+ * </p>
+ *
+ *	<h2>Example Usage</h2>
+ *	<pre>
+ *	LayoutArrays.parallelSort(points, Layout.getComparator(Point.class, "x", "y"));
+ *	LayoutArrays.sortByKey(points, Point::x);
+ *	long i = LayoutArrays.binarySearchByKey(points, 10, Point::x);
+ *	</pre>
+ */
+public final class LayoutArrays {
+	/* ranges of at most this many elements are sorted by insertion */
+	private static final long INSERTION_SORT_LENGTH = 16;
+
+	/* ranges of at most this many elements are sorted by one task */
+	private static final long PARALLEL_SORT_LENGTH = 1L << 13;
+
+	/* bits of the key sorted by each radix pass */
+	private static final int RADIX_BITS = 8;
+
+	private LayoutArrays() {
+	}
+
+	/**
+	 * Sort array elements in the order of a comparator
+	 * @param <T> element type
+	 * @param array the array
+	 * @param c the comparator, e.g. from {@link Layout#getComparator(Class, String...)}
+	 */
+	public static <T extends Layout> void sort(Array1D<T> array, Comparator<? super T> c) {
+		mergeSort(array, c, false);
+	}
+
+	/**
+	 * Sort array elements in the order of a comparator, sorting parts of the array in the
+	 * common fork/join pool
+	 * @param <T> element type
+	 * @param array the array
+	 * @param c the comparator, e.g. from {@link Layout#getComparator(Class, String...)}
+	 */
+	public static <T extends Layout> void parallelSort(Array1D<T> array, Comparator<? super T> c) {
+		mergeSort(array, c, true);
+	}
+
+	/**
+	 * Sort array elements in ascending order of a signed integer key
+	 * @param <T> element type
+	 * @param array the array
+	 * @param key gets the key of an element, e.g. a field getter
+	 */
+	public static <T extends Layout> void sortByKey(Array1D<T> array, ToLongFunction<? super T> key) {
+		radixSort(array, key, false);
+	}
+
+	/**
+	 * Sort array elements in ascending order of a signed integer key. Keys are read and
+	 * elements are moved in the common fork/join pool.
+	 * @param <T> element type
+	 * @param array the array
+	 * @param key gets the key of an element, e.g. a field getter
+	 */
+	public static <T extends Layout> void parallelSortByKey(Array1D<T> array, ToLongFunction<? super T> key) {
+		radixSort(array, key, true);
+	}
+
+	/**
+	 * Search an array sorted in the order of a comparator
+	 * @param <T> element type
+	 * @param array the array
+	 * @param key the element to search for
+	 * @param c the comparator the array is sorted by
+	 * @return the index of an element equal to key, or (-(insertion point) - 1), where the
+	 * insertion point is the index of the first element greater than key
+	 */
+	public static <T extends Layout> long binarySearch(Array1D<T> array, T key, Comparator<? super T> c) {
+		Cursor<T> cursor = array.cursor();
+		long lo = 0;
+		long hi = array.getLength() - 1;
+		while (lo <= hi) {
+			long mid = (lo + hi) >>> 1;
+			int result = c.compare(cursor.moveTo(mid), key);
+			if (result < 0) {
+				lo = mid + 1;
+			} else if (result > 0) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(lo + 1);
+	}
+
+	/**
+	 * Search an array sorted in ascending order of a signed integer key
+	 * @param <T> element type
+	 * @param array the array
+	 * @param key the key to search for
+	 * @param keyFunction gets the key of an element
+	 * @return the index of an element whose key equals key, or (-(insertion point) - 1), where
+	 * the insertion point is the index of the first element with a greater key
+	 */
+	public static <T extends Layout> long binarySearchByKey(Array1D<T> array, long key,
+			ToLongFunction<? super T> keyFunction)
+	{
+		Cursor<T> cursor = array.cursor();
+		long lo = 0;
+		long hi = array.getLength() - 1;
+		while (lo <= hi) {
+			long mid = (lo + hi) >>> 1;
+			long value = keyFunction.applyAsLong(cursor.moveTo(mid));
+			if (value < key) {
+				lo = mid + 1;
+			} else if (value > key) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(lo + 1);
+	}
+
+	/**
+	 * Create an array of the same type and length, bound to memory of the arena
+	 */
+	private static <T extends Layout> Array1D<T> allocateScratch(Array1D<T> array, Arena arena) {
+		Array1D<T> scratch = array.range(0, array.getLength());
+		scratch.bindLocation(arena.allocate(array.sizeof()));
+		return scratch;
+	}
+
+	private static <T extends Layout> void mergeSort(Array1D<T> array, Comparator<? super T> c, boolean parallel) {
+		long length = array.getLength();
+		if (length < 2) {
+			return;
+		}
+		try (Arena arena = new Arena()) {
+			Array1D<T> scratch = allocateScratch(array, arena);
+			if (parallel && (length > PARALLEL_SORT_LENGTH)) {
+				ForkJoinPool.commonPool().invoke(new MergeSortTask<T>(array, scratch, c, 0, length));
+			} else {
+				new MergeSorter<T>(array, scratch, c).sort(0, length);
+			}
+		}
+	}
+
+	/**
+	 * Merge sorts ranges of an array, using the same range of a scratch array.
+	 * A sorter owns its cursors, so each thread uses its own sorter.
+	 */
+	private static final class MergeSorter<T extends Layout> {
+		private final Comparator<? super T> c;
+		private final Cursor<T> a1;
+		private final Cursor<T> a2;
+		private final Cursor<T> s;
+
+		MergeSorter(Array1D<T> array, Array1D<T> scratch, Comparator<? super T> c) {
+			this.c = c;
+			this.a1 = array.cursor();
+			this.a2 = array.cursor();
+			this.s = scratch.cursor();
+		}
+
+		void sort(long lo, long hi) {
+			if ((hi - lo) <= INSERTION_SORT_LENGTH) {
+				insertionSort(lo, hi);
+				return;
+			}
+			long mid = (lo + hi) >>> 1;
+			sort(lo, mid);
+			sort(mid, hi);
+			merge(lo, mid, hi);
+		}
+
+		/**
+		 * Merge the sorted ranges [lo, mid) and [mid, hi). The left range is moved to the
+		 * scratch array, then merged back from the front, which never overwrites an unread
+		 * element of the right range.
+		 */
+		void merge(long lo, long mid, long hi) {
+			if (c.compare(a1.moveTo(mid - 1), a2.moveTo(mid)) <= 0) {
+				return;
+			}
+			for (long k = lo; k < mid; k++) {
+				s.moveTo(k).copyFrom(a1.moveTo(k));
+			}
+			long i = lo;
+			long j = mid;
+			long k = lo;
+			while ((i < mid) && (j < hi)) {
+				T left = s.moveTo(i);
+				T right = a2.moveTo(j);
+				/* take the left element on ties, so the sort is stable */
+				if (c.compare(right, left) < 0) {
+					a1.moveTo(k++).copyFrom(right);
+					j++;
+				} else {
+					a1.moveTo(k++).copyFrom(left);
+					i++;
+				}
+			}
+			while (i < mid) {
+				a1.moveTo(k++).copyFrom(s.moveTo(i++));
+			}
+		}
+
+		/**
+		 * Insertion sort, holding the inserted element in the scratch array
+		 */
+		void insertionSort(long lo, long hi) {
+			for (long i = lo + 1; i < hi; i++) {
+				if (c.compare(a1.moveTo(i - 1), a2.moveTo(i)) <= 0) {
+					continue;
+				}
+				T inserted = s.moveTo(lo);
+				inserted.copyFrom(a2.get());
+				long j = i - 1;
+				while ((j >= lo) && (c.compare(a1.moveTo(j), inserted) > 0)) {
+					a2.moveTo(j + 1).copyFrom(a1.get());
+					j--;
+				}
+				a2.moveTo(j + 1).copyFrom(inserted);
+			}
+		}
+	}
+
+	private static final class MergeSortTask<T extends Layout> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Array1D<T> array;
+		private final Array1D<T> scratch;
+		private final Comparator<? super T> c;
+		private final long lo;
+		private final long hi;
+
+		MergeSortTask(Array1D<T> array, Array1D<T> scratch, Comparator<? super T> c, long lo, long hi) {
+			this.array = array;
+			this.scratch = scratch;
+			this.c = c;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected void compute() {
+			MergeSorter<T> sorter = new MergeSorter<T>(array, scratch, c);
+			if ((hi - lo) <= PARALLEL_SORT_LENGTH) {
+				sorter.sort(lo, hi);
+				return;
+			}
+			long mid = (lo + hi) >>> 1;
+			invokeAll(new MergeSortTask<T>(array, scratch, c, lo, mid), new MergeSortTask<T>(array, scratch, c, mid, hi));
+			sorter.merge(lo, mid, hi);
+		}
+	}
+
+	/**
+	 * Process the index range [0, length), in parallel if requested
+	 */
+	private static void forRange(long length, boolean parallel, ParallelKernels.RangeAction action) {
+		if (parallel) {
+			ParallelKernels.forEach(length, action);
+		} else {
+			action.apply(0, length);
+		}
+	}
+
+	private static <T extends Layout> void radixSort(Array1D<T> array, ToLongFunction<? super T> key, boolean parallel) {
+		final long length = array.getLength();
+		if (length < 2) {
+			return;
+		}
+		try (Arena arena = new Arena()) {
+			LongArray1D keys = arena.allocatePrimArray1D(long.class, length);
+			LongArray1D order = arena.allocatePrimArray1D(long.class, length);
+			LongArray1D nextKeys = arena.allocatePrimArray1D(long.class, length);
+			LongArray1D nextOrder = arena.allocatePrimArray1D(long.class, length);
+
+			/* flipping the sign bit makes the unsigned order of the keys their signed order */
+			final LongArray1D initialKeys = keys;
+			final LongArray1D initialOrder = order;
+			forRange(length, parallel, (start, len) -> {
+				Cursor<T> cursor = array.range(start, len).cursor();
+				for (long i = start; cursor.hasNext(); i++) {
+					initialKeys.put(i, key.applyAsLong(cursor.next()) ^ Long.MIN_VALUE);
+					initialOrder.put(i, i);
+				}
+			});
+
+			/* least significant digit first; each pass is stable */
+			final int radix = 1 << RADIX_BITS;
+			long[] counts = new long[radix + 1];
+			for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+				Arrays.fill(counts, 0);
+				for (long i = 0; i < length; i++) {
+					counts[(int)((keys.at(i) >>> shift) & (radix - 1)) + 1]++;
+				}
+				boolean trivial = false;
+				for (int d = 1; d <= radix; d++) {
+					if (counts[d] == length) {
+						trivial = true;
+					}
+					counts[d] += counts[d - 1];
+				}
+				if (trivial) {
+					/* all keys have the same digit, the pass would not move anything */
+					continue;
+				}
+				for (long i = 0; i < length; i++) {
+					long k = keys.at(i);
+					long dst = counts[(int)((k >>> shift) & (radix - 1))]++;
+					nextKeys.put(dst, k);
+					nextOrder.put(dst, order.at(i));
+				}
+				LongArray1D swap = keys;
+				keys = nextKeys;
+				nextKeys = swap;
+				swap = order;
+				order = nextOrder;
+				nextOrder = swap;
+			}
+
+			/* gather the elements in sorted order, then copy them back */
+			final Array1D<T> scratch = allocateScratch(array, arena);
+			final LongArray1D sortedOrder = order;
+			forRange(length, parallel, (start, len) -> {
+				Cursor<T> src = array.cursor();
+				Cursor<T> dst = scratch.range(start, len).cursor();
+				for (long i = start; dst.hasNext(); i++) {
+					dst.next().copyFrom(src.moveTo(sortedOrder.at(i)));
+				}
+			});
+			forRange(length, parallel, (start, len) -> {
+				Cursor<T> src = scratch.range(start, len).cursor();
+				Cursor<T> dst = array.range(start, len).cursor();
+				while (src.hasNext()) {
+					dst.next().copyFrom(src.next());
+				}
+			});
+		}
+	}
+}
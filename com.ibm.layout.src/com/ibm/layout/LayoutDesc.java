@@ -29,10 +29,78 @@ import java.lang.annotation.Target;
  * <pre>
  * {@code @LayoutDesc}({ "x:jint:+0:4", "y:jint:+4:4" })
  * </pre>
+ * 
+ * <p>
+ * By default fields are packed back to back. With {@code aligned = true}, each field is
+ * placed at a multiple of its natural alignment, and sizeof() includes the tail padding
+ * that aligns the next element of an array, as a C compiler lays out a struct.
+ * {@code pack} caps the alignment, like {@code #pragma pack(n)}. e.g.
+ * </p>
+ * 
+ * <pre>
+ * {@code @LayoutDesc}(value = { "b:jbyte:1", "l:jlong:8" }, aligned = true)          // l at +8, sizeof 16
+ * {@code @LayoutDesc}(value = { "b:jbyte:1", "l:jlong:8" }, aligned = true, pack = 4) // l at +4, sizeof 12
+ * </pre>
+ * 
+ * <p>
+ * A jint or jlong field x also gets atomic accessors, if the layout interface declares them:
+ * {@code xVolatile()}, {@code xVolatile(v)}, {@code xOrdered(v)}, {@code compareAndSetX(expect, update)},
+ * {@code getAndAddX(delta)} and {@code getAndSetX(v)}. They have the semantics of the
+ * java.util.concurrent.atomic classes. The field must be naturally aligned, e.g. by {@code aligned = true}.
+ * </p>
+ * 
+ * <p>
+ * Primitive fields are in native byte order, unless the layout sets {@link #byteOrder()}, or the
+ * field type has a {@code _be} (big-endian) or {@code _le} (little-endian) suffix. The accessors of
+ * a field in the other byte order swap the bytes, so e.g. a network header can be read in place:
+ * </p>
+ * 
+ * <pre>
+ * {@code @LayoutDesc}(value = { "version:jbyte:1", "flags:jbyte:1", "length:jshort:2", "seq:jint:4" }, byteOrder = Endian.BIG)
+ * {@code @LayoutDesc}({ "magic:jint_le:4", "length:jint_be:4" })
+ * </pre>
+ * 
+ * <p>
+ * Array fields are always in native byte order. Use reverseBytes() on the primitive array to convert it.
+ * Fields in the other byte order have no atomic accessors.
+ * </p>
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 @Documented
 public @interface LayoutDesc {
 	String[] value();
+
+	/**
+	 * Whether fields are aligned to their natural alignment.
+	 * The alignment of a primitive is its size. The alignment of a nested layout, or an
+	 * array, is the alignment of its elements.
+	 * @return true to insert C-compatible padding
+	 */
+	boolean aligned() default false;
+
+	/**
+	 * Maximum alignment of a field, in bytes: 1, 2, 4 or 8. Only used if {@link #aligned()} is true.
+	 * @return maximum alignment
+	 */
+	int pack() default 8;
+
+	/**
+	 * Byte order of the primitive fields that have no {@code _be} or {@code _le} suffix.
+	 * Array fields are not affected.
+	 * @return byte order
+	 */
+	Endian byteOrder() default Endian.NATIVE;
+
+	/**
+	 * Byte order of primitive fields
+	 */
+	enum Endian {
+		/** the byte order of the platform */
+		NATIVE,
+		/** most significant byte first, e.g. network byte order */
+		BIG,
+		/** least significant byte first */
+		LITTLE
+	}
 }
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+/**
+ * Creates instances of one layout type.
+ *
+ * <p>
+ * A factory subclass is generated at runtime for each layout impl class. It calls the
+ * impl constructor directly, and the element size of an array layout is compiled into it
+ * as a constant. Creating an instance through a factory costs a plain allocation, with no
+ * reflection. Factories are cached by {@link LayoutHelper}. Each kind of layout has its own
+ * factory type, {@link OfLayout}, {@link OfArray1D} or {@link OfArray2D}, which declares only
+ * the newInstance() method for that kind.
+ * </p>
+ *
+ *	<h2>Example Usage</h2>
+ *	<pre>
+ *	LayoutFactory.OfLayout&lt;Point&gt; f = LayoutHelper.getFactory().getLayoutFactory(Point.class);
+ *	for (int i = 0; i &lt; n; i++) {
+ *		Point p = f.newInstance();
+ *		p.bindLocation(loc[i]);
+ *	}
+ *	</pre>
+ *
+ * @param <T> the layout type created by the factory
+ */
+public abstract class LayoutFactory<T extends LayoutType> {
+
+	private LayoutFactory() {
+	}
+
+	/**
+	 * Creates instances of a singleton layout
+	 * @param <T> the layout type created by the factory
+	 */
+	public static abstract class OfLayout<T extends LayoutType> extends LayoutFactory<T> {
+		protected OfLayout() {
+		}
+
+		/**
+		 * Create a singleton layout instance
+		 * @return an unbound layout instance
+		 */
+		public abstract T newInstance();
+	}
+
+	/**
+	 * Creates instances of a 1D array layout
+	 * @param <T> the layout type created by the factory
+	 */
+	public static abstract class OfArray1D<T extends LayoutType> extends LayoutFactory<T> {
+		protected OfArray1D() {
+		}
+
+		/**
+		 * Create a 1D array layout instance
+		 * @param length The number of array elements.
+		 * @return an unbound array layout instance
+		 */
+		public abstract T newInstance(long length);
+	}
+
+	/**
+	 * Creates instances of a 2D array layout
+	 * @param <T> the layout type created by the factory
+	 */
+	public static abstract class OfArray2D<T extends LayoutType> extends LayoutFactory<T> {
+		protected OfArray2D() {
+		}
+
+		/**
+		 * Create a 2D array layout instance
+		 * @param dim1 The number of elements in the 1st dimension.
+		 * @param dim2 The number of elements in the 2nd dimension
+		 * @return an unbound array layout instance
+		 */
+		public abstract T newInstance(long dim1, long dim2);
+	}
+}
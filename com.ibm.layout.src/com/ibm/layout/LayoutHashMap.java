@@ -0,0 +1,460 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import java.util.function.BiConsumer;
+
+import sun.misc.Unsafe;
+
+/**
+ * Off-heap open-addressing hash map from layouts to layouts.
+ *
+ * <p>
+ * Entries are stored inline in a single native table of fixed-size slots. A slot holds an
+ * 8-byte header with the key's hash, followed by a copy of the key's data and a copy of the
+ * value's data, each aligned to 8 bytes. Collisions are resolved by linear probing, and
+ * removal shifts following entries back, so the table never holds tombstones. The table
+ * doubles when it is more than {@link #LOAD_FACTOR} full.
+ * </p>
+ *
+ * <p>
+ * Keys are hashed and compared by their data bytes, like the generated equals() and
+ * hashCode() of layouts. Two keys are equal if their data is equal byte for byte,
+ * including any padding of aligned layouts. Keys and values are copied
+ * in and out of the table by {@link Layout#copyFrom(Layout)}.
+ * </p>
+ *
+ * <p>
+ * Lookups and updates do not allocate. {@link #get(Layout)} and {@link #getOrCreate(Layout)}
+ * return a flyweight view owned by the map, which targets the value stored in the table.
+ * The view is the same object every time, and it is invalidated by the next update of the
+ * map, though it may still be passed to that update, as in put(k2, get(k1)). A map is not thread-safe. The table is freed by {@link #close()}.
+ * </p>
+ *
+ *	<h2>Example Usage</h2>
+ *	<pre>
+ *	try (LayoutHashMap&lt;Point, Point&gt; map = new LayoutHashMap&lt;&gt;(Point.class, Point.class)) {
+ *		map.put(key, value);
+ *		Point v = map.get(key);
+ *		if (v != null) {
+ *			v.x(v.x() + 1);
+ *		}
+ *	}
+ *	</pre>
+ *
+ * @param <K> key layout
+ * @param <V> value layout
+ */
+public final class LayoutHashMap<K extends Layout, V extends Layout> implements AutoCloseable {
+	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
+
+	/**
+	 * Default number of slots of a new map
+	 */
+	public static final long DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Maximum ratio of entries to slots before the table grows
+	 */
+	public static final double LOAD_FACTOR = 0.75;
+
+	/* header of an occupied slot: the hash in the low 32 bits, and this bit set */
+	private static final long OCCUPIED = 1L << 32;
+	private static final long HEADER_SIZE = 8;
+
+	private final long keySize;
+	private final long valueSize;
+	private final long valueOffset;
+	private final long slotSize;
+
+	private final K keyView;
+	private final V valueView;
+	private final Location keyLocation = new Location(0);
+	private final Location valueLocation = new Location(0);
+	/* off-heap copy of the key being looked up, so it can be hashed and compared by address */
+	private final K probeView;
+	private final long probe;
+	/* off-heap copy of the value being put, so a value viewing the table survives the insert */
+	private final V stageView;
+	private final long stage;
+
+	private long table;
+	private long capacity;
+	private long mask;
+	private long threshold;
+	private long size = 0;
+	private boolean closed = false;
+
+	/**
+	 * Create a map with the default capacity
+	 * @param keyClass the key layout class
+	 * @param valueClass the value layout class
+	 */
+	public LayoutHashMap(Class<K> keyClass, Class<V> valueClass) {
+		this(keyClass, valueClass, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a map
+	 * @param keyClass the key layout class
+	 * @param valueClass the value layout class
+	 * @param initialCapacity number of entries the map holds before it first grows
+	 */
+	public LayoutHashMap(Class<K> keyClass, Class<V> valueClass, long initialCapacity) {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("negative capacity: " + initialCapacity);
+		}
+		this.keyView = Layout.getLayout(keyClass);
+		this.valueView = Layout.getLayout(valueClass);
+		this.keySize = keyView.sizeof();
+		this.valueSize = valueView.sizeof();
+		this.valueOffset = HEADER_SIZE + align8(keySize);
+		this.slotSize = valueOffset + align8(valueSize);
+		this.probeView = Layout.getLayout(keyClass);
+		this.probe = unsafe.allocateMemory(align8(keySize) + 8);
+		probeView.bindLocation(new Location(probe));
+		this.stageView = Layout.getLayout(valueClass);
+		this.stage = unsafe.allocateMemory(align8(valueSize) + 8);
+		stageView.bindLocation(new Location(stage));
+
+		long slots = DEFAULT_CAPACITY;
+		while ((slots * LOAD_FACTOR) < initialCapacity) {
+			slots <<= 1;
+		}
+		allocateTable(slots);
+	}
+
+	private static long align8(long size) {
+		return (size + 7) & -8L;
+	}
+
+	private void allocateTable(long slots) {
+		table = unsafe.allocateMemory(slots * slotSize);
+		unsafe.setMemory(table, slots * slotSize, (byte)0);
+		capacity = slots;
+		mask = slots - 1;
+		threshold = (long)(slots * LOAD_FACTOR);
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("map is closed");
+		}
+	}
+
+	/**
+	 * Get the number of entries
+	 * @return the number of entries
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Return whether the map has no entries
+	 * @return true if the map is empty
+	 */
+	public boolean isEmpty() {
+		return 0 == size;
+	}
+
+	/**
+	 * Get the number of slots of the table
+	 * @return the number of slots, a power of 2
+	 */
+	public long capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Get the size of the table
+	 * @return the size of the native table, in bytes
+	 */
+	public long sizeof() {
+		return capacity * slotSize;
+	}
+
+	/**
+	 * Return whether the map has an entry for a key
+	 * @param key the key
+	 * @return true if the key is in the map
+	 */
+	public boolean containsKey(K key) {
+		checkOpen();
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Get the value of a key
+	 * @param key the key
+	 * @return a flyweight view of the stored value, or null if the key is not in the map
+	 */
+	public V get(K key) {
+		checkOpen();
+		long slot = find(key);
+		if (slot < 0) {
+			return null;
+		}
+		return bindValue(slot);
+	}
+
+	/**
+	 * Copy the value of a key
+	 * @param key the key
+	 * @param value the layout receiving a copy of the stored value
+	 * @return true if the key is in the map, false if it is not and value is unchanged
+	 */
+	public boolean get(K key, V value) {
+		checkOpen();
+		long slot = find(key);
+		if (slot < 0) {
+			return false;
+		}
+		value.copyFrom(bindValue(slot));
+		return true;
+	}
+
+	/**
+	 * Get the value of a key, inserting an entry with a zeroed value if the key is not in the map
+	 * @param key the key
+	 * @return a flyweight view of the stored value
+	 */
+	public V getOrCreate(K key) {
+		checkOpen();
+		return bindValue(findOrInsert(key));
+	}
+
+	/**
+	 * Copy a key and a value into the map, replacing the previous value of the key
+	 * @param key the key
+	 * @param value the value
+	 * @return true if the key was not in the map
+	 */
+	public boolean put(K key, V value) {
+		checkOpen();
+		long oldSize = size;
+		/* the value may be the view of another entry, moved by growing the table */
+		stageView.copyFrom(value);
+		unsafe.copyMemory(stage, slotAddress(findOrInsert(key)) + valueOffset, valueSize);
+		return size != oldSize;
+	}
+
+	/**
+	 * Remove the entry of a key
+	 * @param key the key
+	 * @return true if the key was in the map
+	 */
+	public boolean remove(K key) {
+		checkOpen();
+		long slot = find(key);
+		if (slot < 0) {
+			return false;
+		}
+		/* shift back following entries of the probe run, so lookups need no tombstones */
+		long hole = slot;
+		long next = (hole + 1) & mask;
+		while (true) {
+			long header = unsafe.getLong(slotAddress(next));
+			if (0 == header) {
+				break;
+			}
+			long home = homeSlot((int)header);
+			/* the entry can fill the hole unless its home lies cyclically in (hole, next] */
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				unsafe.copyMemory(slotAddress(next), slotAddress(hole), slotSize);
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		unsafe.setMemory(slotAddress(hole), slotSize, (byte)0);
+		size -= 1;
+		return true;
+	}
+
+	/**
+	 * Remove all entries. The table keeps its capacity.
+	 */
+	public void clear() {
+		checkOpen();
+		unsafe.setMemory(table, capacity * slotSize, (byte)0);
+		size = 0;
+	}
+
+	/**
+	 * Call an action for each entry, in table order. The key and value passed to the action
+	 * are flyweight views of the stored entry. The action may modify the value, but must
+	 * not modify the key or update the map.
+	 * @param action the action
+	 */
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		checkOpen();
+		for (long slot = 0; slot < capacity; slot++) {
+			if (0 != unsafe.getLong(slotAddress(slot))) {
+				action.accept(bindKey(slot), bindValue(slot));
+			}
+		}
+	}
+
+	/**
+	 * Get the longest probe sequence of a successful lookup
+	 * @return the maximum number of slots examined to find a key, 0 if the map is empty
+	 */
+	public long maxProbeLength() {
+		checkOpen();
+		long max = 0;
+		for (long slot = 0; slot < capacity; slot++) {
+			long header = unsafe.getLong(slotAddress(slot));
+			if (0 != header) {
+				max = Math.max(max, probeLength(slot, header));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Get the average probe sequence of a successful lookup
+	 * @return the average number of slots examined to find a key, 0 if the map is empty
+	 */
+	public double averageProbeLength() {
+		checkOpen();
+		if (0 == size) {
+			return 0;
+		}
+		long total = 0;
+		for (long slot = 0; slot < capacity; slot++) {
+			long header = unsafe.getLong(slotAddress(slot));
+			if (0 != header) {
+				total += probeLength(slot, header);
+			}
+		}
+		return (double)total / size;
+	}
+
+	/**
+	 * Free the table. The map and views returned by it must not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			unsafe.freeMemory(table);
+			unsafe.freeMemory(probe);
+			unsafe.freeMemory(stage);
+			table = 0;
+			size = 0;
+		}
+	}
+
+	private long slotAddress(long slot) {
+		return table + (slot * slotSize);
+	}
+
+	private long homeSlot(int hash) {
+		return hash & mask;
+	}
+
+	private long probeLength(long slot, long header) {
+		return ((slot - homeSlot((int)header)) & mask) + 1;
+	}
+
+	private K bindKey(long slot) {
+		keyLocation.setOffset(slotAddress(slot) + HEADER_SIZE);
+		keyView.bindLocation(keyLocation);
+		return keyView;
+	}
+
+	private V bindValue(long slot) {
+		valueLocation.setOffset(slotAddress(slot) + valueOffset);
+		valueView.bindLocation(valueLocation);
+		return valueView;
+	}
+
+	/**
+	 * Find the slot of a key
+	 * @return the slot index, or -1 if the key is not in the map
+	 */
+	private long find(K key) {
+		int hash = loadProbe(key);
+		long expected = (hash & 0xFFFFFFFFL) | OCCUPIED;
+		for (long slot = homeSlot(hash); ; slot = (slot + 1) & mask) {
+			long header = unsafe.getLong(slotAddress(slot));
+			if (0 == header) {
+				return -1;
+			}
+			if ((header == expected) && probeEquals(slotAddress(slot) + HEADER_SIZE)) {
+				return slot;
+			}
+		}
+	}
+
+	/**
+	 * Find the slot of a key, inserting the key with a zeroed value if it is not in the map
+	 * @return the slot index
+	 */
+	private long findOrInsert(K key) {
+		int hash = loadProbe(key);
+		long expected = (hash & 0xFFFFFFFFL) | OCCUPIED;
+		long slot = homeSlot(hash);
+		while (true) {
+			long header = unsafe.getLong(slotAddress(slot));
+			if (0 == header) {
+				break;
+			}
+			if ((header == expected) && probeEquals(slotAddress(slot) + HEADER_SIZE)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		if (size >= threshold) {
+			grow();
+			slot = homeSlot(hash);
+			while (0 != unsafe.getLong(slotAddress(slot))) {
+				slot = (slot + 1) & mask;
+			}
+		}
+		long addr = slotAddress(slot);
+		unsafe.putLong(addr, expected);
+		unsafe.copyMemory(probe, addr + HEADER_SIZE, keySize);
+		size += 1;
+		return slot;
+	}
+
+	/**
+	 * Double the table, moving each entry to its slot in the new table
+	 */
+	private void grow() {
+		long oldTable = table;
+		long oldCapacity = capacity;
+		allocateTable(oldCapacity << 1);
+		for (long slot = 0; slot < oldCapacity; slot++) {
+			long src = oldTable + (slot * slotSize);
+			long header = unsafe.getLong(src);
+			if (0 != header) {
+				long dst = homeSlot((int)header);
+				while (0 != unsafe.getLong(slotAddress(dst))) {
+					dst = (dst + 1) & mask;
+				}
+				unsafe.copyMemory(src, slotAddress(dst), slotSize);
+			}
+		}
+		unsafe.freeMemory(oldTable);
+	}
+
+	/**
+	 * Copy a key into the probe
+	 * @return the hash of the key
+	 */
+	private int loadProbe(K key) {
+		probeView.copyFrom(key);
+		return UnsafeHelper.bytesHash(null, probe, keySize);
+	}
+
+	private boolean probeEquals(long addr) {
+		return UnsafeHelper.bytesEqual(null, probe, null, addr, keySize);
+	}
+}
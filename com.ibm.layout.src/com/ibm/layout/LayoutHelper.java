@@ -7,12 +7,18 @@
  *******************************************************************************/
 package com.ibm.layout;
 
-import java.io.DataInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import sun.misc.Unsafe;
 
@@ -23,13 +29,41 @@ import sun.misc.Unsafe;
  * Types of layouts are:<br>
  * - singleton<br>
  * - (1|2)-dim primitive array<br>
+ * - (1|2)-dim bit array<br>
  * - (1|2)-dim layout array<br>
+ * - columnar 1-dim layout array<br>
+ * </p>
+ * <p>
+ * Singleton views can also be recycled through a thread-local pool, see {@link #acquire(Class, Location)}.
  * </p>
  * n-dim array layouts and their corresponding factory methods might be generated in the future.
  */
 public final class LayoutHelper {
+	/**
+	 * Name of the system property that enables loading pre-generated impl classes.
+	 * When it is "true", impl classes are read from the class path, as written by
+	 * {@link ImplGenerator}. Classes that are not found are generated as usual.
+	 */
+	public static final String PREGENERATED_PROPERTY = "com.ibm.layout.pregenerated";
+
+	/**
+	 * Name of the system property that enables leak detection in the view pool.
+	 * When it is "true", {@link #acquire(Class, Location)} records where each view is
+	 * acquired, and {@link #checkViewLeaks()} reports the views that were not released.
+	 */
+	public static final String POOL_DEBUG_PROPERTY = "com.ibm.layout.pool.debug";
+
+	/**
+	 * Maximum number of released views the pool keeps per layout class and thread.
+	 * Views released beyond this are left to the garbage collector.
+	 */
+	public static final int MAX_POOLED_VIEWS = 64;
+
 	static private final LayoutHelper inst = new LayoutHelper();
 	static private final Unsafe unsafe = UnsafeHelper.getUnsafe();
+	static private final boolean usePregenerated = Boolean.getBoolean(PREGENERATED_PROPERTY);
+	static private volatile File classDumpDir = null;
+	static private volatile boolean poolDebug = Boolean.getBoolean(POOL_DEBUG_PROPERTY);
 
 	private LayoutHelper() {
 	}
@@ -42,11 +76,70 @@ public final class LayoutHelper {
 		return inst;
 	}
 
-	private class ImplClassLoader extends ClassLoader {
+	/**
+	 * Defines the generated impl classes.
+	 * 
+	 * <p>
+	 * The loader is parallel capable. Each class is defined while holding the class loading
+	 * lock for its name, so threads that first touch different layouts generate them in
+	 * parallel, and threads that first touch the same layout generate it once.
+	 * Classes that a layout depends on are generated before its lock is taken, so a
+	 * thread holds at most one of these locks while it runs a generator.
+	 * </p>
+	 */
+	private static final class ImplClassLoader extends ClassLoader {
+		static {
+			registerAsParallelCapable();
+		}
+
 		ImplClassLoader() {
 			super(ClassLoader.getSystemClassLoader());
 		}
 
+		/**
+		 * Generate a class, unless another thread already has.
+		 * In pre-generated mode, the class is read from the class path if it is there.
+		 * @param className binary name of the generated class
+		 * @param generator generates the bytecodes of the class
+		 * @return the class
+		 */
+		private Class<?> defineGeneratedClass(String className, Generator generator) throws Exception {
+			synchronized (getClassLoadingLock(className)) {
+				Class<?> implClass = findLoadedClass(className);
+				if (null == implClass) {
+					byte[] bytes = null;
+					if (usePregenerated) {
+						bytes = readClassBytes(className);
+					}
+					if (null == bytes) {
+						bytes = generator.genBytecode();
+						dumpClassBytes(className, bytes);
+					}
+					implClass = defineClass(className, bytes, 0, bytes.length);
+				}
+				return implClass;
+			}
+		}
+
+		/**
+		 * Define a builtin impl class (e.g. a primitive array), from its class file on the class path.
+		 * @param className binary name of the class
+		 * @return the class
+		 */
+		private Class<?> defineBuiltinClass(String className) throws Exception {
+			synchronized (getClassLoadingLock(className)) {
+				Class<?> implClass = findLoadedClass(className);
+				if (null == implClass) {
+					byte[] bytes = readClassBytes(className);
+					if (null == bytes) {
+						throw new ClassNotFoundException(className);
+					}
+					implClass = defineClass(className, bytes, 0, bytes.length);
+				}
+				return implClass;
+			}
+		}
+
 		@SuppressWarnings("unchecked")
 		Class<?> loadLayoutClass(Class<? extends Layout> interfaceClass) throws Exception {
 			Class<?> implClass = findLoadedClass(getImplClassName(interfaceClass));
@@ -76,10 +169,8 @@ public final class LayoutHelper {
 				} 
 			}
 			
-			GenLayout loader = new GenLayout(interfaceClass);
-			byte[] bytes = loader.genBytecode();
-			implClass = defineClass(null, bytes, 0, bytes.length);
-			return implClass;
+			return defineGeneratedClass(getImplClassName(interfaceClass),
+					() -> new GenLayout(interfaceClass).genBytecode());
 		}
 
 		@SuppressWarnings("unchecked")
@@ -90,16 +181,7 @@ public final class LayoutHelper {
 					return (Class<? extends LayoutType>) implClass;
 				}
 				
-				String clsFile = ClassLoader.getSystemResource(className.replace('.', '/') + ".class").getFile();
-
-				File file = new File(clsFile);
-				int size = (int)file.length();
-				byte classBytes[] = new byte[size];
-				FileInputStream fis = new FileInputStream(file);
-				DataInputStream dis = new DataInputStream(fis);
-				dis.readFully(classBytes);
-				dis.close();
-				implClass = defineClass(null, classBytes, 0, classBytes.length);
+				implClass = defineBuiltinClass(className);
 				return (Class<? extends LayoutType>) implClass;
 
 			} else {
@@ -115,7 +197,7 @@ public final class LayoutHelper {
 			
 			//Load element class
 			@SuppressWarnings("unused")
-			Class<E> elementCls = genLayoutImpl(elementInterfaceClass);
+			Class<E> elementCls = inst.genLayoutImpl(elementInterfaceClass);
 			
 			if (null == userDefinedArrayClass) {
 				/* append "1DImpl" to the element class name */
@@ -127,9 +209,8 @@ public final class LayoutHelper {
 			
 			Class<AE> implClass = (Class<AE>)findLoadedClass(arrayInterfaceClassName);
 			if (null == implClass) {
-				GenArray1D generator = new GenArray1D(elementInterfaceClass, userDefinedArrayClass);
-				byte[] bytes = generator.genBytecode();
-				implClass = (Class<AE>)defineClass(null, bytes, 0, bytes.length);
+				implClass = (Class<AE>)defineGeneratedClass(arrayInterfaceClassName,
+						() -> new GenArray1D(elementInterfaceClass, userDefinedArrayClass).genBytecode());
 			}
 			return implClass;
 		}
@@ -145,27 +226,146 @@ public final class LayoutHelper {
 			
 			Class<AE> implClass = (Class<AE>)findLoadedClass(arrayInterfaceClassName);
 			if (null == implClass) {
-				GenPrimArray1D generator = new GenPrimArray1D(elementInterfaceClass, userDefinedArrayClass);
-				byte[]	bytes = generator.genBytecode();
-				implClass = (Class<AE>)defineClass(null, bytes, 0, bytes.length);
+				/* the impl class extends the builtin primitive array, which must be defined by this loader */
+				String superClassName = getPrimArray1DName(elementInterfaceClass);
+				if (null == superClassName) {
+					throw new IllegalArgumentException("not a primitive class: " + elementInterfaceClass);
+				}
+				loadPrimArrayClass(superClassName);
+				implClass = (Class<AE>)defineGeneratedClass(arrayInterfaceClassName,
+						() -> new GenPrimArray1D(elementInterfaceClass, userDefinedArrayClass).genBytecode());
 			}
 			
 			return implClass;
 		}
 		
+		@SuppressWarnings("unchecked")
+		<E extends Layout> Class<ColumnArray1D<E>> loadColumn1DClass(Class<E> elementInterfaceClass) throws Exception {
+			String arrayImplClassName = getColumn1DImplClassName(elementInterfaceClass);
+			Class<ColumnArray1D<E>> implClass = (Class<ColumnArray1D<E>>)findLoadedClass(arrayImplClassName);
+			if (null == implClass) {
+				String elementImplClassName = getColumnImplClassName(elementInterfaceClass);
+				if (null == findLoadedClass(elementImplClassName)) {
+					defineGeneratedClass(elementImplClassName,
+							() -> new GenLayout(elementInterfaceClass, true).genBytecode());
+				}
+				implClass = (Class<ColumnArray1D<E>>)defineGeneratedClass(arrayImplClassName,
+						() -> new GenColumnArray1D(elementInterfaceClass).genBytecode());
+			}
+			return implClass;
+		}
+
+		Class<?> loadComparatorClass(Class<? extends Layout> interfaceClass, String[] fieldNames) throws Exception {
+			String comparatorClassName = GenComparator.getComparatorClassName(interfaceClass, fieldNames);
+			Class<?> comparatorClass = findLoadedClass(comparatorClassName);
+			if (null == comparatorClass) {
+				/* check the fields before taking the class loading lock */
+				GenComparator generator = new GenComparator(interfaceClass, fieldNames);
+				comparatorClass = defineGeneratedClass(comparatorClassName, () -> generator.genBytecode());
+			}
+			return comparatorClass;
+		}
+
 		Class<?> load2DClass(Class<? extends Layout> elementInterfaceClass) throws Exception {
 			Class<?> implClass = findLoadedClass(get2DImplClassName(elementInterfaceClass));
 			if (null == implClass) {
-				GenArray2D generator = new GenArray2D(elementInterfaceClass);
-				byte[] bytes = generator.genBytecode();
-				implClass = defineClass(null, bytes, 0, bytes.length);
+				implClass = defineGeneratedClass(get2DImplClassName(elementInterfaceClass),
+						() -> new GenArray2D(elementInterfaceClass).genBytecode());
 			}
 			return implClass;
 		}
+
+		@SuppressWarnings("unchecked")
+		Class<? extends LayoutFactory<?>> loadFactoryClass(GenLayoutFactory generator, Class<?> implClass) throws Exception {
+			String factoryClassName = GenLayoutFactory.getFactoryClassName(implClass.getName());
+			Class<?> factoryClass = findLoadedClass(factoryClassName);
+			if (null == factoryClass) {
+				factoryClass = defineGeneratedClass(factoryClassName, generator::genBytecode);
+			}
+			return (Class<? extends LayoutFactory<?>>) factoryClass;
+		}
+	}
+
+	/**
+	 * Read a class file from the class path
+	 * @param className binary name of the class
+	 * @return the class file bytes, or null if the class file is not found
+	 */
+	static private byte[] readClassBytes(String className) throws Exception {
+		InputStream is = ClassLoader.getSystemResourceAsStream(className.replace('.', '/') + ".class");
+		if (null == is) {
+			return null;
+		}
+		try {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			byte[] buf = new byte[4096];
+			int n;
+			while (-1 != (n = is.read(buf))) {
+				bos.write(buf, 0, n);
+			}
+			return bos.toByteArray();
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * Write a generated class file below the class dump directory, if one is set
+	 * @param className binary name of the class
+	 * @param bytes the class file bytes
+	 */
+	static private void dumpClassBytes(String className, byte[] bytes) throws Exception {
+		File dir = classDumpDir;
+		if (null == dir) {
+			return;
+		}
+		File file = new File(dir, className.replace('.', File.separatorChar) + ".class");
+		file.getParentFile().mkdirs();
+		FileOutputStream fos = new FileOutputStream(file);
+		try {
+			fos.write(bytes);
+		} finally {
+			fos.close();
+		}
+	}
+
+	/**
+	 * Set the directory where classes generated from now on are written.
+	 * Used by {@link ImplGenerator}.
+	 * @param dir output directory, or null to stop writing classes
+	 */
+	static void setClassDumpDir(File dir) {
+		classDumpDir = dir;
+	}
+
+	/**
+	 * Generates the bytecodes of a class
+	 */
+	@FunctionalInterface
+	private interface Generator {
+		byte[] genBytecode() throws Exception;
 	}
 
 	private ImplClassLoader implClassloader = new ImplClassLoader();
 
+	/* Factories are keyed by the class that determines the impl class: the layout
+	 * interface for singletons and layout arrays, the primitive class for builtin
+	 * primitive arrays, the bit array interface for bit arrays, and the user-defined
+	 * interface for user-defined arrays.
+	 */
+	private final ConcurrentHashMap<Class<?>, LayoutFactory<?>> layoutFactories = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Class<?>, LayoutFactory<?>> array1DFactories = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Class<?>, LayoutFactory<?>> array2DFactories = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Class<?>, LayoutFactory<?>> primArray1DFactories = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Class<?>, LayoutFactory<?>> primArray2DFactories = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Class<?>, LayoutFactory<?>> userArray1DFactories = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Class<?>, LayoutFactory<?>> columnArray1DFactories = new ConcurrentHashMap<>();
+	/* comparators are keyed by their class name, which encodes the layout and the fields */
+	private final ConcurrentHashMap<String, Comparator<?>> comparators = new ConcurrentHashMap<>();
+
+	static private final String BIT_ARRAY_1D_NAME = "com.ibm.layout.gen.BitArray1DImpl";
+	static private final String BIT_ARRAY_2D_NAME = "com.ibm.layout.gen.BitArray2DImpl";
+
 	static String getImplClassName(Class<? extends LayoutType> cls) {
 		return "com.ibm.layout.gen." + cls.getSimpleName() + "Impl";
 	}
@@ -174,6 +374,14 @@ public final class LayoutHelper {
 		return "com.ibm.layout.gen." + cls.getSimpleName() + "1DImpl";
 	}
 
+	static String getColumnImplClassName(Class<? extends LayoutType> cls) {
+		return "com.ibm.layout.gen." + cls.getSimpleName() + "ColumnImpl";
+	}
+
+	static String getColumn1DImplClassName(Class<? extends LayoutType> cls) {
+		return "com.ibm.layout.gen." + cls.getSimpleName() + "Column1DImpl";
+	}
+
 	static String get2DImplClassName(Class<? extends LayoutType> cls) {
 		return "com.ibm.layout.gen." + cls.getSimpleName() + "2DImpl";
 	}
@@ -349,18 +557,409 @@ public final class LayoutHelper {
 	}
 
 	/**
-	 * Get a layout to access a direct byte buffer.
-	 * @param buffer a direct byte buffer
-	 * @return a ByteArray1D layout
+	 * Create a columnar 1D array class
+	 * 
+	 * @param <E> element type
+	 * @param elementInterfaceClass, the element type of the array
+	 * @return columnar 1D array class
 	 */
-	public ByteArray1D fromByteBuffer(ByteBuffer buffer) {
-		if (!buffer.isDirect()) {
-			throw new UnsupportedOperationException("not direct");
+	public <E extends Layout> Class<ColumnArray1D<E>> genColumnArray1DImpl(final Class<E> elementInterfaceClass) {
+		try {
+			Class<ColumnArray1D<E>> implCls = implClassloader.loadColumn1DClass(elementInterfaceClass);
+			unsafe.ensureClassInitialized(implCls);
+
+			return implCls;
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Instantiate the factory for an impl class, and cache it.
+	 * Factories are not created inside the cache's compute methods, because creating
+	 * one factory can require creating others (e.g. the factory of an array element).
+	 */
+	@SuppressWarnings("unchecked")
+	private <F extends LayoutFactory<?>> F cacheFactory(ConcurrentHashMap<Class<?>, LayoutFactory<?>> cache,
+			Class<?> key, GenLayoutFactory generator, Class<?> implCls)
+	{
+		if (null == implCls) {
+			throw new IllegalArgumentException("no impl class for " + key.getName());
+		}
+		try {
+			Class<? extends LayoutFactory<?>> factoryCls = implClassloader.loadFactoryClass(generator, implCls);
+			LayoutFactory<?> factory = factoryCls.getDeclaredConstructor().newInstance();
+			LayoutFactory<?> prev = cache.putIfAbsent(key, factory);
+			return (F) ((null == prev) ? factory : prev);
+		} catch (Exception e) {
+			throw new IllegalStateException("cannot create factory for " + implCls.getName(), e);
+		}
+	}
+
+	/**
+	 * Get the factory for a singleton layout
+	 * @param <T> subclass of Layout
+	 * @param interfaceCls The layout class
+	 * @return a cached layout factory
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Layout> LayoutFactory.OfLayout<T> getLayoutFactory(final Class<T> interfaceCls) {
+		LayoutFactory.OfLayout<T> factory = (LayoutFactory.OfLayout<T>) layoutFactories.get(interfaceCls);
+		if (null == factory) {
+			Class<T> implCls = genLayoutImpl(interfaceCls);
+			factory = cacheFactory(layoutFactories, interfaceCls, new GenLayoutFactory(implCls, 0), implCls);
+		}
+		return factory;
+	}
+
+	/**
+	 * Get the factory for a 1D array layout
+	 * @param <T> subclass of Layout
+	 * @param elementInterfaceCls The layout class for each array element.
+	 * @return a cached layout factory
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Layout> LayoutFactory.OfArray1D<Array1D<T>> getArray1DFactory(final Class<T> elementInterfaceCls) {
+		LayoutFactory.OfArray1D<Array1D<T>> factory = (LayoutFactory.OfArray1D<Array1D<T>>) array1DFactories.get(elementInterfaceCls);
+		if (null == factory) {
+			long elementSize = getLayoutFactory(elementInterfaceCls).newInstance().sizeof();
+			Class<Array1D<T>> implCls = genArray1DImpl(elementInterfaceCls);
+			factory = cacheFactory(array1DFactories, elementInterfaceCls,
+					new GenLayoutFactory(implCls, 1, elementSize), implCls);
+		}
+		return factory;
+	}
+
+	/**
+	 * Get the factory for a user-defined 1D array layout
+	 * @param <E> subclass of Layout
+	 * @param <AE> subclass of Array1D
+	 * @param userArrayCls A user-extension of an Array1D interface.
+	 * @param elementInterfaceCls The element type of the array.
+	 * @return a cached layout factory
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends Layout, AE extends Array1D<E>> LayoutFactory.OfArray1D<AE> getUserArray1DFactory(
+			final Class<AE> userArrayCls, final Class<E> elementInterfaceCls)
+	{
+		LayoutFactory.OfArray1D<AE> factory = (LayoutFactory.OfArray1D<AE>) userArray1DFactories.get(userArrayCls);
+		if (null == factory) {
+			long elementSize = getLayoutFactory(elementInterfaceCls).newInstance().sizeof();
+			Class<AE> implCls = genArray1DImpl(elementInterfaceCls, userArrayCls);
+			factory = cacheFactory(userArray1DFactories, userArrayCls,
+					new GenLayoutFactory(implCls, 1, elementSize), implCls);
+		}
+		return factory;
+	}
+
+	/**
+	 * Get the factory for a columnar 1D array layout
+	 * @param <T> subclass of Layout
+	 * @param elementInterfaceCls The layout class for each array element.
+	 * @return a cached layout factory
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Layout> LayoutFactory.OfArray1D<ColumnArray1D<T>> getColumnArray1DFactory(final Class<T> elementInterfaceCls) {
+		LayoutFactory.OfArray1D<ColumnArray1D<T>> factory = (LayoutFactory.OfArray1D<ColumnArray1D<T>>) columnArray1DFactories.get(elementInterfaceCls);
+		if (null == factory) {
+			long elementSize = getLayoutFactory(elementInterfaceCls).newInstance().sizeof();
+			Class<ColumnArray1D<T>> implCls = genColumnArray1DImpl(elementInterfaceCls);
+			factory = cacheFactory(columnArray1DFactories, elementInterfaceCls,
+					new GenLayoutFactory(implCls, 1, elementSize), implCls);
+		}
+		return factory;
+	}
+
+	/**
+	 * Get a comparator that orders layouts lexicographically by primitive fields
+	 * @param <T> subclass of Layout
+	 * @param interfaceCls The layout class
+	 * @param fieldNames names of the compared fields, most significant first
+	 * @return a cached comparator
+	 * @throws IllegalArgumentException if a field does not exist or is not primitive
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Layout> Comparator<T> getComparator(final Class<T> interfaceCls, final String... fieldNames) {
+		String key = GenComparator.getComparatorClassName(interfaceCls, fieldNames);
+		Comparator<T> comparator = (Comparator<T>) comparators.get(key);
+		if (null == comparator) {
+			try {
+				Class<?> comparatorCls = implClassloader.loadComparatorClass(interfaceCls, fieldNames);
+				comparator = (Comparator<T>) comparatorCls.getDeclaredConstructor().newInstance();
+			} catch (IllegalArgumentException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new IllegalStateException("cannot create comparator for " + interfaceCls.getName(), e);
+			}
+			Comparator<?> prev = comparators.putIfAbsent(key, comparator);
+			if (null != prev) {
+				comparator = (Comparator<T>) prev;
+			}
+		}
+		return comparator;
+	}
+
+	/**
+	 * Get the factory for a 2D array layout
+	 * @param <T> subclass of Layout
+	 * @param elementInterfaceCls The layout class for each array element.
+	 * @return a cached layout factory
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Layout> LayoutFactory.OfArray2D<Array2D<T>> getArray2DFactory(final Class<T> elementInterfaceCls) {
+		LayoutFactory.OfArray2D<Array2D<T>> factory = (LayoutFactory.OfArray2D<Array2D<T>>) array2DFactories.get(elementInterfaceCls);
+		if (null == factory) {
+			long elementSize = getLayoutFactory(elementInterfaceCls).newInstance().sizeof();
+			Class<Array2D<T>> implCls = genArray2DImpl(elementInterfaceCls);
+			factory = cacheFactory(array2DFactories, elementInterfaceCls,
+					new GenLayoutFactory(implCls, 2, elementSize), implCls);
+		}
+		return factory;
+	}
+
+	/**
+	 * Get the factory for a 1D array of java primitive type
+	 * @param <T> subclass of LayoutType
+	 * @param primCls The primitive class for each array element, e.g. int.class
+	 * @return a cached layout factory
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends LayoutType> LayoutFactory.OfArray1D<T> getPrimArray1DFactory(final Class<?> primCls) {
+		LayoutFactory.OfArray1D<T> factory = (LayoutFactory.OfArray1D<T>) primArray1DFactories.get(primCls);
+		if (null == factory) {
+			Class<T> implCls = genPrimArrayImpl(getPrimArray1DName(primCls));
+			factory = cacheFactory(primArray1DFactories, primCls, new GenLayoutFactory(implCls, 1), implCls);
+		}
+		return factory;
+	}
+
+	/**
+	 * Get the factory for a 2D array of java primitive type
+	 * @param <T> subclass of LayoutType
+	 * @param primCls The primitive class for each array element, e.g. int.class
+	 * @return a cached layout factory
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends LayoutType> LayoutFactory.OfArray2D<T> getPrimArray2DFactory(final Class<?> primCls) {
+		LayoutFactory.OfArray2D<T> factory = (LayoutFactory.OfArray2D<T>) primArray2DFactories.get(primCls);
+		if (null == factory) {
+			Class<T> implCls = genPrimArrayImpl(getPrimArray2DName(primCls));
+			factory = cacheFactory(primArray2DFactories, primCls, new GenLayoutFactory(implCls, 2), implCls);
+		}
+		return factory;
+	}
+
+	/**
+	 * Get the factory for a 1D bit array
+	 * @return a cached layout factory
+	 */
+	@SuppressWarnings("unchecked")
+	public LayoutFactory.OfArray1D<BitArray1D> getBitArray1DFactory() {
+		LayoutFactory.OfArray1D<BitArray1D> factory = (LayoutFactory.OfArray1D<BitArray1D>) primArray1DFactories.get(BitArray1D.class);
+		if (null == factory) {
+			Class<BitArray1D> implCls = genPrimArrayImpl(BIT_ARRAY_1D_NAME);
+			factory = cacheFactory(primArray1DFactories, BitArray1D.class, new GenLayoutFactory(implCls, 1), implCls);
 		}
+		return factory;
+	}
+
+	/**
+	 * Get the factory for a 2D bit array
+	 * @return a cached layout factory
+	 */
+	@SuppressWarnings("unchecked")
+	public LayoutFactory.OfArray2D<BitArray2D> getBitArray2DFactory() {
+		LayoutFactory.OfArray2D<BitArray2D> factory = (LayoutFactory.OfArray2D<BitArray2D>) primArray2DFactories.get(BitArray2D.class);
+		if (null == factory) {
+			/* the impl class uses the 1D impl class, which must be defined by the same loader */
+			genPrimArrayImpl(BIT_ARRAY_1D_NAME);
+			Class<BitArray2D> implCls = genPrimArrayImpl(BIT_ARRAY_2D_NAME);
+			factory = cacheFactory(primArray2DFactories, BitArray2D.class, new GenLayoutFactory(implCls, 2), implCls);
+		}
+		return factory;
+	}
+
+	/**
+	 * Get the factory for a user-defined 1D array of java primitive type
+	 * @param <AE> subclass of LayoutType
+	 * @param userArrayCls the user defined class
+	 * @param primCls The primitive class for each array element, e.g. int.class
+	 * @return a cached layout factory
+	 */
+	@SuppressWarnings("unchecked")
+	public <AE extends LayoutType> LayoutFactory.OfArray1D<AE> getPrimUserArray1DFactory(final Class<AE> userArrayCls,
+			final Class<?> primCls)
+	{
+		LayoutFactory.OfArray1D<AE> factory = (LayoutFactory.OfArray1D<AE>) userArray1DFactories.get(userArrayCls);
+		if (null == factory) {
+			Class<AE> implCls = genPrimUserArray1DImpl(primCls, userArrayCls);
+			factory = cacheFactory(userArray1DFactories, userArrayCls, new GenLayoutFactory(implCls, 1), implCls);
+		}
+		return factory;
+	}
 
-		ByteArray1D b = (ByteArray1D) LayoutType.getPrimArray1D(byte.class, UnsafeHelper.getDirectByteBufferLength(buffer));
-		Location loc = new Location(UnsafeHelper.getDirectByteBufferAddress(buffer));
-		b.bindLocation(loc);
+	/**
+	 * Get a layout to access all of a byte buffer, direct or heap, without copying it.
+	 * @param buffer a direct buffer, or a heap buffer that has an accessible array
+	 * @return a ByteArray1D layout of the buffer's capacity
+	 */
+	public ByteArray1D fromByteBuffer(ByteBuffer buffer) {
+		ByteArray1D b = (ByteArray1D) LayoutType.getPrimArray1D(byte.class, buffer.capacity());
+		b.bindLocation(new Location(buffer, 0));
 		return b;
 	}
+
+	/**
+	 * Get a layout bound to a byte buffer, at an index, without copying the buffer.
+	 * See {@link Location#Location(ByteBuffer, int)}.
+	 * @param <T> subclass of Layout
+	 * @param interfaceCls The layout class
+	 * @param buffer a direct buffer, or a heap buffer that has an accessible array
+	 * @param index absolute index of the layout in the buffer
+	 * @return a layout bound to the buffer
+	 * @throws IndexOutOfBoundsException if the layout does not fit before the buffer's limit
+	 */
+	public <T extends Layout> T fromByteBuffer(final Class<T> interfaceCls, ByteBuffer buffer, int index) {
+		T layout = getLayoutFactory(interfaceCls).newInstance();
+		checkBufferFits(buffer, index, layout.sizeof());
+		layout.bindLocation(new Location(buffer, index));
+		return layout;
+	}
+
+	/**
+	 * Get an array layout bound to a byte buffer, at an index, without copying the buffer.
+	 * See {@link Location#Location(ByteBuffer, int)}.
+	 * @param <T> subclass of Layout
+	 * @param elementInterfaceCls The layout element class
+	 * @param buffer a direct buffer, or a heap buffer that has an accessible array
+	 * @param index absolute index of the first element in the buffer
+	 * @param length the number of array elements
+	 * @return an array layout bound to the buffer
+	 * @throws IndexOutOfBoundsException if the array does not fit before the buffer's limit
+	 */
+	public <T extends Layout> Array1D<T> fromByteBuffer(final Class<T> elementInterfaceCls, ByteBuffer buffer,
+			int index, long length)
+	{
+		Array1D<T> array = getArray1DFactory(elementInterfaceCls).newInstance(length);
+		checkBufferFits(buffer, index, array.sizeof());
+		array.bindLocation(new Location(buffer, index));
+		return array;
+	}
+
+	private static void checkBufferFits(ByteBuffer buffer, int index, long size) {
+		if ((index < 0) || (index + size > buffer.limit())) {
+			throw new IndexOutOfBoundsException("layout of size " + size + " at index " + index
+					+ " exceeds buffer limit " + buffer.limit());
+		}
+	}
+
+	/**
+	 * The views released by one thread, ready to be acquired again
+	 */
+	private static final class ViewPool {
+		/* impl class of each layout class acquired by the thread */
+		final HashMap<Class<?>, Class<?>> implClasses = new HashMap<>();
+		final HashMap<Class<?>, ArrayDeque<Layout>> freeViews = new HashMap<>();
+		/* in debug mode, the views not released yet, and where they were acquired */
+		final IdentityHashMap<Layout, Throwable> acquiredViews = new IdentityHashMap<>();
+	}
+
+	private static final ThreadLocal<ViewPool> viewPools = ThreadLocal.withInitial(ViewPool::new);
+
+	/**
+	 * Get a singleton layout view from the current thread's pool, or create one if the pool
+	 * is empty, and bind it to a location. Use this instead of {@link Layout#getLayout(Class)}
+	 * where short-lived views are created at a high rate.
+	 * 
+	 * <p>
+	 * Release the view with {@link #release(Layout)} when it is no longer used. The view
+	 * must not be used after it is released, since the pool hands it out again.
+	 * </p>
+	 * @param <T> subclass of Layout
+	 * @param interfaceCls The layout class
+	 * @param loc the location to bind the view to
+	 * @return a view bound to loc
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Layout> T acquire(final Class<T> interfaceCls, final Location loc) {
+		ViewPool pool = viewPools.get();
+		T view = null;
+		Class<?> implCls = pool.implClasses.get(interfaceCls);
+		if (null != implCls) {
+			ArrayDeque<Layout> views = pool.freeViews.get(implCls);
+			if (null != views) {
+				view = (T) views.pollFirst();
+			}
+		}
+		if (null == view) {
+			view = getLayoutFactory(interfaceCls).newInstance();
+			if (null == implCls) {
+				pool.implClasses.put(interfaceCls, view.getClass());
+			}
+		}
+		view.bindLocation(loc);
+		if (poolDebug) {
+			pool.acquiredViews.put(view, new Throwable("view acquired here"));
+		}
+		return view;
+	}
+
+	/**
+	 * Return a view to the current thread's pool. The view may have been created by
+	 * {@link #acquire(Class, Location)} or by any other means.
+	 * @param view a singleton layout view that is no longer used
+	 * @throws IllegalStateException in debug mode, if the view is already in the pool
+	 */
+	public void release(final Layout view) {
+		ViewPool pool = viewPools.get();
+		ArrayDeque<Layout> views = pool.freeViews.get(view.getClass());
+		if (null == views) {
+			views = new ArrayDeque<>();
+			pool.freeViews.put(view.getClass(), views);
+		}
+		if (poolDebug) {
+			pool.acquiredViews.remove(view);
+			for (Layout free : views) {
+				if (free == view) {
+					throw new IllegalStateException("view released twice: " + view.getClass().getName());
+				}
+			}
+		}
+		if (views.size() < MAX_POOLED_VIEWS) {
+			views.addFirst(view);
+		}
+	}
+
+	/**
+	 * Enable or disable leak detection in the view pool. See {@link #POOL_DEBUG_PROPERTY}.
+	 * @param enabled true to record acquired views
+	 */
+	public void setPoolDebug(boolean enabled) {
+		poolDebug = enabled;
+	}
+
+	/**
+	 * Get the number of views acquired by the current thread and not released, in debug mode
+	 * @return the number of outstanding views, or 0 if debug mode is disabled
+	 */
+	public int getAcquiredViewCount() {
+		return viewPools.get().acquiredViews.size();
+	}
+
+	/**
+	 * Check that the current thread released all the views it acquired in debug mode, and
+	 * forget the views that were not released. Does nothing if debug mode is disabled.
+	 * @throws IllegalStateException if views were not released. Its cause is the stack trace
+	 * of the acquisition of one of them.
+	 */
+	public void checkViewLeaks() {
+		IdentityHashMap<Layout, Throwable> acquiredViews = viewPools.get().acquiredViews;
+		if (!acquiredViews.isEmpty()) {
+			int count = acquiredViews.size();
+			Throwable acquisition = acquiredViews.values().iterator().next();
+			acquiredViews.clear();
+			throw new IllegalStateException(count + " pooled view(s) not released", acquisition);
+		}
+	}
 }
@@ -7,9 +7,11 @@
  *******************************************************************************/
 package com.ibm.layout;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * Superclass of all layouts.
@@ -42,7 +44,7 @@ public interface LayoutType {
 	 * @param buf The byte array buffer where the data should be written.
 	 * @param offset The offset in buf where we should start writing.
 	 * @param length The maximum number of bytes to write. The actual number of bytes written is min(length,
-	 *            this.getByteSize()).
+	 *            this.sizeof() - srcOffset).
 	 * @return The number of bytes written to buf, or -1 if srcOffset greater than or equal the receiver's data size.
 	 */
 	public abstract int writeToByteArray(long srcOffset, byte[] buf, int offset, int length);
@@ -55,16 +57,49 @@ public interface LayoutType {
 	 * @param buf The byte array buffer to read the data from.
 	 * @param offset The offset in buf where we should start reading.
 	 * @param length The maximum number of bytes to read. The actual number of bytes read is min(length,
-	 *            this.getByteSize()).
+	 *            this.sizeof() - dstOffset).
 	 * @return The number of bytes read from buf and written into the receiver, or -1 if dstOffset is greater than or equal 
 	 * the receiver's data size.
 	 */
 	public abstract int readFromByteArray(long dstOffset, byte[] buf, int offset, int length);
 
 	/**
-	 * Get a direct byte buffer to access this layout.
-	 * This layout must target off-heap memory.
-	 * @return a direct byte buffer
+	 * Write the receiver's data to a channel, at the channel's position, without copying it
+	 * into an intermediate array. The channel must be in blocking mode.
+	 * 
+	 * @param channel the destination channel
+	 * @return the number of bytes written, this.sizeof()
+	 * @throws IOException if the channel fails
+	 */
+	public abstract long writeTo(WritableByteChannel channel) throws IOException;
+
+	/**
+	 * Fill the receiver's data from a channel, from the channel's position, without copying it
+	 * through an intermediate array. The channel must be in blocking mode.
+	 * 
+	 * @param channel the source channel
+	 * @return the number of bytes read, this.sizeof()
+	 * @throws java.io.EOFException if the channel ends before the receiver is filled
+	 * @throws IOException if the channel fails
+	 */
+	public abstract long readFrom(ReadableByteChannel channel) throws IOException;
+
+	/**
+	 * Write the receiver's data to a file, at a file position, without copying it into an
+	 * intermediate array. The position of the file channel is not changed.
+	 * 
+	 * @param channel the destination file
+	 * @param position file position of the first byte
+	 * @return the number of bytes written, this.sizeof()
+	 * @throws IOException if the channel fails
+	 */
+	public abstract long transferTo(FileChannel channel, long position) throws IOException;
+
+	/**
+	 * Get a byte buffer to access this layout: a direct buffer if the layout
+	 * targets off-heap memory, else a heap buffer that wraps its byte array.
+	 * @return a byte buffer in native byte order
+	 * @throws UnsupportedOperationException if the data is not contiguous, e.g. an element of a ColumnArray1D
 	 */
 	public abstract ByteBuffer asByteBuffer();
 
@@ -99,15 +134,9 @@ public interface LayoutType {
 	public static <AE extends LayoutType> AE getPrimUserArray1D(final Class<AE> userArrayCls, final Class<?> primCls,
 			final long length)
 	{
-		Class<AE> implCls;
 		try {
-			LayoutHelper f = LayoutHelper.getFactory();
-			implCls = f.genPrimUserArray1DImpl(primCls, userArrayCls);
-			Constructor<AE> ctor = implCls.getDeclaredConstructor(new Class<?>[] { long.class });
-			ctor.setAccessible(true);
-			return ctor.newInstance(length);
-		} catch (InstantiationException | IllegalAccessException | IllegalArgumentException
-			| InvocationTargetException | NoSuchMethodException | SecurityException e) {
+			return LayoutHelper.getFactory().getPrimUserArray1DFactory(userArrayCls, primCls).newInstance(length);
+		} catch (Exception e) {
 			e.printStackTrace();
 		}
 		return null;
@@ -122,16 +151,9 @@ public interface LayoutType {
 	 * @return an instance of a 1D primitive array
 	 */
 	static public <T extends LayoutType> T getPrimArray1D(Class<?> primCls, final long length) {
-		final String implClsName = LayoutHelper.getPrimArray1DName(primCls);
-		Class<T> implCls;
 		try {
-			LayoutHelper f = LayoutHelper.getFactory();
-			implCls = f.genPrimArrayImpl(implClsName);
-			Constructor<T> ctor = implCls.getDeclaredConstructor(new Class<?>[] { long.class });
-			ctor.setAccessible(true);
-			return ctor.newInstance(length);
-		} catch (InstantiationException | IllegalAccessException | IllegalArgumentException
-			| InvocationTargetException | NoSuchMethodException | SecurityException e) {
+			return LayoutHelper.getFactory().<T>getPrimArray1DFactory(primCls).newInstance(length);
+		} catch (Exception e) {
 			e.printStackTrace();
 		}
 		return null;
@@ -147,16 +169,9 @@ public interface LayoutType {
 	 * @return an instance of a 1D primitive array
 	 */
 	static public <T extends LayoutType> T getPrimArray2D(Class<?> primCls, final long dim1, final long dim2) {
-		final String implClsName = LayoutHelper.getPrimArray2DName(primCls);
-		Class<T> implCls;
 		try {
-			LayoutHelper f = LayoutHelper.getFactory();
-			implCls = f.genPrimArrayImpl(implClsName);
-			Constructor<T> ctor = implCls.getDeclaredConstructor(new Class<?>[] { long.class, long.class });
-			ctor.setAccessible(true);
-			return ctor.newInstance(dim1, dim2);
-		} catch (InstantiationException | IllegalAccessException | IllegalArgumentException
-			| InvocationTargetException | NoSuchMethodException | SecurityException e) {
+			return LayoutHelper.getFactory().<T>getPrimArray2DFactory(primCls).newInstance(dim1, dim2);
+		} catch (Exception e) {
 			e.printStackTrace();
 		}
 		return null;
@@ -7,10 +7,11 @@
  *******************************************************************************/
 package com.ibm.layout;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 import sun.misc.Unsafe;
 
@@ -18,9 +19,12 @@ import sun.misc.Unsafe;
  * Implements LayoutType
  *
  */
-public abstract class LayoutTypeImpl implements LayoutType {
+public abstract class LayoutTypeImpl implements LayoutType, Rebindable {
 	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
 	protected Location location;
+	/* data and offset of the location, copied by bindLocation() so accessors do not go through the location */
+	protected byte[] locationData;
+	protected long locationOffset;
 	
 	/**
 	 * Bind this layout to the location object
@@ -30,8 +34,32 @@ public abstract class LayoutTypeImpl implements LayoutType {
 	public void bindLocation(Location loc) {
 		if(true == loc.checkDataFits(this.sizeof())) {
 			location = loc;
+			locationData = loc.getData();
+			locationOffset = loc.getOffset();
 		}
 	}
+
+	@Override
+	public void rebindOffset(long delta) {
+		location = location.moveView(delta);
+		locationOffset += delta;
+	}
+
+	/**
+	 * Get the data of the bound location, for an accessor. Off-heap locations have no data, so
+	 * an unbound layout is told apart by its offset: 0, which is never the offset of a bound one.
+	 * The check uses only the fields the accessor reads anyway, to fail before Unsafe reads an
+	 * unbound address without loading the location.
+	 * @return the data of the location, or null for off-heap memory
+	 * @throws NullPointerException if the layout is not bound to a location
+	 */
+	protected final byte[] data() {
+		final byte[] data = locationData;
+		if ((null == data) && (0 == locationOffset)) {
+			throw new NullPointerException("layout is not bound to a location");
+		}
+		return data;
+	}
 	
 	/**
 	 * Copy the receiver's data into a byte array.
@@ -41,19 +69,11 @@ public abstract class LayoutTypeImpl implements LayoutType {
 	 * @param buf The byte array buffer where the data should be written.
 	 * @param offset The offset in buf where we should start writing.
 	 * @param length The maximum number of bytes to write. The actual number of bytes written is min(length,
-	 *            this.getByteSize()).
+	 *            this.sizeof() - srcOffset).
 	 * @return The number of bytes written to buf, or -1 if srcOffset greater than or equl to the receiver's data size.
 	 */
-	public final int writeToByteArray(long srcOffset, byte[] buf, int offset, int length) {
-		if (length > sizeof()) {
-			length = (int)sizeof();
-		}
-		if (location.getData() != null) {
-			System.arraycopy(location.getData(), (int)srcOffset, buf, offset, length);
-		} else {
-			unsafe.copyMemory(null, location.getOffset() + srcOffset, buf, unsafe.arrayBaseOffset(buf.getClass()), length);
-		}
-		return length;
+	public int writeToByteArray(long srcOffset, byte[] buf, int offset, int length) {
+		return UnsafeHelper.writeToByteArray(location, sizeof(), srcOffset, buf, offset, length);
 	}
 	
 	/**
@@ -64,34 +84,36 @@ public abstract class LayoutTypeImpl implements LayoutType {
 	 * @param buf The byte array buffer to read the data from.
 	 * @param offset The offset in buf where we should start reading.
 	 * @param length The maximum number of bytes to read. The actual number of bytes read is min(length,
-	 *            this.getByteSize()).
+	 *            this.sizeof() - dstOffset).
 	 * @return The number of bytes read from buf and written into the receiver, or -1 if dstOffset greater than or equal to 
 	 * the receiver's data size.
 	 */
-	public final int readFromByteArray(long dstOffset, byte[] buf, int offset, int length) {
-		if (length > sizeof()) {
-			length = (int)sizeof();
-		}
-		if (location.getData() != null) {
-			System.arraycopy(buf, offset, location.getData(), (int)dstOffset, length);
-		} else {
-			unsafe.copyMemory(buf, unsafe.arrayBaseOffset(buf.getClass()) + offset, null, this.location.getOffset() + dstOffset, length);
-		}
-		return length;
+	public int readFromByteArray(long dstOffset, byte[] buf, int offset, int length) {
+		return UnsafeHelper.readFromByteArray(location, sizeof(), dstOffset, buf, offset, length);
+	}
+
+	@Override
+	public long writeTo(WritableByteChannel channel) throws IOException {
+		return ChannelHelper.writeTo(location, sizeof(), channel);
+	}
+
+	@Override
+	public long readFrom(ReadableByteChannel channel) throws IOException {
+		return ChannelHelper.readFrom(location, sizeof(), channel);
+	}
+
+	@Override
+	public long transferTo(FileChannel channel, long position) throws IOException {
+		return ChannelHelper.transferTo(location, sizeof(), channel, position);
 	}
 	
 	/**
-	 * Get a direct byte buffer to access this layout.
-	 * This layout must target off-heap memory.
-	 * @return a direct byte buffer
+	 * Get a byte buffer to access this layout: a direct buffer if the layout
+	 * targets off-heap memory, else a heap buffer that wraps its byte array.
+	 * @return a byte buffer in native byte order
 	 */
-	public final ByteBuffer asByteBuffer() {
-		if (this.location.getData() != null) {
-			throw new UnsupportedOperationException("not off-heap");
-		}
-		ByteBuffer buffer = UnsafeHelper.bufferFromAddress(this.location.getOffset(), this.sizeof());
-		buffer.order(ByteOrder.nativeOrder());
-		return buffer;
+	public ByteBuffer asByteBuffer() {
+		return UnsafeHelper.asByteBuffer(this.location, this.sizeof());
 	}
 		
 	/**
@@ -100,27 +122,10 @@ public abstract class LayoutTypeImpl implements LayoutType {
 	 * @return a non-array layout
 	 */
 	public final <T extends Layout> T unsafeCast(Class<T> cls) {
-		try {
-			final Class<T> implCls = LayoutHelper.getFactory().genLayoutImpl(cls);
-			Constructor<T> ctor = implCls.getDeclaredConstructor();
-			ctor.setAccessible(true);
-		    T newInst = ctor.newInstance();
-		    newInst.bindLocation(this.location);
-			return newInst;
-		} catch (NoSuchMethodException e) {
-			e.printStackTrace();
-		} catch (SecurityException e) {
-			e.printStackTrace();
-		} catch (InstantiationException e) {
-			e.printStackTrace();
-		} catch (IllegalAccessException e) {
-			e.printStackTrace();
-		} catch (IllegalArgumentException e) {
-			e.printStackTrace();
-		} catch (InvocationTargetException e) {
-			e.printStackTrace();
-		}
-		return null;
+		T newInst = LayoutHelper.getFactory().getLayoutFactory(cls).newInstance();
+		/* a copy of the location, so the cast layout stays put if the receiver is moved */
+		newInst.bindLocation(new Location(this.location, 0));
+		return newInst;
 	}
 
 	/**
@@ -130,39 +135,229 @@ public abstract class LayoutTypeImpl implements LayoutType {
 	 * @return an array layout
 	 */
 	public final <T extends Layout> Array1D<T> unsafeCast(Class<T> cls, long length) {
-		try {
-			LayoutHelper f = LayoutHelper.getFactory();
-			
-			Class<T> elementCls = f.genLayoutImpl(cls);
-			Constructor<T> elementCtor = elementCls.getDeclaredConstructor(new Class<?>[] {});
-			elementCtor.setAccessible(true);
-			long size = elementCtor.newInstance().sizeof();
-			
-			Class<Array1D<T>> implCls = f.genArray1DImpl(cls);
-			Constructor<Array1D<T>> ctor = implCls.getDeclaredConstructor(new Class<?>[] {
-					long.class, long.class });
-			ctor.setAccessible(true);
-			Array1D<T> newInst = ctor.newInstance(length, size);
-			newInst.bindLocation(this.location);
-			return newInst;
-		} catch (NoSuchMethodException e) {
-			e.printStackTrace();
-		} catch (SecurityException e) {
-			e.printStackTrace();
-		} catch (InstantiationException e) {
-			e.printStackTrace();
-		} catch (IllegalAccessException e) {
-			e.printStackTrace();
-		} catch (IllegalArgumentException e) {
-			e.printStackTrace();
-		} catch (InvocationTargetException e) {
-			e.printStackTrace();
-		}
-		return null;
-
+		Array1D<T> newInst = LayoutHelper.getFactory().getArray1DFactory(cls).newInstance(length);
+		newInst.bindLocation(new Location(this.location, 0));
+		return newInst;
 	}
 	
 	@Override
-	public abstract long sizeof();	
+	public abstract long sizeof();
+
+	/**
+	 * Check that a range of elements lies within an array layout
+	 * @param index index of the first element
+	 * @param count number of elements
+	 * @param length number of elements in the array
+	 * @throws IndexOutOfBoundsException if the range is outside the array. Also used by generated array classes.
+	 */
+	public static void checkRange(long index, long count, long length) {
+		if ((index < 0) || (count < 0) || (index > length - count)) {
+			throw new IndexOutOfBoundsException("index: " + index + ", count: " + count + ", length: " + length);
+		}
+	}
+
+	/**
+	 * Check that a range of elements lies within a java array
+	 * @param arrayLength length of the java array
+	 * @param off index of the first element
+	 * @param len number of elements
+	 */
+	protected static void checkArrayRange(int arrayLength, int off, int len) {
+		if ((off < 0) || (len < 0) || (off > arrayLength - len)) {
+			throw new IndexOutOfBoundsException("off: " + off + ", len: " + len + ", array length: " + arrayLength);
+		}
+	}
+
+	/**
+	 * Check that two arrays processed together have the same length
+	 * @param length number of elements of the receiver
+	 * @param otherLength number of elements of the other array
+	 */
+	protected static void checkLength(long length, long otherLength) {
+		if (length != otherLength) {
+			throw new IllegalArgumentException("length differs: " + length + ", " + otherLength);
+		}
+	}
+
+	/**
+	 * Get the location a layout is bound to
+	 * @param layout a layout
+	 * @return the location of the layout
+	 */
+	protected static Location getLocation(LayoutType layout) {
+		return ((LayoutTypeImpl)layout).location;
+	}
+
+	/**
+	 * Get the factor mapping a value's distance from lo to its histogram bin
+	 * @param lo lower bound of the first bin, inclusive
+	 * @param hi upper bound of the last bin, exclusive
+	 * @param bins number of bins
+	 * @return bins / (hi - lo)
+	 */
+	protected static double histogramScale(double lo, double hi, int bins) {
+		if (!(lo < hi)) {
+			throw new IllegalArgumentException("empty value range: [" + lo + ", " + hi + ")");
+		}
+		if (bins == 0) {
+			throw new IllegalArgumentException("no bins");
+		}
+		return bins / (hi - lo);
+	}
+
+	/**
+	 * Copy bytes from the receiver's data into a java array
+	 * @param srcOffset offset in the receiver's data
+	 * @param dst java array of primitive type
+	 * @param dstOffset Unsafe offset in dst, including the array base offset
+	 * @param bytes number of bytes to copy
+	 */
+	protected final void copyToArray(long srcOffset, Object dst, long dstOffset, long bytes) {
+		unsafe.copyMemory(data(), locationOffset + srcOffset, dst, dstOffset, bytes);
+	}
+
+	/**
+	 * Copy bytes from a java array into the receiver's data
+	 * @param src java array of primitive type
+	 * @param srcOffset Unsafe offset in src, including the array base offset
+	 * @param dstOffset offset in the receiver's data
+	 * @param bytes number of bytes to copy
+	 */
+	protected final void copyFromArray(Object src, long srcOffset, long dstOffset, long bytes) {
+		unsafe.copyMemory(src, srcOffset, data(), locationOffset + dstOffset, bytes);
+	}
+
+	/**
+	 * Copy bytes from the receiver's data into another layout's data
+	 * @param srcOffset offset in the receiver's data
+	 * @param dst destination layout
+	 * @param dstOffset offset in the destination layout's data
+	 * @param bytes number of bytes to copy
+	 */
+	protected final void copyToLayout(long srcOffset, LayoutType dst, long dstOffset, long bytes) {
+		LayoutTypeImpl dstImpl = (LayoutTypeImpl)dst;
+		unsafe.copyMemory(data(), locationOffset + srcOffset,
+				dstImpl.data(), dstImpl.locationOffset + dstOffset, bytes);
+	}
+
+	/**
+	 * Copy bytes within the receiver's data. The ranges may overlap.
+	 * @param srcOffset offset of the source range
+	 * @param dstOffset offset of the destination range
+	 * @param bytes number of bytes to copy
+	 */
+	protected final void copyWithin(long srcOffset, long dstOffset, long bytes) {
+		/* Unsafe.copyMemory has memmove semantics */
+		final byte[] data = data();
+		unsafe.copyMemory(data, locationOffset + srcOffset,
+				data, locationOffset + dstOffset, bytes);
+	}
+
+	/**
+	 * Set bytes of the receiver's data to a value
+	 * @param offset offset in the receiver's data
+	 * @param bytes number of bytes to set
+	 * @param value the byte value
+	 */
+	protected final void fillBytes(long offset, long bytes, byte value) {
+		unsafe.setMemory(data(), locationOffset + offset, bytes, value);
+	}
+
+	/**
+	 * Copy the element at offset into the following elements, doubling the copied
+	 * range each time, so filling costs a few large copies.
+	 * @param offset offset of the initialized element in the receiver's data
+	 * @param elementSize size of an element, in bytes
+	 * @param count total number of elements, including the initialized one
+	 */
+	protected final void replicate(long offset, long elementSize, long count) {
+		long total = elementSize * count;
+		long done = elementSize;
+		while (done < total) {
+			long chunk = Math.min(done, total - done);
+			copyWithin(offset, offset + done, chunk);
+			done += chunk;
+		}
+	}
 
+	/**
+	 * Sort the receiver's elements, signed integers, in ascending order
+	 * @param length number of elements
+	 * @param elementSize size of an element, 2, 4 or 8 bytes
+	 * @param parallel whether to sort in the common fork/join pool
+	 */
+	protected final void sortElements(long length, long elementSize, boolean parallel) {
+		PrimSorts.sort(data(), locationOffset, length, elementSize, parallel);
+	}
+
+	/**
+	 * Copy the transpose of the receiver, a row-major dim1 x dim2 array, into another array
+	 * @param dst destination array
+	 * @param dstDim1 number of rows of dst, must be dim2
+	 * @param dstDim2 number of columns of dst, must be dim1
+	 * @param dim1 number of rows of the receiver
+	 * @param dim2 number of columns of the receiver
+	 * @param elementSize size of an element, 1, 2, 4 or 8 bytes
+	 */
+	protected final void transposeTo(LayoutType dst, long dstDim1, long dstDim2, long dim1, long dim2,
+			long elementSize) {
+		if ((dstDim1 != dim2) || (dstDim2 != dim1)) {
+			throw new IllegalArgumentException("dimensions differ: " + dim2 + "x" + dim1 + ", " + dstDim1 + "x" + dstDim2);
+		}
+		if (dst == this) {
+			throw new IllegalArgumentException("cannot transpose in place");
+		}
+		transposeBlock(((LayoutTypeImpl)dst).location, 0, dim1, 0, dim2, dim1, dim2, elementSize);
+	}
+
+	/* blocks of at most this many elements are copied directly */
+	private static final long TRANSPOSE_BLOCK = 256;
+
+	/**
+	 * Transpose the block [i0, i1) x [j0, j1). Larger blocks are halved along their longer side,
+	 * so at some depth the blocks of source and destination fit in each level of cache,
+	 * without tuning a block size to the cache.
+	 */
+	private void transposeBlock(Location dst, long i0, long i1, long j0, long j1, long dim1, long dim2,
+			long elementSize) {
+		long rows = i1 - i0;
+		long cols = j1 - j0;
+		if ((rows * cols) > TRANSPOSE_BLOCK) {
+			if (rows >= cols) {
+				long mid = i0 + (rows >>> 1);
+				transposeBlock(dst, i0, mid, j0, j1, dim1, dim2, elementSize);
+				transposeBlock(dst, mid, i1, j0, j1, dim1, dim2, elementSize);
+			} else {
+				long mid = j0 + (cols >>> 1);
+				transposeBlock(dst, i0, i1, j0, mid, dim1, dim2, elementSize);
+				transposeBlock(dst, i0, i1, mid, j1, dim1, dim2, elementSize);
+			}
+			return;
+		}
+
+		final Object srcData = location.getData();
+		final long srcBase = location.getOffset();
+		final Object dstData = dst.getData();
+		final long dstBase = dst.getOffset();
+		for (long i = i0; i < i1; i++) {
+			for (long j = j0; j < j1; j++) {
+				long src = srcBase + ((i * dim2) + j) * elementSize;
+				long dstOffset = dstBase + ((j * dim1) + i) * elementSize;
+				switch ((int)elementSize) {
+				case 1:
+					unsafe.putByte(dstData, dstOffset, unsafe.getByte(srcData, src));
+					break;
+				case 2:
+					unsafe.putShort(dstData, dstOffset, unsafe.getShort(srcData, src));
+					break;
+				case 4:
+					unsafe.putInt(dstData, dstOffset, unsafe.getInt(srcData, src));
+					break;
+				default:
+					unsafe.putLong(dstData, dstOffset, unsafe.getLong(srcData, src));
+					break;
+				}
+			}
+		}
+	}
 }
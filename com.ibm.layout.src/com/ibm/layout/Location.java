@@ -8,6 +8,8 @@
 package com.ibm.layout;
 
 
+import java.nio.ByteBuffer;
+
 import sun.misc.Unsafe;
 /**
  * Location object representing addressable memory
@@ -16,7 +18,11 @@ import sun.misc.Unsafe;
 public class Location {
 	
 	private final byte[] data;
-	private final long offset;
+	private long offset;
+	/* keeps the memory of a direct buffer from being freed while the location is in use */
+	private final ByteBuffer buffer;
+	/* set on locations owned by one layout view, which are moved in place with the view */
+	private final boolean viewOwned;
 	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
 	private static final long arrayBase = unsafe.arrayBaseOffset(byte[].class);
 	
@@ -28,6 +34,8 @@ public class Location {
 	public Location(byte[] data) {
 		this.data = data;
 		this.offset = arrayBase;
+		this.buffer = null;
+		this.viewOwned = false;
 	}
 
 	/**
@@ -38,6 +46,36 @@ public class Location {
 	public Location(long addr) {
 		this.data = null;
 		this.offset = addr;
+		this.buffer = null;
+		this.viewOwned = false;
+	}
+
+	/**
+	 * Overlay a location on a byte buffer, at an index. A direct buffer is accessed at its
+	 * address, and a heap buffer in its backing array, so the data is not copied.
+	 * Layouts bound to the location read and write in native byte order, whatever the
+	 * order of the buffer, and do not check that the buffer is writable.
+	 * 
+	 * @param buffer a direct buffer, or a heap buffer that has an accessible array
+	 * @param index absolute index in the buffer, like ByteBuffer.get(int)
+	 * @throws IndexOutOfBoundsException if index is not within the buffer's capacity
+	 * @throws UnsupportedOperationException if a heap buffer has no accessible array, e.g. it is read-only
+	 */
+	public Location(ByteBuffer buffer, int index) {
+		if ((index < 0) || (index > buffer.capacity())) {
+			throw new IndexOutOfBoundsException("index " + index + " outside buffer of capacity " + buffer.capacity());
+		}
+		if (buffer.isDirect()) {
+			this.data = null;
+			this.offset = UnsafeHelper.getBufferAddress(buffer) + index;
+		} else if (buffer.hasArray()) {
+			this.data = buffer.array();
+			this.offset = arrayBase + buffer.arrayOffset() + index;
+		} else {
+			throw new UnsupportedOperationException("heap buffer has no accessible array");
+		}
+		this.buffer = buffer;
+		this.viewOwned = false;
 	}
 
 	/**
@@ -47,8 +85,43 @@ public class Location {
 	 * @param offset offset 
 	 */
 	public Location(Location loc, long offset) {
+		this(loc, offset, false);
+	}
+
+	private Location(Location loc, long offset, boolean viewOwned) {
 	   this.data = loc.getData();
 	   this.offset = offset + loc.getOffset();
+	   this.buffer = loc.buffer;
+	   this.viewOwned = viewOwned;
+	}
+
+	/**
+	 * Create a location for a view at an offset from an existing location. The view owns the
+	 * location, so {@link #moveView(long)} can move it in place. Used by generated layout classes
+	 * for the views of nested and array fields, and by Cursor.
+	 * 
+	 * @param loc location of the layout that creates the view
+	 * @param offset offset of the view from loc
+	 * @return a new location
+	 */
+	public static Location forView(Location loc, long offset) {
+		return new Location(loc, offset, true);
+	}
+
+	/**
+	 * Get the location of a view after the view moves by a number of bytes. A location created by
+	 * {@link #forView(Location, long)} is moved in place. Any other location may be shared, so it is
+	 * left alone and a new location is returned. Used by {@link Rebindable#rebindOffset(long)}.
+	 * 
+	 * @param delta distance to move, in bytes
+	 * @return the moved location
+	 */
+	public Location moveView(long delta) {
+		if (viewOwned) {
+			offset += delta;
+			return this;
+		}
+		return new Location(this, delta, false);
 	}
 
 	/**
@@ -67,6 +140,15 @@ public class Location {
 		return offset;
 	}
 	
+	/**
+	 * Move the location to a new offset. Only used on locations privately owned by a
+	 * LayoutHashMap, so layouts bound to them can be re-pointed without allocation.
+	 * @param offset new offset
+	 */
+	void setOffset(long offset) {
+		this.offset = offset;
+	}
+
 	/**
 	 * Check if there is enough space in the location to overlay a layout.
 	 * 
@@ -77,7 +159,7 @@ public class Location {
 		if (data == null) {
 			return true;
 		} else {
-			return (dataLength <= data.length);
+			return (dataLength <= data.length - (offset - arrayBase));
 		}
 	}
 }
@@ -0,0 +1,372 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A region of a file mapped into memory, for binding layouts directly over file contents.
+ *
+ * <p>
+ * A single mapping is limited to 2 GB, so a larger region is mapped as a chain of segments.
+ * Each segment is a whole number of records, so a record never straddles two segments.
+ * Use {@link #locate(long, long)} or the bind methods to get a Location for a range of the
+ * region; a range must lie within one segment.
+ * </p>
+ *
+ * <p>
+ * The layouts bound to a mapping must not be used after it is closed. Layouts bound to a
+ * {@link MapMode#READ_ONLY} mapping must not be written; the memory is protected and a write
+ * crashes the JVM. Writes to a {@link MapMode#PRIVATE} mapping are not stored in the file.
+ * </p>
+ *
+ *	<h2>Example Usage</h2>
+ *	<pre>
+ *	try (MappedFile mf = MappedFile.open(path, MapMode.READ_WRITE, point.sizeof())) {
+ *		Array1D&lt;Point&gt; points = mf.getSegmentArray1D(Point.class, 0);
+ *		points.at(0).x(10);
+ *		mf.force();
+ *	}
+ *	</pre>
+ */
+public final class MappedFile implements AutoCloseable {
+	/**
+	 * Largest size of a single mapping, in bytes
+	 */
+	public static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+	private final FileChannel channel;
+	private final boolean ownsChannel;
+	private final MapMode mode;
+	private final long size;
+	private final long segmentSize;
+	/* the buffers keep the mappings alive */
+	private MappedByteBuffer[] buffers;
+	private final long[] addresses;
+	private boolean closed = false;
+
+	private MappedFile(FileChannel channel, boolean ownsChannel, MapMode mode, long position, long size,
+		long segmentSize) throws IOException
+	{
+		this.channel = channel;
+		this.ownsChannel = ownsChannel;
+		this.mode = mode;
+		this.size = size;
+		this.segmentSize = segmentSize;
+
+		int count = (int)((size + segmentSize - 1) / segmentSize);
+		buffers = new MappedByteBuffer[count];
+		addresses = new long[count];
+		try {
+			for (int i = 0; i < count; i++) {
+				long segmentPosition = (long)i * segmentSize;
+				buffers[i] = channel.map(mode, position + segmentPosition, Math.min(segmentSize, size - segmentPosition));
+				addresses[i] = UnsafeHelper.getBufferAddress(buffers[i]);
+			}
+		} catch (IOException | RuntimeException e) {
+			unmapAll();
+			throw e;
+		}
+	}
+
+	/**
+	 * Map a region of a file. The channel stays open when the mapping is closed.
+	 *
+	 * @param channel the file channel. It must be readable, and writable unless mode is READ_ONLY.
+	 * @param mode READ_ONLY, READ_WRITE or PRIVATE
+	 * @param position offset of the region in the file
+	 * @param size size of the region, in bytes. The file is extended if it is too short
+	 *            and the mode is READ_WRITE.
+	 * @param recordSize size of a record, in bytes. Segments are a multiple of recordSize.
+	 * @return the mapping
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public static MappedFile map(FileChannel channel, MapMode mode, long position, long size, long recordSize)
+		throws IOException
+	{
+		return map(channel, mode, position, size, recordSize, MAX_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Map a region of a file with a limit on the segment size.
+	 *
+	 * @param channel the file channel. It must be readable, and writable unless mode is READ_ONLY.
+	 * @param mode READ_ONLY, READ_WRITE or PRIVATE
+	 * @param position offset of the region in the file
+	 * @param size size of the region, in bytes
+	 * @param recordSize size of a record, in bytes. Segments are a multiple of recordSize.
+	 * @param maxSegmentSize largest size of a segment, at most {@link #MAX_SEGMENT_SIZE}
+	 * @return the mapping
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public static MappedFile map(FileChannel channel, MapMode mode, long position, long size, long recordSize,
+		long maxSegmentSize) throws IOException
+	{
+		return new MappedFile(channel, false, mode, position, size, getSegmentSize(size, recordSize, maxSegmentSize));
+	}
+
+	/**
+	 * Open a file and map all of it. The file is closed when the mapping is closed.
+	 *
+	 * @param path the file
+	 * @param mode READ_ONLY, READ_WRITE or PRIVATE
+	 * @param recordSize size of a record, in bytes. Segments are a multiple of recordSize.
+	 * @return the mapping
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	public static MappedFile open(Path path, MapMode mode, long recordSize) throws IOException {
+		FileChannel channel;
+		if (MapMode.READ_ONLY == mode) {
+			channel = FileChannel.open(path, StandardOpenOption.READ);
+		} else {
+			channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		try {
+			long size = channel.size();
+			return new MappedFile(channel, true, mode, 0, size, getSegmentSize(size, recordSize, MAX_SEGMENT_SIZE));
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private static long getSegmentSize(long size, long recordSize, long maxSegmentSize) {
+		if (size < 0) {
+			throw new IllegalArgumentException("negative size: " + size);
+		}
+		if ((maxSegmentSize <= 0) || (maxSegmentSize > MAX_SEGMENT_SIZE)) {
+			throw new IllegalArgumentException("invalid maxSegmentSize: " + maxSegmentSize);
+		}
+		if ((recordSize <= 0) || (recordSize > maxSegmentSize)) {
+			throw new IllegalArgumentException("invalid recordSize: " + recordSize);
+		}
+		return (maxSegmentSize / recordSize) * recordSize;
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("mapping is closed");
+		}
+	}
+
+	/**
+	 * Get the size of the mapped region
+	 * @return size in bytes
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Get the map mode
+	 * @return READ_ONLY, READ_WRITE or PRIVATE
+	 */
+	public MapMode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Get the number of segments the region is mapped as
+	 * @return the segment count
+	 */
+	public int getSegmentCount() {
+		return addresses.length;
+	}
+
+	/**
+	 * Get the offset of a segment in the region
+	 * @param segment segment index
+	 * @return offset in bytes
+	 */
+	public long getSegmentPosition(int segment) {
+		if ((segment < 0) || (segment >= addresses.length)) {
+			throw new IndexOutOfBoundsException("segment: " + segment + ", count: " + addresses.length);
+		}
+		return segment * segmentSize;
+	}
+
+	/**
+	 * Get the size of a segment. All segments but the last have the same size.
+	 * @param segment segment index
+	 * @return size in bytes
+	 */
+	public long getSegmentSize(int segment) {
+		return Math.min(segmentSize, size - getSegmentPosition(segment));
+	}
+
+	/**
+	 * Get a location targeting the start of a segment
+	 * @param segment segment index
+	 * @return the location
+	 */
+	public Location getSegmentLocation(int segment) {
+		checkOpen();
+		getSegmentPosition(segment);
+		return new Location(addresses[segment]);
+	}
+
+	/**
+	 * Get a location targeting a range of the region
+	 * @param offset offset of the range in the region
+	 * @param length length of the range, in bytes
+	 * @return the location
+	 * @throws IllegalArgumentException if the range is outside the region or crosses a segment boundary
+	 */
+	public Location locate(long offset, long length) {
+		checkOpen();
+		if ((offset < 0) || (length < 0) || (offset + length > size)) {
+			throw new IllegalArgumentException("range [" + offset + ", " + (offset + length) + ") outside region of size " + size);
+		}
+		int segment = (int)(offset / segmentSize);
+		long segmentOffset = offset - (segment * segmentSize);
+		if ((segment < addresses.length) && (segmentOffset + length <= getSegmentSize(segment))) {
+			return new Location(addresses[segment] + segmentOffset);
+		}
+		if (length == 0) {
+			if (addresses.length == 0) {
+				/* an empty region has no segments, and its empty range no memory to address; address 0 would read as unbound */
+				return new Location(new byte[0]);
+			}
+			/* an empty range at the end of the region */
+			return new Location(addresses[addresses.length - 1] + getSegmentSize(addresses.length - 1));
+		}
+		throw new IllegalArgumentException("range [" + offset + ", " + (offset + length) + ") crosses segment boundary");
+	}
+
+	/**
+	 * Bind a singleton layout over the region
+	 *
+	 * @param <T> subclass of Layout
+	 * @param cls The layout class.
+	 * @param offset offset of the layout in the region
+	 * @return a layout instance bound to the mapping
+	 */
+	public <T extends Layout> T getLayout(Class<T> cls, long offset) {
+		T layout = Layout.getLayout(cls);
+		layout.bindLocation(locate(offset, layout.sizeof()));
+		return layout;
+	}
+
+	/**
+	 * Bind a 1D array layout over the region
+	 *
+	 * @param <T> subclass of Layout
+	 * @param cls The layout class for each array element.
+	 * @param offset offset of the array in the region
+	 * @param length The number of array elements.
+	 * @return a 1D array layout bound to the mapping
+	 */
+	public <T extends Layout> Array1D<T> getArray1D(Class<T> cls, long offset, long length) {
+		Array1D<T> array = Array1D.getArray1D(cls, length);
+		array.bindLocation(locate(offset, array.sizeof()));
+		return array;
+	}
+
+	/**
+	 * Bind a 1D array layout over all records of a segment. The record size the region
+	 * was mapped with must be the size of the layout.
+	 *
+	 * @param <T> subclass of Layout
+	 * @param cls The layout class for each array element.
+	 * @param segment segment index
+	 * @return a 1D array layout bound to the segment
+	 */
+	public <T extends Layout> Array1D<T> getSegmentArray1D(Class<T> cls, int segment) {
+		long elementSize = Layout.getLayout(cls).sizeof();
+		return getArray1D(cls, getSegmentPosition(segment), getSegmentSize(segment) / elementSize);
+	}
+
+	/**
+	 * Bind a 1D array of java primitive type over the region
+	 *
+	 * @param <T> subclass of LayoutType
+	 * @param primCls The primitive class for each array element, e.g. int.class
+	 * @param offset offset of the array in the region
+	 * @param length The number of array elements.
+	 * @return a 1D primitive array bound to the mapping
+	 */
+	public <T extends LayoutType> T getPrimArray1D(Class<?> primCls, long offset, long length) {
+		T array = LayoutType.getPrimArray1D(primCls, length);
+		array.bindLocation(locate(offset, array.sizeof()));
+		return array;
+	}
+
+	/**
+	 * Write changes to a READ_WRITE mapping to the file
+	 */
+	public void force() {
+		checkOpen();
+		if (MapMode.READ_WRITE == mode) {
+			for (MappedByteBuffer buffer : buffers) {
+				buffer.force();
+			}
+		}
+	}
+
+	/**
+	 * Unmap the region, and close the file if it was opened by {@link #open(Path, MapMode, long)}.
+	 * Layouts bound to the mapping must not be used afterwards.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		unmapAll();
+		if (ownsChannel) {
+			channel.close();
+		}
+	}
+
+	private void unmapAll() {
+		for (int i = 0; i < buffers.length; i++) {
+			if (null != buffers[i]) {
+				unmap(buffers[i]);
+				buffers[i] = null;
+			}
+		}
+	}
+
+	/**
+	 * Release a mapping without waiting for the buffer to be collected.
+	 * If the JVM offers no way to do so, the mapping is released by the GC.
+	 *
+	 * @param buffer the mapped buffer
+	 */
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			/* Java 9 and later */
+			Method invokeCleaner = UnsafeHelper.getUnsafe().getClass().getMethod("invokeCleaner", java.nio.ByteBuffer.class);
+			invokeCleaner.invoke(UnsafeHelper.getUnsafe(), buffer);
+			return;
+		} catch (Exception e) {
+			/* try the Java 8 cleaner */
+		}
+		try {
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			if (null != cleaner) {
+				Method clean = cleaner.getClass().getMethod("clean");
+				clean.setAccessible(true);
+				clean.invoke(cleaner);
+			}
+		} catch (Exception e) {
+			/* leave it to the GC */
+		}
+	}
+}
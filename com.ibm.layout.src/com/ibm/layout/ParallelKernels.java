@@ -0,0 +1,124 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Runs the kernels of primitive arrays in parallel, backing their parallel*() methods.
+ *
+ * <p>
+ * The index range of an array is split in half until a range has at most {@link #LEAF_LENGTH}
+ * elements. Each range is processed by the sequential kernel of a range() view, on the common
+ * fork/join pool. Arrays of at most LEAF_LENGTH elements are processed by the calling thread.
+ * </p>
+ */
+final class ParallelKernels {
+	/* ranges of at most this many elements are processed by one task */
+	static final long LEAF_LENGTH = 1L << 16;
+
+	private ParallelKernels() {
+	}
+
+	/**
+	 * Processes the index range [start, start + length) of an array
+	 * @param <R> result type
+	 */
+	@FunctionalInterface
+	interface RangeFunction<R> {
+		R apply(long start, long length);
+	}
+
+	/**
+	 * Processes the index range [start, start + length) of an array
+	 */
+	@FunctionalInterface
+	interface RangeAction {
+		void apply(long start, long length);
+	}
+
+	/**
+	 * Compute a result over all elements
+	 * @param length number of array elements
+	 * @param leaf computes the result of an index range
+	 * @param combine combines the results of consecutive index ranges
+	 * @return the result
+	 */
+	static <R> R reduce(long length, RangeFunction<R> leaf, BinaryOperator<R> combine) {
+		if (length <= LEAF_LENGTH) {
+			return leaf.apply(0, length);
+		}
+		return ForkJoinPool.commonPool().invoke(new ReduceTask<R>(0, length, leaf, combine));
+	}
+
+	/**
+	 * Process all elements
+	 * @param length number of array elements
+	 * @param leaf processes an index range
+	 */
+	static void forEach(long length, RangeAction leaf) {
+		if (length <= LEAF_LENGTH) {
+			leaf.apply(0, length);
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new ForEachTask(0, length, leaf));
+	}
+
+	private static final class ReduceTask<R> extends RecursiveTask<R> {
+		private static final long serialVersionUID = 1L;
+		private final long start;
+		private final long length;
+		private final RangeFunction<R> leaf;
+		private final BinaryOperator<R> combine;
+
+		ReduceTask(long start, long length, RangeFunction<R> leaf, BinaryOperator<R> combine) {
+			this.start = start;
+			this.length = length;
+			this.leaf = leaf;
+			this.combine = combine;
+		}
+
+		@Override
+		protected R compute() {
+			if (length <= LEAF_LENGTH) {
+				return leaf.apply(start, length);
+			}
+			long half = length >>> 1;
+			ReduceTask<R> left = new ReduceTask<R>(start, half, leaf, combine);
+			left.fork();
+			R right = new ReduceTask<R>(start + half, length - half, leaf, combine).compute();
+			return combine.apply(left.join(), right);
+		}
+	}
+
+	private static final class ForEachTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final long start;
+		private final long length;
+		private final RangeAction leaf;
+
+		ForEachTask(long start, long length, RangeAction leaf) {
+			this.start = start;
+			this.length = length;
+			this.leaf = leaf;
+		}
+
+		@Override
+		protected void compute() {
+			if (length <= LEAF_LENGTH) {
+				leaf.apply(start, length);
+				return;
+			}
+			long half = length >>> 1;
+			invokeAll(new ForEachTask(start, half, leaf), new ForEachTask(start + half, length - half, leaf));
+		}
+	}
+}
@@ -0,0 +1,419 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import sun.misc.Unsafe;
+
+/**
+ * In-place sorts of primitive array data, backing the sort() and parallelSort() methods
+ * of primitive arrays.
+ *
+ * <p>
+ * Elements are signed 2, 4 or 8-byte integers accessed through Unsafe. The sort is an
+ * introsort: a quicksort with 3-way partitioning, so runs of equal elements are
+ * partitioned once, and a heapsort fallback when the recursion gets too deep. The parallel
+ * sort partitions on the calling thread and sorts the two sides as fork/join tasks.
+ * </p>
+ */
+final class PrimSorts {
+	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
+
+	/* ranges of at most this many elements are sorted by insertion */
+	private static final long INSERTION_SORT_LENGTH = 32;
+
+	/* ranges of at most this many elements are sorted by one task */
+	private static final long PARALLEL_SORT_LENGTH = 1L << 13;
+
+	private PrimSorts() {
+	}
+
+	/**
+	 * Sort integers in ascending order
+	 * @param data java array of the elements, or null if they are off-heap
+	 * @param base Unsafe offset of the first element
+	 * @param length number of elements
+	 * @param elementSize size of an element, 2, 4 or 8 bytes
+	 * @param parallel whether to sort in the common fork/join pool
+	 */
+	static void sort(Object data, long base, long length, long elementSize, boolean parallel) {
+		if (parallel && (length > PARALLEL_SORT_LENGTH)) {
+			ForkJoinPool.commonPool().invoke(new SortTask(data, base, 0, length, elementSize, maxDepth(length)));
+		} else {
+			sort(data, base, 0, length, elementSize, maxDepth(length), new long[2]);
+		}
+	}
+
+	private static int maxDepth(long length) {
+		return 2 * (64 - Long.numberOfLeadingZeros(length));
+	}
+
+	private static void sort(Object data, long base, long lo, long hi, long elementSize, int depth, long[] bounds) {
+		switch ((int)elementSize) {
+		case 2:
+			sortShorts(data, base, lo, hi, depth, bounds);
+			break;
+		case 4:
+			sortInts(data, base, lo, hi, depth, bounds);
+			break;
+		default:
+			sortLongs(data, base, lo, hi, depth, bounds);
+			break;
+		}
+	}
+
+	private static void partition(Object data, long base, long lo, long hi, long elementSize, long[] bounds) {
+		switch ((int)elementSize) {
+		case 2:
+			partitionShorts(data, base, lo, hi, bounds);
+			break;
+		case 4:
+			partitionInts(data, base, lo, hi, bounds);
+			break;
+		default:
+			partitionLongs(data, base, lo, hi, bounds);
+			break;
+		}
+	}
+
+	private static final class SortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Object data;
+		private final long base;
+		private final long lo;
+		private final long hi;
+		private final long elementSize;
+		private final int depth;
+
+		SortTask(Object data, long base, long lo, long hi, long elementSize, int depth) {
+			this.data = data;
+			this.base = base;
+			this.lo = lo;
+			this.hi = hi;
+			this.elementSize = elementSize;
+			this.depth = depth;
+		}
+
+		@Override
+		protected void compute() {
+			long[] bounds = new long[2];
+			if (((hi - lo) <= PARALLEL_SORT_LENGTH) || (0 == depth)) {
+				PrimSorts.sort(data, base, lo, hi, elementSize, depth, bounds);
+				return;
+			}
+			partition(data, base, lo, hi, elementSize, bounds);
+			invokeAll(new SortTask(data, base, lo, bounds[0], elementSize, depth - 1),
+					new SortTask(data, base, bounds[1], hi, elementSize, depth - 1));
+		}
+	}
+
+	/* long elements */
+
+	private static void sortLongs(Object data, long base, long lo, long hi, int depth, long[] bounds) {
+		while ((hi - lo) > INSERTION_SORT_LENGTH) {
+			if (0 == depth--) {
+				heapSortLongs(data, base, lo, hi);
+				return;
+			}
+			partitionLongs(data, base, lo, hi, bounds);
+			long lt = bounds[0];
+			long gt = bounds[1];
+			/* recurse into the smaller side, so the stack depth is logarithmic */
+			if ((lt - lo) < (hi - gt)) {
+				sortLongs(data, base, lo, lt, depth, bounds);
+				lo = gt;
+			} else {
+				sortLongs(data, base, gt, hi, depth, bounds);
+				hi = lt;
+			}
+		}
+		insertionSortLongs(data, base, lo, hi);
+	}
+
+	/**
+	 * Partition [lo, hi) in three around the median of 3 elements:
+	 * [lo, bounds[0]) is less than the pivot, [bounds[1], hi) is greater.
+	 */
+	private static void partitionLongs(Object data, long base, long lo, long hi, long[] bounds) {
+		long a = unsafe.getLong(data, base + (lo * 8));
+		long b = unsafe.getLong(data, base + (((lo + hi) >>> 1) * 8));
+		long c = unsafe.getLong(data, base + ((hi - 1) * 8));
+		long pivot = (a < b) ? ((b < c) ? b : ((a < c) ? c : a)) : ((a < c) ? a : ((b < c) ? c : b));
+		long lt = lo;
+		long i = lo;
+		long gt = hi;
+		while (i < gt) {
+			long v = unsafe.getLong(data, base + (i * 8));
+			if (v < pivot) {
+				unsafe.putLong(data, base + (i * 8), unsafe.getLong(data, base + (lt * 8)));
+				unsafe.putLong(data, base + (lt * 8), v);
+				lt++;
+				i++;
+			} else if (v > pivot) {
+				gt--;
+				unsafe.putLong(data, base + (i * 8), unsafe.getLong(data, base + (gt * 8)));
+				unsafe.putLong(data, base + (gt * 8), v);
+			} else {
+				i++;
+			}
+		}
+		bounds[0] = lt;
+		bounds[1] = gt;
+	}
+
+	private static void insertionSortLongs(Object data, long base, long lo, long hi) {
+		for (long i = lo + 1; i < hi; i++) {
+			long v = unsafe.getLong(data, base + (i * 8));
+			long j = i - 1;
+			while ((j >= lo) && (unsafe.getLong(data, base + (j * 8)) > v)) {
+				unsafe.putLong(data, base + ((j + 1) * 8), unsafe.getLong(data, base + (j * 8)));
+				j--;
+			}
+			unsafe.putLong(data, base + ((j + 1) * 8), v);
+		}
+	}
+
+	private static void heapSortLongs(Object data, long base, long lo, long hi) {
+		long n = hi - lo;
+		long addr = base + (lo * 8);
+		for (long i = (n >>> 1) - 1; i >= 0; i--) {
+			siftDownLongs(data, addr, i, n);
+		}
+		for (long end = n - 1; end > 0; end--) {
+			long max = unsafe.getLong(data, addr);
+			unsafe.putLong(data, addr, unsafe.getLong(data, addr + (end * 8)));
+			unsafe.putLong(data, addr + (end * 8), max);
+			siftDownLongs(data, addr, 0, end);
+		}
+	}
+
+	private static void siftDownLongs(Object data, long addr, long i, long n) {
+		long v = unsafe.getLong(data, addr + (i * 8));
+		long child;
+		while ((child = (2 * i) + 1) < n) {
+			long c = unsafe.getLong(data, addr + (child * 8));
+			if ((child + 1) < n) {
+				long right = unsafe.getLong(data, addr + ((child + 1) * 8));
+				if (right > c) {
+					child++;
+					c = right;
+				}
+			}
+			if (c <= v) {
+				break;
+			}
+			unsafe.putLong(data, addr + (i * 8), c);
+			i = child;
+		}
+		unsafe.putLong(data, addr + (i * 8), v);
+	}
+
+	/* int elements */
+
+	private static void sortInts(Object data, long base, long lo, long hi, int depth, long[] bounds) {
+		while ((hi - lo) > INSERTION_SORT_LENGTH) {
+			if (0 == depth--) {
+				heapSortInts(data, base, lo, hi);
+				return;
+			}
+			partitionInts(data, base, lo, hi, bounds);
+			long lt = bounds[0];
+			long gt = bounds[1];
+			/* recurse into the smaller side, so the stack depth is logarithmic */
+			if ((lt - lo) < (hi - gt)) {
+				sortInts(data, base, lo, lt, depth, bounds);
+				lo = gt;
+			} else {
+				sortInts(data, base, gt, hi, depth, bounds);
+				hi = lt;
+			}
+		}
+		insertionSortInts(data, base, lo, hi);
+	}
+
+	/**
+	 * Partition [lo, hi) in three around the median of 3 elements:
+	 * [lo, bounds[0]) is less than the pivot, [bounds[1], hi) is greater.
+	 */
+	private static void partitionInts(Object data, long base, long lo, long hi, long[] bounds) {
+		int a = unsafe.getInt(data, base + (lo * 4));
+		int b = unsafe.getInt(data, base + (((lo + hi) >>> 1) * 4));
+		int c = unsafe.getInt(data, base + ((hi - 1) * 4));
+		int pivot = (a < b) ? ((b < c) ? b : ((a < c) ? c : a)) : ((a < c) ? a : ((b < c) ? c : b));
+		long lt = lo;
+		long i = lo;
+		long gt = hi;
+		while (i < gt) {
+			int v = unsafe.getInt(data, base + (i * 4));
+			if (v < pivot) {
+				unsafe.putInt(data, base + (i * 4), unsafe.getInt(data, base + (lt * 4)));
+				unsafe.putInt(data, base + (lt * 4), v);
+				lt++;
+				i++;
+			} else if (v > pivot) {
+				gt--;
+				unsafe.putInt(data, base + (i * 4), unsafe.getInt(data, base + (gt * 4)));
+				unsafe.putInt(data, base + (gt * 4), v);
+			} else {
+				i++;
+			}
+		}
+		bounds[0] = lt;
+		bounds[1] = gt;
+	}
+
+	private static void insertionSortInts(Object data, long base, long lo, long hi) {
+		for (long i = lo + 1; i < hi; i++) {
+			int v = unsafe.getInt(data, base + (i * 4));
+			long j = i - 1;
+			while ((j >= lo) && (unsafe.getInt(data, base + (j * 4)) > v)) {
+				unsafe.putInt(data, base + ((j + 1) * 4), unsafe.getInt(data, base + (j * 4)));
+				j--;
+			}
+			unsafe.putInt(data, base + ((j + 1) * 4), v);
+		}
+	}
+
+	private static void heapSortInts(Object data, long base, long lo, long hi) {
+		long n = hi - lo;
+		long addr = base + (lo * 4);
+		for (long i = (n >>> 1) - 1; i >= 0; i--) {
+			siftDownInts(data, addr, i, n);
+		}
+		for (long end = n - 1; end > 0; end--) {
+			int max = unsafe.getInt(data, addr);
+			unsafe.putInt(data, addr, unsafe.getInt(data, addr + (end * 4)));
+			unsafe.putInt(data, addr + (end * 4), max);
+			siftDownInts(data, addr, 0, end);
+		}
+	}
+
+	private static void siftDownInts(Object data, long addr, long i, long n) {
+		int v = unsafe.getInt(data, addr + (i * 4));
+		long child;
+		while ((child = (2 * i) + 1) < n) {
+			int c = unsafe.getInt(data, addr + (child * 4));
+			if ((child + 1) < n) {
+				int right = unsafe.getInt(data, addr + ((child + 1) * 4));
+				if (right > c) {
+					child++;
+					c = right;
+				}
+			}
+			if (c <= v) {
+				break;
+			}
+			unsafe.putInt(data, addr + (i * 4), c);
+			i = child;
+		}
+		unsafe.putInt(data, addr + (i * 4), v);
+	}
+
+	/* short elements */
+
+	private static void sortShorts(Object data, long base, long lo, long hi, int depth, long[] bounds) {
+		while ((hi - lo) > INSERTION_SORT_LENGTH) {
+			if (0 == depth--) {
+				heapSortShorts(data, base, lo, hi);
+				return;
+			}
+			partitionShorts(data, base, lo, hi, bounds);
+			long lt = bounds[0];
+			long gt = bounds[1];
+			/* recurse into the smaller side, so the stack depth is logarithmic */
+			if ((lt - lo) < (hi - gt)) {
+				sortShorts(data, base, lo, lt, depth, bounds);
+				lo = gt;
+			} else {
+				sortShorts(data, base, gt, hi, depth, bounds);
+				hi = lt;
+			}
+		}
+		insertionSortShorts(data, base, lo, hi);
+	}
+
+	/**
+	 * Partition [lo, hi) in three around the median of 3 elements:
+	 * [lo, bounds[0]) is less than the pivot, [bounds[1], hi) is greater.
+	 */
+	private static void partitionShorts(Object data, long base, long lo, long hi, long[] bounds) {
+		short a = unsafe.getShort(data, base + (lo * 2));
+		short b = unsafe.getShort(data, base + (((lo + hi) >>> 1) * 2));
+		short c = unsafe.getShort(data, base + ((hi - 1) * 2));
+		short pivot = (a < b) ? ((b < c) ? b : ((a < c) ? c : a)) : ((a < c) ? a : ((b < c) ? c : b));
+		long lt = lo;
+		long i = lo;
+		long gt = hi;
+		while (i < gt) {
+			short v = unsafe.getShort(data, base + (i * 2));
+			if (v < pivot) {
+				unsafe.putShort(data, base + (i * 2), unsafe.getShort(data, base + (lt * 2)));
+				unsafe.putShort(data, base + (lt * 2), v);
+				lt++;
+				i++;
+			} else if (v > pivot) {
+				gt--;
+				unsafe.putShort(data, base + (i * 2), unsafe.getShort(data, base + (gt * 2)));
+				unsafe.putShort(data, base + (gt * 2), v);
+			} else {
+				i++;
+			}
+		}
+		bounds[0] = lt;
+		bounds[1] = gt;
+	}
+
+	private static void insertionSortShorts(Object data, long base, long lo, long hi) {
+		for (long i = lo + 1; i < hi; i++) {
+			short v = unsafe.getShort(data, base + (i * 2));
+			long j = i - 1;
+			while ((j >= lo) && (unsafe.getShort(data, base + (j * 2)) > v)) {
+				unsafe.putShort(data, base + ((j + 1) * 2), unsafe.getShort(data, base + (j * 2)));
+				j--;
+			}
+			unsafe.putShort(data, base + ((j + 1) * 2), v);
+		}
+	}
+
+	private static void heapSortShorts(Object data, long base, long lo, long hi) {
+		long n = hi - lo;
+		long addr = base + (lo * 2);
+		for (long i = (n >>> 1) - 1; i >= 0; i--) {
+			siftDownShorts(data, addr, i, n);
+		}
+		for (long end = n - 1; end > 0; end--) {
+			short max = unsafe.getShort(data, addr);
+			unsafe.putShort(data, addr, unsafe.getShort(data, addr + (end * 2)));
+			unsafe.putShort(data, addr + (end * 2), max);
+			siftDownShorts(data, addr, 0, end);
+		}
+	}
+
+	private static void siftDownShorts(Object data, long addr, long i, long n) {
+		short v = unsafe.getShort(data, addr + (i * 2));
+		long child;
+		while ((child = (2 * i) + 1) < n) {
+			short c = unsafe.getShort(data, addr + (child * 2));
+			if ((child + 1) < n) {
+				short right = unsafe.getShort(data, addr + ((child + 1) * 2));
+				if (right > c) {
+					child++;
+					c = right;
+				}
+			}
+			if (c <= v) {
+				break;
+			}
+			unsafe.putShort(data, addr + (i * 2), c);
+			i = child;
+		}
+		unsafe.putShort(data, addr + (i * 2), v);
+	}
+}
@@ -0,0 +1,24 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+/**
+ * Moves a bound layout within the memory of its location, without binding it again.
+ * Implemented by LayoutTypeImpl and the generated layout classes, and used by Cursor and by
+ * generated layouts to move the cached views of their fields. Generated classes are defined
+ * by their own class loader, so this cannot be package-private.
+ */
+public interface Rebindable {
+	/**
+	 * Move the layout, and the cached views of its fields, by a number of bytes. Nothing is
+	 * checked: the caller keeps the layout within its memory.
+	 *
+	 * @param delta distance to move, in bytes
+	 */
+	void rebindOffset(long delta);
+}
@@ -0,0 +1,276 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Reads a stream of fixed-size records into batches of off-heap layouts.
+ *
+ * <p>
+ * The reader owns two batches, each an Array1D of batchLength records. A background thread
+ * fills one batch from the channel while the caller processes the other, so reading overlaps
+ * processing, and memory use does not depend on the length of the stream. The records are
+ * read in native byte order, as they are laid out in memory.
+ * </p>
+ *
+ * <p>
+ * A batch returned by {@link #next()} is valid until the following call to next(), or until
+ * the reader is closed. A reader is not thread-safe, apart from its background thread.
+ * </p>
+ *
+ *	<h2>Example Usage</h2>
+ *	<pre>
+ *	try (RecordReader&lt;Point&gt; reader = new RecordReader&lt;&gt;(Point.class, in, 4096)) {
+ *		reader.forEach(p -&gt; sum += p.x());
+ *	}
+ *	</pre>
+ *
+ * @param <T> the record layout
+ */
+public final class RecordReader<T extends Layout> implements AutoCloseable {
+	/** Default number of records in a batch */
+	public static final int DEFAULT_BATCH_LENGTH = 4096;
+
+	/* length of the batch that marks the end of the stream */
+	private static final long END = -1;
+
+	private final ReadableByteChannel channel;
+	private final Arena arena;
+	private final long recordSize;
+	private final long batchSize;
+	private final ArrayBlockingQueue<Batch<T>> free = new ArrayBlockingQueue<>(2);
+	private final ArrayBlockingQueue<Batch<T>> filled = new ArrayBlockingQueue<>(2);
+	private final Thread readThread;
+	/* walks the records of each batch for forEach() */
+	private final Cursor<T> cursor;
+	private volatile IOException failure = null;
+	/* batch held by the caller */
+	private Batch<T> current = null;
+	private boolean ended = false;
+	private boolean closed = false;
+	private long recordCount = 0;
+
+	private static final class Batch<T extends Layout> {
+		final Location location;
+		final Array1D<T> records;
+		/* number of records read, or END */
+		long length;
+
+		Batch(Location location, Array1D<T> records) {
+			this.location = location;
+			this.records = records;
+		}
+	}
+
+	/**
+	 * Create a reader with the default batch length
+	 * @param cls the record layout class
+	 * @param channel the source of the records, in blocking mode. It is closed with the reader.
+	 */
+	public RecordReader(Class<T> cls, ReadableByteChannel channel) {
+		this(cls, channel, DEFAULT_BATCH_LENGTH);
+	}
+
+	/**
+	 * Create a reader
+	 * @param cls the record layout class
+	 * @param in the source of the records. It is closed with the reader.
+	 * @param batchLength number of records in a batch
+	 */
+	public RecordReader(Class<T> cls, InputStream in, int batchLength) {
+		this(cls, Channels.newChannel(in), batchLength);
+	}
+
+	/**
+	 * Create a reader, and start reading
+	 * @param cls the record layout class
+	 * @param channel the source of the records, in blocking mode. It is closed with the reader.
+	 * @param batchLength number of records in a batch
+	 */
+	public RecordReader(Class<T> cls, ReadableByteChannel channel, int batchLength) {
+		if (batchLength <= 0) {
+			throw new IllegalArgumentException("batchLength must be positive: " + batchLength);
+		}
+		this.channel = channel;
+		this.arena = new Arena();
+		for (int i = 0; i < 2; i++) {
+			Array1D<T> records = Array1D.getArray1D(cls, batchLength);
+			Location location = arena.allocate(records.sizeof());
+			records.bindLocation(location);
+			free.add(new Batch<T>(location, records));
+		}
+		this.batchSize = free.peek().records.sizeof();
+		this.recordSize = batchSize / batchLength;
+		this.cursor = free.peek().records.cursor();
+		this.readThread = new Thread(this::readLoop, "RecordReader " + cls.getSimpleName());
+		this.readThread.setDaemon(true);
+		this.readThread.start();
+	}
+
+	/**
+	 * Fill free batches until the channel ends or fails, then queue a batch that marks the end
+	 */
+	private void readLoop() {
+		Batch<T> batch = null;
+		try {
+			boolean end = false;
+			while (!end) {
+				batch = free.take();
+				long bytes = ChannelHelper.readUpTo(batch.location, batchSize, channel);
+				end = (bytes < batchSize);
+				if (0 != (bytes % recordSize)) {
+					failure = new EOFException("stream ends inside a record, " + (bytes % recordSize)
+							+ " bytes into it");
+				}
+				batch.length = bytes / recordSize;
+				filled.put(batch);
+				batch = null;
+			}
+			batch = free.take();
+			batch.length = END;
+			filled.put(batch);
+		} catch (InterruptedException e) {
+			/* the reader is closed */
+		} catch (IOException e) {
+			failure = e;
+			batch.length = END;
+			filled.offer(batch);
+		}
+	}
+
+	/**
+	 * Get the next batch of records. The previous batch is given back to the background
+	 * thread, and must no longer be used.
+	 * @return the records of the next batch, or null at the end of the stream
+	 * @throws IOException if the stream failed, or ended inside a record
+	 */
+	public Array1D<T> next() throws IOException {
+		if (closed) {
+			throw new IllegalStateException("reader is closed");
+		}
+		if (null != current) {
+			free.add(current);
+			current = null;
+		}
+		while (!ended) {
+			Batch<T> batch = take();
+			if (END == batch.length) {
+				ended = true;
+				free.add(batch);
+			} else if (0 == batch.length) {
+				free.add(batch);
+			} else {
+				current = batch;
+				recordCount += batch.length;
+				return (batch.length == batch.records.getLength()) ? batch.records : batch.records.range(0, batch.length);
+			}
+		}
+		if (null != failure) {
+			throw failure;
+		}
+		return null;
+	}
+
+	private Batch<T> take() throws IOException {
+		try {
+			return filled.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for records");
+		}
+	}
+
+	/**
+	 * Pass each remaining batch to an action
+	 * @param action processes a batch, which is valid only during the call
+	 * @return the number of records processed
+	 * @throws IOException if the stream failed, or ended inside a record
+	 */
+	public long forEachBatch(Consumer<? super Array1D<T>> action) throws IOException {
+		long count = 0;
+		Array1D<T> batch;
+		while (null != (batch = next())) {
+			action.accept(batch);
+			count += batch.getLength();
+		}
+		return count;
+	}
+
+	/**
+	 * Pass each remaining record to an action. The record is a single view, re-pointed at each
+	 * record in turn, so it must not be kept.
+	 * @param action processes a record
+	 * @return the number of records processed
+	 * @throws IOException if the stream failed, or ended inside a record
+	 */
+	public long forEach(Consumer<? super T> action) throws IOException {
+		long count = 0;
+		while (null != next()) {
+			cursor.rebase(current.location, current.length);
+			while (cursor.hasNext()) {
+				action.accept(cursor.next());
+			}
+			count += current.length;
+		}
+		return count;
+	}
+
+	/**
+	 * Get the number of records returned so far
+	 * @return the number of records
+	 */
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Stop reading, close the channel and free the batches.
+	 * @throws IOException if closing the channel fails
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			channel.close();
+		} finally {
+			readThread.interrupt();
+			joinUninterruptibly(readThread);
+			arena.close();
+		}
+	}
+
+	/**
+	 * Wait for a thread to end. If the caller is interrupted, keep waiting, since memory
+	 * used by the thread must not be freed before it ends, and restore the interrupt status.
+	 */
+	static void joinUninterruptibly(Thread thread) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				thread.join();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
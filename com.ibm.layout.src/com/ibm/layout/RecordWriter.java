@@ -0,0 +1,288 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a stream of fixed-size records from batches of off-heap layouts.
+ *
+ * <p>
+ * The writer owns two batches, each an Array1D of batchLength records. The caller fills one
+ * batch while a background thread writes the other to the channel, so writing overlaps
+ * producing, and memory use does not depend on the length of the stream. The records are
+ * written in native byte order, as they are laid out in memory.
+ * </p>
+ *
+ * <p>
+ * A batch is written when it is full, when {@link #flush()} is called, and, if a maximum
+ * delay is set, when a record is added to a batch whose first record is older than the delay.
+ * A failure of the background thread is thrown by the next call to the writer.
+ * A writer is not thread-safe, apart from its background thread.
+ * </p>
+ *
+ *	<h2>Example Usage</h2>
+ *	<pre>
+ *	try (RecordWriter&lt;Point&gt; writer = new RecordWriter&lt;&gt;(Point.class, out, 4096)) {
+ *		for (int i = 0; i &lt; n; i++) {
+ *			Point p = writer.append();
+ *			p.x(i);
+ *			p.y(-i);
+ *		}
+ *	}
+ *	</pre>
+ *
+ * @param <T> the record layout
+ */
+public final class RecordWriter<T extends Layout> implements Flushable, AutoCloseable {
+	/** Default number of records in a batch */
+	public static final int DEFAULT_BATCH_LENGTH = 4096;
+
+	private final WritableByteChannel channel;
+	private final Arena arena;
+	private final long recordSize;
+	private final ArrayBlockingQueue<Batch<T>> free = new ArrayBlockingQueue<>(2);
+	private final ArrayBlockingQueue<Batch<T>> full = new ArrayBlockingQueue<>(2);
+	private final Thread writeThread;
+	private volatile IOException failure = null;
+	/* batch filled by the caller */
+	private Batch<T> current;
+	private long maxDelayNanos = 0;
+	private boolean closed = false;
+	private long recordCount = 0;
+
+	private static final class Batch<T extends Layout> {
+		final Location location;
+		final Cursor<T> cursor;
+		/* number of records added */
+		long length = 0;
+		/* System.nanoTime() when the first record was added, if there is a maximum delay */
+		long startNanos;
+
+		Batch(Location location, Array1D<T> records) {
+			this.location = location;
+			this.cursor = records.cursor();
+		}
+	}
+
+	/**
+	 * Create a writer with the default batch length
+	 * @param cls the record layout class
+	 * @param channel the destination of the records, in blocking mode. It is closed with the writer.
+	 */
+	public RecordWriter(Class<T> cls, WritableByteChannel channel) {
+		this(cls, channel, DEFAULT_BATCH_LENGTH);
+	}
+
+	/**
+	 * Create a writer
+	 * @param cls the record layout class
+	 * @param out the destination of the records. It is closed with the writer.
+	 * @param batchLength number of records in a batch
+	 */
+	public RecordWriter(Class<T> cls, OutputStream out, int batchLength) {
+		this(cls, Channels.newChannel(out), batchLength);
+	}
+
+	/**
+	 * Create a writer
+	 * @param cls the record layout class
+	 * @param channel the destination of the records, in blocking mode. It is closed with the writer.
+	 * @param batchLength number of records in a batch
+	 */
+	public RecordWriter(Class<T> cls, WritableByteChannel channel, int batchLength) {
+		if (batchLength <= 0) {
+			throw new IllegalArgumentException("batchLength must be positive: " + batchLength);
+		}
+		this.channel = channel;
+		this.arena = new Arena();
+		for (int i = 0; i < 2; i++) {
+			Array1D<T> records = Array1D.getArray1D(cls, batchLength);
+			Location location = arena.allocate(records.sizeof());
+			records.bindLocation(location);
+			free.add(new Batch<T>(location, records));
+		}
+		this.current = free.poll();
+		this.recordSize = current.cursor.get().sizeof();
+		this.writeThread = new Thread(this::writeLoop, "RecordWriter " + cls.getSimpleName());
+		this.writeThread.setDaemon(true);
+		this.writeThread.start();
+	}
+
+	/**
+	 * Write full batches until the writer is closed. After a failure, batches are
+	 * given back without being written.
+	 */
+	private void writeLoop() {
+		try {
+			while (true) {
+				Batch<T> batch = full.take();
+				long bytes = batch.length * recordSize;
+				if (null == failure) {
+					try {
+						ChannelHelper.writeTo(batch.location, bytes, channel);
+					} catch (IOException e) {
+						failure = e;
+					}
+				}
+				/* records are handed out zeroed */
+				UnsafeHelper.getUnsafe().setMemory(batch.location.getOffset(), bytes, (byte)0);
+				batch.length = 0;
+				free.put(batch);
+			}
+		} catch (InterruptedException e) {
+			/* the writer is closed */
+		}
+	}
+
+	/**
+	 * Set the maximum delay between adding a record and writing it, when records are added.
+	 * A batch is written before adding a record, if its first record is older than the delay.
+	 * Records are not written while none are added; call {@link #flush()} for that.
+	 * @param delay maximum delay, or 0 to write only full batches
+	 * @param unit unit of delay
+	 */
+	public void setMaxDelay(long delay, TimeUnit unit) {
+		maxDelayNanos = unit.toNanos(delay);
+	}
+
+	/**
+	 * Add a record. The record is a zeroed view into the current batch, which is valid
+	 * until the next call to the writer. Its fields must be set before that.
+	 * @return the record
+	 * @throws IOException if writing an earlier batch failed
+	 */
+	public T append() throws IOException {
+		checkState();
+		if ((current.length > 0) && (0 != maxDelayNanos)
+				&& (System.nanoTime() - current.startNanos >= maxDelayNanos)) {
+			submit();
+		}
+		if (0 == current.length) {
+			if (0 != maxDelayNanos) {
+				current.startNanos = System.nanoTime();
+			}
+		}
+		T record = current.cursor.moveTo(current.length);
+		current.length++;
+		recordCount++;
+		/* a full batch is queued by the next call, once the caller has set the last record */
+		return record;
+	}
+
+	/**
+	 * Add a copy of a record
+	 * @param record the record
+	 * @throws IOException if writing an earlier batch failed
+	 */
+	public void write(T record) throws IOException {
+		append().copyFrom(record);
+	}
+
+	/**
+	 * Write an array of records directly from its memory, after the records added before
+	 * @param records the records
+	 * @throws IOException if writing fails
+	 */
+	public void write(Array1D<T> records) throws IOException {
+		flush();
+		records.writeTo(channel);
+		recordCount += records.getLength();
+	}
+
+	/**
+	 * Write the records added so far, and wait until they are written
+	 * @throws IOException if writing fails
+	 */
+	@Override
+	public void flush() throws IOException {
+		checkState();
+		if (current.length > 0) {
+			submit();
+		}
+		/* the other batch is given back once it is written */
+		Batch<T> other = take();
+		free.add(other);
+		checkFailure();
+	}
+
+	/**
+	 * Queue the current batch for writing, and take the other batch once it is written
+	 */
+	private void submit() throws IOException {
+		full.add(current);
+		current = take();
+		checkFailure();
+	}
+
+	/**
+	 * Queue the current batch for writing, if the previous call to append() filled it
+	 */
+	private void checkState() throws IOException {
+		if (closed) {
+			throw new IllegalStateException("writer is closed");
+		}
+		if (current.length == current.cursor.getLength()) {
+			submit();
+		}
+		checkFailure();
+	}
+
+	private void checkFailure() throws IOException {
+		if (null != failure) {
+			throw failure;
+		}
+	}
+
+	private Batch<T> take() throws IOException {
+		try {
+			return free.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a batch to be written");
+		}
+	}
+
+	/**
+	 * Get the number of records added so far
+	 * @return the number of records
+	 */
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Write the remaining records, close the channel and free the batches.
+	 * @throws IOException if writing or closing the channel fails
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			flush();
+		} finally {
+			closed = true;
+			writeThread.interrupt();
+			RecordReader.joinUninterruptibly(writeThread);
+			try {
+				channel.close();
+			} finally {
+				arena.close();
+			}
+		}
+	}
+}
@@ -40,6 +40,203 @@ public interface ShortArray1D extends LayoutType {
 	 */
 	public abstract ShortArray1D range(long startIdx, long length);
 
+	/**
+	 * Copy array elements into a java array
+	 * @param srcIdx index of the first element to copy
+	 * @param dst the destination array
+	 * @param off index in dst of the first copied element
+	 * @param len the number of elements to copy
+	 */
+	public abstract void get(long srcIdx, short[] dst, int off, int len);
+
+	/**
+	 * Copy elements of a java array into the array
+	 * @param dstIdx index of the first element to overwrite
+	 * @param src the source array
+	 * @param off index in src of the first element to copy
+	 * @param len the number of elements to copy
+	 */
+	public abstract void put(long dstIdx, short[] src, int off, int len);
+
+	/**
+	 * Set all array elements to a value
+	 * @param value new value of the array elements
+	 */
+	public abstract void fill(short value);
+
+	/**
+	 * Copy array elements into another array
+	 * @param srcIdx index of the first element to copy
+	 * @param dst the destination array
+	 * @param dstIdx index in dst of the first element to overwrite
+	 * @param len the number of elements to copy
+	 */
+	public abstract void copyTo(long srcIdx, ShortArray1D dst, long dstIdx, long len);
+
+	/**
+	 * Copy array elements within the array. The source and destination may overlap.
+	 * @param srcIdx index of the first element to copy
+	 * @param dstIdx index of the first element to overwrite
+	 * @param len the number of elements to copy
+	 */
+	public abstract void move(long srcIdx, long dstIdx, long len);
+
+	/**
+	 * Reverse the byte order of each array element, converting the array between
+	 * native byte order and the other byte order, e.g. to or from network byte order
+	 */
+	public abstract void reverseBytes();
+
+	/**
+	 * Sum the array elements
+	 * @return the sum, accumulated in long
+	 */
+	public abstract long sum();
+
+	/**
+	 * Get the smallest array element
+	 * @return the smallest element, or Short.MAX_VALUE if the array is empty
+	 */
+	public abstract short min();
+
+	/**
+	 * Get the largest array element
+	 * @return the largest element, or Short.MIN_VALUE if the array is empty
+	 */
+	public abstract short max();
+
+	/**
+	 * Compute the dot product with another array of the same length
+	 * @param other the other array
+	 * @return the sum of the products of the elements at the same index
+	 */
+	public abstract long dot(ShortArray1D other);
+
+	/**
+	 * Add a multiple of another array of the same length to the array, this[i] += a * x[i]
+	 * @param a the multiplier
+	 * @param x the other array
+	 */
+	public abstract void axpy(short a, ShortArray1D x);
+
+	/**
+	 * Multiply all array elements by a value
+	 * @param a the multiplier
+	 */
+	public abstract void scale(short a);
+
+	/**
+	 * Replace each array element by the sum of itself and all preceding elements. Overflow wraps around.
+	 */
+	public abstract void prefixSum();
+
+	/**
+	 * Count the array elements in equal width bins over [lo, hi). Bin i covers
+	 * [lo + i * w, lo + (i + 1) * w), where w = (hi - lo) / counts.length.
+	 * Elements outside [lo, hi) are not counted.
+	 * @param lo lower bound of the first bin, inclusive
+	 * @param hi upper bound of the last bin, exclusive
+	 * @param counts the bins, the count of each bin is added to its previous value
+	 */
+	public abstract void histogram(short lo, short hi, long[] counts);
+
+	/**
+	 * Sort the array elements in ascending order.
+	 */
+	public abstract void sort();
+
+	/**
+	 * Sort the array elements in ascending order, sorting partitions in the common fork/join pool
+	 */
+	public abstract void parallelSort();
+
+	/**
+	 * Search a sorted array for a value
+	 * @param key the value to search for
+	 * @return the index of an element equal to key, or (-(insertion point) - 1), where the
+	 * insertion point is the index of the first element greater than key
+	 */
+	public abstract long binarySearch(short key);
+
+	/**
+	 * Sum the array elements, splitting the work among the threads of the common fork/join pool
+	 * @return the sum, accumulated in long
+	 */
+	public default long parallelSum() {
+		return ParallelKernels.reduce(getLength(), (start, len) -> range(start, len).sum(), Long::sum);
+	}
+
+	/**
+	 * Get the smallest array element, splitting the work among the threads of the common fork/join pool
+	 * @return the smallest element, or Short.MAX_VALUE if the array is empty
+	 */
+	public default short parallelMin() {
+		return ParallelKernels.reduce(getLength(), (start, len) -> range(start, len).min(), (x, y) -> (short)Math.min(x, y));
+	}
+
+	/**
+	 * Get the largest array element, splitting the work among the threads of the common fork/join pool
+	 * @return the largest element, or Short.MIN_VALUE if the array is empty
+	 */
+	public default short parallelMax() {
+		return ParallelKernels.reduce(getLength(), (start, len) -> range(start, len).max(), (x, y) -> (short)Math.max(x, y));
+	}
+
+	/**
+	 * Compute the dot product with another array of the same length, splitting the work
+	 * among the threads of the common fork/join pool
+	 * @param other the other array
+	 * @return the sum of the products of the elements at the same index
+	 */
+	public default long parallelDot(ShortArray1D other) {
+		LayoutTypeImpl.checkLength(getLength(), other.getLength());
+		return ParallelKernels.reduce(getLength(),
+				(start, len) -> range(start, len).dot(other.range(start, len)), Long::sum);
+	}
+
+	/**
+	 * Add a multiple of another array of the same length to the array, splitting the work
+	 * among the threads of the common fork/join pool
+	 * @param a the multiplier
+	 * @param x the other array
+	 */
+	public default void parallelAxpy(short a, ShortArray1D x) {
+		LayoutTypeImpl.checkLength(getLength(), x.getLength());
+		ParallelKernels.forEach(getLength(), (start, len) -> range(start, len).axpy(a, x.range(start, len)));
+	}
+
+	/**
+	 * Multiply all array elements by a value, splitting the work among the threads of the
+	 * common fork/join pool
+	 * @param a the multiplier
+	 */
+	public default void parallelScale(short a) {
+		ParallelKernels.forEach(getLength(), (start, len) -> range(start, len).scale(a));
+	}
+
+	/**
+	 * Count the array elements in equal width bins over [lo, hi), splitting the work among
+	 * the threads of the common fork/join pool. See {@link #histogram(short, short, long[])}.
+	 * @param lo lower bound of the first bin, inclusive
+	 * @param hi upper bound of the last bin, exclusive
+	 * @param counts the bins, the count of each bin is added to its previous value
+	 */
+	public default void parallelHistogram(short lo, short hi, long[] counts) {
+		long[] total = ParallelKernels.reduce(getLength(), (start, len) -> {
+			long[] partial = new long[counts.length];
+			range(start, len).histogram(lo, hi, partial);
+			return partial;
+		}, (x, y) -> {
+			for (int i = 0; i < x.length; i++) {
+				x[i] += y[i];
+			}
+			return x;
+		});
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += total[i];
+		}
+	}
+
 	/**
 	 * Get the size of the array
 	 * @return the data size in bytes
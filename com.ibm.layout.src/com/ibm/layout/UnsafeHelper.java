@@ -8,6 +8,7 @@
 package com.ibm.layout;
 
 import java.lang.reflect.Field;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -18,10 +19,6 @@ import sun.misc.Unsafe;
  */
 public final class UnsafeHelper {
 	static Unsafe unsafe;
-	static private boolean isNativeLibLoaded = false;
-	static final String libraryNotFoundMessage = "The layouts library was not found in the java.library.path.\n" 
-												 + "To use asByteBuffer(...) or fromByteBuffer(...) run your with"
-												 + "-Djava.library.path=[workspaceDir]/com.ibm.layoutS/jni_src";	
 	
 	/**
 	 * get theUnsafe field from sun/misc/Unsafe
@@ -41,26 +38,55 @@ public final class UnsafeHelper {
 		return unsafe;
 	}
 
-	private static void loadLayoutLib() {
-		if (!isNativeLibLoaded) {
+	/**
+	 * Offsets of the fields of java.nio.Buffer, to create and inspect direct buffers without JNI.
+	 * Initialized on first use, so layouts that do not use buffers do not depend on them.
+	 */
+	private static final class BufferFields {
+		static final Class<?> directBufferClass;
+		static final long address;
+		static final long capacity;
+		static final long limit;
+		static final long mark;
+
+		static {
 			try {
-				System.loadLibrary("layouts");
-				isNativeLibLoaded = true;
-			} catch (UnsatisfiedLinkError e) {
-				throw new RuntimeException(libraryNotFoundMessage);
+				Unsafe u = getUnsafe();
+				directBufferClass = Class.forName("java.nio.DirectByteBuffer");
+				address = u.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+				capacity = u.objectFieldOffset(Buffer.class.getDeclaredField("capacity"));
+				limit = u.objectFieldOffset(Buffer.class.getDeclaredField("limit"));
+				mark = u.objectFieldOffset(Buffer.class.getDeclaredField("mark"));
+			} catch (ReflectiveOperationException e) {
+				throw new ExceptionInInitializerError(e);
 			}
 		}
 	}
 
 	/**
-	 * Create a driect bytebuffer at specified address with specified size
+	 * Create a driect bytebuffer at specified address with specified size.
+	 * The buffer does not own the memory, and is in big-endian order like any new buffer.
 	 * @param addr, address of DBB 
 	 * @param size, size of DBB in bytes
 	 * @return bytebuffer
 	 */
 	public static ByteBuffer bufferFromAddress(long addr, long size) {
-		loadLayoutLib();
-		return bufferFromAddressImpl(addr, size);
+		if ((size < 0) || (size > Integer.MAX_VALUE)) {
+			throw new IllegalArgumentException("buffer size out of range: " + size);
+		}
+		ByteBuffer buffer;
+		try {
+			buffer = (ByteBuffer)getUnsafe().allocateInstance(BufferFields.directBufferClass);
+		} catch (InstantiationException e) {
+			throw new UnsupportedOperationException("cannot create direct buffer", e);
+		}
+		/* the constructor did not run: set the Buffer fields, then the byte order fields */
+		getUnsafe().putLong(buffer, BufferFields.address, addr);
+		getUnsafe().putInt(buffer, BufferFields.capacity, (int)size);
+		getUnsafe().putInt(buffer, BufferFields.limit, (int)size);
+		getUnsafe().putInt(buffer, BufferFields.mark, -1);
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		return buffer;
 	}
 
 	/**
@@ -69,8 +95,7 @@ public final class UnsafeHelper {
 	 * @return address
 	 */
 	public static long getDirectByteBufferAddress(ByteBuffer buffer) {
-		loadLayoutLib();
-		return getDBBAddress(buffer);
+		return getBufferAddress(buffer);
 	}
 
 	/**
@@ -80,28 +105,143 @@ public final class UnsafeHelper {
 	 * @return length
 	 */
 	public static long getDirectByteBufferLength(ByteBuffer buffer) {
-		loadLayoutLib();
-		return getDBBLength(buffer);
+		if (!buffer.isDirect()) {
+			throw new UnsupportedOperationException("not direct");
+		}
+		return buffer.capacity();
 	}
 
-	private static native ByteBuffer bufferFromAddressImpl(long addr, long size);
-
-	private static native long getDBBAddress(ByteBuffer buffer);
-
-	private static native long getDBBLength(ByteBuffer buffer);
+	/**
+	 * Return the native address of a direct buffer.
+	 * Reads the address field of java.nio.Buffer.
+	 * @param buffer a direct buffer, e.g. a MappedByteBuffer
+	 * @return address
+	 */
+	static long getBufferAddress(Buffer buffer) {
+		if (!buffer.isDirect()) {
+			throw new UnsupportedOperationException("not direct");
+		}
+		return getUnsafe().getLong(buffer, BufferFields.address);
+	}
 
 	/**
-	 * Overly a directByteBuffer of a specified at an address specified by the location object
+	 * Get a byte buffer to access the memory at a location. An off-heap location gets a
+	 * direct buffer at its address, and a location in a byte array gets a heap buffer that
+	 * wraps the array. The buffer is in native byte order.
 	 * @param loc location object
 	 * @param sizeof size of bytebuffer
-	 * @return a direct bytebuffer
+	 * @return a bytebuffer
 	 */
 	public static ByteBuffer asByteBuffer(Location loc, long sizeof) {
+		ByteBuffer buffer;
 		if (loc.getData() != null) {
-			throw new UnsupportedOperationException("not off-heap");
+			int index = (int)(loc.getOffset() - getUnsafe().arrayBaseOffset(byte[].class));
+			buffer = ByteBuffer.wrap(loc.getData(), index, (int)sizeof).slice();
+		} else {
+			buffer = bufferFromAddress(loc.getOffset(), sizeof);
 		}
-		ByteBuffer buffer = bufferFromAddress(loc.getOffset(), sizeof);
 		buffer.order(ByteOrder.nativeOrder());
 		return buffer;
 	}
+
+	/**
+	 * Copy bytes at a location into a byte array. Implements LayoutType.writeToByteArray().
+	 * @param loc location of the layout
+	 * @param size sizeof the layout
+	 * @param srcOffset offset in the layout of the first byte to copy
+	 * @param buf the destination array
+	 * @param offset index in buf of the first byte to write
+	 * @param length the maximum number of bytes to copy
+	 * @return the number of bytes copied, or -1 if srcOffset is not within the layout
+	 * @throws IndexOutOfBoundsException if the copied bytes do not fit in buf
+	 */
+	public static int writeToByteArray(Location loc, long size, long srcOffset, byte[] buf, int offset, int length) {
+		if ((srcOffset < 0) || (srcOffset >= size)) {
+			return -1;
+		}
+		int count = (int)Math.min(length, size - srcOffset);
+		checkArrayRange(buf, offset, count);
+		getUnsafe().copyMemory(loc.getData(), loc.getOffset() + srcOffset, buf,
+				getUnsafe().arrayBaseOffset(byte[].class) + offset, count);
+		return count;
+	}
+
+	/**
+	 * Copy bytes from a byte array to a location. Implements LayoutType.readFromByteArray().
+	 * @param loc location of the layout
+	 * @param size sizeof the layout
+	 * @param dstOffset offset in the layout of the first byte to write
+	 * @param buf the source array
+	 * @param offset index in buf of the first byte to copy
+	 * @param length the maximum number of bytes to copy
+	 * @return the number of bytes copied, or -1 if dstOffset is not within the layout
+	 * @throws IndexOutOfBoundsException if the copied bytes are not all in buf
+	 */
+	public static int readFromByteArray(Location loc, long size, long dstOffset, byte[] buf, int offset, int length) {
+		if ((dstOffset < 0) || (dstOffset >= size)) {
+			return -1;
+		}
+		int count = (int)Math.min(length, size - dstOffset);
+		checkArrayRange(buf, offset, count);
+		getUnsafe().copyMemory(buf, getUnsafe().arrayBaseOffset(byte[].class) + offset, loc.getData(),
+				loc.getOffset() + dstOffset, count);
+		return count;
+	}
+
+	private static void checkArrayRange(byte[] buf, int offset, int count) {
+		if ((offset < 0) || (count < 0) || (offset > buf.length - count)) {
+			throw new IndexOutOfBoundsException("range [" + offset + ", " + offset + " + " + count
+					+ ") outside array of length " + buf.length);
+		}
+	}
+
+	/**
+	 * Compare two ranges of bytes, 8 at a time. Used by generated equals() methods.
+	 * @param data1 java array of the first range, or null if it is off-heap
+	 * @param offset1 Unsafe offset of the first range
+	 * @param data2 java array of the second range, or null if it is off-heap
+	 * @param offset2 Unsafe offset of the second range
+	 * @param size number of bytes
+	 * @return true if the ranges hold the same bytes
+	 */
+	public static boolean bytesEqual(Object data1, long offset1, Object data2, long offset2, long size) {
+		final Unsafe u = getUnsafe();
+		long i = 0;
+		for (; i <= size - 8; i += 8) {
+			if (u.getLong(data1, offset1 + i) != u.getLong(data2, offset2 + i)) {
+				return false;
+			}
+		}
+		for (; i < size; i++) {
+			if (u.getByte(data1, offset1 + i) != u.getByte(data2, offset2 + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Hash a range of bytes, 8 at a time. Used by generated hashCode() methods.
+	 * All bits of the result depend on all bytes, so its low bits can index a hash table.
+	 * @param data java array of the range, or null if it is off-heap
+	 * @param offset Unsafe offset of the range
+	 * @param size number of bytes
+	 * @return the hash
+	 */
+	public static int bytesHash(Object data, long offset, long size) {
+		final Unsafe u = getUnsafe();
+		long h = size * 0x9E3779B97F4A7C15L;
+		long i = 0;
+		for (; i <= size - 8; i += 8) {
+			h = (h ^ u.getLong(data, offset + i)) * 0xC2B2AE3D27D4EB4FL;
+			h ^= h >>> 29;
+		}
+		for (; i < size; i++) {
+			h = (h ^ u.getByte(data, offset + i)) * 0x9E3779B97F4A7C15L;
+		}
+		h ^= h >>> 32;
+		h *= 0xD6E8FEB86659FD93L;
+		h ^= h >>> 32;
+		return (int)h;
+	}
 }
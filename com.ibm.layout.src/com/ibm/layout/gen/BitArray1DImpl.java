@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout.gen;
+
+import com.ibm.layout.BitArray1D;
+import com.ibm.layout.LayoutTypeImpl;
+import com.ibm.layout.UnsafeHelper;
+
+import sun.misc.Unsafe;
+
+/**
+ * Generated implementation of BitArray1D
+ */
+class BitArray1DImpl extends LayoutTypeImpl implements BitArray1D {
+	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
+	protected final long length;
+	protected final long wordCount;
+
+	protected BitArray1DImpl(long length) {
+		this.length = length;
+		this.wordCount = (length + 63) >>> 6;
+	}
+
+	/**
+	 * Get the mask of the bits of the last word that are within the length
+	 */
+	private long lastWordMask() {
+		return -1L >>> (-length & 63);
+	}
+
+	private long wordOffset(long wordIndex) {
+		return this.locationOffset + (wordIndex << 3);
+	}
+
+	private void checkLength(BitArray1D other) {
+		if (other.getLength() != length) {
+			throw new IllegalArgumentException("length differs: " + length + ", " + other.getLength());
+		}
+	}
+
+	@Override
+	public long getLength() {
+		return length;
+	}
+
+	@Override
+	public long getWordCount() {
+		return wordCount;
+	}
+
+	@Override
+	public long sizeof() {
+		return wordCount << 3;
+	}
+
+	@Override
+	public boolean at(long index) {
+		/* shifts of a long only use the low 6 bits of the distance */
+		return 0 != (getWord(index >>> 6) & (1L << index));
+	}
+
+	@Override
+	public void put(long index, boolean value) {
+		/* bits beyond the length stay clear */
+		checkRange(index, 1, length);
+		long word = getWord(index >>> 6);
+		word = value ? (word | (1L << index)) : (word & ~(1L << index));
+		unsafe.putLong(data(), wordOffset(index >>> 6), word);
+	}
+
+	@Override
+	public boolean setBitConcurrent(long index) {
+		checkRange(index, 1, length);
+		final long bit = 1L << index;
+		final Object data = data();
+		final long offset = wordOffset(index >>> 6);
+		long word;
+		do {
+			word = unsafe.getLongVolatile(data, offset);
+			if (0 != (word & bit)) {
+				return false;
+			}
+		} while (!unsafe.compareAndSwapLong(data, offset, word, word | bit));
+		return true;
+	}
+
+	@Override
+	public boolean clearBitConcurrent(long index) {
+		checkRange(index, 1, length);
+		final long bit = 1L << index;
+		final Object data = data();
+		final long offset = wordOffset(index >>> 6);
+		long word;
+		do {
+			word = unsafe.getLongVolatile(data, offset);
+			if (0 == (word & bit)) {
+				return false;
+			}
+		} while (!unsafe.compareAndSwapLong(data, offset, word, word & ~bit));
+		return true;
+	}
+
+	@Override
+	public long getWord(long wordIndex) {
+		return unsafe.getLong(data(), wordOffset(wordIndex));
+	}
+
+	@Override
+	public void putWord(long wordIndex, long word) {
+		checkRange(wordIndex, 1, wordCount);
+		if (wordIndex == (wordCount - 1)) {
+			word &= lastWordMask();
+		}
+		unsafe.putLong(data(), wordOffset(wordIndex), word);
+	}
+
+	@Override
+	public void fill(boolean value) {
+		fillBytes(0, sizeof(), (byte)(value ? -1 : 0));
+		if (value && (wordCount > 0)) {
+			putWord(wordCount - 1, -1L);
+		}
+	}
+
+	@Override
+	public void and(BitArray1D other) {
+		checkLength(other);
+		for (long w = 0; w < wordCount; w++) {
+			putWord(w, getWord(w) & other.getWord(w));
+		}
+	}
+
+	@Override
+	public void or(BitArray1D other) {
+		checkLength(other);
+		for (long w = 0; w < wordCount; w++) {
+			putWord(w, getWord(w) | other.getWord(w));
+		}
+	}
+
+	@Override
+	public void xor(BitArray1D other) {
+		checkLength(other);
+		for (long w = 0; w < wordCount; w++) {
+			putWord(w, getWord(w) ^ other.getWord(w));
+		}
+	}
+
+	@Override
+	public void andNot(BitArray1D other) {
+		checkLength(other);
+		for (long w = 0; w < wordCount; w++) {
+			putWord(w, getWord(w) & ~other.getWord(w));
+		}
+	}
+
+	@Override
+	public long cardinality() {
+		if (0 == wordCount) {
+			return 0;
+		}
+		long count = 0;
+		for (long w = 0; w < wordCount - 1; w++) {
+			count += Long.bitCount(getWord(w));
+		}
+		return count + Long.bitCount(getWord(wordCount - 1) & lastWordMask());
+	}
+
+	@Override
+	public long nextSetBit(long fromIndex) {
+		if (fromIndex < 0) {
+			throw new IndexOutOfBoundsException("fromIndex: " + fromIndex);
+		}
+		if (fromIndex >= length) {
+			return -1;
+		}
+		long w = fromIndex >>> 6;
+		long word = getWord(w) & (-1L << fromIndex);
+		while (0 == word) {
+			if (++w == wordCount) {
+				return -1;
+			}
+			word = getWord(w);
+		}
+		long index = (w << 6) + Long.numberOfTrailingZeros(word);
+		return (index < length) ? index : -1;
+	}
+
+	@Override
+	public long nextClearBit(long fromIndex) {
+		if (fromIndex < 0) {
+			throw new IndexOutOfBoundsException("fromIndex: " + fromIndex);
+		}
+		if (fromIndex >= length) {
+			return -1;
+		}
+		long w = fromIndex >>> 6;
+		long word = ~getWord(w) & (-1L << fromIndex);
+		while (0 == word) {
+			if (++w == wordCount) {
+				return -1;
+			}
+			word = ~getWord(w);
+		}
+		long index = (w << 6) + Long.numberOfTrailingZeros(word);
+		return (index < length) ? index : -1;
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer sb = new StringBuffer("[");
+		for (long i = 0; i < length; i++) {
+			sb.append(at(i) ? " 1" : " 0");
+		}
+		sb.append(" ]");
+		return sb.toString();
+	}
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout.gen;
+
+import com.ibm.layout.BitArray1D;
+import com.ibm.layout.BitArray2D;
+import com.ibm.layout.LayoutTypeImpl;
+import com.ibm.layout.Location;
+
+/**
+ * Generated implementation of BitArray2D. The bits are accessed through a row-major BitArray1DImpl
+ * bound to the same location.
+ */
+final class BitArray2DImpl extends LayoutTypeImpl implements BitArray2D {
+	protected final long dim1;
+	protected final long dim2;
+	private final BitArray1DImpl bits;
+
+	public BitArray2DImpl(long dim1, long dim2) {
+		this.dim1 = dim1;
+		this.dim2 = dim2;
+		this.bits = new BitArray1DImpl(dim1 * dim2);
+	}
+
+	private void checkDims(BitArray2D other) {
+		if ((other.dim1() != dim1) || (other.dim2() != dim2)) {
+			throw new IllegalArgumentException("dimensions differ: " + dim1 + "x" + dim2 + ", "
+					+ other.dim1() + "x" + other.dim2());
+		}
+	}
+
+	@Override
+	public void bindLocation(Location loc) {
+		super.bindLocation(loc);
+		bits.bindLocation(loc);
+	}
+
+	@Override
+	public void rebindOffset(long delta) {
+		/* the bits share the location, which may have been replaced */
+		super.rebindOffset(delta);
+		bits.bindLocation(location);
+	}
+
+	@Override
+	public final long dim1() {
+		return dim1;
+	}
+
+	@Override
+	public final long dim2() {
+		return dim2;
+	}
+
+	@Override
+	public long sizeof() {
+		return bits.sizeof();
+	}
+
+	@Override
+	public boolean at(long i, long j) {
+		return bits.at(i * dim2 + j);
+	}
+
+	@Override
+	public void put(long i, long j, boolean value) {
+		bits.put(i * dim2 + j, value);
+	}
+
+	@Override
+	public boolean setBitConcurrent(long i, long j) {
+		return bits.setBitConcurrent(i * dim2 + j);
+	}
+
+	@Override
+	public BitArray1D bits() {
+		return bits;
+	}
+
+	@Override
+	public void fill(boolean value) {
+		bits.fill(value);
+	}
+
+	@Override
+	public void and(BitArray2D other) {
+		checkDims(other);
+		bits.and(other.bits());
+	}
+
+	@Override
+	public void or(BitArray2D other) {
+		checkDims(other);
+		bits.or(other.bits());
+	}
+
+	@Override
+	public void xor(BitArray2D other) {
+		checkDims(other);
+		bits.xor(other.bits());
+	}
+
+	@Override
+	public long cardinality() {
+		return bits.cardinality();
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer sb = new StringBuffer("[");
+		for (long i = 0; i < dim1; i++) {
+			for (long j = 0; j < dim2; j++) {
+				sb.append(at(i, j) ? " 1" : " 0");
+			}
+		}
+		sb.append(" ]");
+		return sb.toString();
+	}
+}
@@ -17,7 +17,7 @@ import sun.misc.Unsafe;
 /**
  * Generated implementation of BooleanArray1D
  */
-final class BooleanArray1DImpl extends LayoutTypeImpl implements BooleanArray1D {
+class BooleanArray1DImpl extends LayoutTypeImpl implements BooleanArray1D {
 	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
 	protected final long length;
 	
@@ -27,12 +27,12 @@ final class BooleanArray1DImpl extends LayoutTypeImpl implements BooleanArray1D
 
 	@Override
 	public boolean at(long index) {
-		return unsafe.getBoolean(this.location.getData(), this.location.getOffset() + index);
+		return unsafe.getBoolean(data(), this.locationOffset + index);
 	}
 
 	@Override
 	public void put(long index, boolean value) {
-		unsafe.putBoolean(this.location.getData(), this.location.getOffset() + index, value);
+		unsafe.putBoolean(data(), this.locationOffset + index, value);
 	}
 
 	@Override
@@ -62,4 +62,37 @@ final class BooleanArray1DImpl extends LayoutTypeImpl implements BooleanArray1D
 		sb.append(" ]");
 		return sb.toString();
 	}
+
+	@Override
+	public void get(long srcIdx, boolean[] dst, int off, int len) {
+		checkRange(srcIdx, len, length);
+		checkArrayRange(dst.length, off, len);
+		copyToArray(srcIdx, dst, Unsafe.ARRAY_BOOLEAN_BASE_OFFSET + off, len);
+	}
+
+	@Override
+	public void put(long dstIdx, boolean[] src, int off, int len) {
+		checkRange(dstIdx, len, length);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_BOOLEAN_BASE_OFFSET + off, dstIdx, len);
+	}
+
+	@Override
+	public void fill(boolean value) {
+		fillBytes(0, length, (byte)(value ? 1 : 0));
+	}
+
+	@Override
+	public void copyTo(long srcIdx, BooleanArray1D dst, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, dst.getLength());
+		copyToLayout(srcIdx, dst, dstIdx, len);
+	}
+
+	@Override
+	public void move(long srcIdx, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, length);
+		copyWithin(srcIdx, dstIdx, len);
+	}
 }
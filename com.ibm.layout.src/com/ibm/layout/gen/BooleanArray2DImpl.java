@@ -7,8 +7,12 @@
  *******************************************************************************/
 package com.ibm.layout.gen;
 
+import com.ibm.layout.BooleanArray1D;
 import com.ibm.layout.BooleanArray2D;
+import com.ibm.layout.Cursor;
+import com.ibm.layout.LayoutType;
 import com.ibm.layout.LayoutTypeImpl;
+import com.ibm.layout.Location;
 import com.ibm.layout.UnsafeHelper;
 
 import sun.misc.Unsafe;
@@ -28,12 +32,12 @@ final class BooleanArray2DImpl extends LayoutTypeImpl implements BooleanArray2D
 
 	@Override
 	public boolean at(long i, long j) {
-		return unsafe.getBoolean(this.location.getData(), this.location.getOffset() + (i * dim2 + j));
+		return unsafe.getBoolean(data(), this.locationOffset + (i * dim2 + j));
 	}
 
 	@Override
 	public void put(long i, long j, boolean val) {
-		unsafe.putBoolean(this.location.getData(), this.location.getOffset() + (i * dim2 + j), val);
+		unsafe.putBoolean(data(), this.locationOffset + (i * dim2 + j), val);
 	}
 	
 	@Override
@@ -62,4 +66,50 @@ final class BooleanArray2DImpl extends LayoutTypeImpl implements BooleanArray2D
 	public final long dim2() {
 		return dim2;
 	}
+
+	@Override
+	public void get(long i, long j, boolean[] dst, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(dst.length, off, len);
+		copyToArray(i * dim2 + j, dst, Unsafe.ARRAY_BOOLEAN_BASE_OFFSET + off, len);
+	}
+
+	@Override
+	public void put(long i, long j, boolean[] src, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_BOOLEAN_BASE_OFFSET + off, i * dim2 + j, len);
+	}
+
+	@Override
+	public void fill(boolean value) {
+		fillBytes(0, dim1 * dim2, (byte)(value ? 1 : 0));
+	}
+
+	@Override
+	public void copyTo(BooleanArray2D dst) {
+		if ((dst.dim1() != dim1) || (dst.dim2() != dim2)) {
+			throw new IllegalArgumentException("dimensions differ: " + dim1 + "x" + dim2 + ", " + dst.dim1() + "x" + dst.dim2());
+		}
+		copyToLayout(0, dst, 0, sizeof());
+	}
+
+	@Override
+	public BooleanArray1D row(long i) {
+		checkRange(i, 1, dim1);
+		BooleanArray1D row = LayoutType.getPrimArray1D(boolean.class, dim2);
+		row.bindLocation(new Location(this.location, i * dim2));
+		return row;
+	}
+
+	@Override
+	public Cursor<BooleanArray1D> rows() {
+		BooleanArray1D row = LayoutType.getPrimArray1D(boolean.class, dim2);
+		return new Cursor<BooleanArray1D>(row, this.location, dim2, dim1);
+	}
+
+	@Override
+	public void transpose(BooleanArray2D dst) {
+		transposeTo(dst, dst.dim1(), dst.dim2(), dim1, dim2, 1);
+	}
 }
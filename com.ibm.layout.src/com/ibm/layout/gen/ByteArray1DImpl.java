@@ -17,7 +17,7 @@ import sun.misc.Unsafe;
 /**
  * Generated implementation of ByteArray1D
  */
-final class ByteArray1DImpl extends LayoutTypeImpl implements ByteArray1D {
+class ByteArray1DImpl extends LayoutTypeImpl implements ByteArray1D {
 	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
 	protected final long length;
 	
@@ -27,16 +27,16 @@ final class ByteArray1DImpl extends LayoutTypeImpl implements ByteArray1D {
 
 	@Override
 	public byte at(long index) {
-		return unsafe.getByte(this.location.getData(), this.location.getOffset() + index);
+		return unsafe.getByte(data(), this.locationOffset + index);
 	}
 
 	@Override
 	public void put(long index, byte value) {
-		unsafe.putByte(this.location.getData(), this.location.getOffset() + index, value);
+		unsafe.putByte(data(), this.locationOffset + index, value);
 	}
 
 	@Override
-	public final ByteArray1D range(long startIdx, long length) {
+	public ByteArray1D range(long startIdx, long length) {
 		ByteArray1DImpl b = new ByteArray1DImpl(length);
 		Location loc = new Location(this.location, startIdx);
 		b.bindLocation(loc);
@@ -62,4 +62,37 @@ final class ByteArray1DImpl extends LayoutTypeImpl implements ByteArray1D {
 		sb.append(" ]");
 		return sb.toString();
 	}
+
+	@Override
+	public void get(long srcIdx, byte[] dst, int off, int len) {
+		checkRange(srcIdx, len, length);
+		checkArrayRange(dst.length, off, len);
+		copyToArray(srcIdx, dst, Unsafe.ARRAY_BYTE_BASE_OFFSET + off, len);
+	}
+
+	@Override
+	public void put(long dstIdx, byte[] src, int off, int len) {
+		checkRange(dstIdx, len, length);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_BYTE_BASE_OFFSET + off, dstIdx, len);
+	}
+
+	@Override
+	public void fill(byte value) {
+		fillBytes(0, length, value);
+	}
+
+	@Override
+	public void copyTo(long srcIdx, ByteArray1D dst, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, dst.getLength());
+		copyToLayout(srcIdx, dst, dstIdx, len);
+	}
+
+	@Override
+	public void move(long srcIdx, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, length);
+		copyWithin(srcIdx, dstIdx, len);
+	}
 }
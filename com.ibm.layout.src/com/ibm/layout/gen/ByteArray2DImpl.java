@@ -7,8 +7,12 @@
  *******************************************************************************/
 package com.ibm.layout.gen;
 
+import com.ibm.layout.ByteArray1D;
 import com.ibm.layout.ByteArray2D;
+import com.ibm.layout.Cursor;
+import com.ibm.layout.LayoutType;
 import com.ibm.layout.LayoutTypeImpl;
+import com.ibm.layout.Location;
 import com.ibm.layout.UnsafeHelper;
 
 import sun.misc.Unsafe;
@@ -29,12 +33,12 @@ final class ByteArray2DImpl extends LayoutTypeImpl implements ByteArray2D {
 
 	@Override
 	public byte at(long i, long j) {
-		return unsafe.getByte(this.location.getData(), this.location.getOffset() + (i * dim2 + j));
+		return unsafe.getByte(data(), this.locationOffset + (i * dim2 + j));
 	}
 
 	@Override
 	public void put(long i, long j, byte val) {
-		unsafe.putByte(this.location.getData(), this.location.getOffset() + (i * dim2 + j), val);
+		unsafe.putByte(data(), this.locationOffset + (i * dim2 + j), val);
 	}
 
 	@Override
@@ -63,4 +67,50 @@ final class ByteArray2DImpl extends LayoutTypeImpl implements ByteArray2D {
 		sb.append(" ]");
 		return sb.toString();
 	}
+
+	@Override
+	public void get(long i, long j, byte[] dst, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(dst.length, off, len);
+		copyToArray(i * dim2 + j, dst, Unsafe.ARRAY_BYTE_BASE_OFFSET + off, len);
+	}
+
+	@Override
+	public void put(long i, long j, byte[] src, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_BYTE_BASE_OFFSET + off, i * dim2 + j, len);
+	}
+
+	@Override
+	public void fill(byte value) {
+		fillBytes(0, dim1 * dim2, value);
+	}
+
+	@Override
+	public void copyTo(ByteArray2D dst) {
+		if ((dst.dim1() != dim1) || (dst.dim2() != dim2)) {
+			throw new IllegalArgumentException("dimensions differ: " + dim1 + "x" + dim2 + ", " + dst.dim1() + "x" + dst.dim2());
+		}
+		copyToLayout(0, dst, 0, sizeof());
+	}
+
+	@Override
+	public ByteArray1D row(long i) {
+		checkRange(i, 1, dim1);
+		ByteArray1D row = LayoutType.getPrimArray1D(byte.class, dim2);
+		row.bindLocation(new Location(this.location, i * dim2));
+		return row;
+	}
+
+	@Override
+	public Cursor<ByteArray1D> rows() {
+		ByteArray1D row = LayoutType.getPrimArray1D(byte.class, dim2);
+		return new Cursor<ByteArray1D>(row, this.location, dim2, dim1);
+	}
+
+	@Override
+	public void transpose(ByteArray2D dst) {
+		transposeTo(dst, dst.dim1(), dst.dim2(), dim1, dim2, 1);
+	}
 }
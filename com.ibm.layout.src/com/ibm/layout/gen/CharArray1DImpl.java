@@ -17,7 +17,7 @@ import sun.misc.Unsafe;
 /**
  * Generated implementation of CharArray1D
  */
-final class CharArray1DImpl extends LayoutTypeImpl implements CharArray1D {
+class CharArray1DImpl extends LayoutTypeImpl implements CharArray1D {
 	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
 	protected final long length;
 	
@@ -27,12 +27,12 @@ final class CharArray1DImpl extends LayoutTypeImpl implements CharArray1D {
 
 	@Override
 	public char at(long index) {
-		return unsafe.getChar(this.location.getData(), this.location.getOffset() + index * 2);
+		return unsafe.getChar(data(), this.locationOffset + index * 2);
 	}
 
 	@Override
 	public void put(long index, char value) {
-		unsafe.putChar(this.location.getData(), this.location.getOffset() + index * 2, value);
+		unsafe.putChar(data(), this.locationOffset + index * 2, value);
 	}
 
 	@Override
@@ -60,4 +60,49 @@ final class CharArray1DImpl extends LayoutTypeImpl implements CharArray1D {
 		sb.append(" ]");
 		return sb.toString();
 	}
+
+	@Override
+	public void get(long srcIdx, char[] dst, int off, int len) {
+		checkRange(srcIdx, len, length);
+		checkArrayRange(dst.length, off, len);
+		copyToArray(srcIdx * 2, dst, Unsafe.ARRAY_CHAR_BASE_OFFSET + off * 2L, len * 2L);
+	}
+
+	@Override
+	public void put(long dstIdx, char[] src, int off, int len) {
+		checkRange(dstIdx, len, length);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_CHAR_BASE_OFFSET + off * 2L, dstIdx * 2, len * 2L);
+	}
+
+	@Override
+	public void fill(char value) {
+		if (length > 0) {
+			put(0, value);
+			replicate(0, 2, length);
+		}
+	}
+
+	@Override
+	public void copyTo(long srcIdx, CharArray1D dst, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, dst.getLength());
+		copyToLayout(srcIdx * 2, dst, dstIdx * 2, len * 2);
+	}
+
+	@Override
+	public void move(long srcIdx, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, length);
+		copyWithin(srcIdx * 2, dstIdx * 2, len * 2);
+	}
+
+	@Override
+	public void reverseBytes() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 2;
+		for (long addr = this.locationOffset; addr < end; addr += 2) {
+			unsafe.putShort(data, addr, Short.reverseBytes(unsafe.getShort(data, addr)));
+		}
+	}
 }
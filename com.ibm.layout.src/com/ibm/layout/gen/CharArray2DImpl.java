@@ -7,8 +7,12 @@
  *******************************************************************************/
 package com.ibm.layout.gen;
 
+import com.ibm.layout.CharArray1D;
 import com.ibm.layout.CharArray2D;
+import com.ibm.layout.Cursor;
+import com.ibm.layout.LayoutType;
 import com.ibm.layout.LayoutTypeImpl;
+import com.ibm.layout.Location;
 import com.ibm.layout.UnsafeHelper;
 
 import sun.misc.Unsafe;
@@ -28,12 +32,12 @@ final class CharArray2DImpl extends LayoutTypeImpl implements CharArray2D {
 
 	@Override
 	public char at(long i, long j) {
-		return unsafe.getChar(this.location.getData(), this.location.getOffset() + (i * dim2 + j) * 2);
+		return unsafe.getChar(data(), this.locationOffset + (i * dim2 + j) * 2);
 	}
 
 	@Override
 	public void put(long i, long j, char val) {
-		unsafe.putChar(this.location.getData(), this.location.getOffset() + (i * dim2 + j) * 2, val);
+		unsafe.putChar(data(), this.locationOffset + (i * dim2 + j) * 2, val);
 	}
 	
 	public final long dim1() {
@@ -59,4 +63,53 @@ final class CharArray2DImpl extends LayoutTypeImpl implements CharArray2D {
 		sb.append(" ]");
 		return sb.toString();
 	}
+
+	@Override
+	public void get(long i, long j, char[] dst, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(dst.length, off, len);
+		copyToArray((i * dim2 + j) * 2, dst, Unsafe.ARRAY_CHAR_BASE_OFFSET + off * 2L, len * 2L);
+	}
+
+	@Override
+	public void put(long i, long j, char[] src, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_CHAR_BASE_OFFSET + off * 2L, (i * dim2 + j) * 2, len * 2L);
+	}
+
+	@Override
+	public void fill(char value) {
+		if (dim1 * dim2 > 0) {
+			put(0, 0, value);
+			replicate(0, 2, dim1 * dim2);
+		}
+	}
+
+	@Override
+	public void copyTo(CharArray2D dst) {
+		if ((dst.dim1() != dim1) || (dst.dim2() != dim2)) {
+			throw new IllegalArgumentException("dimensions differ: " + dim1 + "x" + dim2 + ", " + dst.dim1() + "x" + dst.dim2());
+		}
+		copyToLayout(0, dst, 0, sizeof());
+	}
+
+	@Override
+	public CharArray1D row(long i) {
+		checkRange(i, 1, dim1);
+		CharArray1D row = LayoutType.getPrimArray1D(char.class, dim2);
+		row.bindLocation(new Location(this.location, i * dim2 * 2));
+		return row;
+	}
+
+	@Override
+	public Cursor<CharArray1D> rows() {
+		CharArray1D row = LayoutType.getPrimArray1D(char.class, dim2);
+		return new Cursor<CharArray1D>(row, this.location, dim2 * 2, dim1);
+	}
+
+	@Override
+	public void transpose(CharArray2D dst) {
+		transposeTo(dst, dst.dim1(), dst.dim2(), dim1, dim2, 2);
+	}
 }
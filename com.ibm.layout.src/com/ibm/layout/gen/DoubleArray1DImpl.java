@@ -17,7 +17,7 @@ import sun.misc.Unsafe;
 /**
  * Generated implementation of DoubleArray1D
  */
-final class DoubleArray1DImpl extends LayoutTypeImpl implements DoubleArray1D {
+class DoubleArray1DImpl extends LayoutTypeImpl implements DoubleArray1D {
 	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
 	protected final long length;
 
@@ -27,12 +27,12 @@ final class DoubleArray1DImpl extends LayoutTypeImpl implements DoubleArray1D {
 
 	@Override
 	public double at(long index) {
-		return unsafe.getDouble(this.location.getData(), this.location.getOffset() + index * 8);
+		return unsafe.getDouble(data(), this.locationOffset + index * 8);
 	}
 
 	@Override
 	public void put(long index, double value) {
-		unsafe.putDouble(this.location.getData(), this.location.getOffset() + index * 8, value);
+		unsafe.putDouble(data(), this.locationOffset + index * 8, value);
 	}
 
 	@Override
@@ -60,4 +60,201 @@ final class DoubleArray1DImpl extends LayoutTypeImpl implements DoubleArray1D {
 		return sb.toString();
 	}
 
+	@Override
+	public void get(long srcIdx, double[] dst, int off, int len) {
+		checkRange(srcIdx, len, length);
+		checkArrayRange(dst.length, off, len);
+		copyToArray(srcIdx * 8, dst, Unsafe.ARRAY_DOUBLE_BASE_OFFSET + off * 8L, len * 8L);
+	}
+
+	@Override
+	public void put(long dstIdx, double[] src, int off, int len) {
+		checkRange(dstIdx, len, length);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_DOUBLE_BASE_OFFSET + off * 8L, dstIdx * 8, len * 8L);
+	}
+
+	@Override
+	public void fill(double value) {
+		if (length > 0) {
+			put(0, value);
+			replicate(0, 8, length);
+		}
+	}
+
+	@Override
+	public void copyTo(long srcIdx, DoubleArray1D dst, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, dst.getLength());
+		copyToLayout(srcIdx * 8, dst, dstIdx * 8, len * 8);
+	}
+
+	@Override
+	public void move(long srcIdx, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, length);
+		copyWithin(srcIdx * 8, dstIdx * 8, len * 8);
+	}
+
+	@Override
+	public void reverseBytes() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			unsafe.putLong(data, addr, Long.reverseBytes(unsafe.getLong(data, addr)));
+		}
+	}
+
+	@Override
+	public double sum() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		double sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			sum += unsafe.getDouble(data, addr);
+		}
+		return sum;
+	}
+
+	@Override
+	public double min() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		double min = Double.POSITIVE_INFINITY;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			min = Math.min(min, unsafe.getDouble(data, addr));
+		}
+		return min;
+	}
+
+	@Override
+	public double max() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		double max = Double.NEGATIVE_INFINITY;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			max = Math.max(max, unsafe.getDouble(data, addr));
+		}
+		return max;
+	}
+
+	@Override
+	public double dot(DoubleArray1D other) {
+		checkLength(length, other.getLength());
+		final Location otherLocation = getLocation(other);
+		final Object data = data();
+		final Object otherData = otherLocation.getData();
+		final long delta = otherLocation.getOffset() - this.locationOffset;
+		final long end = this.locationOffset + length * 8;
+		double sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			sum += unsafe.getDouble(data, addr) * unsafe.getDouble(otherData, addr + delta);
+		}
+		return sum;
+	}
+
+	@Override
+	public void axpy(double a, DoubleArray1D x) {
+		checkLength(length, x.getLength());
+		final Location xLocation = getLocation(x);
+		final Object data = data();
+		final Object xData = xLocation.getData();
+		final long delta = xLocation.getOffset() - this.locationOffset;
+		final long end = this.locationOffset + length * 8;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			unsafe.putDouble(data, addr, (unsafe.getDouble(data, addr) + a * unsafe.getDouble(xData, addr + delta)));
+		}
+	}
+
+	@Override
+	public void scale(double a) {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			unsafe.putDouble(data, addr, (unsafe.getDouble(data, addr) * a));
+		}
+	}
+
+	@Override
+	public void prefixSum() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		double sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			sum += unsafe.getDouble(data, addr);
+			unsafe.putDouble(data, addr, sum);
+		}
+	}
+
+	@Override
+	public void histogram(double lo, double hi, long[] counts) {
+		final double binScale = histogramScale(lo, hi, counts.length);
+		final int lastBin = counts.length - 1;
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			double value = unsafe.getDouble(data, addr);
+			if ((value >= lo) && (value < hi)) {
+				counts[Math.min((int)((value - lo) * binScale), lastBin)]++;
+			}
+		}
+	}
+
+	@Override
+	public void sort() {
+		toSortableBits();
+		sortElements(length, 8, false);
+		fromSortableBits();
+	}
+
+	@Override
+	public void parallelSort() {
+		toSortableBits();
+		sortElements(length, 8, true);
+		fromSortableBits();
+	}
+
+	/**
+	 * Replace each element by a signed integer that orders like Double.compare()
+	 */
+	private void toSortableBits() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			long bits = Double.doubleToLongBits(unsafe.getDouble(data, addr));
+			unsafe.putLong(data, addr, bits ^ ((bits >> 63) >>> 1));
+		}
+	}
+
+	/**
+	 * Undo toSortableBits()
+	 */
+	private void fromSortableBits() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			long bits = unsafe.getLong(data, addr);
+			unsafe.putLong(data, addr, bits ^ ((bits >> 63) >>> 1));
+		}
+	}
+
+	@Override
+	public long binarySearch(double key) {
+		final Object data = data();
+		final long base = this.locationOffset;
+		long lo = 0;
+		long hi = length - 1;
+		while (lo <= hi) {
+			long mid = (lo + hi) >>> 1;
+			int c = Double.compare(unsafe.getDouble(data, base + mid * 8), key);
+			if (c < 0) {
+				lo = mid + 1;
+			} else if (c > 0) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(lo + 1);
+	}
 }
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ *  Copyright (c) 2014, 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.ibm.layout.gen;
+
+import com.ibm.layout.FloatArray1D;
+import com.ibm.layout.LayoutTypeImpl;
+import com.ibm.layout.Location;
+import com.ibm.layout.UnsafeHelper;
+
+import sun.misc.Unsafe;
+
+/**
+ * Generated implementation of FloatArray1D
+ */
+class FloatArray1DImpl extends LayoutTypeImpl implements FloatArray1D {
+	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
+	protected final long length;
+
+	protected FloatArray1DImpl(long length) {
+		this.length = length;
+	}
+
+	@Override
+	public float at(long index) {
+		return unsafe.getFloat(data(), this.locationOffset + index * 4);
+	}
+
+	@Override
+	public void put(long index, float value) {
+		unsafe.putFloat(data(), this.locationOffset + index * 4, value);
+	}
+
+	@Override
+	public FloatArray1D range(long startIdx, long length) {
+		FloatArray1DImpl f = new FloatArray1DImpl(length);
+		Location loc = new Location(this.location, startIdx * 4);
+		f.bindLocation(loc);
+		return f;
+	}
+	
+	public final long getLength() {
+		return length;
+	}
+	
+	public long sizeof() {
+		return 4 * length;
+	}
+	
+	public String toString() {
+		StringBuffer sb = new StringBuffer("[");
+		for (long i = 0; i < length; i++) {
+			sb.append(" " + at(i));
+		}
+		sb.append(" ]");
+		return sb.toString();
+	}
+
+	@Override
+	public void get(long srcIdx, float[] dst, int off, int len) {
+		checkRange(srcIdx, len, length);
+		checkArrayRange(dst.length, off, len);
+		copyToArray(srcIdx * 4, dst, Unsafe.ARRAY_FLOAT_BASE_OFFSET + off * 4L, len * 4L);
+	}
+
+	@Override
+	public void put(long dstIdx, float[] src, int off, int len) {
+		checkRange(dstIdx, len, length);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_FLOAT_BASE_OFFSET + off * 4L, dstIdx * 4, len * 4L);
+	}
+
+	@Override
+	public void fill(float value) {
+		if (length > 0) {
+			put(0, value);
+			replicate(0, 4, length);
+		}
+	}
+
+	@Override
+	public void copyTo(long srcIdx, FloatArray1D dst, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, dst.getLength());
+		copyToLayout(srcIdx * 4, dst, dstIdx * 4, len * 4);
+	}
+
+	@Override
+	public void move(long srcIdx, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, length);
+		copyWithin(srcIdx * 4, dstIdx * 4, len * 4);
+	}
+
+	@Override
+	public void reverseBytes() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			unsafe.putInt(data, addr, Integer.reverseBytes(unsafe.getInt(data, addr)));
+		}
+	}
+
+	@Override
+	public double sum() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		double sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			sum += unsafe.getFloat(data, addr);
+		}
+		return sum;
+	}
+
+	@Override
+	public float min() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		float min = Float.POSITIVE_INFINITY;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			min = Math.min(min, unsafe.getFloat(data, addr));
+		}
+		return min;
+	}
+
+	@Override
+	public float max() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		float max = Float.NEGATIVE_INFINITY;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			max = Math.max(max, unsafe.getFloat(data, addr));
+		}
+		return max;
+	}
+
+	@Override
+	public double dot(FloatArray1D other) {
+		checkLength(length, other.getLength());
+		final Location otherLocation = getLocation(other);
+		final Object data = data();
+		final Object otherData = otherLocation.getData();
+		final long delta = otherLocation.getOffset() - this.locationOffset;
+		final long end = this.locationOffset + length * 4;
+		double sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			sum += (double)unsafe.getFloat(data, addr) * unsafe.getFloat(otherData, addr + delta);
+		}
+		return sum;
+	}
+
+	@Override
+	public void axpy(float a, FloatArray1D x) {
+		checkLength(length, x.getLength());
+		final Location xLocation = getLocation(x);
+		final Object data = data();
+		final Object xData = xLocation.getData();
+		final long delta = xLocation.getOffset() - this.locationOffset;
+		final long end = this.locationOffset + length * 4;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			unsafe.putFloat(data, addr, (unsafe.getFloat(data, addr) + a * unsafe.getFloat(xData, addr + delta)));
+		}
+	}
+
+	@Override
+	public void scale(float a) {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			unsafe.putFloat(data, addr, (unsafe.getFloat(data, addr) * a));
+		}
+	}
+
+	@Override
+	public void prefixSum() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		float sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			sum += unsafe.getFloat(data, addr);
+			unsafe.putFloat(data, addr, sum);
+		}
+	}
+
+	@Override
+	public void histogram(float lo, float hi, long[] counts) {
+		final double binScale = histogramScale(lo, hi, counts.length);
+		final int lastBin = counts.length - 1;
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			float value = unsafe.getFloat(data, addr);
+			if ((value >= lo) && (value < hi)) {
+				counts[Math.min((int)(((double)value - lo) * binScale), lastBin)]++;
+			}
+		}
+	}
+
+	@Override
+	public void sort() {
+		toSortableBits();
+		sortElements(length, 4, false);
+		fromSortableBits();
+	}
+
+	@Override
+	public void parallelSort() {
+		toSortableBits();
+		sortElements(length, 4, true);
+		fromSortableBits();
+	}
+
+	/**
+	 * Replace each element by a signed integer that orders like Float.compare()
+	 */
+	private void toSortableBits() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			int bits = Float.floatToIntBits(unsafe.getFloat(data, addr));
+			unsafe.putInt(data, addr, bits ^ ((bits >> 31) >>> 1));
+		}
+	}
+
+	/**
+	 * Undo toSortableBits()
+	 */
+	private void fromSortableBits() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			int bits = unsafe.getInt(data, addr);
+			unsafe.putInt(data, addr, bits ^ ((bits >> 31) >>> 1));
+		}
+	}
+
+	@Override
+	public long binarySearch(float key) {
+		final Object data = data();
+		final long base = this.locationOffset;
+		long lo = 0;
+		long hi = length - 1;
+		while (lo <= hi) {
+			long mid = (lo + hi) >>> 1;
+			int c = Float.compare(unsafe.getFloat(data, base + mid * 4), key);
+			if (c < 0) {
+				lo = mid + 1;
+			} else if (c > 0) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(lo + 1);
+	}
+}
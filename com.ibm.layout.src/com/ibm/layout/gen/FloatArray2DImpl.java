@@ -7,8 +7,12 @@
  *******************************************************************************/
 package com.ibm.layout.gen;
 
+import com.ibm.layout.Cursor;
+import com.ibm.layout.FloatArray1D;
 import com.ibm.layout.FloatArray2D;
+import com.ibm.layout.LayoutType;
 import com.ibm.layout.LayoutTypeImpl;
+import com.ibm.layout.Location;
 import com.ibm.layout.UnsafeHelper;
 
 import sun.misc.Unsafe;
@@ -29,12 +33,12 @@ final class FloatArray2DImpl extends LayoutTypeImpl implements FloatArray2D {
 
 	@Override
 	public float at(long i, long j) {
-		return unsafe.getFloat(this.location.getData(), this.location.getOffset() + (i * dim2 + j) * 4);
+		return unsafe.getFloat(data(), this.locationOffset + (i * dim2 + j) * 4);
 	}
 
 	@Override
 	public void put(long i, long j, float val) {
-		unsafe.putFloat(this.location.getData(), this.location.getOffset() + (i * dim2 + j) * 4, val);
+		unsafe.putFloat(data(), this.locationOffset + (i * dim2 + j) * 4, val);
 	}
 
 	public final long dim1() {
@@ -48,4 +52,53 @@ final class FloatArray2DImpl extends LayoutTypeImpl implements FloatArray2D {
 	public long sizeof() {
 		return dim1 * dim2 * 4;
 	}
+
+	@Override
+	public void get(long i, long j, float[] dst, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(dst.length, off, len);
+		copyToArray((i * dim2 + j) * 4, dst, Unsafe.ARRAY_FLOAT_BASE_OFFSET + off * 4L, len * 4L);
+	}
+
+	@Override
+	public void put(long i, long j, float[] src, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_FLOAT_BASE_OFFSET + off * 4L, (i * dim2 + j) * 4, len * 4L);
+	}
+
+	@Override
+	public void fill(float value) {
+		if (dim1 * dim2 > 0) {
+			put(0, 0, value);
+			replicate(0, 4, dim1 * dim2);
+		}
+	}
+
+	@Override
+	public void copyTo(FloatArray2D dst) {
+		if ((dst.dim1() != dim1) || (dst.dim2() != dim2)) {
+			throw new IllegalArgumentException("dimensions differ: " + dim1 + "x" + dim2 + ", " + dst.dim1() + "x" + dst.dim2());
+		}
+		copyToLayout(0, dst, 0, sizeof());
+	}
+
+	@Override
+	public FloatArray1D row(long i) {
+		checkRange(i, 1, dim1);
+		FloatArray1D row = LayoutType.getPrimArray1D(float.class, dim2);
+		row.bindLocation(new Location(this.location, i * dim2 * 4));
+		return row;
+	}
+
+	@Override
+	public Cursor<FloatArray1D> rows() {
+		FloatArray1D row = LayoutType.getPrimArray1D(float.class, dim2);
+		return new Cursor<FloatArray1D>(row, this.location, dim2 * 4, dim1);
+	}
+
+	@Override
+	public void transpose(FloatArray2D dst) {
+		transposeTo(dst, dst.dim1(), dst.dim2(), dim1, dim2, 4);
+	}
 }
@@ -17,7 +17,7 @@ import sun.misc.Unsafe;
 /**
  * Generated implementation of IntArray1D
  */
-final class IntArray1DImpl extends LayoutTypeImpl implements IntArray1D {
+class IntArray1DImpl extends LayoutTypeImpl implements IntArray1D {
 	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
 	protected final long length;
 
@@ -27,12 +27,12 @@ final class IntArray1DImpl extends LayoutTypeImpl implements IntArray1D {
 
 	@Override
 	public int at(long index) {
-		return unsafe.getInt(this.location.getData(), this.location.getOffset() + index * 4);
+		return unsafe.getInt(data(), this.locationOffset + index * 4);
 	}
 
 	@Override
 	public void put(long index, int value) {
-		unsafe.putInt(this.location.getData(), this.location.getOffset() + index * 4, value);
+		unsafe.putInt(data(), this.locationOffset + index * 4, value);
 	}
 
 	@Override
@@ -61,4 +61,203 @@ final class IntArray1DImpl extends LayoutTypeImpl implements IntArray1D {
 		return sb.toString();
 	}
 
+	@Override
+	public int atVolatile(long index) {
+		return unsafe.getIntVolatile(data(), this.locationOffset + index * 4);
+	}
+
+	@Override
+	public void putVolatile(long index, int value) {
+		unsafe.putIntVolatile(data(), this.locationOffset + index * 4, value);
+	}
+
+	@Override
+	public void putOrdered(long index, int value) {
+		unsafe.putOrderedInt(data(), this.locationOffset + index * 4, value);
+	}
+
+	@Override
+	public boolean compareAndSet(long index, int expect, int update) {
+		return unsafe.compareAndSwapInt(data(), this.locationOffset + index * 4, expect, update);
+	}
+
+	@Override
+	public int getAndAdd(long index, int delta) {
+		return unsafe.getAndAddInt(data(), this.locationOffset + index * 4, delta);
+	}
+
+	@Override
+	public int getAndSet(long index, int value) {
+		return unsafe.getAndSetInt(data(), this.locationOffset + index * 4, value);
+	}
+
+	@Override
+	public void get(long srcIdx, int[] dst, int off, int len) {
+		checkRange(srcIdx, len, length);
+		checkArrayRange(dst.length, off, len);
+		copyToArray(srcIdx * 4, dst, Unsafe.ARRAY_INT_BASE_OFFSET + off * 4L, len * 4L);
+	}
+
+	@Override
+	public void put(long dstIdx, int[] src, int off, int len) {
+		checkRange(dstIdx, len, length);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_INT_BASE_OFFSET + off * 4L, dstIdx * 4, len * 4L);
+	}
+
+	@Override
+	public void fill(int value) {
+		if (length > 0) {
+			put(0, value);
+			replicate(0, 4, length);
+		}
+	}
+
+	@Override
+	public void copyTo(long srcIdx, IntArray1D dst, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, dst.getLength());
+		copyToLayout(srcIdx * 4, dst, dstIdx * 4, len * 4);
+	}
+
+	@Override
+	public void move(long srcIdx, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, length);
+		copyWithin(srcIdx * 4, dstIdx * 4, len * 4);
+	}
+
+	@Override
+	public void reverseBytes() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			unsafe.putInt(data, addr, Integer.reverseBytes(unsafe.getInt(data, addr)));
+		}
+	}
+
+	@Override
+	public long sum() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		long sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			sum += unsafe.getInt(data, addr);
+		}
+		return sum;
+	}
+
+	@Override
+	public int min() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		int min = Integer.MAX_VALUE;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			min = Math.min(min, unsafe.getInt(data, addr));
+		}
+		return min;
+	}
+
+	@Override
+	public int max() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		int max = Integer.MIN_VALUE;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			max = Math.max(max, unsafe.getInt(data, addr));
+		}
+		return max;
+	}
+
+	@Override
+	public long dot(IntArray1D other) {
+		checkLength(length, other.getLength());
+		final Location otherLocation = getLocation(other);
+		final Object data = data();
+		final Object otherData = otherLocation.getData();
+		final long delta = otherLocation.getOffset() - this.locationOffset;
+		final long end = this.locationOffset + length * 4;
+		long sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			sum += (long)unsafe.getInt(data, addr) * unsafe.getInt(otherData, addr + delta);
+		}
+		return sum;
+	}
+
+	@Override
+	public void axpy(int a, IntArray1D x) {
+		checkLength(length, x.getLength());
+		final Location xLocation = getLocation(x);
+		final Object data = data();
+		final Object xData = xLocation.getData();
+		final long delta = xLocation.getOffset() - this.locationOffset;
+		final long end = this.locationOffset + length * 4;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			unsafe.putInt(data, addr, (unsafe.getInt(data, addr) + a * unsafe.getInt(xData, addr + delta)));
+		}
+	}
+
+	@Override
+	public void scale(int a) {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			unsafe.putInt(data, addr, (unsafe.getInt(data, addr) * a));
+		}
+	}
+
+	@Override
+	public void prefixSum() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		int sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			sum += unsafe.getInt(data, addr);
+			unsafe.putInt(data, addr, sum);
+		}
+	}
+
+	@Override
+	public void histogram(int lo, int hi, long[] counts) {
+		final double binScale = histogramScale(lo, hi, counts.length);
+		final int lastBin = counts.length - 1;
+		final Object data = data();
+		final long end = this.locationOffset + length * 4;
+		for (long addr = this.locationOffset; addr < end; addr += 4) {
+			int value = unsafe.getInt(data, addr);
+			if ((value >= lo) && (value < hi)) {
+				counts[Math.min((int)(((double)value - lo) * binScale), lastBin)]++;
+			}
+		}
+	}
+
+	@Override
+	public void sort() {
+		sortElements(length, 4, false);
+	}
+
+	@Override
+	public void parallelSort() {
+		sortElements(length, 4, true);
+	}
+
+	@Override
+	public long binarySearch(int key) {
+		final Object data = data();
+		final long base = this.locationOffset;
+		long lo = 0;
+		long hi = length - 1;
+		while (lo <= hi) {
+			long mid = (lo + hi) >>> 1;
+			int value = unsafe.getInt(data, base + mid * 4);
+			if (value < key) {
+				lo = mid + 1;
+			} else if (value > key) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(lo + 1);
+	}
 }
@@ -7,8 +7,12 @@
  *******************************************************************************/
 package com.ibm.layout.gen;
 
+import com.ibm.layout.Cursor;
+import com.ibm.layout.IntArray1D;
 import com.ibm.layout.IntArray2D;
+import com.ibm.layout.LayoutType;
 import com.ibm.layout.LayoutTypeImpl;
+import com.ibm.layout.Location;
 import com.ibm.layout.UnsafeHelper;
 
 import sun.misc.Unsafe;
@@ -23,12 +27,12 @@ final class IntArray2DImpl extends LayoutTypeImpl implements IntArray2D {
 
 	@Override
 	public int at(long i, long j) {
-		return unsafe.getInt(this.location.getData(), this.location.getOffset() + (i * dim1 + j) * 4);
+		return unsafe.getInt(data(), this.locationOffset + (i * dim2 + j) * 4);
 	}
 
 	@Override
 	public void put(long i, long j, int val) {
-		unsafe.putInt(this.location.getData(), this.location.getOffset() + (i * dim1 + j) * 4, val);
+		unsafe.putInt(data(), this.locationOffset + (i * dim2 + j) * 4, val);
 	}
 
 	protected IntArray2DImpl(long dim1, long dim2) {
@@ -59,6 +63,53 @@ final class IntArray2DImpl extends LayoutTypeImpl implements IntArray2D {
 		sb.append(" ]");
 		return sb.toString();
 	}
-	
-	
+
+	@Override
+	public void get(long i, long j, int[] dst, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(dst.length, off, len);
+		copyToArray((i * dim2 + j) * 4, dst, Unsafe.ARRAY_INT_BASE_OFFSET + off * 4L, len * 4L);
+	}
+
+	@Override
+	public void put(long i, long j, int[] src, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_INT_BASE_OFFSET + off * 4L, (i * dim2 + j) * 4, len * 4L);
+	}
+
+	@Override
+	public void fill(int value) {
+		if (dim1 * dim2 > 0) {
+			put(0, 0, value);
+			replicate(0, 4, dim1 * dim2);
+		}
+	}
+
+	@Override
+	public void copyTo(IntArray2D dst) {
+		if ((dst.dim1() != dim1) || (dst.dim2() != dim2)) {
+			throw new IllegalArgumentException("dimensions differ: " + dim1 + "x" + dim2 + ", " + dst.dim1() + "x" + dst.dim2());
+		}
+		copyToLayout(0, dst, 0, sizeof());
+	}
+
+	@Override
+	public IntArray1D row(long i) {
+		checkRange(i, 1, dim1);
+		IntArray1D row = LayoutType.getPrimArray1D(int.class, dim2);
+		row.bindLocation(new Location(this.location, i * dim2 * 4));
+		return row;
+	}
+
+	@Override
+	public Cursor<IntArray1D> rows() {
+		IntArray1D row = LayoutType.getPrimArray1D(int.class, dim2);
+		return new Cursor<IntArray1D>(row, this.location, dim2 * 4, dim1);
+	}
+
+	@Override
+	public void transpose(IntArray2D dst) {
+		transposeTo(dst, dst.dim1(), dst.dim2(), dim1, dim2, 4);
+	}
 }
@@ -17,7 +17,7 @@ import sun.misc.Unsafe;
 /**
  * Generated implementation of LongArray1D
  */
-final class LongArray1DImpl extends LayoutTypeImpl implements LongArray1D {
+class LongArray1DImpl extends LayoutTypeImpl implements LongArray1D {
 	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
 	protected final long length;
 
@@ -27,12 +27,12 @@ final class LongArray1DImpl extends LayoutTypeImpl implements LongArray1D {
 
 	@Override
 	public long at(long index) {
-		return unsafe.getLong(this.location.getData(), this.location.getOffset() + index * 8);
+		return unsafe.getLong(data(), this.locationOffset + index * 8);
 	}
 
 	@Override
 	public void put(long index, long value) {
-		unsafe.putLong(this.location.getData(), this.location.getOffset() + index * 8, value);
+		unsafe.putLong(data(), this.locationOffset + index * 8, value);
 	}
 
 	@Override
@@ -59,4 +59,204 @@ final class LongArray1DImpl extends LayoutTypeImpl implements LongArray1D {
 		sb.append(" ]");
 		return sb.toString();
 	}
+
+	@Override
+	public long atVolatile(long index) {
+		return unsafe.getLongVolatile(data(), this.locationOffset + index * 8);
+	}
+
+	@Override
+	public void putVolatile(long index, long value) {
+		unsafe.putLongVolatile(data(), this.locationOffset + index * 8, value);
+	}
+
+	@Override
+	public void putOrdered(long index, long value) {
+		unsafe.putOrderedLong(data(), this.locationOffset + index * 8, value);
+	}
+
+	@Override
+	public boolean compareAndSet(long index, long expect, long update) {
+		return unsafe.compareAndSwapLong(data(), this.locationOffset + index * 8, expect, update);
+	}
+
+	@Override
+	public long getAndAdd(long index, long delta) {
+		return unsafe.getAndAddLong(data(), this.locationOffset + index * 8, delta);
+	}
+
+	@Override
+	public long getAndSet(long index, long value) {
+		return unsafe.getAndSetLong(data(), this.locationOffset + index * 8, value);
+	}
+
+	@Override
+	public void get(long srcIdx, long[] dst, int off, int len) {
+		checkRange(srcIdx, len, length);
+		checkArrayRange(dst.length, off, len);
+		copyToArray(srcIdx * 8, dst, Unsafe.ARRAY_LONG_BASE_OFFSET + off * 8L, len * 8L);
+	}
+
+	@Override
+	public void put(long dstIdx, long[] src, int off, int len) {
+		checkRange(dstIdx, len, length);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_LONG_BASE_OFFSET + off * 8L, dstIdx * 8, len * 8L);
+	}
+
+	@Override
+	public void fill(long value) {
+		if (length > 0) {
+			put(0, value);
+			replicate(0, 8, length);
+		}
+	}
+
+	@Override
+	public void copyTo(long srcIdx, LongArray1D dst, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, dst.getLength());
+		copyToLayout(srcIdx * 8, dst, dstIdx * 8, len * 8);
+	}
+
+	@Override
+	public void move(long srcIdx, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, length);
+		copyWithin(srcIdx * 8, dstIdx * 8, len * 8);
+	}
+
+	@Override
+	public void reverseBytes() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			unsafe.putLong(data, addr, Long.reverseBytes(unsafe.getLong(data, addr)));
+		}
+	}
+
+	@Override
+	public long sum() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		long sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			sum += unsafe.getLong(data, addr);
+		}
+		return sum;
+	}
+
+	@Override
+	public long min() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		long min = Long.MAX_VALUE;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			min = Math.min(min, unsafe.getLong(data, addr));
+		}
+		return min;
+	}
+
+	@Override
+	public long max() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		long max = Long.MIN_VALUE;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			max = Math.max(max, unsafe.getLong(data, addr));
+		}
+		return max;
+	}
+
+	@Override
+	public long dot(LongArray1D other) {
+		checkLength(length, other.getLength());
+		final Location otherLocation = getLocation(other);
+		final Object data = data();
+		final Object otherData = otherLocation.getData();
+		final long delta = otherLocation.getOffset() - this.locationOffset;
+		final long end = this.locationOffset + length * 8;
+		long sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			sum += unsafe.getLong(data, addr) * unsafe.getLong(otherData, addr + delta);
+		}
+		return sum;
+	}
+
+	@Override
+	public void axpy(long a, LongArray1D x) {
+		checkLength(length, x.getLength());
+		final Location xLocation = getLocation(x);
+		final Object data = data();
+		final Object xData = xLocation.getData();
+		final long delta = xLocation.getOffset() - this.locationOffset;
+		final long end = this.locationOffset + length * 8;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			unsafe.putLong(data, addr, (unsafe.getLong(data, addr) + a * unsafe.getLong(xData, addr + delta)));
+		}
+	}
+
+	@Override
+	public void scale(long a) {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			unsafe.putLong(data, addr, (unsafe.getLong(data, addr) * a));
+		}
+	}
+
+	@Override
+	public void prefixSum() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		long sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			sum += unsafe.getLong(data, addr);
+			unsafe.putLong(data, addr, sum);
+		}
+	}
+
+	@Override
+	public void histogram(long lo, long hi, long[] counts) {
+		final double binScale = histogramScale(lo, hi, counts.length);
+		final int lastBin = counts.length - 1;
+		final Object data = data();
+		final long end = this.locationOffset + length * 8;
+		for (long addr = this.locationOffset; addr < end; addr += 8) {
+			long value = unsafe.getLong(data, addr);
+			if ((value >= lo) && (value < hi)) {
+				counts[Math.min((int)(((double)value - lo) * binScale), lastBin)]++;
+			}
+		}
+	}
+
+	@Override
+	public void sort() {
+		sortElements(length, 8, false);
+	}
+
+	@Override
+	public void parallelSort() {
+		sortElements(length, 8, true);
+	}
+
+	@Override
+	public long binarySearch(long key) {
+		final Object data = data();
+		final long base = this.locationOffset;
+		long lo = 0;
+		long hi = length - 1;
+		while (lo <= hi) {
+			long mid = (lo + hi) >>> 1;
+			long value = unsafe.getLong(data, base + mid * 8);
+			if (value < key) {
+				lo = mid + 1;
+			} else if (value > key) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(lo + 1);
+	}
 }
@@ -7,7 +7,11 @@
  *******************************************************************************/
 package com.ibm.layout.gen;
 
+import com.ibm.layout.Cursor;
+import com.ibm.layout.LayoutType;
 import com.ibm.layout.LayoutTypeImpl;
+import com.ibm.layout.Location;
+import com.ibm.layout.LongArray1D;
 import com.ibm.layout.LongArray2D;
 import com.ibm.layout.UnsafeHelper;
 
@@ -28,12 +32,12 @@ final class LongArray2DImpl extends LayoutTypeImpl implements LongArray2D {
 
 	@Override
 	public long at(long i, long j) {
-		return unsafe.getLong(this.location.getData(), this.location.getOffset() + (i * dim2 + j) * 8);
+		return unsafe.getLong(data(), this.locationOffset + (i * dim2 + j) * 8);
 	}
 
 	@Override
 	public void put(long i, long j, long val) {
-		unsafe.putLong(this.location.getData(), this.location.getOffset() + (i * dim2 + j) * 8, val);
+		unsafe.putLong(data(), this.locationOffset + (i * dim2 + j) * 8, val);
 	}
 	
 	public final long dim1() {
@@ -59,4 +63,53 @@ final class LongArray2DImpl extends LayoutTypeImpl implements LongArray2D {
 		sb.append(" ]");
 		return sb.toString();
 	}
+
+	@Override
+	public void get(long i, long j, long[] dst, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(dst.length, off, len);
+		copyToArray((i * dim2 + j) * 8, dst, Unsafe.ARRAY_LONG_BASE_OFFSET + off * 8L, len * 8L);
+	}
+
+	@Override
+	public void put(long i, long j, long[] src, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_LONG_BASE_OFFSET + off * 8L, (i * dim2 + j) * 8, len * 8L);
+	}
+
+	@Override
+	public void fill(long value) {
+		if (dim1 * dim2 > 0) {
+			put(0, 0, value);
+			replicate(0, 8, dim1 * dim2);
+		}
+	}
+
+	@Override
+	public void copyTo(LongArray2D dst) {
+		if ((dst.dim1() != dim1) || (dst.dim2() != dim2)) {
+			throw new IllegalArgumentException("dimensions differ: " + dim1 + "x" + dim2 + ", " + dst.dim1() + "x" + dst.dim2());
+		}
+		copyToLayout(0, dst, 0, sizeof());
+	}
+
+	@Override
+	public LongArray1D row(long i) {
+		checkRange(i, 1, dim1);
+		LongArray1D row = LayoutType.getPrimArray1D(long.class, dim2);
+		row.bindLocation(new Location(this.location, i * dim2 * 8));
+		return row;
+	}
+
+	@Override
+	public Cursor<LongArray1D> rows() {
+		LongArray1D row = LayoutType.getPrimArray1D(long.class, dim2);
+		return new Cursor<LongArray1D>(row, this.location, dim2 * 8, dim1);
+	}
+
+	@Override
+	public void transpose(LongArray2D dst) {
+		transposeTo(dst, dst.dim1(), dst.dim2(), dim1, dim2, 8);
+	}
 }
@@ -17,7 +17,7 @@ import sun.misc.Unsafe;
 /**
  * Generated implementation of ShortArray1D
  */
-final class ShortArray1DImpl extends LayoutTypeImpl implements ShortArray1D {
+class ShortArray1DImpl extends LayoutTypeImpl implements ShortArray1D {
 	private static final Unsafe unsafe = UnsafeHelper.getUnsafe();
 	protected final long length;
 	
@@ -26,12 +26,12 @@ final class ShortArray1DImpl extends LayoutTypeImpl implements ShortArray1D {
 	}
 	@Override
 	public short at(long index) {
-		return unsafe.getShort(this.location.getData(), this.location.getOffset() + index * 2);
+		return unsafe.getShort(data(), this.locationOffset + index * 2);
 	}
 
 	@Override
 	public void put(long index, short value) {
-		unsafe.putShort(this.location.getData(), this.location.getOffset() + index * 2, value);
+		unsafe.putShort(data(), this.locationOffset + index * 2, value);
 	}
 
 	@Override
@@ -58,4 +58,174 @@ final class ShortArray1DImpl extends LayoutTypeImpl implements ShortArray1D {
 		sb.append(" ]");
 		return sb.toString();
 	}
+
+	@Override
+	public void get(long srcIdx, short[] dst, int off, int len) {
+		checkRange(srcIdx, len, length);
+		checkArrayRange(dst.length, off, len);
+		copyToArray(srcIdx * 2, dst, Unsafe.ARRAY_SHORT_BASE_OFFSET + off * 2L, len * 2L);
+	}
+
+	@Override
+	public void put(long dstIdx, short[] src, int off, int len) {
+		checkRange(dstIdx, len, length);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_SHORT_BASE_OFFSET + off * 2L, dstIdx * 2, len * 2L);
+	}
+
+	@Override
+	public void fill(short value) {
+		if (length > 0) {
+			put(0, value);
+			replicate(0, 2, length);
+		}
+	}
+
+	@Override
+	public void copyTo(long srcIdx, ShortArray1D dst, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, dst.getLength());
+		copyToLayout(srcIdx * 2, dst, dstIdx * 2, len * 2);
+	}
+
+	@Override
+	public void move(long srcIdx, long dstIdx, long len) {
+		checkRange(srcIdx, len, length);
+		checkRange(dstIdx, len, length);
+		copyWithin(srcIdx * 2, dstIdx * 2, len * 2);
+	}
+
+	@Override
+	public void reverseBytes() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 2;
+		for (long addr = this.locationOffset; addr < end; addr += 2) {
+			unsafe.putShort(data, addr, Short.reverseBytes(unsafe.getShort(data, addr)));
+		}
+	}
+
+	@Override
+	public long sum() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 2;
+		long sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 2) {
+			sum += unsafe.getShort(data, addr);
+		}
+		return sum;
+	}
+
+	@Override
+	public short min() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 2;
+		short min = Short.MAX_VALUE;
+		for (long addr = this.locationOffset; addr < end; addr += 2) {
+			min = (short)Math.min(min, unsafe.getShort(data, addr));
+		}
+		return min;
+	}
+
+	@Override
+	public short max() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 2;
+		short max = Short.MIN_VALUE;
+		for (long addr = this.locationOffset; addr < end; addr += 2) {
+			max = (short)Math.max(max, unsafe.getShort(data, addr));
+		}
+		return max;
+	}
+
+	@Override
+	public long dot(ShortArray1D other) {
+		checkLength(length, other.getLength());
+		final Location otherLocation = getLocation(other);
+		final Object data = data();
+		final Object otherData = otherLocation.getData();
+		final long delta = otherLocation.getOffset() - this.locationOffset;
+		final long end = this.locationOffset + length * 2;
+		long sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 2) {
+			sum += (long)unsafe.getShort(data, addr) * unsafe.getShort(otherData, addr + delta);
+		}
+		return sum;
+	}
+
+	@Override
+	public void axpy(short a, ShortArray1D x) {
+		checkLength(length, x.getLength());
+		final Location xLocation = getLocation(x);
+		final Object data = data();
+		final Object xData = xLocation.getData();
+		final long delta = xLocation.getOffset() - this.locationOffset;
+		final long end = this.locationOffset + length * 2;
+		for (long addr = this.locationOffset; addr < end; addr += 2) {
+			unsafe.putShort(data, addr, (short)(unsafe.getShort(data, addr) + a * unsafe.getShort(xData, addr + delta)));
+		}
+	}
+
+	@Override
+	public void scale(short a) {
+		final Object data = data();
+		final long end = this.locationOffset + length * 2;
+		for (long addr = this.locationOffset; addr < end; addr += 2) {
+			unsafe.putShort(data, addr, (short)(unsafe.getShort(data, addr) * a));
+		}
+	}
+
+	@Override
+	public void prefixSum() {
+		final Object data = data();
+		final long end = this.locationOffset + length * 2;
+		short sum = 0;
+		for (long addr = this.locationOffset; addr < end; addr += 2) {
+			sum += unsafe.getShort(data, addr);
+			unsafe.putShort(data, addr, sum);
+		}
+	}
+
+	@Override
+	public void histogram(short lo, short hi, long[] counts) {
+		final double binScale = histogramScale(lo, hi, counts.length);
+		final int lastBin = counts.length - 1;
+		final Object data = data();
+		final long end = this.locationOffset + length * 2;
+		for (long addr = this.locationOffset; addr < end; addr += 2) {
+			short value = unsafe.getShort(data, addr);
+			if ((value >= lo) && (value < hi)) {
+				counts[Math.min((int)(((double)value - lo) * binScale), lastBin)]++;
+			}
+		}
+	}
+
+	@Override
+	public void sort() {
+		sortElements(length, 2, false);
+	}
+
+	@Override
+	public void parallelSort() {
+		sortElements(length, 2, true);
+	}
+
+	@Override
+	public long binarySearch(short key) {
+		final Object data = data();
+		final long base = this.locationOffset;
+		long lo = 0;
+		long hi = length - 1;
+		while (lo <= hi) {
+			long mid = (lo + hi) >>> 1;
+			short value = unsafe.getShort(data, base + mid * 2);
+			if (value < key) {
+				lo = mid + 1;
+			} else if (value > key) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(lo + 1);
+	}
 }
@@ -7,7 +7,11 @@
  *******************************************************************************/
 package com.ibm.layout.gen;
 
+import com.ibm.layout.Cursor;
+import com.ibm.layout.LayoutType;
 import com.ibm.layout.LayoutTypeImpl;
+import com.ibm.layout.Location;
+import com.ibm.layout.ShortArray1D;
 import com.ibm.layout.ShortArray2D;
 import com.ibm.layout.UnsafeHelper;
 
@@ -28,12 +32,12 @@ final class ShortArray2DImpl extends LayoutTypeImpl implements ShortArray2D {
 
 	@Override
 	public short at(long i, long j) {
-		return unsafe.getShort(this.location.getData(), this.location.getOffset() + (i * dim2 + j) * 2);
+		return unsafe.getShort(data(), this.locationOffset + (i * dim2 + j) * 2);
 	}
 
 	@Override
 	public void put(long i, long j, short val) {
-		unsafe.putShort(this.location.getData(), this.location.getOffset() + (i * dim2 + j) * 2, val);
+		unsafe.putShort(data(), this.locationOffset + (i * dim2 + j) * 2, val);
 	}
 	
 	public long dim1() {
@@ -60,4 +64,52 @@ final class ShortArray2DImpl extends LayoutTypeImpl implements ShortArray2D {
 		return sb.toString();
 	}
 
+	@Override
+	public void get(long i, long j, short[] dst, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(dst.length, off, len);
+		copyToArray((i * dim2 + j) * 2, dst, Unsafe.ARRAY_SHORT_BASE_OFFSET + off * 2L, len * 2L);
+	}
+
+	@Override
+	public void put(long i, long j, short[] src, int off, int len) {
+		checkRange(i * dim2 + j, len, dim1 * dim2);
+		checkArrayRange(src.length, off, len);
+		copyFromArray(src, Unsafe.ARRAY_SHORT_BASE_OFFSET + off * 2L, (i * dim2 + j) * 2, len * 2L);
+	}
+
+	@Override
+	public void fill(short value) {
+		if (dim1 * dim2 > 0) {
+			put(0, 0, value);
+			replicate(0, 2, dim1 * dim2);
+		}
+	}
+
+	@Override
+	public void copyTo(ShortArray2D dst) {
+		if ((dst.dim1() != dim1) || (dst.dim2() != dim2)) {
+			throw new IllegalArgumentException("dimensions differ: " + dim1 + "x" + dim2 + ", " + dst.dim1() + "x" + dst.dim2());
+		}
+		copyToLayout(0, dst, 0, sizeof());
+	}
+
+	@Override
+	public ShortArray1D row(long i) {
+		checkRange(i, 1, dim1);
+		ShortArray1D row = LayoutType.getPrimArray1D(short.class, dim2);
+		row.bindLocation(new Location(this.location, i * dim2 * 2));
+		return row;
+	}
+
+	@Override
+	public Cursor<ShortArray1D> rows() {
+		ShortArray1D row = LayoutType.getPrimArray1D(short.class, dim2);
+		return new Cursor<ShortArray1D>(row, this.location, dim2 * 2, dim1);
+	}
+
+	@Override
+	public void transpose(ShortArray2D dst) {
+		transposeTo(dst, dst.dim1(), dst.dim2(), dim1, dim2, 2);
+	}
 }
@@ -117,6 +117,11 @@ class Variable {
 			}
 		}
 
+		//Byte order suffix (eg. jint_be) does not change the java type
+		if (variable_type.endsWith("_be") || variable_type.endsWith("_le")) {
+			variable_type = variable_type.substring(0, variable_type.length() - 3);
+		}
+
 		Helper.testValidation(variable_name, variable_type);
 
 		//Convert jtype(eg. jint) to java primitive type
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.user.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.layout.Arena;
+import com.ibm.layout.Array1D;
+import com.ibm.layout.Array2D;
+import com.ibm.layout.Cursor;
+import com.ibm.layout.IntArray1D;
+import com.ibm.layout.Layout;
+import com.ibm.layout.LayoutType;
+import com.user.bench.BenchmarkSupport.PointPojo;
+import com.user.types.ArrayCases;
+import com.user.types.Int;
+import com.user.types.Point;
+
+/**
+ * Iteration over layout arrays, nested array fields and primitive arrays, against Java arrays.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayBenchmark {
+	@Param({ BenchmarkSupport.HEAP, BenchmarkSupport.OFF_HEAP })
+	public String storage;
+
+	@Param({ "1024", "65536" })
+	public int length;
+
+	private Arena arena;
+	private Array1D<Point> points;
+	private PointPojo[] pointPojos;
+	private IntArray1D ints;
+	private int[] javaInts;
+	private int[] copyBuffer;
+	private ArrayCases arrayCases;
+	private int[][] javaMatrix;
+
+	@Setup
+	public void setup() {
+		arena = new Arena();
+		points = BenchmarkSupport.bind(Array1D.getArray1D(Point.class, length), storage, arena);
+		pointPojos = new PointPojo[length];
+		ints = BenchmarkSupport.bind(LayoutType.<IntArray1D>getPrimArray1D(int.class, length), storage, arena);
+		javaInts = new int[length];
+		copyBuffer = new int[length];
+		for (int i = 0; i < length; i++) {
+			points.at(i).x(i);
+			pointPojos[i] = new PointPojo();
+			pointPojos[i].x = i;
+			ints.put(i, i);
+			javaInts[i] = i;
+		}
+
+		arrayCases = BenchmarkSupport.bind(Layout.getLayout(ArrayCases.class), storage, arena);
+		javaMatrix = new int[5][5];
+		for (int i = 0; i < 5; i++) {
+			for (int j = 0; j < 5; j++) {
+				arrayCases.array2().at(i, j).value(i + j);
+				javaMatrix[i][j] = i + j;
+			}
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		arena.close();
+	}
+
+	@Benchmark
+	public long sumPointsAt() {
+		long sum = 0;
+		for (long i = 0; i < length; i++) {
+			sum += points.at(i).x();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long sumPointsCursor() {
+		long sum = 0;
+		Cursor<Point> c = points.cursor();
+		while (c.hasNext()) {
+			sum += c.next().x();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long sumPointsPojo() {
+		long sum = 0;
+		for (int i = 0; i < length; i++) {
+			sum += pointPojos[i].x;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long sumInts() {
+		long sum = 0;
+		for (long i = 0; i < length; i++) {
+			sum += ints.at(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long sumIntsJava() {
+		long sum = 0;
+		for (int i = 0; i < length; i++) {
+			sum += javaInts[i];
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int[] bulkGetInts() {
+		ints.get(0, copyBuffer, 0, length);
+		return copyBuffer;
+	}
+
+	@Benchmark
+	public int[] bulkGetIntsJava() {
+		System.arraycopy(javaInts, 0, copyBuffer, 0, length);
+		return copyBuffer;
+	}
+
+	@Benchmark
+	public long sumNestedMatrix() {
+		long sum = 0;
+		Array2D<Int> matrix = arrayCases.array2();
+		for (long i = 0; i < matrix.dim1(); i++) {
+			for (long j = 0; j < matrix.dim2(); j++) {
+				sum += matrix.at(i, j).value();
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long sumNestedMatrixJava() {
+		long sum = 0;
+		int[][] matrix = javaMatrix;
+		for (int i = 0; i < matrix.length; i++) {
+			for (int j = 0; j < matrix[i].length; j++) {
+				sum += matrix[i][j];
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.user.bench;
+
+import com.ibm.layout.Arena;
+import com.ibm.layout.LayoutType;
+import com.ibm.layout.Location;
+
+/**
+ * Storage setup and plain Java baselines shared by the benchmarks.
+ */
+final class BenchmarkSupport {
+	/**
+	 * Layout data in a java byte array
+	 */
+	static final String HEAP = "heap";
+
+	/**
+	 * Layout data in native memory
+	 */
+	static final String OFF_HEAP = "offheap";
+
+	private BenchmarkSupport() {
+	}
+
+	/**
+	 * Bind a layout to zeroed memory
+	 * @param layout an unbound layout
+	 * @param storage {@link #HEAP} or {@link #OFF_HEAP}
+	 * @param arena allocates off-heap memory
+	 * @return the layout
+	 */
+	static <T extends LayoutType> T bind(T layout, String storage, Arena arena) {
+		if (HEAP.equals(storage)) {
+			layout.bindLocation(new Location(new byte[(int)layout.sizeof()]));
+		} else if (OFF_HEAP.equals(storage)) {
+			layout.bindLocation(arena.allocate(layout.sizeof()));
+		} else {
+			throw new IllegalArgumentException("unknown storage: " + storage);
+		}
+		return layout;
+	}
+
+	/**
+	 * Java object equivalent of com.user.types.Point
+	 */
+	static final class PointPojo {
+		int x;
+		int y;
+	}
+
+	/**
+	 * Java object equivalent of com.user.types.Point5D
+	 */
+	static final class Point5DPojo {
+		int x;
+		int y;
+		int z;
+		int o;
+		int p;
+	}
+
+	/**
+	 * Java object equivalent of com.user.types.Line
+	 */
+	static final class LinePojo {
+		final PointPojo st = new PointPojo();
+		final PointPojo en = new PointPojo();
+	}
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.user.bench;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.layout.Arena;
+import com.ibm.layout.Array1D;
+import com.ibm.layout.Layout;
+import com.user.bench.BenchmarkSupport.LinePojo;
+import com.user.bench.BenchmarkSupport.PointPojo;
+import com.user.types.Line;
+import com.user.types.Point;
+
+/**
+ * Layout copies and serialization to byte arrays, against copying Java objects.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyBenchmark {
+	@Param({ BenchmarkSupport.HEAP, BenchmarkSupport.OFF_HEAP })
+	public String storage;
+
+	@Param({ "1024" })
+	public int length;
+
+	private Arena arena;
+	private Line srcLine;
+	private Line dstLine;
+	private LinePojo srcLinePojo;
+	private LinePojo dstLinePojo;
+	private Array1D<Point> points;
+	private PointPojo[] pointPojos;
+	private byte[] buf;
+	private ByteBuffer byteBuffer;
+
+	@Setup
+	public void setup() {
+		arena = new Arena();
+		srcLine = BenchmarkSupport.bind(Layout.getLayout(Line.class), storage, arena);
+		dstLine = BenchmarkSupport.bind(Layout.getLayout(Line.class), storage, arena);
+		srcLinePojo = new LinePojo();
+		dstLinePojo = new LinePojo();
+		srcLine.st().x(1);
+		srcLine.en().y(2);
+		srcLinePojo.st.x = 1;
+		srcLinePojo.en.y = 2;
+
+		points = BenchmarkSupport.bind(Array1D.getArray1D(Point.class, length), storage, arena);
+		pointPojos = new PointPojo[length];
+		for (int i = 0; i < length; i++) {
+			points.at(i).x(i);
+			points.at(i).y(-i);
+			pointPojos[i] = new PointPojo();
+			pointPojos[i].x = i;
+			pointPojos[i].y = -i;
+		}
+		buf = new byte[(int)points.sizeof()];
+		byteBuffer = ByteBuffer.wrap(buf).order(ByteOrder.nativeOrder());
+	}
+
+	@TearDown
+	public void tearDown() {
+		arena.close();
+	}
+
+	@Benchmark
+	public Line copyFromLine() {
+		dstLine.copyFrom(srcLine);
+		return dstLine;
+	}
+
+	@Benchmark
+	public LinePojo copyFromLinePojo() {
+		dstLinePojo.st.x = srcLinePojo.st.x;
+		dstLinePojo.st.y = srcLinePojo.st.y;
+		dstLinePojo.en.x = srcLinePojo.en.x;
+		dstLinePojo.en.y = srcLinePojo.en.y;
+		return dstLinePojo;
+	}
+
+	@Benchmark
+	public byte[] writeToByteArray() {
+		points.writeToByteArray(0, buf, 0, buf.length);
+		return buf;
+	}
+
+	@Benchmark
+	public byte[] writeToByteArrayPojo() {
+		byteBuffer.clear();
+		for (int i = 0; i < length; i++) {
+			byteBuffer.putInt(pointPojos[i].x);
+			byteBuffer.putInt(pointPojos[i].y);
+		}
+		return buf;
+	}
+
+	@Benchmark
+	public Array1D<Point> readFromByteArray() {
+		points.readFromByteArray(0, buf, 0, buf.length);
+		return points;
+	}
+
+	@Benchmark
+	public PointPojo[] readFromByteArrayPojo() {
+		byteBuffer.clear();
+		for (int i = 0; i < length; i++) {
+			pointPojos[i].x = byteBuffer.getInt();
+			pointPojos[i].y = byteBuffer.getInt();
+		}
+		return pointPojos;
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.user.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.layout.Arena;
+import com.ibm.layout.Layout;
+import com.user.bench.BenchmarkSupport.LinePojo;
+import com.user.bench.BenchmarkSupport.Point5DPojo;
+import com.user.bench.BenchmarkSupport.PointPojo;
+import com.user.types.Line;
+import com.user.types.Point;
+import com.user.types.Point5D;
+
+/**
+ * Generated field getters and setters, flat, inherited and nested, against Java field access.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldAccessBenchmark {
+	@Param({ BenchmarkSupport.HEAP, BenchmarkSupport.OFF_HEAP })
+	public String storage;
+
+	private Arena arena;
+	private Point point;
+	private Point5D point5D;
+	private Line line;
+	private PointPojo pointPojo;
+	private Point5DPojo point5DPojo;
+	private LinePojo linePojo;
+	/* not a constant, so stores cannot be folded */
+	private int value = 42;
+
+	@Setup
+	public void setup() {
+		arena = new Arena();
+		point = BenchmarkSupport.bind(Layout.getLayout(Point.class), storage, arena);
+		point5D = BenchmarkSupport.bind(Layout.getLayout(Point5D.class), storage, arena);
+		line = BenchmarkSupport.bind(Layout.getLayout(Line.class), storage, arena);
+		pointPojo = new PointPojo();
+		point5DPojo = new Point5DPojo();
+		linePojo = new LinePojo();
+
+		point.x(1);
+		point.y(2);
+		pointPojo.x = 1;
+		pointPojo.y = 2;
+		point5D.p(5);
+		point5DPojo.p = 5;
+		line.en().y(3);
+		linePojo.en.y = 3;
+	}
+
+	@TearDown
+	public void tearDown() {
+		arena.close();
+	}
+
+	@Benchmark
+	public int pointGet() {
+		return point.x() + point.y();
+	}
+
+	@Benchmark
+	public int pointGetPojo() {
+		return pointPojo.x + pointPojo.y;
+	}
+
+	@Benchmark
+	public void pointSet() {
+		point.x(value);
+		point.y(value);
+	}
+
+	@Benchmark
+	public void pointSetPojo() {
+		pointPojo.x = value;
+		pointPojo.y = value;
+	}
+
+	@Benchmark
+	public int point5DGet() {
+		return point5D.x() + point5D.y() + point5D.z() + point5D.o() + point5D.p();
+	}
+
+	@Benchmark
+	public int point5DGetPojo() {
+		return point5DPojo.x + point5DPojo.y + point5DPojo.z + point5DPojo.o + point5DPojo.p;
+	}
+
+	@Benchmark
+	public int lineNestedGet() {
+		return line.st().x() + line.en().y();
+	}
+
+	@Benchmark
+	public int lineNestedGetPojo() {
+		return linePojo.st.x + linePojo.en.y;
+	}
+
+	@Benchmark
+	public void lineNestedSet() {
+		line.st().x(value);
+		line.en().y(value);
+	}
+
+	@Benchmark
+	public void lineNestedSetPojo() {
+		linePojo.st.x = value;
+		linePojo.en.y = value;
+	}
+}
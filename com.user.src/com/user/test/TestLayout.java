@@ -9,26 +9,62 @@ package com.user.test;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Spliterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import sun.misc.Unsafe;
 
+import com.ibm.layout.Arena;
 import com.ibm.layout.Array1D;
 import com.ibm.layout.Array2D;
+import com.ibm.layout.BitArray1D;
+import com.ibm.layout.BitArray2D;
+import com.ibm.layout.BooleanArray1D;
 import com.ibm.layout.ByteArray1D;
+import com.ibm.layout.ColumnArray1D;
+import com.ibm.layout.Cursor;
+import com.ibm.layout.DoubleArray1D;
+import com.ibm.layout.DoubleArray2D;
+import com.ibm.layout.FloatArray1D;
+import com.ibm.layout.IntArray1D;
 import com.ibm.layout.IntArray2D;
 import com.ibm.layout.Layout;
+import com.ibm.layout.LayoutArrays;
+import com.ibm.layout.LayoutFactory;
+import com.ibm.layout.LayoutHashMap;
 import com.ibm.layout.LayoutHelper;
 import com.ibm.layout.LayoutType;
+import com.ibm.layout.LongArray1D;
 import com.ibm.layout.Location;
+import com.ibm.layout.MappedFile;
+import com.ibm.layout.RecordReader;
+import com.ibm.layout.RecordWriter;
+import com.ibm.layout.ShortArray1D;
+import com.user.types.AlignedOuter;
+import com.user.types.AlignedRecord;
 import com.user.types.AllPoints;
 import com.user.types.ArrayCases;
 import com.user.types.Boolean;
 import com.user.types.Byte;
 import com.user.types.Char;
+import com.user.types.Counter;
 import com.user.types.Double;
 import com.user.types.Float;
 import com.user.types.Int;
@@ -54,6 +90,8 @@ import com.user.types.MyPrimIntArray1DCharSeq;
 import com.user.types.MyPrimLongArray1DCharSeq;
 import com.user.types.MyPrimShortArray1DCharSeq;
 import com.user.types.MyShortArray1DCharSeq;
+import com.user.types.NetHeader;
+import com.user.types.PackedRecord;
 import com.user.types.Point;
 import com.user.types.Point3D;
 import com.user.types.Point4D;
@@ -62,6 +100,7 @@ import com.user.types.Point5D_DoubleExt;
 import com.user.types.Point5D_Ext;
 import com.user.types.Ptr;
 import com.user.types.Ptr2;
+import com.user.types.Record0;
 import com.user.types.Short;
 
 
@@ -1335,4 +1374,1630 @@ public class TestLayout {
 		assertTrue(bb.length() == bb.getLength());
 	}
 
+	@Test
+	public void testArena() {
+		System.out.println("== testArena ==");
+		try (Arena arena = new Arena(64)) {
+			Point p = arena.allocateLayout(Point.class);
+			assertEquals(0, p.x());
+			p.x(10);
+			p.y(20);
+
+			Array1D<Line> lines = arena.allocateArray1D(Line.class, 10);
+			for (long i = 0; i < lines.getLength(); i++) {
+				assertEquals(0, lines.at(i).st().x());
+				lines.at(i).st().copyFrom(p);
+				lines.at(i).en().x((int)i);
+			}
+
+			Array2D<Point> grid = arena.allocateArray2D(Point.class, 3, 4);
+			grid.at(2, 3).y(7);
+
+			IntArray1D ints = arena.allocatePrimArray1D(int.class, 5);
+			for (long i = 0; i < ints.getLength(); i++) {
+				ints.put(i, (int)(i * 3));
+			}
+
+			/* earlier allocations are not disturbed by later ones */
+			assertEquals(10, p.x());
+			assertEquals(20, p.y());
+			for (long i = 0; i < lines.getLength(); i++) {
+				assertEquals(10, lines.at(i).st().x());
+				assertEquals(20, lines.at(i).st().y());
+				assertEquals(i, lines.at(i).en().x());
+			}
+			assertEquals(7, grid.at(2, 3).y());
+			assertEquals(12, ints.at(4));
+			assertEquals(8 + 160 + 96 + 20, arena.getAllocatedSize());
+
+			arena.reset();
+			assertEquals(0, arena.getAllocatedSize());
+			Point q = arena.allocateLayout(Point.class);
+			assertEquals(0, q.x());
+			assertEquals(0, q.y());
+		}
+	}
+
+	@Test
+	public void testCursor() {
+		System.out.println("== testCursor ==");
+		Array1D<Point> ca = Array1D.getArray1D(Point.class, 10);
+		ca.bindLocation(new Location(new byte[(int)ca.sizeof()]));
+		for (long i = 0; i < ca.getLength(); i++) {
+			ca.at(i).x((int)i);
+			ca.at(i).y((int)-i);
+		}
+
+		Cursor<Point> c = ca.cursor();
+		assertEquals(-1, c.index());
+		Point first = null;
+		long count = 0;
+		while (c.hasNext()) {
+			Point p = c.next();
+			if (first == null) {
+				first = p;
+			}
+			assertTrue(p == first);
+			assertEquals(c.index(), p.x());
+			assertEquals(-c.index(), p.y());
+			p.x(p.x() * 2);
+			count++;
+		}
+		assertEquals(ca.getLength(), count);
+		assertEquals(14, c.moveTo(7).x());
+		assertEquals(14, ca.at(7).x());
+
+		Cursor<Point> rc = ca.range(2, 3).cursor();
+		assertEquals(3, rc.getLength());
+		assertEquals(4, rc.next().x());
+		try {
+			rc.moveTo(3);
+			fail("should have thrown IndexOutOfBoundsException");
+		} catch (IndexOutOfBoundsException e) {
+			System.out.println(e);
+		}
+
+		Array2D<Point> pp = Array2D.getArray2D(Point.class, 3, 4);
+		pp.bindLocation(new Location(new byte[(int)pp.sizeof()]));
+		Cursor<Point> c2 = pp.cursor();
+		while (c2.hasNext()) {
+			c2.next().y((int)c2.index());
+		}
+		assertEquals(2 * 4 + 1, pp.at(2, 1).y());
+
+		MyLine ml = Layout.getLayout(MyLine.class);
+		Array1D<MyLine> lines = Array1D.getArray1D(MyLine.class, 4);
+		lines.bindLocation(new Location(new byte[(int)(ml.sizeof() * lines.getLength())]));
+		Cursor<MyLine> lc = lines.cursor();
+		while (lc.hasNext()) {
+			lc.next().en().x((int)lc.index());
+		}
+		assertEquals(3, lines.at(3).en().x());
+	}
+
+	@Test
+	public void testCachedFieldViews() {
+		System.out.println("== testCachedFieldViews ==");
+		Array1D<MyLine> lines = Array1D.getArray1D(MyLine.class, 2);
+		lines.bindLocation(new Location(new byte[(int)lines.sizeof()]));
+		MyLine line = lines.at(0);
+		assertTrue(line.st() == line.st());
+		line.st(1, 2);
+		lines.at(1).st(3, 4);
+
+		/* rebinding re-points the cached view at the new location */
+		Point st = line.st();
+		byte[] copy = new byte[(int)lines.sizeof()];
+		lines.writeToByteArray(0, copy, 0, copy.length);
+		line.bindLocation(new Location(new Location(copy), line.sizeof()));
+		assertTrue(st == line.st());
+		assertEquals(3, st.x());
+		st.x(5);
+		assertEquals(5, line.st().x());
+		assertEquals(1, lines.at(0).st().x());
+		assertEquals(3, lines.at(1).st().x());
+
+		/* moving a cursor moves the element and its views, without creating new ones */
+		Cursor<MyLine> lc = lines.cursor();
+		Point cst = lc.moveTo(0).st();
+		assertEquals(2, cst.y());
+		assertTrue(cst == lc.moveTo(1).st());
+		assertEquals(4, cst.y());
+		cst.y(6);
+		assertEquals(6, lines.at(1).st().y());
+		assertTrue(cst == lc.moveTo(0).st());
+		assertEquals(2, cst.y());
+
+		IntM3 m = Layout.getLayout(IntM3.class);
+		m.bindLocation(new Location(new byte[(int)m.sizeof()]));
+		assertTrue(m.m() == m.m());
+		ArrayCases ac = Layout.getLayout(ArrayCases.class);
+		ac.bindLocation(new Location(new byte[(int)ac.sizeof()]));
+		assertTrue(ac.array1() == ac.array1());
+		assertTrue(ac.array2() == ac.array2());
+		ac.array2().at(1, 1).value(5);
+		assertEquals(5, ac.array2().at(1, 1).value());
+
+		/* array views move with a cursor's element too */
+		Array1D<ArrayCases> acs = Array1D.getArray1D(ArrayCases.class, 2);
+		acs.bindLocation(new Location(new byte[(int)acs.sizeof()]));
+		acs.at(1).array2().at(1, 1).value(7);
+		Cursor<ArrayCases> acc = acs.cursor();
+		Array2D<Int> a2 = acc.moveTo(0).array2();
+		assertEquals(0, a2.at(1, 1).value());
+		assertTrue(a2 == acc.moveTo(1).array2());
+		assertEquals(7, a2.at(1, 1).value());
+	}
+
+	@Test
+	public void testLayoutFactory() {
+		System.out.println("== testLayoutFactory ==");
+		LayoutHelper f = LayoutHelper.getFactory();
+		LayoutFactory.OfLayout<Point> pf = f.getLayoutFactory(Point.class);
+		assertTrue(pf == f.getLayoutFactory(Point.class));
+		Point p1 = pf.newInstance();
+		Point p2 = pf.newInstance();
+		assertTrue(p1 != p2);
+		assertEquals(p1.getClass(), Layout.getLayout(Point.class).getClass());
+
+		Array1D<MyLine> lines = f.getArray1DFactory(MyLine.class).newInstance(3);
+		assertEquals(3, lines.getLength());
+		assertEquals(3 * pf.newInstance().sizeof() * 2, lines.sizeof());
+		Array2D<Point> pp = f.getArray2DFactory(Point.class).newInstance(2, 3);
+		assertEquals(6 * p1.sizeof(), pp.sizeof());
+		pp.bindLocation(new Location(new byte[(int)pp.sizeof()]));
+		pp.at(1, 2).x(7);
+		assertEquals(7, pp.at(1, 2).x());
+
+		LayoutFactory.OfArray1D<IntArray1D> iaf = f.getPrimArray1DFactory(int.class);
+		IntArray1D ia = iaf.newInstance(5);
+		assertEquals(5, ia.getLength());
+		IntArray2D ia2 = f.<IntArray2D>getPrimArray2DFactory(int.class).newInstance(2, 2);
+		assertEquals(2, ia2.dim1());
+
+		p1.bindLocation(new Location(new byte[(int)p1.sizeof()]));
+		p1.x(3);
+		assertEquals(3, p1.unsafeCast(Point.class).x());
+	}
+
+	@Test
+	public void testConcurrentGeneration() throws Exception {
+		System.out.println("== testConcurrentGeneration ==");
+		final int nThreads = 8;
+		final CountDownLatch start = new CountDownLatch(1);
+		final Class<?>[][] results = new Class<?>[nThreads][];
+		Thread[] threads = new Thread[nThreads];
+		for (int t = 0; t < nThreads; t++) {
+			final int id = t;
+			threads[t] = new Thread(() -> {
+				try {
+					start.await();
+					results[id] = new Class<?>[] {
+						Layout.getLayout(Record0.class).getClass(),
+						Array1D.getArray1D(Point5D_Ext.class, 2).getClass(),
+						Array2D.getArray2D(Point4D.class, 2, 2).getClass(),
+						Array1D.getArray1D(IntM3.class, 2).getClass(),
+						LayoutType.getPrimArray1D(long.class, 2).getClass()
+					};
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			});
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread t : threads) {
+			t.join();
+		}
+		for (int t = 0; t < nThreads; t++) {
+			assertNotNull(results[t]);
+			assertArrayEquals(results[0], results[t]);
+		}
+	}
+
+	private static int firstNonZero(byte[] data) {
+		for (int i = 0; i < data.length; i++) {
+			if (data[i] != 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Test
+	public void testAlignment() {
+		System.out.println("== testAlignment ==");
+		AlignedRecord ar = Layout.getLayout(AlignedRecord.class);
+		assertEquals(24, ar.sizeof());
+		byte[] data = new byte[(int)ar.sizeof()];
+		ar.bindLocation(new Location(data));
+		ar.l(-1L);
+		assertEquals(8, firstNonZero(data));
+		ar.l(0);
+		ar.s((short)-1);
+		assertEquals(16, firstNonZero(data));
+		ar.b((byte)1);
+		assertEquals(1, ar.b());
+		assertEquals(-1, ar.s());
+		assertEquals(0, ar.l());
+
+		PackedRecord pr = Layout.getLayout(PackedRecord.class);
+		assertEquals(12, pr.sizeof());
+		data = new byte[(int)pr.sizeof()];
+		pr.bindLocation(new Location(data));
+		pr.l(-1L);
+		assertEquals(2, firstNonZero(data));
+		pr.l(0);
+		pr.s((short)-1);
+		assertEquals(10, firstNonZero(data));
+
+		AlignedOuter ao = Layout.getLayout(AlignedOuter.class);
+		assertEquals(88, ao.sizeof());
+		data = new byte[(int)ao.sizeof()];
+		ao.bindLocation(new Location(data));
+		ao.r().l(-1L);
+		assertEquals(8 + 8, firstNonZero(data));
+		ao.r().l(0);
+		ao.i(-1);
+		assertEquals(32, firstNonZero(data));
+		ao.i(0);
+		ao.a().at(1).s((short)-1);
+		assertEquals(40 + 24 + 16, firstNonZero(data));
+
+		Array1D<AlignedRecord> ara = Array1D.getArray1D(AlignedRecord.class, 3);
+		assertEquals(3 * 24, ara.sizeof());
+
+		/* unaligned layouts are unchanged */
+		assertEquals(8, Layout.getLayout(Point.class).sizeof());
+	}
+
+	@Test
+	public void testMappedFile() throws Exception {
+		System.out.println("== testMappedFile ==");
+		Path path = Files.createTempFile("layout", ".dat");
+		try {
+			final long n = 1000;
+			/* small segments, so the region is mapped as a chain */
+			try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+				MappedFile mf = MappedFile.map(ch, MapMode.READ_WRITE, 0, n * 8, 8, 1000)) {
+				assertEquals(n * 8, mf.size());
+				assertEquals(8, mf.getSegmentCount());
+				assertEquals(1000 - (1000 % 8), mf.getSegmentSize(0));
+				long i = 0;
+				for (int s = 0; s < mf.getSegmentCount(); s++) {
+					Array1D<Point> points = mf.getSegmentArray1D(Point.class, s);
+					for (long j = 0; j < points.getLength(); j++, i++) {
+						points.at(j).x((int)i);
+						points.at(j).y((int)-i);
+					}
+				}
+				assertEquals(n, i);
+				mf.force();
+
+				try {
+					mf.locate(mf.getSegmentSize(0) - 4, 8);
+					fail("range crosses segments");
+				} catch (IllegalArgumentException e) {
+				}
+			}
+
+			try (MappedFile mf = MappedFile.open(path, MapMode.READ_ONLY, 8)) {
+				assertEquals(1, mf.getSegmentCount());
+				Array1D<Point> points = mf.getArray1D(Point.class, 0, n);
+				for (long i = 0; i < n; i++) {
+					assertEquals(i, points.at(i).x());
+					assertEquals(-i, points.at(i).y());
+				}
+				Point p = mf.getLayout(Point.class, 8 * 999);
+				assertEquals(999, p.x());
+				IntArray1D ints = mf.getPrimArray1D(int.class, 8, 2);
+				assertEquals(1, ints.at(0));
+				assertEquals(-1, ints.at(1));
+			}
+
+			/* private writes are not stored */
+			try (MappedFile mf = MappedFile.open(path, MapMode.PRIVATE, 8)) {
+				mf.getLayout(Point.class, 0).x(42);
+				assertEquals(42, mf.getLayout(Point.class, 0).x());
+			}
+			try (MappedFile mf = MappedFile.open(path, MapMode.READ_ONLY, 8)) {
+				assertEquals(0, mf.getLayout(Point.class, 0).x());
+				mf.close();
+				try {
+					mf.getSegmentLocation(0);
+					fail("mapping is closed");
+				} catch (IllegalStateException e) {
+				}
+			}
+
+			/* an empty file maps to an empty region */
+			try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				ch.truncate(0);
+			}
+			try (MappedFile mf = MappedFile.open(path, MapMode.READ_ONLY, 8)) {
+				assertEquals(0, mf.size());
+				assertEquals(0, mf.getSegmentCount());
+				assertNotNull(mf.locate(0, 0));
+				assertEquals(0, mf.getArray1D(Point.class, 0, 0).getLength());
+				try {
+					mf.locate(0, 1);
+					fail("range outside the region");
+				} catch (IllegalArgumentException e) {
+				}
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void testBulkPrimArrays() {
+		System.out.println("== testBulkPrimArrays ==");
+		IntArray1D ia = LayoutType.getPrimArray1D(int.class, 10);
+		ia.bindLocation(new Location(new byte[(int)ia.sizeof()]));
+		int[] src = new int[] { 1, 2, 3, 4, 5, 6 };
+		ia.put(2, src, 1, 5);
+		int[] dst = new int[10];
+		ia.get(0, dst, 0, 10);
+		assertArrayEquals(new int[] { 0, 0, 2, 3, 4, 5, 6, 0, 0, 0 }, dst);
+
+		/* overlapping moves in both directions */
+		ia.move(2, 3, 5);
+		ia.get(0, dst, 0, 10);
+		assertArrayEquals(new int[] { 0, 0, 2, 2, 3, 4, 5, 6, 0, 0 }, dst);
+		ia.move(3, 2, 5);
+		ia.get(0, dst, 0, 10);
+		assertArrayEquals(new int[] { 0, 0, 2, 3, 4, 5, 6, 6, 0, 0 }, dst);
+
+		ia.fill(0x01020304);
+		for (long i = 0; i < ia.getLength(); i++) {
+			assertEquals(0x01020304, ia.at(i));
+		}
+
+		try (Arena arena = new Arena()) {
+			IntArray1D offHeap = arena.allocatePrimArray1D(int.class, 4);
+			ia.copyTo(6, offHeap, 0, 4);
+			offHeap.put(1, 7);
+			offHeap.copyTo(0, ia, 0, 4);
+			assertEquals(7, ia.at(1));
+			assertEquals(0x01020304, ia.at(2));
+		}
+
+		try {
+			ia.get(8, dst, 0, 3);
+			fail("range exceeds array");
+		} catch (IndexOutOfBoundsException e) {
+		}
+		try {
+			ia.put(0, src, 4, 3);
+			fail("range exceeds java array");
+		} catch (IndexOutOfBoundsException e) {
+		}
+
+		LongArray1D la = LayoutType.getPrimArray1D(long.class, 7);
+		la.bindLocation(new Location(new byte[(int)la.sizeof()]));
+		la.fill(-2L);
+		long[] ldst = new long[7];
+		la.get(0, ldst, 0, 7);
+		assertArrayEquals(new long[] { -2, -2, -2, -2, -2, -2, -2 }, ldst);
+
+		BooleanArray1D ba = LayoutType.getPrimArray1D(boolean.class, 3);
+		ba.bindLocation(new Location(new byte[(int)ba.sizeof()]));
+		ba.fill(true);
+		assertTrue(ba.at(0) && ba.at(2));
+
+		FloatArray1D fa = LayoutType.getPrimArray1D(float.class, 4);
+		fa.bindLocation(new Location(new byte[(int)fa.sizeof()]));
+		fa.put(0, new float[] { 1.5f, 2.5f, 3.5f, 4.5f }, 0, 4);
+		assertEquals(3.5f, fa.range(2, 2).at(0), 0);
+
+		/* 2D bulk access is row-major */
+		IntArray2D i2 = LayoutType.getPrimArray2D(int.class, 2, 3);
+		i2.bindLocation(new Location(new byte[(int)i2.sizeof()]));
+		i2.put(0, 1, new int[] { 1, 2, 3, 4, 5 }, 0, 5);
+		assertEquals(1, i2.at(0, 1));
+		assertEquals(2, i2.at(0, 2));
+		assertEquals(3, i2.at(1, 0));
+		assertEquals(5, i2.at(1, 2));
+		IntArray2D i2copy = LayoutType.getPrimArray2D(int.class, 2, 3);
+		i2copy.bindLocation(new Location(new byte[(int)i2copy.sizeof()]));
+		i2.copyTo(i2copy);
+		int[] row = new int[3];
+		i2copy.get(1, 0, row, 0, 3);
+		assertArrayEquals(new int[] { 3, 4, 5 }, row);
+		i2copy.fill(9);
+		assertEquals(9, i2copy.at(1, 2));
+
+		/* user defined primitive arrays have the bulk operations too */
+		MyPrimIntArray1DCharSeq ui = LayoutType.getPrimUserArray1D(MyPrimIntArray1DCharSeq.class, int.class, 3);
+		assertEquals(12, ui.sizeof());
+		ui.bindLocation(new Location(new byte[(int)ui.sizeof()]));
+		ui.put(0, new int[] { 'a', 'b', 'c' }, 0, 3);
+		assertEquals('b', ui.charAt(1));
+		MyPrimIntArray1DCharSeq sub = (MyPrimIntArray1DCharSeq)ui.subSequence(1, 3);
+		sub.fill('z');
+		assertEquals('a', ui.charAt(0));
+		assertEquals('z', ui.charAt(2));
+	}
+
+	@Test
+	public void testAtomicAccessors() throws Exception {
+		System.out.println("== testAtomicAccessors ==");
+		Counter c = Layout.getLayout(Counter.class);
+		assertEquals(16, c.sizeof());
+		c.bindLocation(new Location(new byte[(int)c.sizeof()]));
+		c.countVolatile(5);
+		assertEquals(5, c.count());
+		c.countOrdered(6);
+		assertEquals(6, c.countVolatile());
+		assertFalse(c.compareAndSetCount(5, 7));
+		assertTrue(c.compareAndSetCount(6, 7));
+		assertEquals(7, c.getAndSetCount(1));
+		assertEquals(1, c.getAndAddCount(2));
+		assertEquals(3, c.count());
+		assertTrue(c.compareAndSetTotal(0, 1L << 40));
+		assertEquals(1L << 40, c.totalVolatile());
+
+		final int nThreads = 4;
+		final int nIncrements = 10000;
+		try (Arena arena = new Arena()) {
+			final Counter shared = arena.allocateLayout(Counter.class);
+			final IntArray1D slots = arena.allocatePrimArray1D(int.class, 2);
+			Thread[] threads = new Thread[nThreads];
+			for (int t = 0; t < nThreads; t++) {
+				threads[t] = new Thread(() -> {
+					for (int i = 0; i < nIncrements; i++) {
+						shared.getAndAddCount(1);
+						shared.getAndAddTotal(3);
+						slots.getAndAdd(1, 1);
+						int v;
+						do {
+							v = slots.atVolatile(0);
+						} while (!slots.compareAndSet(0, v, v + 2));
+					}
+				});
+				threads[t].start();
+			}
+			for (Thread t : threads) {
+				t.join();
+			}
+			assertEquals(nThreads * nIncrements, shared.countVolatile());
+			assertEquals(3L * nThreads * nIncrements, shared.totalVolatile());
+			assertEquals(2 * nThreads * nIncrements, slots.atVolatile(0));
+			assertEquals(nThreads * nIncrements, slots.getAndSet(1, 0));
+			assertEquals(0, slots.at(1));
+		}
+
+		LongArray1D longs = LayoutType.getPrimArray1D(long.class, 2);
+		longs.bindLocation(new Location(new byte[(int)longs.sizeof()]));
+		longs.putVolatile(1, 10);
+		longs.putOrdered(0, 20);
+		assertEquals(10, longs.getAndAdd(1, 5));
+		assertTrue(longs.compareAndSet(1, 15, 16));
+		assertEquals(16, longs.atVolatile(1));
+		assertEquals(20, longs.at(0));
+	}
+
+	@Test
+	public void testStreams() {
+		System.out.println("== testStreams ==");
+		final int n = 100000;
+		try (Arena arena = new Arena()) {
+			Array1D<Point> points = arena.allocateArray1D(Point.class, n);
+			IntArray1D ints = arena.allocatePrimArray1D(int.class, n);
+			LongArray1D longs = arena.allocatePrimArray1D(long.class, n);
+			DoubleArray1D doubles = arena.allocatePrimArray1D(double.class, n);
+			for (int i = 0; i < n; i++) {
+				points.at(i).x(i);
+				points.at(i).y(1);
+				ints.put(i, i);
+				longs.put(i, i);
+				doubles.put(i, 0.5);
+			}
+			long expected = (long)n * (n - 1) / 2;
+
+			assertEquals(expected, points.stream().mapToLong(Point::x).sum());
+			assertEquals(expected, points.parallelStream().mapToLong(Point::x).sum());
+			assertEquals(n, points.parallelStream().filter(p -> p.y() == 1).count());
+			assertEquals(expected, ints.parallelStream().asLongStream().sum());
+			assertEquals(n - 1, ints.stream().max().getAsInt());
+			assertEquals(expected, longs.parallelStream().sum());
+			assertEquals(n * 0.5, doubles.parallelStream().sum(), 0);
+
+			/* splitting hands off the prefix as a sub range */
+			Spliterator<Point> right = points.range(10, 10).spliterator();
+			Spliterator<Point> left = right.trySplit();
+			assertEquals(5, left.estimateSize());
+			assertEquals(5, right.estimateSize());
+			left.tryAdvance(p -> assertEquals(10, p.x()));
+			right.tryAdvance(p -> assertEquals(15, p.x()));
+
+			/* elements are flyweights */
+			Point[] seen = new Point[2];
+			Spliterator<Point> s = points.spliterator();
+			s.tryAdvance(p -> seen[0] = p);
+			s.tryAdvance(p -> seen[1] = p);
+			assertSame(seen[0], seen[1]);
+		}
+	}
+
+	@Test
+	public void testColumnArray() throws Exception {
+		System.out.println("== testColumnArray ==");
+		final int n = 10;
+		ColumnArray1D<Point5D> points = ColumnArray1D.getColumnArray1D(Point5D.class, n);
+		assertEquals(n * 20, points.sizeof());
+		byte[] bytes = new byte[(int)points.sizeof()];
+		points.bindLocation(new Location(bytes));
+		for (int i = 0; i < n; i++) {
+			Point5D p = points.at(i);
+			p.x(i);
+			p.y(-i);
+			p.p(100 + i);
+		}
+		System.out.println(points.range(0, 2));
+
+		/* each field is stored in its own column; the fields of Point5D are p, o, z, x, y */
+		ByteBuffer buf = ByteBuffer.wrap(bytes).order(ByteOrder.nativeOrder());
+		for (int i = 0; i < n; i++) {
+			assertEquals(100 + i, buf.getInt(4 * i));
+			assertEquals(i, buf.getInt((12 * n) + (4 * i)));
+			assertEquals(-i, buf.getInt((16 * n) + (4 * i)));
+		}
+
+		IntArray1D ps = points.column("p");
+		assertEquals(n, ps.getLength());
+		assertEquals(105, ps.at(5));
+		ps.put(5, 7);
+		assertEquals(7, points.at(5).p());
+		assertEquals(n * (n - 1) / 2, points.<IntArray1D>column("x").stream().sum());
+
+		/* ranges share the columns */
+		ColumnArray1D<Point5D> tail = points.range(6, 4);
+		assertEquals(4, tail.getLength());
+		assertEquals(6, tail.at(0).x());
+		assertEquals(106, tail.<IntArray1D>column("p").at(0));
+		tail.at(1).y(42);
+		assertEquals(42, points.at(7).y());
+		assertEquals(4 * 20, tail.sizeof());
+		try {
+			tail.writeToByteArray(0, new byte[80], 0, 80);
+			fail("expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			tail.asByteBuffer();
+			fail("expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		byte[] whole = new byte[(int)points.sizeof()];
+		assertEquals(whole.length, points.writeToByteArray(0, whole, 0, whole.length));
+
+		/* a range is sorted through a scratch array of its own length */
+		LayoutArrays.sort(tail, Layout.getComparator(Point5D.class, "y"));
+		assertEquals(-9, tail.at(0).y());
+		assertEquals(42, tail.at(3).y());
+		assertEquals(9, tail.at(0).x());
+		assertEquals(-5, points.at(5).y());
+
+		Cursor<Point5D> c = points.cursor();
+		int sum = 0;
+		while (c.hasNext()) {
+			sum += c.next().y();
+		}
+		assertEquals(42 + 7 - (n * (n - 1) / 2), sum);
+		assertEquals(n * (n - 1) / 2, points.parallelStream().mapToInt(Point5D::x).sum());
+
+		/* elements copy to and from ordinary layouts */
+		Array1D<Point5D> rows = Array1D.getArray1D(Point5D.class, 1);
+		rows.bindLocation(new Location(new byte[(int)rows.sizeof()]));
+		rows.at(0).x(1);
+		rows.at(0).o(2);
+		points.put(0, rows.at(0));
+		assertEquals(1, points.at(0).x());
+		assertEquals(2, points.at(0).o());
+		assertEquals(0, points.at(0).p());
+		rows.at(0).copyFrom(points.at(3));
+		assertEquals(3, rows.at(0).x());
+		assertEquals(-3, rows.at(0).y());
+		assertEquals(103, rows.at(0).p());
+
+		/* the bytes of an element are copied in row order */
+		byte[] row = new byte[20];
+		byte[] col = new byte[20];
+		assertEquals(20, rows.at(0).writeToByteArray(0, row, 0, 20));
+		assertEquals(20, points.at(3).writeToByteArray(0, col, 0, 20));
+		assertArrayEquals(row, col);
+		assertEquals(8, points.at(3).writeToByteArray(12, col, 0, 20));
+		assertEquals(8, points.at(1).readFromByteArray(12, col, 0, 8));
+		assertEquals(3, points.at(1).x());
+		assertEquals(-3, points.at(1).y());
+		assertEquals(101, points.at(1).p());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals(20, points.at(1).writeTo(Channels.newChannel(out)));
+		assertEquals(20, points.at(0).readFrom(Channels.newChannel(new ByteArrayInputStream(out.toByteArray()))));
+		assertEquals(3, points.at(0).x());
+		assertEquals(101, points.at(0).p());
+
+		/* the fields of an element are not contiguous, so there is no byte buffer of them */
+		try {
+			points.at(1).asByteBuffer();
+			fail("expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+
+		try {
+			points.column("q");
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testBitArrays() throws Exception {
+		System.out.println("== testBitArrays ==");
+		try (Arena arena = new Arena()) {
+			BitArray1D bits = arena.allocateBitArray1D(200);
+			assertEquals(200, bits.getLength());
+			assertEquals(4, bits.getWordCount());
+			assertEquals(32, bits.sizeof());
+
+			bits.put(3, true);
+			bits.put(64, true);
+			bits.put(199, true);
+			assertTrue(bits.at(3));
+			assertFalse(bits.at(4));
+			assertEquals(0x8L, bits.getWord(0));
+			assertEquals(1L, bits.getWord(1));
+			assertEquals(3, bits.cardinality());
+			assertEquals(3, bits.nextSetBit(0));
+			assertEquals(64, bits.nextSetBit(4));
+			assertEquals(199, bits.nextSetBit(65));
+			assertEquals(-1, bits.nextSetBit(200));
+			assertEquals(0, bits.nextClearBit(0));
+			assertEquals(4, bits.nextClearBit(3));
+			bits.put(3, false);
+			assertFalse(bits.at(3));
+			/* the padding of the last word, and the words after it, cannot be written */
+			try {
+				bits.put(200, true);
+				fail("expected IndexOutOfBoundsException");
+			} catch (IndexOutOfBoundsException e) {
+			}
+			try {
+				bits.setBitConcurrent(255);
+				fail("expected IndexOutOfBoundsException");
+			} catch (IndexOutOfBoundsException e) {
+			}
+			try {
+				bits.putWord(4, 1L);
+				fail("expected IndexOutOfBoundsException");
+			} catch (IndexOutOfBoundsException e) {
+			}
+			assertEquals(2, bits.cardinality());
+
+			/* bits beyond the length stay clear */
+			bits.fill(true);
+			assertEquals(200, bits.cardinality());
+			assertEquals(0xffL, bits.getWord(3));
+			assertEquals(-1, bits.nextClearBit(0));
+
+			BitArray1D other = arena.allocateBitArray1D(200);
+			for (long i = 0; i < 200; i += 2) {
+				other.put(i, true);
+			}
+			bits.and(other);
+			assertEquals(100, bits.cardinality());
+			assertEquals(1, bits.nextClearBit(0));
+			bits.xor(other);
+			assertEquals(0, bits.cardinality());
+			bits.or(other);
+			bits.andNot(other);
+			assertEquals(0, bits.cardinality());
+			try {
+				bits.and(arena.allocateBitArray1D(100));
+				fail("expected IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+
+			/* concurrent updates of bits in the same words */
+			final BitArray1D shared = arena.allocateBitArray1D(4096);
+			final int nThreads = 4;
+			Thread[] threads = new Thread[nThreads];
+			for (int t = 0; t < nThreads; t++) {
+				final int first = t;
+				threads[t] = new Thread(() -> {
+					for (long i = first; i < shared.getLength(); i += nThreads) {
+						assertTrue(shared.setBitConcurrent(i));
+					}
+				});
+				threads[t].start();
+			}
+			for (Thread t : threads) {
+				t.join();
+			}
+			assertEquals(4096, shared.cardinality());
+			assertFalse(shared.setBitConcurrent(10));
+			assertTrue(shared.clearBitConcurrent(10));
+			assertFalse(shared.clearBitConcurrent(10));
+			assertEquals(10, shared.nextClearBit(0));
+
+			BitArray2D grid = arena.allocateBitArray2D(10, 10);
+			assertEquals(16, grid.sizeof());
+			grid.put(2, 3, true);
+			assertTrue(grid.setBitConcurrent(9, 9));
+			assertTrue(grid.at(2, 3));
+			assertFalse(grid.at(3, 2));
+			assertEquals(23, grid.bits().nextSetBit(0));
+			assertEquals(2, grid.cardinality());
+			BitArray2D mask = arena.allocateBitArray2D(10, 10);
+			mask.fill(true);
+			mask.put(9, 9, false);
+			grid.and(mask);
+			assertEquals(1, grid.cardinality());
+			System.out.println(grid);
+		}
+	}
+
+	@Test
+	public void testRowsAndTranspose() {
+		System.out.println("== testRowsAndTranspose ==");
+		try (Arena arena = new Arena()) {
+			/* non-square, so row-major indexing errors show up */
+			final int dim1 = 37;
+			final int dim2 = 53;
+			IntArray2D m = arena.allocatePrimArray2D(int.class, dim1, dim2);
+			for (int i = 0; i < dim1; i++) {
+				for (int j = 0; j < dim2; j++) {
+					m.put(i, j, (i * 1000) + j);
+				}
+			}
+
+			IntArray1D row = m.row(5);
+			assertEquals(dim2, row.getLength());
+			assertEquals(5007, row.at(7));
+			row.put(8, -1);
+			assertEquals(-1, m.at(5, 8));
+			m.put(5, 8, 5008);
+
+			Cursor<IntArray1D> rows = m.rows();
+			assertEquals(dim1, rows.getLength());
+			long sum = 0;
+			while (rows.hasNext()) {
+				IntArray1D r = rows.next();
+				sum += r.at(dim2 - 1);
+			}
+			assertEquals((1000L * dim1 * (dim1 - 1) / 2) + ((long)dim1 * (dim2 - 1)), sum);
+			assertSame(rows.get(), rows.moveTo(0));
+
+			IntArray2D t = arena.allocatePrimArray2D(int.class, dim2, dim1);
+			m.transpose(t);
+			for (int i = 0; i < dim1; i++) {
+				for (int j = 0; j < dim2; j++) {
+					assertEquals(m.at(i, j), t.at(j, i));
+				}
+			}
+			try {
+				m.transpose(arena.allocatePrimArray2D(int.class, dim1, dim2));
+				fail("expected IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+
+			DoubleArray2D d = arena.allocatePrimArray2D(double.class, 2, 3);
+			d.put(0, 2, 1.5);
+			d.put(1, 0, -2.5);
+			DoubleArray2D dt = arena.allocatePrimArray2D(double.class, 3, 2);
+			d.transpose(dt);
+			assertEquals(1.5, dt.at(2, 0), 0);
+			assertEquals(-2.5, dt.at(0, 1), 0);
+			assertEquals(1.5, dt.row(2).at(0), 0);
+
+			Array2D<Point> points = arena.allocateArray2D(Point.class, 3, 4);
+			points.at(2, 1).x(21);
+			Array1D<Point> prow = points.row(2);
+			assertEquals(4, prow.getLength());
+			assertEquals(21, prow.at(1).x());
+			Cursor<Array1D<Point>> prows = points.rows();
+			prows.moveTo(2).at(3).y(23);
+			assertEquals(23, points.at(2, 3).y());
+			try {
+				points.row(3);
+				fail("row past the end of the array");
+			} catch (IndexOutOfBoundsException e) {
+			}
+			try {
+				points.row(-1);
+				fail("negative row");
+			} catch (IndexOutOfBoundsException e) {
+			}
+		}
+	}
+
+	@Test
+	public void testKernels() {
+		System.out.println("== testKernels ==");
+		try (Arena arena = new Arena()) {
+			/* longer than one parallel leaf, so the parallel variants fork */
+			final int n = 200000;
+			int[] ints = new int[n];
+			double[] doubles = new double[n];
+			for (int i = 0; i < n; i++) {
+				ints[i] = ((i * 7919) % 1001) - 500;
+				doubles[i] = ints[i] * 0.25;
+			}
+			IntArray1D ia = arena.allocatePrimArray1D(int.class, n);
+			IntArray1D ib = arena.allocatePrimArray1D(int.class, n);
+			ia.put(0, ints, 0, n);
+			ib.fill(3);
+			long sum = 0;
+			long dot = 0;
+			for (int i = 0; i < n; i++) {
+				sum += ints[i];
+				dot += ints[i] * 3L;
+			}
+			assertEquals(sum, ia.sum());
+			assertEquals(sum, ia.parallelSum());
+			assertEquals(-500, ia.min());
+			assertEquals(500, ia.max());
+			assertEquals(-500, ia.parallelMin());
+			assertEquals(500, ia.parallelMax());
+			assertEquals(dot, ia.dot(ib));
+			assertEquals(dot, ia.parallelDot(ib));
+			assertEquals(ints[10] + ints[11] + ints[12], ia.range(10, 3).sum());
+
+			long[] counts = new long[10];
+			long[] parallelCounts = new long[10];
+			ia.histogram(-500, 500, counts);
+			ia.parallelHistogram(-500, 500, parallelCounts);
+			long counted = 0;
+			for (int i = 0; i < 10; i++) {
+				counted += counts[i];
+				assertEquals(counts[i], parallelCounts[i]);
+			}
+			/* 500 lies outside [-500, 500) */
+			long outside = 0;
+			for (int i = 0; i < n; i++) {
+				if (ints[i] == 500) {
+					outside++;
+				}
+			}
+			assertEquals(n - outside, counted);
+
+			ib.axpy(2, ia);
+			assertEquals(3 + (2 * ints[17]), ib.at(17));
+			ib.parallelScale(-1);
+			assertEquals(-3 - (2 * ints[n - 1]), ib.at(n - 1));
+
+			DoubleArray1D da = arena.allocatePrimArray1D(double.class, n);
+			DoubleArray1D db = arena.allocatePrimArray1D(double.class, n);
+			da.put(0, doubles, 0, n);
+			db.put(0, doubles, 0, n);
+			double dsum = 0;
+			double ddot = 0;
+			for (int i = 0; i < n; i++) {
+				dsum += doubles[i];
+				ddot += doubles[i] * doubles[i];
+			}
+			assertEquals(dsum, da.sum(), 0);
+			assertEquals(dsum, da.parallelSum(), 1e-6);
+			assertEquals(ddot, da.dot(db), 0);
+			assertEquals(ddot, da.parallelDot(db), 1e-3);
+			assertEquals(-125.0, da.parallelMin(), 0);
+			db.parallelAxpy(-1.0, da);
+			assertEquals(0.0, db.max(), 0);
+			assertEquals(0.0, db.min(), 0);
+
+			da.scale(4.0);
+			da.prefixSum();
+			long prefix = 0;
+			for (int i = 0; i < 1000; i++) {
+				prefix += ints[i];
+				assertEquals(prefix, da.at(i), 0);
+			}
+
+			try {
+				da.dot(arena.allocatePrimArray1D(double.class, n - 1));
+				fail("expected IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+			try {
+				ia.histogram(1, 1, counts);
+				fail("expected IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+
+		/* on-heap data, and the element types with narrower accumulators */
+		ShortArray1D sa = LayoutType.getPrimArray1D(short.class, 4);
+		sa.bindLocation(new Location(new byte[(int)sa.sizeof()]));
+		sa.put(0, new short[] { 30000, 30000, -7, 2 }, 0, 4);
+		assertEquals(60000 - 5, sa.sum());
+		assertEquals(-7, sa.min());
+		assertEquals(30000, sa.max());
+		assertEquals(2L * 30000 * 30000 + 49 + 4, sa.dot(sa));
+
+		FloatArray1D fa = LayoutType.getPrimArray1D(float.class, 3);
+		fa.bindLocation(new Location(new byte[(int)fa.sizeof()]));
+		fa.put(0, new float[] { 0.5f, -1.5f, 4.0f }, 0, 3);
+		assertEquals(3.0, fa.sum(), 0);
+		assertEquals(-1.5f, fa.min(), 0);
+		fa.prefixSum();
+		assertEquals(-1.0f, fa.at(1), 0);
+		assertEquals(3.0f, fa.at(2), 0);
+
+		LongArray1D la = LayoutType.getPrimArray1D(long.class, 0);
+		la.bindLocation(new Location(new byte[8]));
+		assertEquals(0, la.sum());
+		assertEquals(java.lang.Long.MAX_VALUE, la.min());
+		assertEquals(java.lang.Long.MIN_VALUE, la.parallelMax());
+	}
+
+	@Test
+	public void testLayoutHashMap() {
+		System.out.println("== testLayoutHashMap ==");
+		final int n = 10000;
+		Point3D key = Layout.getLayout(Point3D.class);
+		key.bindLocation(new Location(new byte[(int)key.sizeof()]));
+		Counter value = Layout.getLayout(Counter.class);
+		value.bindLocation(new Location(new byte[(int)value.sizeof()]));
+
+		try (LayoutHashMap<Point3D, Counter> map = new LayoutHashMap<>(Point3D.class, Counter.class)) {
+			assertTrue(map.isEmpty());
+			assertNull(map.get(key));
+			for (int i = 0; i < n; i++) {
+				key.x(i);
+				key.y(-i);
+				key.z(i % 7);
+				value.count(i);
+				value.total(i * 10L);
+				assertTrue(map.put(key, value));
+			}
+			assertEquals(n, map.size());
+			assertTrue(map.capacity() * LayoutHashMap.LOAD_FACTOR >= n);
+			System.out.println("capacity " + map.capacity() + ", max probe " + map.maxProbeLength()
+					+ ", average probe " + map.averageProbeLength());
+			assertTrue(map.averageProbeLength() >= 1.0);
+			assertTrue(map.averageProbeLength() < 4.0);
+
+			/* replace, and update in place through the flyweight view */
+			key.x(5);
+			key.y(-5);
+			key.z(5);
+			value.count(-1);
+			value.total(50);
+			assertFalse(map.put(key, value));
+			assertEquals(n, map.size());
+			Counter stored = map.get(key);
+			assertEquals(-1, stored.count());
+			stored.count(55);
+			assertEquals(55, map.get(key).count());
+			key.z(6);
+			assertNull(map.get(key));
+			assertFalse(map.containsKey(key));
+
+			/* remove the even keys, the odd keys must stay reachable */
+			for (int i = 0; i < n; i += 2) {
+				key.x(i);
+				key.y(-i);
+				key.z(i % 7);
+				assertTrue(map.remove(key));
+				assertFalse(map.remove(key));
+			}
+			assertEquals(n / 2, map.size());
+			Counter copy = Layout.getLayout(Counter.class);
+			copy.bindLocation(new Location(new byte[(int)copy.sizeof()]));
+			for (int i = 0; i < n; i++) {
+				key.x(i);
+				key.y(-i);
+				key.z(i % 7);
+				if ((i % 2) == 0) {
+					assertFalse(map.get(key, copy));
+				} else {
+					assertTrue(map.get(key, copy));
+					assertEquals(i * 10L, copy.total());
+				}
+			}
+
+			long[] visited = new long[1];
+			map.forEach((k, v) -> {
+				assertEquals(-k.x(), k.y());
+				assertEquals(k.x() * 10L, v.total());
+				visited[0]++;
+			});
+			assertEquals(n / 2, visited[0]);
+
+			/* a value view may be put under another key */
+			key.x(1);
+			key.y(-1);
+			key.z(1);
+			Counter one = map.get(key);
+			key.x(-1);
+			assertTrue(map.put(key, one));
+			assertEquals(10L, map.get(key).total());
+			assertEquals(1, map.get(key).count());
+
+			map.clear();
+			assertEquals(0, map.size());
+			assertEquals(0, map.maxProbeLength());
+		}
+
+		/* counting with getOrCreate, on a map that starts small */
+		try (Arena arena = new Arena();
+				LayoutHashMap<Point, Counter> counts = new LayoutHashMap<>(Point.class, Counter.class, 1)) {
+			Array1D<Point> points = arena.allocateArray1D(Point.class, 1000);
+			for (int i = 0; i < 1000; i++) {
+				points.at(i).x(i % 10);
+				points.at(i).y(i % 3);
+			}
+			for (int i = 0; i < 1000; i++) {
+				Counter c = counts.getOrCreate(points.at(i));
+				c.count(c.count() + 1);
+			}
+			assertEquals(30, counts.size());
+			long total = 0;
+			Point p = arena.allocateLayout(Point.class);
+			for (int x = 0; x < 10; x++) {
+				for (int y = 0; y < 3; y++) {
+					p.x(x);
+					p.y(y);
+					total += counts.get(p).count();
+				}
+			}
+			assertEquals(1000, total);
+		}
+
+		/* copying an entry's value survives the table growing under it */
+		try (LayoutHashMap<Point3D, Counter> map = new LayoutHashMap<>(Point3D.class, Counter.class, 0)) {
+			key.x(0);
+			key.y(0);
+			key.z(0);
+			value.count(42);
+			value.total(43);
+			map.put(key, value);
+			long capacity = map.capacity();
+			for (int i = 1; map.capacity() == capacity; i++) {
+				key.x(i - 1);
+				Counter previous = map.get(key);
+				key.x(i);
+				assertTrue(map.put(key, previous));
+			}
+			for (int i = 0; i < map.size(); i++) {
+				key.x(i);
+				assertEquals(42, map.get(key).count());
+				assertEquals(43L, map.get(key).total());
+			}
+		}
+	}
+
+	@Test
+	public void testEqualsHashCodeComparator() {
+		System.out.println("== testEqualsHashCodeComparator ==");
+		try (Arena arena = new Arena()) {
+			Point a = arena.allocateLayout(Point.class);
+			Point b = Layout.getLayout(Point.class);
+			b.bindLocation(new Location(new byte[(int)b.sizeof()]));
+			a.x(1);
+			a.y(2);
+			b.x(1);
+			b.y(2);
+			assertEquals(a, b);
+			assertEquals(b, a);
+			assertEquals(a.hashCode(), b.hashCode());
+			b.y(3);
+			assertFalse(a.equals(b));
+			assertFalse(a.equals(null));
+
+			/* same bytes, different layout type */
+			Point3D p3 = arena.allocateLayout(Point3D.class);
+			p3.x(1);
+			p3.y(2);
+			assertFalse(p3.equals(a));
+
+			/* deduplicate array elements through a java set of views */
+			Array1D<Point> points = arena.allocateArray1D(Point.class, 100);
+			HashSet<Point> distinct = new HashSet<>();
+			for (int i = 0; i < 100; i++) {
+				Point p = points.at(i);
+				p.x(i % 7);
+				p.y(i % 5);
+				distinct.add(p);
+			}
+			assertEquals(35, distinct.size());
+
+			Comparator<Point3D> byZThenX = Layout.getComparator(Point3D.class, "z", "x");
+			assertSame(byZThenX, Layout.getComparator(Point3D.class, "z", "x"));
+			Point3D q3 = arena.allocateLayout(Point3D.class);
+			p3.z(1);
+			q3.z(2);
+			q3.x(-5);
+			assertTrue(byZThenX.compare(p3, q3) < 0);
+			assertTrue(byZThenX.compare(q3, p3) > 0);
+			q3.z(1);
+			assertTrue(byZThenX.compare(p3, q3) > 0);
+			q3.x(1);
+			q3.y(99);
+			assertEquals(0, byZThenX.compare(p3, q3));
+
+			Comparator<Counter> byTotal = Layout.getComparator(Counter.class, "total");
+			Counter c1 = arena.allocateLayout(Counter.class);
+			Counter c2 = arena.allocateLayout(Counter.class);
+			c1.total(java.lang.Long.MIN_VALUE);
+			c2.total(1);
+			assertTrue(byTotal.compare(c1, c2) < 0);
+
+			try {
+				Layout.getComparator(Point.class, "w");
+				fail("expected IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+			try {
+				Layout.getComparator(Line.class, "st");
+				fail("expected IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testSort() {
+		System.out.println("== testSort ==");
+		try (Arena arena = new Arena()) {
+			/* longer than one parallel task, so the parallel variants fork */
+			final int n = 50000;
+			Array1D<Point> points = arena.allocateArray1D(Point.class, n);
+			for (int i = 0; i < n; i++) {
+				Point p = points.at(i);
+				p.x((i * 7919) % 1000);
+				p.y(i);
+			}
+			/* y keeps the original index, so stability can be checked */
+			LayoutArrays.sortByKey(points, Point::x);
+			for (int i = 1; i < n; i++) {
+				Point prev = points.at(i - 1);
+				Point cur = points.at(i);
+				assertTrue(prev.x() <= cur.x());
+				if (prev.x() == cur.x()) {
+					assertTrue(prev.y() < cur.y());
+				}
+			}
+			assertEquals(-1, LayoutArrays.binarySearchByKey(points, -5, Point::x));
+			long found = LayoutArrays.binarySearchByKey(points, 500, Point::x);
+			assertEquals(500, points.at(found).x());
+
+			Comparator<Point> byYDescending = Layout.getComparator(Point.class, "y").reversed();
+			LayoutArrays.parallelSort(points, byYDescending);
+			for (int i = 0; i < n; i++) {
+				assertEquals(n - 1 - i, points.at(i).y());
+				assertEquals(((n - 1 - i) * 7919) % 1000, points.at(i).x());
+			}
+			Point key = arena.allocateLayout(Point.class);
+			key.y(1234);
+			assertEquals(n - 1 - 1234, LayoutArrays.binarySearch(points, key, byYDescending));
+
+			LayoutArrays.parallelSortByKey(points, p -> -p.x());
+			LayoutArrays.sort(points, Layout.getComparator(Point.class, "x", "y"));
+			for (int i = 1; i < n; i++) {
+				assertTrue((points.at(i - 1).x() < points.at(i).x())
+						|| ((points.at(i - 1).x() == points.at(i).x()) && (points.at(i - 1).y() < points.at(i).y())));
+			}
+
+			int[] ints = new int[n];
+			for (int i = 0; i < n; i++) {
+				ints[i] = (i * 104729) ^ (i << 13);
+			}
+			IntArray1D ia = arena.allocatePrimArray1D(int.class, n);
+			ia.put(0, ints, 0, n);
+			ia.parallelSort();
+			Arrays.sort(ints);
+			int[] sorted = new int[n];
+			ia.get(0, sorted, 0, n);
+			assertArrayEquals(ints, sorted);
+			assertEquals(777, ia.binarySearch(ints[777]));
+			assertTrue(ia.binarySearch(java.lang.Integer.MIN_VALUE) < 0);
+
+			/* many equal elements */
+			ia.fill(3);
+			ia.put(100, 2);
+			ia.sort();
+			assertEquals(2, ia.at(0));
+			assertEquals(3, ia.at(n - 1));
+		}
+
+		double[] doubles = { 3.5, java.lang.Double.NaN, -0.0, 0.0, -1e300, java.lang.Double.NEGATIVE_INFINITY, 2.0, -0.0 };
+		DoubleArray1D da = LayoutType.getPrimArray1D(double.class, doubles.length);
+		da.bindLocation(new Location(new byte[(int)da.sizeof()]));
+		da.put(0, doubles, 0, doubles.length);
+		da.sort();
+		Arrays.sort(doubles);
+		for (int i = 0; i < doubles.length; i++) {
+			assertEquals(java.lang.Double.doubleToLongBits(doubles[i]), java.lang.Double.doubleToLongBits(da.at(i)));
+		}
+		assertEquals(-(5 + 1), da.binarySearch(1.0));
+		assertEquals(7, da.binarySearch(java.lang.Double.NaN));
+
+		ShortArray1D sa = LayoutType.getPrimArray1D(short.class, 5);
+		sa.bindLocation(new Location(new byte[(int)sa.sizeof()]));
+		sa.put(0, new short[] { 5, -32768, 32767, 0, -1 }, 0, 5);
+		sa.parallelSort();
+		short[] shorts = new short[5];
+		sa.get(0, shorts, 0, 5);
+		assertArrayEquals(new short[] { -32768, -1, 0, 5, 32767 }, shorts);
+	}
+
+	@Test
+	public void testViewPool() {
+		System.out.println("== testViewPool ==");
+		byte[] data = new byte[16];
+		Point p = f.acquire(Point.class, new Location(data));
+		p.x(7);
+		f.release(p);
+		Point q = f.acquire(Point.class, new Location(new Location(data), 8));
+		assertSame(p, q);
+		q.y(9);
+		assertEquals(9, data[12]);
+		Point r = f.acquire(Point.class, new Location(data));
+		assertNotSame(q, r);
+		assertEquals(7, r.x());
+		f.release(q);
+		f.release(r);
+
+		f.setPoolDebug(true);
+		try {
+			Point leaked = f.acquire(Point.class, new Location(data));
+			Point released = f.acquire(Point.class, new Location(new Location(data), 8));
+			assertEquals(2, f.getAcquiredViewCount());
+			f.release(released);
+			assertEquals(1, f.getAcquiredViewCount());
+			try {
+				f.release(released);
+				fail("double release not detected");
+			} catch (IllegalStateException e) {
+			}
+			try {
+				f.checkViewLeaks();
+				fail("leak not detected");
+			} catch (IllegalStateException e) {
+				assertTrue(e.getMessage().startsWith("1 "));
+				assertNotNull(e.getCause());
+			}
+			assertEquals(0, f.getAcquiredViewCount());
+			f.checkViewLeaks();
+			f.release(leaked);
+		} finally {
+			f.setPoolDebug(false);
+		}
+	}
+
+	@Test
+	public void testRebindHeapAndNative() {
+		System.out.println("== testRebindHeapAndNative ==");
+		Point p = Layout.getLayout(Point.class);
+		p.bindLocation(new Location(new byte[(int)p.sizeof()]));
+		p.x(1);
+		IntArray1D ia = LayoutType.getPrimArray1D(int.class, 4);
+		ia.bindLocation(new Location(new byte[(int)ia.sizeof()]));
+		ia.put(3, 5);
+		try (Arena arena = new Arena()) {
+			Point q = Layout.getLayout(Point.class);
+			q.bindLocation(arena.allocate(q.sizeof()));
+			q.x(2);
+			p.bindLocation(new Location(arena.allocate(16), 0));
+			p.copyFrom(q);
+			assertEquals(2, p.x());
+			assertEquals(q, p);
+
+			Location loc = arena.allocate(ia.sizeof() * 2);
+			IntArray1D native1D = LayoutType.getPrimArray1D(int.class, 4);
+			native1D.bindLocation(loc);
+			native1D.fill(7);
+			assertEquals(5, ia.at(3));
+			ia.bindLocation(new Location(loc, 4));
+			assertEquals(7, ia.at(2));
+			ia.put(2, 9);
+			assertEquals(9, native1D.at(3));
+			assertEquals(28, native1D.sum() - 9 + 7);
+		}
+	}
+
+	@Test
+	public void testUnboundAccess() {
+		System.out.println("== testUnboundAccess ==");
+		Point p = Layout.getLayout(Point.class);
+		try {
+			p.x();
+			fail("read from an unbound layout");
+		} catch (NullPointerException e) {
+		}
+		try {
+			p.y(1);
+			fail("write to an unbound layout");
+		} catch (NullPointerException e) {
+		}
+		try {
+			p.hashCode();
+			fail("hash of an unbound layout");
+		} catch (NullPointerException e) {
+		}
+		Point q = Layout.getLayout(Point.class);
+		q.bindLocation(new Location(new byte[(int)q.sizeof()]));
+		try {
+			q.copyFrom(p);
+			fail("copy from an unbound layout");
+		} catch (NullPointerException e) {
+		}
+		/* a location that is too small is not bound */
+		p.bindLocation(new Location(new byte[2]));
+		try {
+			p.x();
+			fail("read from a layout whose location did not fit");
+		} catch (NullPointerException e) {
+		}
+		IntArray1D ia = LayoutType.getPrimArray1D(int.class, 4);
+		try {
+			ia.at(0);
+			fail("read from an unbound array");
+		} catch (NullPointerException e) {
+		}
+		try {
+			ia.fill(1);
+			fail("fill an unbound array");
+		} catch (NullPointerException e) {
+		}
+	}
+
+	@Test
+	public void testByteOrder() {
+		System.out.println("== testByteOrder ==");
+		NetHeader h = Layout.getLayout(NetHeader.class);
+		assertEquals(29, h.sizeof());
+		byte[] data = new byte[(int)h.sizeof()];
+		h.bindLocation(new Location(data));
+		h.version((byte)1);
+		h.port((char)0x1f90);
+		h.length((short)-2);
+		h.seq(0x01020304);
+		h.stamp(0x0102030405060708L);
+		h.ratio(1.5f);
+		h.value(-2.25);
+
+		ByteBuffer bb = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+		assertEquals(1, bb.get(0));
+		assertEquals(0x1f90, bb.getChar(1));
+		assertEquals(-2, bb.getShort(3));
+		assertEquals(0x01020304, bb.getInt(5));
+		assertEquals(0x0102030405060708L, bb.order(ByteOrder.LITTLE_ENDIAN).getLong(9));
+		bb.order(ByteOrder.BIG_ENDIAN);
+		assertEquals(1.5f, bb.getFloat(17), 0.0f);
+		assertEquals(-2.25, bb.getDouble(21), 0.0);
+
+		assertEquals((char)0x1f90, h.port());
+		assertEquals(-2, h.length());
+		assertEquals(0x01020304, h.seq());
+		assertEquals(0x0102030405060708L, h.stamp());
+		assertEquals(1.5f, h.ratio(), 0.0f);
+		assertEquals(-2.25, h.value(), 0.0);
+
+		IntArray1D ia = LayoutType.getPrimArray1D(int.class, 3);
+		byte[] raw = new byte[(int)ia.sizeof()];
+		ByteBuffer.wrap(raw).order(ByteOrder.BIG_ENDIAN).putInt(0, 1).putInt(4, -7).putInt(8, 0x7f000001);
+		ia.bindLocation(new Location(raw));
+		if (ByteOrder.LITTLE_ENDIAN == ByteOrder.nativeOrder()) {
+			assertEquals(0x01000000, ia.at(0));
+		}
+		ia.reverseBytes();
+		assertEquals(1, ia.at(0));
+		assertEquals(-7, ia.at(1));
+		assertEquals(0x7f000001, ia.at(2));
+
+		DoubleArray1D da = LayoutType.getPrimArray1D(double.class, 2);
+		byte[] rawDoubles = new byte[(int)da.sizeof()];
+		ByteBuffer.wrap(rawDoubles).order(ByteOrder.BIG_ENDIAN).putDouble(0, 3.5).putDouble(8, java.lang.Double.NaN);
+		da.bindLocation(new Location(rawDoubles));
+		da.reverseBytes();
+		assertEquals(3.5, da.at(0), 0.0);
+		assertTrue(java.lang.Double.isNaN(da.at(1)));
+		da.reverseBytes();
+		assertEquals(3.5, ByteBuffer.wrap(rawDoubles).order(ByteOrder.BIG_ENDIAN).getDouble(0), 0.0);
+	}
+
+	@Test
+	public void testByteBufferBinding() {
+		System.out.println("== testByteBufferBinding ==");
+		ByteBuffer direct = ByteBuffer.allocateDirect(64).order(ByteOrder.nativeOrder());
+		direct.putInt(8, 3).putInt(12, 4);
+		Point p = f.fromByteBuffer(Point.class, direct, 8);
+		assertEquals(3, p.x());
+		assertEquals(4, p.y());
+		p.y(40);
+		assertEquals(40, direct.getInt(12));
+
+		Array1D<Point> points = f.fromByteBuffer(Point.class, direct, 16, 6);
+		points.at(5).x(7);
+		assertEquals(7, direct.getInt(16 + 40));
+		try {
+			f.fromByteBuffer(Point.class, direct, 16, 7);
+			fail("array past the buffer limit");
+		} catch (IndexOutOfBoundsException e) {
+		}
+
+		/* heap buffer with a non-zero array offset */
+		byte[] backing = new byte[32];
+		ByteBuffer heap = ByteBuffer.wrap(backing, 4, 20).slice().order(ByteOrder.nativeOrder());
+		heap.putInt(8, 11);
+		Point q = f.fromByteBuffer(Point.class, heap, 8);
+		assertEquals(11, q.x());
+		q.y(12);
+		assertEquals(12, heap.getInt(12));
+		assertEquals(12, ByteBuffer.wrap(backing).order(ByteOrder.nativeOrder()).getInt(16));
+		try {
+			f.fromByteBuffer(Point.class, heap.asReadOnlyBuffer(), 0);
+			fail("read-only heap buffer has no array");
+		} catch (UnsupportedOperationException e) {
+		}
+
+		ByteArray1D bytes = f.fromByteBuffer(heap);
+		assertEquals(20, bytes.getLength());
+		assertEquals(heap.get(8), bytes.at(8));
+
+		/* asByteBuffer of heap and off-heap layouts */
+		ByteBuffer view = q.asByteBuffer();
+		assertEquals(8, view.capacity());
+		assertEquals(12, view.getInt(4));
+		try (Arena arena = new Arena()) {
+			Point r = arena.allocateLayout(Point.class);
+			r.x(21);
+			ByteBuffer rb = r.asByteBuffer();
+			assertTrue(rb.isDirect());
+			assertEquals(21, rb.getInt(0));
+			rb.putInt(4, 22);
+			assertEquals(22, r.y());
+			Point s = f.fromByteBuffer(Point.class, rb, 0);
+			assertEquals(r, s);
+		}
+	}
+
+	@Test
+	public void testChannelIO() throws Exception {
+		System.out.println("== testChannelIO ==");
+		/* byte array copies honour the offset of a heap location */
+		byte[] data = new byte[24];
+		Point p = Layout.getLayout(Point.class);
+		p.bindLocation(new Location(new Location(data), 8));
+		p.x(5);
+		p.y(6);
+		byte[] out = new byte[12];
+		assertEquals(8, p.writeToByteArray(0, out, 2, 12));
+		assertEquals(5, ByteBuffer.wrap(out).order(ByteOrder.nativeOrder()).getInt(2));
+		assertEquals(4, p.writeToByteArray(4, out, 0, 12));
+		assertEquals(6, ByteBuffer.wrap(out).order(ByteOrder.nativeOrder()).getInt(0));
+		assertEquals(-1, p.writeToByteArray(8, out, 0, 12));
+		ByteBuffer.wrap(out).order(ByteOrder.nativeOrder()).putInt(0, 9);
+		assertEquals(4, p.readFromByteArray(4, out, 0, 4));
+		assertEquals(9, p.y());
+		assertEquals(9, ByteBuffer.wrap(data).order(ByteOrder.nativeOrder()).getInt(12));
+		try {
+			p.writeToByteArray(0, out, 8, 8);
+			fail("copy past the end of the array");
+		} catch (IndexOutOfBoundsException e) {
+		}
+		Point tooBig = Layout.getLayout(Point.class);
+		Location tail = new Location(new Location(data), 20);
+		assertFalse(tail.checkDataFits(tooBig.sizeof()));
+
+		Path file = Files.createTempFile("layout", ".bin");
+		try (Arena arena = new Arena();
+				FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			final int n = 100000;
+			Array1D<Point> points = arena.allocateArray1D(Point.class, n);
+			for (int i = 0; i < n; i++) {
+				points.at(i).x(i);
+				points.at(i).y(-i);
+			}
+			assertEquals(points.sizeof(), points.writeTo(channel));
+			assertEquals(points.sizeof(), channel.position());
+			assertEquals(p.sizeof(), p.transferTo(channel, points.sizeof()));
+			assertEquals(points.sizeof(), channel.position());
+			assertEquals(points.sizeof() + p.sizeof(), channel.size());
+
+			channel.position(0);
+			Array1D<Point> copy = Array1D.getArray1D(Point.class, n);
+			copy.bindLocation(new Location(new byte[(int)copy.sizeof()]));
+			assertEquals(copy.sizeof(), copy.readFrom(channel));
+			assertEquals(points.at(n - 1), copy.at(n - 1));
+			assertEquals(-12345, copy.at(12345).y());
+
+			Point last = arena.allocateLayout(Point.class);
+			assertEquals(last.sizeof(), last.readFrom(channel));
+			assertEquals(5, last.x());
+			assertEquals(9, last.y());
+			try {
+				last.readFrom(channel);
+				fail("read past the end of the file");
+			} catch (java.io.EOFException e) {
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testRecordReaderWriter() throws Exception {
+		System.out.println("== testRecordReaderWriter ==");
+		Path file = Files.createTempFile("records", ".bin");
+		try (Arena arena = new Arena()) {
+			final int n = 10000;
+			Point p = arena.allocateLayout(Point.class);
+			Array1D<Point> tail = arena.allocateArray1D(Point.class, 5);
+			for (int i = 0; i < 5; i++) {
+				tail.at(i).x(n + i);
+				tail.at(i).y(-(n + i));
+			}
+			try (RecordWriter<Point> writer = new RecordWriter<>(Point.class, Files.newOutputStream(file), 64)) {
+				writer.setMaxDelay(1, TimeUnit.SECONDS);
+				for (int i = 0; i < n; i++) {
+					if (0 == (i % 2)) {
+						Point r = writer.append();
+						assertEquals(0, r.x());
+						r.x(i);
+						r.y(-i);
+					} else {
+						p.x(i);
+						p.y(-i);
+						writer.write(p);
+					}
+				}
+				writer.flush();
+				assertEquals(n * p.sizeof(), Files.size(file));
+				writer.write(tail);
+				assertEquals(n + 5, writer.getRecordCount());
+			}
+			assertEquals((n + 5) * p.sizeof(), Files.size(file));
+
+			final int[] next = { 0 };
+			final Point[] view = { null };
+			try (RecordReader<Point> reader = new RecordReader<>(Point.class, Files.newInputStream(file), 100)) {
+				assertEquals(n + 5, reader.forEach(r -> {
+					/* one view walks every batch */
+					if (null == view[0]) {
+						view[0] = r;
+					}
+					assertSame(view[0], r);
+					assertEquals(next[0], r.x());
+					assertEquals(-next[0], r.y());
+					next[0]++;
+				}));
+				assertNull(reader.next());
+				assertEquals(n + 5, reader.getRecordCount());
+			}
+
+			/* a truncated record is reported after the complete records */
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.truncate(3 * p.sizeof() + 2);
+			}
+			try (RecordReader<Point> reader = new RecordReader<>(Point.class, FileChannel.open(file), 2)) {
+				Array1D<Point> batch = reader.next();
+				assertEquals(2, batch.getLength());
+				batch = reader.next();
+				assertEquals(1, batch.getLength());
+				assertEquals(2, batch.at(0).x());
+				try {
+					reader.next();
+					fail("stream ends inside a record");
+				} catch (java.io.EOFException e) {
+				}
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
 }
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.user.types;
+
+import com.ibm.layout.Array1D;
+import com.ibm.layout.Layout;
+import com.ibm.layout.LayoutDesc;
+
+/**
+ * Aligned layout with nested aligned layouts
+ * 
+ * <pre>
+ * struct AlignedOuter {
+ *     jchar c;                   // +0
+ *     struct AlignedRecord r;    // +8
+ *     jint i;                    // +32
+ *     struct AlignedRecord a[2]; // +40
+ * };                             // sizeof 88
+ * </pre>
+ */
+@LayoutDesc(value = { "c:jchar:2", "r:AlignedRecord:24", "i:jint:4", "a:AlignedRecord[2]:48" }, aligned = true)
+public interface AlignedOuter extends Layout {
+	public abstract char c();
+
+	public abstract AlignedRecord r();
+
+	public abstract int i();
+
+	public abstract Array1D<AlignedRecord> a();
+
+	public abstract void c(char val);
+
+	public abstract void i(int val);
+}
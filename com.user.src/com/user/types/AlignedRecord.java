@@ -0,0 +1,37 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.user.types;
+
+import com.ibm.layout.Layout;
+import com.ibm.layout.LayoutDesc;
+
+/**
+ * Naturally aligned layout
+ * 
+ * <pre>
+ * struct AlignedRecord {
+ *     jbyte b;   // +0
+ *     jlong l;   // +8
+ *     jshort s;  // +16
+ * };             // sizeof 24
+ * </pre>
+ */
+@LayoutDesc(value = { "b:jbyte:1", "l:jlong:8", "s:jshort:2" }, aligned = true)
+public interface AlignedRecord extends Layout {
+	public abstract byte b();
+
+	public abstract long l();
+
+	public abstract short s();
+
+	public abstract void b(byte val);
+
+	public abstract void l(long val);
+
+	public abstract void s(short val);
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.user.types;
+
+import com.ibm.layout.Layout;
+import com.ibm.layout.LayoutDesc;
+
+/**
+ * Layout with atomic accessors, for sharing between threads
+ */
+@LayoutDesc(value = { "count:jint:4", "total:jlong:8" }, aligned = true)
+public interface Counter extends Layout {
+	public abstract int count();
+
+	public abstract long total();
+
+	public abstract void count(int val);
+
+	public abstract void total(long val);
+
+	public abstract int countVolatile();
+
+	public abstract void countVolatile(int val);
+
+	public abstract void countOrdered(int val);
+
+	public abstract boolean compareAndSetCount(int expect, int update);
+
+	public abstract int getAndAddCount(int delta);
+
+	public abstract int getAndSetCount(int val);
+
+	public abstract long totalVolatile();
+
+	public abstract boolean compareAndSetTotal(long expect, long update);
+
+	public abstract long getAndAddTotal(long delta);
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ *  Copyright (c) 2015 IBM Corporation.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package com.user.types;
+
+import com.ibm.layout.Layout;
+import com.ibm.layout.LayoutDesc;
+import com.ibm.layout.LayoutDesc.Endian;
+
+/**
+ * Wire-format header in network byte order, with one little-endian field
+ */
+@LayoutDesc(value = { "version:jbyte:1", "port:jchar:2", "length:jshort:2", "seq:jint:4", "stamp:jlong_le:8",
+		"ratio:jfloat:4", "value:jdouble:8" }, byteOrder = Endian.BIG)
+public interface NetHeader extends Layout {
+	public abstract byte version();
+
+	public abstract char port();
+
+	public abstract short length();
+
+	public abstract int seq();
+
+	public abstract long stamp();
+
+	public abstract float ratio();
+
+	public abstract double value();
+
+	public abstract void version(byte val);
+
+	public abstract void port(char val);
+
+	public abstract void length(short val);
+
+	public abstract void seq(int val);
+
+	public abstract void stamp(long val);
+
+	public abstract void ratio(float val);
+
+	public abstract void value(double val);
+}